@@ -0,0 +1,36 @@
+package com.wholeyear.model;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.wholeyear.util.BenchmarkDates;
+import com.wholeyear.util.Definition;
+
+import org.openjdk.jmh.annotations.*;
+
+/** Board.getBoardCellsForDate(), the body of GET /api/board, one date per operation. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BoardBenchmark {
+
+    @Param({BenchmarkDates.ALL})
+    public String dates;
+
+    private Board board;
+    private List<int[]> monthDays;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        board = Definition.createWholeYearPuzzleBoard();
+        monthDays = BenchmarkDates.parse(dates);
+    }
+
+    @Benchmark
+    public List<BoardCell> boardCellsForDate() {
+        int[] monthDay = monthDays.get(next);
+        next = next + 1 == monthDays.size() ? 0 : next + 1;
+        return board.getBoardCellsForDate(BenchmarkDates.monthLabel(monthDay), BenchmarkDates.dayLabel(monthDay));
+    }
+}
@@ -0,0 +1,72 @@
+package com.wholeyear.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.wholeyear.util.Definition;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Piece orientations. They are computed once in the Piece constructor, so
+ * {@code orientations} measures construction plus the (cached) lookup for all
+ * nine pieces, and {@code cachedOrientations} the lookup alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PieceBenchmark {
+
+    private List<String> ids;
+    private List<List<String>> templates;
+    private List<Piece> pieces;
+
+    @Setup
+    public void setUp() {
+        pieces = Definition.loadAllPieces();
+        ids = new ArrayList<>();
+        templates = new ArrayList<>();
+        for (Piece piece : pieces) {
+            ids.add(piece.getId());
+            templates.add(template(piece.getCanonicalCells()));
+        }
+    }
+
+    /** ASCII template ('#'/'.') of a normalised cell list. */
+    private static List<String> template(List<Cell> cells) {
+        int rows = 0, cols = 0;
+        for (Cell c : cells) {
+            rows = Math.max(rows, c.getRow() + 1);
+            cols = Math.max(cols, c.getCol() + 1);
+        }
+        char[][] grid = new char[rows][cols];
+        for (char[] row : grid) {
+            Arrays.fill(row, '.');
+        }
+        for (Cell c : cells) {
+            grid[c.getRow()][c.getCol()] = '#';
+        }
+        List<String> lines = new ArrayList<>();
+        for (char[] row : grid) {
+            lines.add(new String(row));
+        }
+        return lines;
+    }
+
+    @Benchmark
+    public void orientations(Blackhole bh) {
+        for (int i = 0; i < ids.size(); i++) {
+            bh.consume(new Piece(ids.get(i), templates.get(i)).generateAllOrientations());
+        }
+    }
+
+    @Benchmark
+    public void cachedOrientations(Blackhole bh) {
+        for (Piece piece : pieces) {
+            bh.consume(piece.generateAllOrientations());
+        }
+    }
+}
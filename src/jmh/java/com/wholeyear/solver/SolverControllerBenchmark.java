@@ -0,0 +1,69 @@
+package com.wholeyear.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.wholeyear.util.BenchmarkDates;
+import com.wholeyear.util.PlacementDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The POST /api/solve handler, called directly (no HTTP), one date per operation.
+ *
+ *   • solveUncached — solver.cache.warmup=NONE: date parsing, solve and DTO mapping every call
+ *   • solveCached   — LAZY cache, warmed in setup: the steady-state cost of a repeat date
+ *
+ * Both include recording the solver.* meters into a SimpleMeterRegistry.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SolverControllerBenchmark {
+
+    @Param({BenchmarkDates.ALL})
+    public String dates;
+
+    private SolverController uncached;
+    private SolverController cached;
+    private List<String> isoDates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        uncached = controller(SolutionCache.WarmupPolicy.NONE);
+        cached = controller(SolutionCache.WarmupPolicy.LAZY);
+        isoDates = new ArrayList<>();
+        for (int[] monthDay : BenchmarkDates.parse(dates)) {
+            isoDates.add(BenchmarkDates.isoDate(monthDay));
+        }
+        for (String date : isoDates) {
+            cached.solve(date);
+        }
+    }
+
+    private static SolverController controller(SolutionCache.WarmupPolicy policy) {
+        PuzzleCatalog catalog = new PuzzleCatalog("", "whole-year", policy);
+        return new SolverController(catalog, new SolverMetrics(new SimpleMeterRegistry(), catalog),
+                new RangeSolver(1, 1, 366), new SolutionStreamer(1, 60_000, 1), 3600);
+    }
+
+    private String nextDate() {
+        String date = isoDates.get(next);
+        next = next + 1 == isoDates.size() ? 0 : next + 1;
+        return date;
+    }
+
+    @Benchmark
+    public List<PlacementDto> solveUncached() {
+        return uncached.solve(nextDate());
+    }
+
+    @Benchmark
+    public List<PlacementDto> solveCached() {
+        return cached.solve(nextDate());
+    }
+}
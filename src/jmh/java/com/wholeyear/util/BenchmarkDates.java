@@ -0,0 +1,67 @@
+package com.wholeyear.util;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.Cell;
+import com.wholeyear.solver.CompiledPuzzle;
+
+/**
+ * The dates a benchmark cycles through, one per operation, so each score is the
+ * average over those dates rather than the cost of one easy (or hard) date.
+ *
+ * Spec (the benchmarks' "dates" @Param):
+ *   • "all"               — every day of a leap year, Jan 1 .. Dec 31 (366 dates)
+ *   • "12-25,02-29,..."   — just those MM-DD dates
+ */
+public final class BenchmarkDates {
+
+    public static final String ALL = "all";
+
+    private BenchmarkDates() {
+    }
+
+    /** [month (1–12), day (1–31)] pairs for the spec. */
+    public static List<int[]> parse(String spec) {
+        List<int[]> dates = new ArrayList<>();
+        if (ALL.equals(spec)) {
+            for (LocalDate d = LocalDate.of(2024, 1, 1); d.getYear() == 2024; d = d.plusDays(1)) {
+                dates.add(new int[]{d.getMonthValue(), d.getDayOfMonth()});
+            }
+            return dates;
+        }
+        for (String part : spec.split(",")) {
+            String[] md = part.trim().split("-");
+            if (md.length != 2) {
+                throw new IllegalArgumentException("Expected MM-DD, got " + part);
+            }
+            dates.add(new int[]{Integer.parseInt(md[0]), Integer.parseInt(md[1])});
+        }
+        return dates;
+    }
+
+    /** YYYY-MM-DD request parameter for a [month, day] pair (leap year, so Feb 29 is valid). */
+    public static String isoDate(int[] monthDay) {
+        return String.format("2024-%02d-%02d", monthDay[0], monthDay[1]);
+    }
+
+    public static String monthLabel(int[] monthDay) {
+        return CompiledPuzzle.monthLabel(monthDay[0]);
+    }
+
+    public static String dayLabel(int[] monthDay) {
+        return String.valueOf(monthDay[1]);
+    }
+
+    /** A copy of the Whole Year board with the date's month and day cells set as targets. */
+    public static Board wholeYearBoardFor(int[] monthDay) {
+        Board board = Definition.createWholeYearPuzzleBoard();
+        Cell m = board.findCellByLabel(monthLabel(monthDay));
+        Cell d = board.findCellByLabel(dayLabel(monthDay));
+        board.setTarget(m.getRow(), m.getCol());
+        board.setTarget(d.getRow(), d.getCol());
+        return board;
+    }
+}
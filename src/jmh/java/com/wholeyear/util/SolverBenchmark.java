@@ -0,0 +1,110 @@
+package com.wholeyear.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.Piece;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Placement generation and the DLX engine, one date per operation.
+ *
+ *   • generatePlacements       — Solver.generateAllPlacements() from piece geometry
+ *   • generatePlacementsIndexed — the same through a PlacementIndex
+ *   • buildMatrix              — ExactCoverSolver construction from a date's placements
+ *   • search                   — ExactCoverSolver.solve() on a prebuilt matrix
+ *   • count                    — ExactCoverSolver.countSolutions() on a prebuilt matrix
+ *   • countProfiled            — the same with a SearchProfile installed; compare with
+ *                                count to see what profiling costs (and that off is free)
+ *   • solveEndToEnd            — Solver.solve(): placements, matrix and search
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SolverBenchmark {
+
+    @Param({BenchmarkDates.ALL})
+    public String dates;
+
+    private List<Piece> pieces;
+    private PlacementIndex placementIndex;
+    private List<Board> boards;
+    private List<List<Placement>> placements;
+    private List<ExactCoverSolver> matrices;
+    private List<ExactCoverSolver> profiledMatrices;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        pieces = Definition.loadAllPieces();
+        placementIndex = new PlacementIndex(Definition.createWholeYearPuzzleBoard(), pieces);
+        boards = new ArrayList<>();
+        placements = new ArrayList<>();
+        matrices = new ArrayList<>();
+        profiledMatrices = new ArrayList<>();
+        for (int[] monthDay : BenchmarkDates.parse(dates)) {
+            Board board = BenchmarkDates.wholeYearBoardFor(monthDay);
+            Solver solver = new Solver(board, pieces);
+            List<Placement> datePlacements = solver.generateAllPlacements();
+            boards.add(board);
+            placements.add(datePlacements);
+            matrices.add(solver.buildDlx(board.getAllFillableCells(), datePlacements));
+            ExactCoverSolver profiled = solver.buildDlx(board.getAllFillableCells(), datePlacements);
+            profiled.setProfile(new SearchProfile(board.getAllFillableCells().size() + pieces.size()));
+            profiledMatrices.add(profiled);
+        }
+    }
+
+    private int nextDate() {
+        int i = next;
+        next = i + 1 == boards.size() ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public List<Placement> generatePlacements() {
+        return new Solver(boards.get(nextDate()), pieces).generateAllPlacements();
+    }
+
+    @Benchmark
+    public List<Placement> generatePlacementsIndexed() {
+        Solver solver = new Solver(boards.get(nextDate()), pieces);
+        solver.setPlacementIndex(placementIndex);
+        return solver.generateAllPlacements();
+    }
+
+    @Benchmark
+    public ExactCoverSolver buildMatrix() {
+        int i = nextDate();
+        Board board = boards.get(i);
+        return new Solver(board, pieces).buildDlx(board.getAllFillableCells(), placements.get(i));
+    }
+
+    @Benchmark
+    public List<Integer> search() {
+        // solve() restores the matrix before returning, so prebuilt matrices can be reused
+        return matrices.get(nextDate()).solve();
+    }
+
+    @Benchmark
+    public long count() {
+        return matrices.get(nextDate()).countSolutions();
+    }
+
+    @Benchmark
+    public long countProfiled() {
+        // the profile keeps accumulating across invocations; only its cost matters here
+        return profiledMatrices.get(nextDate()).countSolutions();
+    }
+
+    @Benchmark
+    public void solveEndToEnd(Blackhole bh) {
+        Solver solver = new Solver(new Board(boards.get(nextDate())), pieces);
+        solver.setPlacementIndex(placementIndex);
+        bh.consume(solver.solve());
+    }
+}
@@ -1,5 +1,8 @@
 package com.wholeyear.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 /** 
  * Immutable helper representing a coordinate on the board.
  * (We do not store the “label” here—labels are kept in Board.)
@@ -8,7 +11,8 @@ public class Cell {
     private final int row;
     private final int col;
 
-    public Cell(int row, int col) {
+    @JsonCreator
+    public Cell(@JsonProperty("row") int row, @JsonProperty("col") int col) {
         this.row = row;
         this.col = col;
     }
@@ -9,14 +9,21 @@ import java.util.stream.Collectors;
  *  - canonicalCells: list of (row,col) coords, normalized so min row=0, min col=0.
  *  - originalHeight/originalWidth: bounding‐box size of the canonical template.
  *
- * Once constructed, you can ask for all distinct orientations (rotations/flips)
- * as lists of relative Cells (each normalized so its min‐row/min‐col=0).
+ * All distinct orientations (rotations/flips) are computed once in the constructor
+ * and kept immutably, both as lists of relative Cells (each normalized so its
+ * min‐row/min‐col=0) and as packed int[] offsets for hot loops.
  */
 public class Piece {
     private final String id;
     private final List<Cell> canonicalCells;
     private final int originalHeight, originalWidth;
 
+    // Distinct orientations, parallel arrays indexed by orientation
+    private final List<List<Cell>> orientations;
+    private final int[][] orientationOffsets;   // {r0, c0, r1, c1, ...}
+    private final int[] orientationHeights;
+    private final int[] orientationWidths;
+
     /**
      * @param id        A unique name for this piece
      * @param asciiTpl  A List<String> where each string is the same length.
@@ -64,6 +71,29 @@ public class Piece {
         int maxC = norm.stream().mapToInt(Cell::getCol).max().orElse(0);
         this.originalHeight = maxR + 1;
         this.originalWidth = maxC + 1;
+
+        // 4) Compute every distinct orientation once
+        List<int[]> offsets = computeOrientationOffsets(norm, originalHeight, originalWidth);
+        int count = offsets.size();
+        List<List<Cell>> orients = new ArrayList<>(count);
+        this.orientationOffsets = new int[count][];
+        this.orientationHeights = new int[count];
+        this.orientationWidths = new int[count];
+        for (int o = 0; o < count; o++) {
+            int[] offs = offsets.get(o);
+            List<Cell> cells = new ArrayList<>(offs.length / 2);
+            int h = 0, w = 0;
+            for (int i = 0; i < offs.length; i += 2) {
+                cells.add(new Cell(offs[i], offs[i + 1]));
+                h = Math.max(h, offs[i] + 1);
+                w = Math.max(w, offs[i + 1] + 1);
+            }
+            orients.add(Collections.unmodifiableList(cells));
+            orientationOffsets[o] = offs;
+            orientationHeights[o] = h;
+            orientationWidths[o] = w;
+        }
+        this.orientations = Collections.unmodifiableList(orients);
     }
 
     public String getId() {
@@ -83,83 +113,113 @@ public class Piece {
     }
 
     /**
-     * Rotate a shape (list of Cells) 90° clockwise around (0,0)
-     * given that the shape’s bounding‐box is (height × width).
-     * NewRow = oldCol; NewCol = (height-1) - oldRow.
+     * All distinct orientations (rotations + optional horizontal flip) of this piece.
+     * Each orientation is an unmodifiable List<Cell> normalized so that its
+     * minRow/minCol = 0. Computed once at construction; every call returns the same list.
      */
-    private static List<Cell> rotate90(List<Cell> shape, int height, int width) {
-        List<Cell> out = new ArrayList<>();
-        for (Cell rc : shape) {
-            int r = rc.getRow(), c = rc.getCol();
-            int nr = c;
-            int nc = (height - 1 - r);
-            out.add(new Cell(nr, nc));
-        }
-        return out;
+    public List<List<Cell>> generateAllOrientations() {
+        return orientations;
+    }
+
+    /** Number of distinct orientations. */
+    public int getOrientationCount() {
+        return orientationOffsets.length;
     }
 
     /**
-     * Generate all distinct orientations (rotations + optional horizontal flip) of this piece.
-     * Each orientation is returned as a List<Cell> normalized so that its minRow/minCol = 0.
+     * Orientation {@code o} as packed offsets {r0, c0, r1, c1, ...}, in the same cell
+     * order as generateAllOrientations().get(o). The array is shared: do not modify it.
      */
-    public List<List<Cell>> generateAllOrientations() {
-        List<List<Cell>> variants = new ArrayList<>();
-        Set<String> seenSignatures = new HashSet<>();
+    public int[] getOrientationOffsets(int o) {
+        return orientationOffsets[o];
+    }
+
+    /** Bounding‐box height of orientation {@code o}. */
+    public int getOrientationHeight(int o) {
+        return orientationHeights[o];
+    }
 
-        // We’ll start from the canonicalCells (“no flip, no rotation”), then:
-        // for flip=0 (no flip) and flip=1 (horizontal flip), apply 4 rotations each.
+    /** Bounding‐box width of orientation {@code o}. */
+    public int getOrientationWidth(int o) {
+        return orientationWidths[o];
+    }
+
+    /**
+     * Generate all distinct orientations of a normalized shape as packed offsets.
+     * For flip=0 (no flip) and flip=1 (horizontal flip), apply 4 rotations each;
+     * duplicates are detected by a packed signature of the occupied cells.
+     */
+    private static List<int[]> computeOrientationOffsets(List<Cell> canonical, int height, int width) {
+        int n = canonical.size();
+        int[] baseR = new int[n];
+        int[] baseC = new int[n];
+        for (int i = 0; i < n; i++) {
+            baseR[i] = canonical.get(i).getRow();
+            baseC[i] = canonical.get(i).getCol();
+        }
+
+        // Rotations keep the shape inside a side × side square, so one bit per
+        // square cell is an exact signature whenever it fits in a long.
+        int side = Math.max(height, width);
+        boolean packed = side * side <= Long.SIZE;
+        Set<Long> seenSignatures = new HashSet<>();
+        Set<BitSet> seenWide = new HashSet<>();
+
+        List<int[]> variants = new ArrayList<>();
+        int[] r = new int[n];
+        int[] c = new int[n];
         for (int flip = 0; flip < 2; flip++) {
-            List<Cell> flipped = new ArrayList<>();
-            if (flip == 1) {
-                // horizontal flip: newCol = (originalWidth - 1 - oldCol)
-                for (Cell rc : canonicalCells) {
-                    flipped.add(new Cell(rc.getRow(), originalWidth - 1 - rc.getCol()));
-                }
-            } else {
-                // no flip: just copy
-                flipped.addAll(canonicalCells);
+            for (int i = 0; i < n; i++) {
+                r[i] = baseR[i];
+                // horizontal flip: newCol = (width - 1 - oldCol)
+                c[i] = flip == 1 ? width - 1 - baseC[i] : baseC[i];
             }
 
-            // Now apply 4 rotations to `flipped`
-            List<Cell> currentShape = flipped;
-            int curH = originalHeight;
-            int curW = originalWidth;
+            int curH = height;
             for (int rot = 0; rot < 4; rot++) {
-                // 1) Normalize currentShape so minRow=0, minCol=0
-                int minR2 = currentShape.stream().mapToInt(Cell::getRow).min().orElse(0);
-                int minC2 = currentShape.stream().mapToInt(Cell::getCol).min().orElse(0);
-                List<Cell> norm = currentShape.stream()
-                    .map(rc -> new Cell(rc.getRow() - minR2, rc.getCol() - minC2))
-                    .collect(Collectors.toList());
-
-                // 2) Build a “signature” (sorted coords as a single string) to detect duplicates
-                List<Cell> sorted = new ArrayList<>(norm);
-                sorted.sort(Comparator
-                    .comparing(Cell::getRow)
-                    .thenComparing(Cell::getCol));
-
-                StringBuilder sig = new StringBuilder();
-                for (Cell p : sorted) {
-                    sig.append(p.getRow()).append(",").append(p.getCol()).append(";");
+                // 1) Normalize so minRow=0, minCol=0
+                int minR = Integer.MAX_VALUE, minC = Integer.MAX_VALUE;
+                for (int i = 0; i < n; i++) {
+                    minR = Math.min(minR, r[i]);
+                    minC = Math.min(minC, c[i]);
+                }
+                int[] offs = new int[2 * n];
+                for (int i = 0; i < n; i++) {
+                    offs[2 * i] = r[i] - minR;
+                    offs[2 * i + 1] = c[i] - minC;
                 }
-                String signature = sig.toString();
 
-                // 3) If unseen, add to variants
-                if (!seenSignatures.contains(signature)) {
-                    seenSignatures.add(signature);
-                    variants.add(norm);
+                // 2) If unseen, keep it
+                boolean unseen;
+                if (packed) {
+                    long sig = 0L;
+                    for (int i = 0; i < n; i++) {
+                        sig |= 1L << (offs[2 * i] * side + offs[2 * i + 1]);
+                    }
+                    unseen = seenSignatures.add(sig);
+                } else {
+                    BitSet sig = new BitSet(side * side);
+                    for (int i = 0; i < n; i++) {
+                        sig.set(offs[2 * i] * side + offs[2 * i + 1]);
+                    }
+                    unseen = seenWide.add(sig);
+                }
+                if (unseen) {
+                    variants.add(offs);
                 }
 
-                // 4) Rotate 90° for next iteration
-                List<Cell> rotated = rotate90(currentShape, curH, curW);
-                currentShape = rotated;
-                // After rotation, bounding‐box dims swap: new height = curW, new width = curH
-                int tmp = curH; 
-                curH = curW; 
-                curW = tmp;
+                // 3) Rotate 90° clockwise: newRow = oldCol; newCol = (height-1) - oldRow.
+                //    After rotation, bounding‐box dims swap.
+                int newH = 0;
+                for (int i = 0; i < n; i++) {
+                    int oldR = r[i];
+                    r[i] = c[i];
+                    c[i] = curH - 1 - oldR;
+                    newH = Math.max(newH, r[i] + 1);
+                }
+                curH = newH;
             }
         }
-
         return variants;
     }
 }
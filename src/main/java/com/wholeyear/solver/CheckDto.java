@@ -0,0 +1,44 @@
+package com.wholeyear.solver;
+
+/**
+ * Response of POST /api/check: whether the player's partial board can still be
+ * completed for the date, without the completion itself (see HintDto for that).
+ */
+public class CheckDto {
+
+    public enum Verdict {
+        SOLVABLE,    // some completion exists
+        UNSOLVABLE,  // none does (or the placed pieces clash with each other or the date)
+        UNKNOWN      // the latency budget ran out before the search decided
+    }
+
+    private final Verdict verdict;
+    private final boolean cached;
+    private final long nodes;
+    private final long elapsedMicros;
+
+    public CheckDto(Verdict verdict, boolean cached, long nodes, long elapsedMicros) {
+        this.verdict = verdict;
+        this.cached = cached;
+        this.nodes = nodes;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    public Verdict getVerdict() {
+        return verdict;
+    }
+
+    /** True if the verdict came from the puzzle's verdict cache (no search ran). */
+    public boolean isCached() {
+        return cached;
+    }
+
+    /** DLX search nodes visited; 0 when cached. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMicros() {
+        return elapsedMicros;
+    }
+}
@@ -0,0 +1,58 @@
+package com.wholeyear.solver;
+
+import com.wholeyear.util.PlacementDto;
+
+import java.util.List;
+
+/**
+ * Response of POST /api/hint/closest: a full solution for the date that keeps as many
+ * of the player's placed pieces as possible, for boards that can no longer be
+ * completed as they stand.
+ */
+public class ClosestDto {
+
+    public enum Status {
+        CLOSEST,      // no solution keeps more of the placed pieces
+        BEST_FOUND,   // the latency budget ran out; the best solution found so far
+        UNSOLVABLE,   // the date has no solution on this board at all
+        TIMEOUT       // the latency budget ran out before any solution was found; placements is empty
+    }
+
+    private final Status status;
+    private final List<PlacementDto> placements;
+    private final List<Integer> kept;
+    private final long nodes;
+    private final long elapsedMicros;
+
+    public ClosestDto(Status status, List<PlacementDto> placements, List<Integer> kept,
+                      long nodes, long elapsedMicros) {
+        this.status = status;
+        this.placements = placements;
+        this.kept = kept;
+        this.nodes = nodes;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /** The whole solution, the kept pieces included. */
+    public List<PlacementDto> getPlacements() {
+        return placements;
+    }
+
+    /** Positions in the request's list of the placed pieces the solution keeps, ascending. */
+    public List<Integer> getKept() {
+        return kept;
+    }
+
+    /** Branch-and-bound search nodes visited. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMicros() {
+        return elapsedMicros;
+    }
+}
@@ -0,0 +1,631 @@
+package com.wholeyear.solver;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.BoardCell;
+import com.wholeyear.model.Cell;
+import com.wholeyear.model.Piece;
+import com.wholeyear.model.PieceDto;
+import com.wholeyear.util.BitboardSolver;
+import com.wholeyear.util.CoverTemplate;
+import com.wholeyear.util.Definition;
+import com.wholeyear.util.ExactCoverSolver;
+import com.wholeyear.util.MoveRanker;
+import com.wholeyear.util.Placement;
+import com.wholeyear.util.PlacementDto;
+import com.wholeyear.util.PlacementIndex;
+import com.wholeyear.util.Solver;
+import com.wholeyear.util.VerdictCache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * One puzzle with everything derived from its definition built once: the pieces (and
+ * so their orientations), the base board, the PlacementIndex over it, the /api/pieces
+ * payload (also pre-serialized, like each date's /api/board payload once requested)
+ * and a SolutionCache for its dates; the CoverTemplate used for hints and checks is
+ * built on first use (as are the MoveRanker for ranked hints and the bitboard engine
+ * for closest solutions), and check() verdicts are kept in a VerdictCache. Immutable
+ * apart from the caches; a changed puzzle file produces a new
+ * CompiledPuzzle rather than modifying this one.
+ */
+public class CompiledPuzzle {
+    private static final Logger log = LoggerFactory.getLogger(CompiledPuzzle.class);
+
+    /**
+     * Told about every date the solver actually runs for (cache misses), e.g. to feed
+     * metrics; {@code elapsedNanos} covers the whole solve, from the board copy on.
+     */
+    @FunctionalInterface
+    public interface SolveListener {
+        void solved(CompiledPuzzle puzzle, int month, int day, boolean found,
+                    long nodes, long backtracks, long elapsedNanos);
+    }
+
+    /** Default VerdictCache size (board states) when none is configured. */
+    public static final int DEFAULT_VERDICT_CACHE_SIZE = 65_536;
+
+    private static final Pattern ID_PATTERN = Pattern.compile("[a-z0-9][a-z0-9-]*");
+
+    private static final String[] MONTHS = {
+        "Jan", "Feb", "Mar", "Apr", "May", "Jun",
+        "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+
+    private final String id;
+    private final String name;
+    private final String contentHash;
+    private final Board board;
+    private final List<Piece> pieces;
+    private final Map<String, Integer> pieceIdToIndexMap;
+    private final List<PieceDto> pieceDtos;
+    private final JsonPayload piecesPayload;
+    private final AtomicReferenceArray<JsonPayload> boardPayloads =
+        new AtomicReferenceArray<>(SolutionCache.MONTHS * SolutionCache.DAYS);
+    private final PlacementIndex placementIndex;
+    private final SolutionCache solutionCache;
+    private final VerdictCache verdictCache;
+    private volatile SolveListener solveListener;
+    private volatile CoverTemplate coverTemplate;
+    private volatile MoveRanker moveRanker;
+    private volatile BitboardSolver closestSolver;
+
+    /**
+     * Validates and compiles a definition. Throws IllegalArgumentException if the
+     * id, board or pieces are missing or malformed.
+     */
+    public CompiledPuzzle(PuzzleDefinition definition, String contentHash,
+                          SolutionCache.WarmupPolicy warmupPolicy) {
+        this(definition, contentHash, warmupPolicy, SolutionCache.DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    /** As above; coalesced solve requests wait at most {@code maxWaitMillis} (see SolutionCache). */
+    public CompiledPuzzle(PuzzleDefinition definition, String contentHash,
+                          SolutionCache.WarmupPolicy warmupPolicy, long maxWaitMillis) {
+        this(definition, contentHash, warmupPolicy, maxWaitMillis, DEFAULT_VERDICT_CACHE_SIZE);
+    }
+
+    /** As above; check() remembers the verdicts of at most {@code verdictCacheSize} board states. */
+    public CompiledPuzzle(PuzzleDefinition definition, String contentHash,
+                          SolutionCache.WarmupPolicy warmupPolicy, long maxWaitMillis, int verdictCacheSize) {
+        long start = System.currentTimeMillis();
+        if (definition.getId() == null || !ID_PATTERN.matcher(definition.getId()).matches()) {
+            throw new IllegalArgumentException(
+                "Puzzle id must match " + ID_PATTERN.pattern() + ", got " + definition.getId());
+        }
+        if (definition.getBoard() == null) {
+            throw new IllegalArgumentException("Puzzle " + definition.getId() + " has no board");
+        }
+        if (definition.getPieces() == null || definition.getPieces().isEmpty()) {
+            throw new IllegalArgumentException("Puzzle " + definition.getId() + " has no pieces");
+        }
+        this.id = definition.getId();
+        this.name = definition.getName() != null ? definition.getName() : definition.getId();
+        this.contentHash = contentHash;
+        this.board = Definition.createBoard(
+            definition.getBoard().getShape(), definition.getBoard().getLabels());
+
+        List<Piece> pieceList = new ArrayList<>();
+        Map<String, Integer> map = new HashMap<>();
+        for (PuzzleDefinition.PieceSpec spec : definition.getPieces()) {
+            if (spec.getId() == null || spec.getShape() == null || spec.getShape().isEmpty()) {
+                throw new IllegalArgumentException("Puzzle " + id + " has a piece without id or shape");
+            }
+            if (map.putIfAbsent(spec.getId(), pieceList.size()) != null) {
+                throw new IllegalArgumentException("Puzzle " + id + " defines piece " + spec.getId() + " twice");
+            }
+            pieceList.add(new Piece(spec.getId(), spec.getShape()));
+        }
+        this.pieces = Collections.unmodifiableList(pieceList);
+        this.pieceIdToIndexMap = Collections.unmodifiableMap(map);
+
+        List<PieceDto> dtos = new ArrayList<>();
+        for (int i = 0; i < pieces.size(); i++) {
+            Piece piece = pieces.get(i);
+            dtos.add(new PieceDto(i, piece.getId(), piece.getCanonicalCells()));
+        }
+        this.pieceDtos = Collections.unmodifiableList(dtos);
+        this.piecesPayload = JsonPayload.of(pieceDtos);
+
+        this.placementIndex = new PlacementIndex(board, pieces);
+        this.solutionCache = new SolutionCache(this::solveDate, warmupPolicy, maxWaitMillis);
+        this.verdictCache = new VerdictCache(verdictCacheSize);
+        log.info("Compiled puzzle {} ({} pieces, {} placements, hash {}) ({}ms)",
+                id, pieces.size(), placementIndex.getAllPlacements().size(),
+                contentHash, System.currentTimeMillis() - start);
+    }
+
+    /** Label of month 1–12 as used on the board ("Jan".."Dec"). */
+    public static String monthLabel(int month) {
+        return MONTHS[month - 1];
+    }
+
+    /** Cached solution for month 1–12, day 1–31; empty if there is none. */
+    public List<PlacementDto> solve(int month, int day) {
+        return solutionCache.get(month, day);
+    }
+
+    /** As solve(month, day); {@code onHit} runs if the answer came from the cache. */
+    public List<PlacementDto> solve(int month, int day, Runnable onHit) {
+        return solutionCache.get(month, day, onHit);
+    }
+
+    /** The full grid with the date's month and day cells marked TARGET. */
+    public List<BoardCell> boardCellsFor(int month, int day) {
+        return board.getBoardCellsForDate(monthLabel(month), String.valueOf(day));
+    }
+
+    /** The /board response for a date, serialized on first use and then reused. */
+    public JsonPayload boardPayloadFor(int month, int day) {
+        int slot = SolutionCache.slot(month, day);
+        JsonPayload payload = boardPayloads.get(slot);
+        if (payload == null) {
+            payload = JsonPayload.of(boardCellsFor(month, day));
+            if (!boardPayloads.compareAndSet(slot, null, payload)) {
+                payload = boardPayloads.get(slot);
+            }
+        }
+        return payload;
+    }
+
+    /**
+     * Runs the solver for one date with SearchProfile collection on, bypassing the
+     * cache (and the SolveListener). Returns the solution found plus the per-depth
+     * search statistics; both are empty if the date has no cells on this board.
+     */
+    public SolveProfileDto profile(int month, int day) {
+        long start = System.nanoTime();
+        Solver solver = solverFor(month, day);
+        if (solver == null) {
+            return new SolveProfileDto(id, month, day, Collections.emptyList(), 0, null);
+        }
+        solver.setProfiling(true);
+        List<PlacementDto> placementDtos = toDtos(solver.solve());
+        return new SolveProfileDto(id, month, day, placementDtos,
+                (System.nanoTime() - start) / 1000, solver.getProfile());
+    }
+
+    /**
+     * Enumerates the date's solutions afresh (bypassing the cache), handing each to
+     * {@code visitor} on the calling thread until it returns false or {@code limit}
+     * have been visited. Returns the number visited; 0 if the date has no cells here.
+     */
+    public long forEachSolution(int month, int day, Predicate<List<PlacementDto>> visitor, long limit) {
+        return forEachSolution(month, day, visitor, limit, null);
+    }
+
+    /**
+     * As forEachSolution(month, day, visitor, limit), but setting {@code cancelled}
+     * from another thread also stops the search between solutions, e.g. once the
+     * receiver has gone away while a sparse date is still being searched.
+     */
+    public long forEachSolution(int month, int day, Predicate<List<PlacementDto>> visitor, long limit,
+                                AtomicBoolean cancelled) {
+        Solver solver = solverFor(month, day);
+        if (solver == null) {
+            return 0;
+        }
+        solver.setCancelFlag(cancelled);
+        return solver.forEachSolutionWhile(solution -> visitor.test(toDtos(solution)), limit);
+    }
+
+    /**
+     * Counts the date's solutions afresh over row indices only (no placement lists),
+     * passing the running count to {@code progress} after each one. Setting
+     * {@code cancelled} stops the search at its next node; the count so far is returned.
+     */
+    public long countSolutions(int month, int day, LongConsumer progress, AtomicBoolean cancelled) {
+        Solver solver = solverFor(month, day);
+        if (solver == null) {
+            return 0;
+        }
+        solver.setCancelFlag(cancelled);
+        long[] count = {0};
+        return solver.forEachSolutionRows((rows, length) -> {
+            progress.accept(++count[0]);
+            return true;
+        }, Long.MAX_VALUE);
+    }
+
+    /**
+     * Completes a partly filled board for a date: {@code placed} are the player's
+     * pieces (piece index plus cells), pinned in a copy of the CoverTemplate before the
+     * search runs. Setting {@code cancelled} stops the search (TIMEOUT). Throws
+     * IllegalArgumentException for an unknown piece index or cells that are not a
+     * placement of that piece on this board.
+     */
+    public HintDto hint(int month, int day, List<PlacementDto> placed, AtomicBoolean cancelled) {
+        long start = System.nanoTime();
+        CoverTemplate template = coverTemplate();
+        int[] rows = placedRows(template, placed);
+
+        ExactCoverSolver dlx = template.newSolver();
+        boolean feasible = excludeLabel(dlx, template, monthLabel(month))
+                && excludeLabel(dlx, template, String.valueOf(day));
+        for (int i = 0; i < rows.length && feasible; i++) {
+            feasible = dlx.selectRow(rows[i]);   // false: overlaps a placed piece, the date or reuses a piece
+        }
+        if (!feasible) {
+            return new HintDto(HintDto.Status.UNSOLVABLE, Collections.emptyList(), 0, micros(start));
+        }
+
+        dlx.setCancelFlag(cancelled);
+        List<Integer> solutionRows = dlx.solve();
+        if (solutionRows == null) {
+            HintDto.Status status = cancelled.get() ? HintDto.Status.TIMEOUT : HintDto.Status.UNSOLVABLE;
+            return new HintDto(status, Collections.emptyList(), dlx.getNodeCount(), micros(start));
+        }
+        List<Placement> completion = new ArrayList<>();
+        for (int r : solutionRows.subList(rows.length, solutionRows.size())) {
+            completion.add(template.getPlacements().get(r));
+        }
+        return new HintDto(HintDto.Status.SOLVED, toDtos(completion), dlx.getNodeCount(), micros(start));
+    }
+
+    /**
+     * Whether a partly filled board can still be completed for a date; {@code placed}
+     * as for hint(), which also throws the same IllegalArgumentExceptions. The state is
+     * reduced to its CoverTemplate.coverMask() (date cells, placed cells, used pieces)
+     * and looked up in the VerdictCache; on a miss a pruned first-solution search
+     * decides and its verdict is cached. Dates whose masks coincide share an entry, as
+     * the same cells and pieces are left to place. Setting {@code cancelled} gives
+     * UNKNOWN, which is not cached.
+     */
+    public CheckDto check(int month, int day, List<PlacementDto> placed, AtomicBoolean cancelled) {
+        long start = System.nanoTime();
+        CoverTemplate template = coverTemplate();
+        int[] rows = placedRows(template, placed);
+        int monthColumn = labelColumn(template, monthLabel(month));
+        int dayColumn = labelColumn(template, String.valueOf(day));
+        long[] mask = monthColumn < 0 || dayColumn < 0
+                ? null
+                : template.coverMask(new int[]{monthColumn, dayColumn}, rows);
+        if (mask == null) {
+            return new CheckDto(CheckDto.Verdict.UNSOLVABLE, false, 0, micros(start));
+        }
+        Boolean known = verdictCache.get(mask);
+        if (known != null) {
+            return new CheckDto(known ? CheckDto.Verdict.SOLVABLE : CheckDto.Verdict.UNSOLVABLE,
+                    true, 0, micros(start));
+        }
+
+        ExactCoverSolver dlx = template.newPrunedSolver();
+        dlx.excludeColumn(monthColumn);
+        dlx.excludeColumn(dayColumn);
+        for (int row : rows) {
+            dlx.selectRow(row);   // cannot clash: coverMask() found no overlap
+        }
+        dlx.setCancelFlag(cancelled);
+        boolean solvable = dlx.solve() != null;
+        if (!solvable && cancelled.get()) {
+            return new CheckDto(CheckDto.Verdict.UNKNOWN, false, dlx.getNodeCount(), micros(start));
+        }
+        verdictCache.put(mask, solvable);
+        return new CheckDto(solvable ? CheckDto.Verdict.SOLVABLE : CheckDto.Verdict.UNSOLVABLE,
+                false, dlx.getNodeCount(), micros(start));
+    }
+
+    /**
+     * Ranks the next placements for a partly filled board: every placement of an
+     * unused piece on empty cells is scored by the solutions left once it is made
+     * (MoveRanker.score, run on {@code executor} by up to {@code workers} threads), and
+     * the {@code limit} best that leave any are returned. {@code placed} as for hint(),
+     * with the same IllegalArgumentExceptions; also thrown for boards of more than 64
+     * cells, which the memoized counter cannot represent. Setting {@code cancelled}
+     * gives TIMEOUT.
+     */
+    public RankedHintDto rankMoves(int month, int day, List<PlacementDto> placed, int limit,
+                                   ExecutorService executor, int workers, AtomicBoolean cancelled) {
+        long start = System.nanoTime();
+        CoverTemplate template = coverTemplate();
+        int[] rows = placedRows(template, placed);
+        int monthColumn = labelColumn(template, monthLabel(month));
+        int dayColumn = labelColumn(template, String.valueOf(day));
+        if (monthColumn < 0 || dayColumn < 0
+                || template.coverMask(new int[]{monthColumn, dayColumn}, rows) == null) {
+            return new RankedHintDto(RankedHintDto.Status.UNSOLVABLE, Collections.emptyList(), 0, 0, micros(start));
+        }
+
+        // Template cell columns are the base board's fillable cells, i.e. the ranker's bits
+        MoveRanker ranker = moveRanker(workers);
+        long filled = 1L << monthColumn | 1L << dayColumn;
+        long used = 0L;
+        for (int row : rows) {
+            filled |= ranker.cellBits(row);
+            used |= ranker.pieceBits(row);
+        }
+        long solutions = ranker.count(filled, used, cancelled);
+        if (solutions < 0) {
+            return new RankedHintDto(RankedHintDto.Status.TIMEOUT, Collections.emptyList(), 0, 0, micros(start));
+        }
+        if (solutions == 0) {
+            return new RankedHintDto(RankedHintDto.Status.UNSOLVABLE, Collections.emptyList(), 0, 0, micros(start));
+        }
+
+        int[] candidates = ranker.candidates(filled, used);
+        long[] counts = ranker.score(filled, used, solutions, candidates, executor, cancelled);
+        List<Integer> ranked = new ArrayList<>();
+        for (int i = 0; i < candidates.length; i++) {
+            if (counts[i] < 0) {
+                return new RankedHintDto(RankedHintDto.Status.TIMEOUT, Collections.emptyList(),
+                        solutions, candidates.length, micros(start));
+            }
+            if (counts[i] > 0) {
+                ranked.add(i);
+            }
+        }
+        ranked.sort((a, b) -> Long.compare(counts[b], counts[a]));   // stable: ties keep row order
+
+        List<RankedHintDto.Move> moves = new ArrayList<>();
+        for (int i : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            Placement placement = template.getPlacements().get(candidates[i]);
+            moves.add(new RankedHintDto.Move(pieceIdToIndexMap.get(placement.getPieceId()),
+                    placement.getCoveredCells(), counts[i]));
+        }
+        return new RankedHintDto(RankedHintDto.Status.RANKED, moves, solutions, candidates.length, micros(start));
+    }
+
+    /**
+     * The date's solution that keeps as many of the {@code placed} pieces as possible,
+     * for a board that may no longer be completable as it stands: placed pieces may
+     * clash with each other or the date, they are just not kept then.
+     * BitboardSolver.closest() searches the template's rows for it, preferring the
+     * player's. Throws IllegalArgumentException as hint() does, and for boards of more
+     * than 64 cells. Setting {@code cancelled} returns the best solution found so far
+     * (BEST_FOUND), or TIMEOUT if there is none yet.
+     */
+    public ClosestDto closest(int month, int day, List<PlacementDto> placed, AtomicBoolean cancelled) {
+        long start = System.nanoTime();
+        CoverTemplate template = coverTemplate();
+        int[] rows = placedRows(template, placed);
+        int monthColumn = labelColumn(template, monthLabel(month));
+        int dayColumn = labelColumn(template, String.valueOf(day));
+        if (monthColumn < 0 || dayColumn < 0) {
+            return new ClosestDto(ClosestDto.Status.UNSOLVABLE, Collections.emptyList(),
+                    Collections.emptyList(), 0, micros(start));
+        }
+
+        // Template cell columns are the base board's fillable cells, i.e. the solver's bits
+        BitboardSolver solver = new BitboardSolver(closestSolver());
+        BitboardSolver.Closest closest = solver.closest(1L << monthColumn | 1L << dayColumn, 0L, rows, cancelled);
+        if (closest.getRows() == null) {
+            ClosestDto.Status status = closest.isOptimal() ? ClosestDto.Status.UNSOLVABLE : ClosestDto.Status.TIMEOUT;
+            return new ClosestDto(status, Collections.emptyList(), Collections.emptyList(),
+                    closest.getNodes(), micros(start));
+        }
+
+        Set<Integer> chosen = new HashSet<>(closest.getRows());
+        List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            if (chosen.contains(rows[i])) {
+                kept.add(i);
+            }
+        }
+        List<Placement> solution = new ArrayList<>();
+        for (int row : closest.getRows()) {
+            solution.add(template.getPlacements().get(row));
+        }
+        ClosestDto.Status status = closest.isOptimal() ? ClosestDto.Status.CLOSEST : ClosestDto.Status.BEST_FOUND;
+        return new ClosestDto(status, toDtos(solution), kept, closest.getNodes(), micros(start));
+    }
+
+    /** Template rows of the player's placements; IllegalArgumentException if one is not a placement here. */
+    private int[] placedRows(CoverTemplate template, List<PlacementDto> placed) {
+        int[] rows = new int[placed.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = placedRow(template, placed.get(i));
+        }
+        return rows;
+    }
+
+    /** Template row of one placement; IllegalArgumentException if it is not a placement here. */
+    int placedRow(CoverTemplate template, PlacementDto dto) {
+        Integer index = dto.getPieceId();
+        if (index == null || index < 0 || index >= pieces.size() || dto.getCells() == null) {
+            throw new IllegalArgumentException("Unknown piece index " + index);
+        }
+        int row = template.rowOf(pieces.get(index).getId(), dto.getCells());
+        if (row < 0) {
+            throw new IllegalArgumentException(
+                "Piece " + index + " cannot cover " + dto.getCells() + " on " + id);
+        }
+        return row;
+    }
+
+    /** Takes a date cell out of the matrix; false if this board has no such label. */
+    private boolean excludeLabel(ExactCoverSolver dlx, CoverTemplate template, String label) {
+        int column = labelColumn(template, label);
+        return column >= 0 && dlx.excludeColumn(column);
+    }
+
+    /** Column of the cell labelled {@code label}, or -1 if this board has none. */
+    int labelColumn(CoverTemplate template, String label) {
+        Cell cell = board.findCellByLabel(label);
+        return cell == null ? -1 : template.columnOf(cell.getRow(), cell.getCol());
+    }
+
+    /** The undated exact-cover matrix for hints, built on first use. */
+    CoverTemplate coverTemplate() {
+        CoverTemplate template = coverTemplate;
+        if (template == null) {
+            synchronized (this) {
+                template = coverTemplate;
+                if (template == null) {
+                    long start = System.currentTimeMillis();
+                    template = new CoverTemplate(board, pieces, placementIndex);
+                    coverTemplate = template;
+                    log.info("{}: built hint matrix, {} rows ({}ms)", id, template.getPlacements().size(),
+                            System.currentTimeMillis() - start);
+                }
+            }
+        }
+        return template;
+    }
+
+    /** The counter for ranked hints, over the CoverTemplate's rows; built on first use. */
+    MoveRanker moveRanker(int maxTables) {
+        MoveRanker ranker = moveRanker;
+        if (ranker == null) {
+            synchronized (this) {
+                ranker = moveRanker;
+                if (ranker == null) {
+                    CoverTemplate template = coverTemplate();
+                    List<Cell> cells = board.getAllFillableCells();
+                    if (cells.size() > Long.SIZE) {
+                        throw new IllegalArgumentException("Ranked hints need a board of at most " + Long.SIZE
+                                + " cells; " + id + " has " + cells.size());
+                    }
+                    ranker = new MoveRanker(cells, template.getPlacements(), maxTables,
+                            MoveRanker.DEFAULT_TABLE_BYTES);
+                    moveRanker = ranker;
+                }
+            }
+        }
+        return ranker;
+    }
+
+    /** The bitboard engine for closest(), over the CoverTemplate's rows; built on first use. */
+    BitboardSolver closestSolver() {
+        BitboardSolver solver = closestSolver;
+        if (solver == null) {
+            synchronized (this) {
+                solver = closestSolver;
+                if (solver == null) {
+                    List<Cell> cells = board.getAllFillableCells();
+                    if (cells.size() > Long.SIZE) {
+                        throw new IllegalArgumentException("Closest solutions need a board of at most " + Long.SIZE
+                                + " cells; " + id + " has " + cells.size());
+                    }
+                    solver = new BitboardSolver(cells, coverTemplate().getPlacements());
+                    closestSolver = solver;
+                }
+            }
+        }
+        return solver;
+    }
+
+    private static long micros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000;
+    }
+
+    /** Runs the solver for one date; the SolutionCache decides when this is needed. */
+    private List<PlacementDto> solveDate(int month, int day) {
+        long start = System.nanoTime();
+        Solver solver = solverFor(month, day);
+        if (solver == null) {
+            notifySolved(month, day, false, 0, 0, start);
+            return Collections.emptyList();
+        }
+        List<PlacementDto> placementDtos = toDtos(solver.solve());
+        notifySolved(month, day, !placementDtos.isEmpty(), solver.getNodeCount(), solver.getBacktrackCount(), start);
+
+        if (placementDtos.isEmpty()) {
+            log.warn("{}: no solution for {} {}", id, monthLabel(month), day);
+        }
+        return placementDtos;
+    }
+
+    /** A solver over a copy of the board with the date's cells targeted, or null if it has none. */
+    private Solver solverFor(int month, int day) {
+        String monthLabel = monthLabel(month);
+        String dayLabel = String.valueOf(day);
+
+        Board boardCopy = new Board(board);
+        Cell monthCell = boardCopy.findCellByLabel(monthLabel);
+        Cell dayCell = boardCopy.findCellByLabel(dayLabel);
+
+        if (monthCell == null || dayCell == null) {
+            log.warn("{}: no cell found for {} {}", id, monthLabel, dayLabel);
+            return null;
+        }
+
+        boardCopy.setTarget(monthCell.getRow(), monthCell.getCol());
+        boardCopy.setTarget(dayCell.getRow(), dayCell.getCol());
+
+        Solver solver = new Solver(boardCopy, pieces);
+        solver.setPlacementIndex(placementIndex);
+        return solver;
+    }
+
+    /** Maps a solution to piece-index DTOs; null (no solution) becomes an empty list. */
+    List<PlacementDto> toDtos(List<Placement> placements) {
+        if (placements == null) {
+            return Collections.emptyList();
+        }
+        List<PlacementDto> placementDtos = new ArrayList<>();
+        for (Placement placement : placements) {
+            int pieceIndex = pieceIdToIndexMap.get(placement.getPieceId());
+            placementDtos.add(new PlacementDto(pieceIndex, placement.getCoveredCells()));
+        }
+        return placementDtos;
+    }
+
+    private void notifySolved(int month, int day, boolean found, long nodes, long backtracks, long startNanos) {
+        SolveListener listener = solveListener;
+        if (listener != null) {
+            listener.solved(this, month, day, found, nodes, backtracks, System.nanoTime() - startNanos);
+        }
+    }
+
+    /** Installs the listener called after each uncached solve (null to remove). */
+    public void setSolveListener(SolveListener solveListener) {
+        this.solveListener = solveListener;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** SHA-256 (hex) of the puzzle file this was compiled from. */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /** The undated base board; callers must copy it before changing cell states. */
+    public Board getBoard() {
+        return board;
+    }
+
+    public List<Piece> getPieces() {
+        return pieces;
+    }
+
+    /** Index of a piece in getPieces() (the id used in PieceDto and PlacementDto). */
+    public Integer getPieceIndex(String pieceId) {
+        return pieceIdToIndexMap.get(pieceId);
+    }
+
+    public List<PieceDto> getPieceDtos() {
+        return pieceDtos;
+    }
+
+    /** The /pieces response, serialized once at compile time. */
+    public JsonPayload getPiecesPayload() {
+        return piecesPayload;
+    }
+
+    public PlacementIndex getPlacementIndex() {
+        return placementIndex;
+    }
+
+    public SolutionCache getSolutionCache() {
+        return solutionCache;
+    }
+
+    /** Verdicts of check(), by board state. */
+    public VerdictCache getVerdictCache() {
+        return verdictCache;
+    }
+}
@@ -0,0 +1,36 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.wholeyear.util.PlacementDto;
+
+import java.util.List;
+
+/**
+ * One line of POST /api/solve/range: a date (YYYY-MM-DD) and its solution, empty if
+ * it has none. If solving the date failed, placements is empty and error says why.
+ */
+public class DateSolutionDto {
+
+    private final String date;
+    private final List<PlacementDto> placements;
+    private final String error;
+
+    public DateSolutionDto(String date, List<PlacementDto> placements, String error) {
+        this.date = date;
+        this.placements = placements;
+        this.error = error;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public List<PlacementDto> getPlacements() {
+        return placements;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,182 @@
+package com.wholeyear.solver;
+
+import com.wholeyear.util.PlacementDto;
+
+import io.micrometer.core.instrument.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Help for a partly filled board; the body of both is the player's placed pieces as
+ * List<PlacementDto>, and a piece index or cells that do not describe a placement on
+ * the board are a 400.
+ *   • POST /api/hint?date=YYYY-MM-DD, /api/{puzzleId}/hint  → HintDto: the placements
+ *     that complete the board, UNSOLVABLE, or TIMEOUT after solver.hint.budget-ms
+ *   • POST /api/check?date=YYYY-MM-DD, /api/{puzzleId}/check → CheckDto: SOLVABLE or
+ *     UNSOLVABLE, mostly from the verdict cache; UNKNOWN after solver.check.budget-ms
+ *   • POST /api/hint/ranked?date=YYYY-MM-DD&limit=5, /api/{puzzleId}/hint/ranked →
+ *     RankedHintDto: the {@code limit} (1–MAX_RANKED) next placements that leave the
+ *     most solutions; TIMEOUT after solver.hint.ranked.budget-ms
+ *   • POST /api/hint/closest?date=YYYY-MM-DD, /api/{puzzleId}/hint/closest → ClosestDto:
+ *     the solution keeping the most placed pieces (which may clash here), or the best
+ *     found by solver.hint.closest.budget-ms
+ */
+@RestController
+@RequestMapping("/api")
+public class HintController {
+    private static final Logger log = LoggerFactory.getLogger(HintController.class);
+
+    /** Most moves a ranked hint returns. */
+    static final int MAX_RANKED = 50;
+
+    private final PuzzleCatalog catalog;
+    private final HintService hints;
+    private final SolverMetrics metrics;
+
+    public HintController(PuzzleCatalog catalog, HintService hints, SolverMetrics metrics) {
+        this.catalog = catalog;
+        this.hints = hints;
+        this.metrics = metrics;
+    }
+
+    @PostMapping("/hint")
+    public HintDto hint(@RequestParam(value = "date", required = false) String date,
+                        @RequestBody List<PlacementDto> placed) {
+        return hint(catalog.getDefault(), date, placed);
+    }
+
+    @PostMapping("/{puzzleId}/hint")
+    public HintDto hint(@PathVariable("puzzleId") String puzzleId,
+                        @RequestParam(value = "date", required = false) String date,
+                        @RequestBody List<PlacementDto> placed) {
+        return hint(found(puzzleId), date, placed);
+    }
+
+    @PostMapping("/check")
+    public CheckDto check(@RequestParam(value = "date", required = false) String date,
+                          @RequestBody List<PlacementDto> placed) {
+        return check(catalog.getDefault(), date, placed);
+    }
+
+    @PostMapping("/{puzzleId}/check")
+    public CheckDto check(@PathVariable("puzzleId") String puzzleId,
+                          @RequestParam(value = "date", required = false) String date,
+                          @RequestBody List<PlacementDto> placed) {
+        return check(found(puzzleId), date, placed);
+    }
+
+    @PostMapping("/hint/ranked")
+    public RankedHintDto rankedHint(@RequestParam(value = "date", required = false) String date,
+                                    @RequestParam(value = "limit", defaultValue = "5") int limit,
+                                    @RequestBody List<PlacementDto> placed) {
+        return rankedHint(catalog.getDefault(), date, limit, placed);
+    }
+
+    @PostMapping("/{puzzleId}/hint/ranked")
+    public RankedHintDto rankedHint(@PathVariable("puzzleId") String puzzleId,
+                                    @RequestParam(value = "date", required = false) String date,
+                                    @RequestParam(value = "limit", defaultValue = "5") int limit,
+                                    @RequestBody List<PlacementDto> placed) {
+        return rankedHint(found(puzzleId), date, limit, placed);
+    }
+
+    @PostMapping("/hint/closest")
+    public ClosestDto closest(@RequestParam(value = "date", required = false) String date,
+                              @RequestBody List<PlacementDto> placed) {
+        return closest(catalog.getDefault(), date, placed);
+    }
+
+    @PostMapping("/{puzzleId}/hint/closest")
+    public ClosestDto closest(@PathVariable("puzzleId") String puzzleId,
+                              @RequestParam(value = "date", required = false) String date,
+                              @RequestBody List<PlacementDto> placed) {
+        return closest(found(puzzleId), date, placed);
+    }
+
+    private HintDto hint(CompiledPuzzle puzzle, String date, List<PlacementDto> placed) {
+        Timer.Sample sample = metrics.start();
+        int[] monthDay = SolverController.parseDate(date);
+        HintDto hint;
+        try {
+            hint = hints.hint(puzzle, monthDay[0], monthDay[1], placed);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        metrics.recordHint(sample, puzzle.getId(), hint.getStatus());
+
+        log.info("POST /api/{}/hint — {} {}, {} placed → {}, {} placements, {} nodes ({}µs)", puzzle.getId(),
+                CompiledPuzzle.monthLabel(monthDay[0]), monthDay[1], placed.size(), hint.getStatus(),
+                hint.getPlacements().size(), hint.getNodes(), hint.getElapsedMicros());
+        return hint;
+    }
+
+    private CheckDto check(CompiledPuzzle puzzle, String date, List<PlacementDto> placed) {
+        Timer.Sample sample = metrics.start();
+        int[] monthDay = SolverController.parseDate(date);
+        CheckDto check;
+        try {
+            check = hints.check(puzzle, monthDay[0], monthDay[1], placed);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        metrics.recordCheck(sample, puzzle.getId(), check.getVerdict(), check.isCached());
+
+        log.debug("POST /api/{}/check — {} {}, {} placed → {}{}, {} nodes ({}µs)", puzzle.getId(),
+                CompiledPuzzle.monthLabel(monthDay[0]), monthDay[1], placed.size(), check.getVerdict(),
+                check.isCached() ? " (cached)" : "", check.getNodes(), check.getElapsedMicros());
+        return check;
+    }
+
+    private RankedHintDto rankedHint(CompiledPuzzle puzzle, String date, int limit, List<PlacementDto> placed) {
+        if (limit < 1 || limit > MAX_RANKED) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be 1.." + MAX_RANKED + ", got " + limit);
+        }
+        Timer.Sample sample = metrics.start();
+        int[] monthDay = SolverController.parseDate(date);
+        RankedHintDto ranked;
+        try {
+            ranked = hints.rankMoves(puzzle, monthDay[0], monthDay[1], placed, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        metrics.recordRankedHint(sample, puzzle.getId(), ranked.getStatus());
+
+        log.info("POST /api/{}/hint/ranked — {} {}, {} placed → {}, {} of {} candidates, {} solutions ({}µs)",
+                puzzle.getId(), CompiledPuzzle.monthLabel(monthDay[0]), monthDay[1], placed.size(),
+                ranked.getStatus(), ranked.getMoves().size(), ranked.getCandidates(), ranked.getSolutions(),
+                ranked.getElapsedMicros());
+        return ranked;
+    }
+
+    private ClosestDto closest(CompiledPuzzle puzzle, String date, List<PlacementDto> placed) {
+        Timer.Sample sample = metrics.start();
+        int[] monthDay = SolverController.parseDate(date);
+        ClosestDto closest;
+        try {
+            closest = hints.closest(puzzle, monthDay[0], monthDay[1], placed);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        metrics.recordClosest(sample, puzzle.getId(), closest.getStatus());
+
+        log.info("POST /api/{}/hint/closest — {} {}, {} placed → {}, {} kept, {} nodes ({}µs)", puzzle.getId(),
+                CompiledPuzzle.monthLabel(monthDay[0]), monthDay[1], placed.size(), closest.getStatus(),
+                closest.getKept().size(), closest.getNodes(), closest.getElapsedMicros());
+        return closest;
+    }
+
+    private CompiledPuzzle found(String puzzleId) {
+        CompiledPuzzle puzzle = catalog.get(puzzleId);
+        if (puzzle == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown puzzle " + puzzleId);
+        }
+        return puzzle;
+    }
+}
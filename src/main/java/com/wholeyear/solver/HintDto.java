@@ -0,0 +1,47 @@
+package com.wholeyear.solver;
+
+import com.wholeyear.util.PlacementDto;
+
+import java.util.List;
+
+/**
+ * Response of POST /api/hint: whether the player's board can still be completed
+ * and, if so, the placements that complete it (the player's own are not repeated).
+ */
+public class HintDto {
+
+    public enum Status {
+        SOLVED,      // placements complete the board
+        UNSOLVABLE,  // no completion exists (or the placed pieces clash with each other or the date)
+        TIMEOUT      // the latency budget ran out first; placements is empty
+    }
+
+    private final Status status;
+    private final List<PlacementDto> placements;
+    private final long nodes;
+    private final long elapsedMicros;
+
+    public HintDto(Status status, List<PlacementDto> placements, long nodes, long elapsedMicros) {
+        this.status = status;
+        this.placements = placements;
+        this.nodes = nodes;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public List<PlacementDto> getPlacements() {
+        return placements;
+    }
+
+    /** DLX search nodes visited. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMicros() {
+        return elapsedMicros;
+    }
+}
@@ -0,0 +1,136 @@
+package com.wholeyear.solver;
+
+import com.wholeyear.util.PlacementDto;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs CompiledPuzzle.hint(), check(), rankMoves() and closest() under a latency
+ * budget: a timer raises the search's cancel flag once the budget has passed, and the
+ * answer comes back as TIMEOUT (hint, ranked), UNKNOWN (check) or the best solution
+ * so far (closest) instead of holding the request open. Each kind has its own budget:
+ * checks run on every move in the UI, ranked hints count the solutions behind every
+ * possible move.
+ *
+ * hint(), check() and closest() search on the request thread, and PlaySession
+ * checks and hints (with the check and hint budgets) on the WebSocket's; rankMoves()
+ * spreads its counts over a pool of {@code rankThreads} workers shared by all ranked
+ * requests.
+ */
+@Component
+public class HintService {
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "hint-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService rankExecutor;
+    private final int rankThreads;
+    private final long budgetMillis;
+    private final long checkBudgetMillis;
+    private final long rankBudgetMillis;
+    private final long closestBudgetMillis;
+
+    /** {@code rankThreads} of 0 means one per core. */
+    public HintService(@Value("${solver.hint.budget-ms:250}") long budgetMillis,
+                       @Value("${solver.check.budget-ms:50}") long checkBudgetMillis,
+                       @Value("${solver.hint.ranked.budget-ms:1000}") long rankBudgetMillis,
+                       @Value("${solver.hint.ranked.threads:0}") int rankThreads,
+                       @Value("${solver.hint.closest.budget-ms:250}") long closestBudgetMillis) {
+        if (budgetMillis < 1 || checkBudgetMillis < 1 || rankBudgetMillis < 1 || rankThreads < 0
+                || closestBudgetMillis < 1) {
+            throw new IllegalArgumentException("Invalid hint settings: budgets hint " + budgetMillis
+                    + ", check " + checkBudgetMillis + ", ranked " + rankBudgetMillis + ", threads " + rankThreads
+                    + ", closest " + closestBudgetMillis);
+        }
+        this.budgetMillis = budgetMillis;
+        this.checkBudgetMillis = checkBudgetMillis;
+        this.rankBudgetMillis = rankBudgetMillis;
+        this.closestBudgetMillis = closestBudgetMillis;
+        this.rankThreads = rankThreads > 0 ? rankThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.rankExecutor = Executors.newFixedThreadPool(this.rankThreads, task -> {
+            Thread thread = new Thread(task, "hint-rank-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** See CompiledPuzzle.hint(); throws IllegalArgumentException for an invalid placement. */
+    public HintDto hint(CompiledPuzzle puzzle, int month, int day, List<PlacementDto> placed) {
+        return withinBudget(budgetMillis, cancelled -> puzzle.hint(month, day, placed, cancelled));
+    }
+
+    /** See CompiledPuzzle.check(); throws IllegalArgumentException for an invalid placement. */
+    public CheckDto check(CompiledPuzzle puzzle, int month, int day, List<PlacementDto> placed) {
+        return withinBudget(checkBudgetMillis, cancelled -> puzzle.check(month, day, placed, cancelled));
+    }
+
+    /** See CompiledPuzzle.rankMoves(); throws IllegalArgumentException for an invalid placement. */
+    public RankedHintDto rankMoves(CompiledPuzzle puzzle, int month, int day, List<PlacementDto> placed, int limit) {
+        return withinBudget(rankBudgetMillis,
+                cancelled -> puzzle.rankMoves(month, day, placed, limit, rankExecutor, rankThreads, cancelled));
+    }
+
+    /** See CompiledPuzzle.closest(); throws IllegalArgumentException for an invalid placement. */
+    public ClosestDto closest(CompiledPuzzle puzzle, int month, int day, List<PlacementDto> placed) {
+        return withinBudget(closestBudgetMillis, cancelled -> puzzle.closest(month, day, placed, cancelled));
+    }
+
+    /** PlaySession.hint() on the live board, with the same budget as hint(). */
+    public HintDto hint(PlaySession session) {
+        return withinBudget(budgetMillis, session::hint);
+    }
+
+    /** PlaySession.check() on the live board, with the same budget as check(). */
+    public CheckDto check(PlaySession session) {
+        return withinBudget(checkBudgetMillis, session::check);
+    }
+
+    /** Runs {@code search} with a cancel flag the timer raises after {@code millis}. */
+    private <T> T withinBudget(long millis, Function<AtomicBoolean, T> search) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ScheduledFuture<?> deadline = timer.schedule(() -> cancelled.set(true), millis, TimeUnit.MILLISECONDS);
+        try {
+            return search.apply(cancelled);
+        } finally {
+            deadline.cancel(false);
+        }
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    public long getCheckBudgetMillis() {
+        return checkBudgetMillis;
+    }
+
+    public long getRankBudgetMillis() {
+        return rankBudgetMillis;
+    }
+
+    public long getClosestBudgetMillis() {
+        return closestBudgetMillis;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        rankExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,90 @@
+package com.wholeyear.solver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.time.Year;
+
+/**
+ * Background solver jobs (see SolveJobService):
+ *   • POST   /api/jobs?type=COUNT&date=YYYY-MM-DD      → 202 + the queued job
+ *   • POST   /api/jobs?type=COUNT_YEAR&year=YYYY       → 202 + the queued job
+ *   • GET    /api/jobs/{id}                            → status, progress, result
+ *   • DELETE /api/jobs/{id}                            → cancel
+ * Optional parameters: puzzle (default puzzle), priority 0–9 (5). A full queue is a
+ * 429 with Retry-After.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+    private static final Logger log = LoggerFactory.getLogger(JobController.class);
+
+    /** Suggested wait (seconds) before resubmitting to a full queue. */
+    static final String RETRY_AFTER_SECONDS = "5";
+
+    private final PuzzleCatalog catalog;
+    private final SolveJobService jobs;
+
+    public JobController(PuzzleCatalog catalog, SolveJobService jobs) {
+        this.catalog = catalog;
+        this.jobs = jobs;
+    }
+
+    @PostMapping
+    public ResponseEntity<SolveJob> submit(
+            @RequestParam("type") SolveJob.Type type,
+            @RequestParam(value = "date", required = false) String date,
+            @RequestParam(value = "year", required = false) Integer year,
+            @RequestParam(value = "puzzle", required = false) String puzzleId,
+            @RequestParam(value = "priority", defaultValue = "5") int priority) {
+        CompiledPuzzle puzzle = puzzleId == null ? catalog.getDefault() : catalog.get(puzzleId);
+        if (puzzle == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown puzzle " + puzzleId);
+        }
+        SolveJob job;
+        try {
+            if (type == SolveJob.Type.COUNT) {
+                int[] monthDay = SolverController.parseDate(date);
+                job = jobs.submitCount(puzzle, monthDay[0], monthDay[1], priority);
+            } else {
+                job = jobs.submitYearCount(puzzle, year != null ? year : Year.now().getValue(), priority);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        log.info("POST /api/jobs — {} job {} for {}", type, job.getId(), puzzle.getId());
+        return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getId())).body(job);
+    }
+
+    @GetMapping("/{id}")
+    public SolveJob get(@PathVariable("id") String id) {
+        return found(jobs.get(id), id);
+    }
+
+    @DeleteMapping("/{id}")
+    public SolveJob cancel(@PathVariable("id") String id) {
+        SolveJob job = found(jobs.cancel(id), id);
+        log.info("DELETE /api/jobs/{} — {}", id, job.getState());
+        return job;
+    }
+
+    @ExceptionHandler(SolveJobService.QueueFullException.class)
+    public ResponseEntity<String> queueFull(SolveJobService.QueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(e.getMessage());
+    }
+
+    private static SolveJob found(SolveJob job, String id) {
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown or expired job " + id);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,145 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A JSON response body serialized once: the UTF-8 bytes, a gzip copy when that is
+ * smaller, and a strong ETag for each. Used for /board and /pieces, whose bodies
+ * depend only on the puzzle and the date, so repeat requests skip Jackson entirely
+ * and clients holding the ETag get a 304 without a body.
+ *
+ * ETags are the first 16 bytes (hex) of the body's SHA-256, so they change exactly
+ * when the bytes do, e.g. after a puzzle file is edited. The gzip copy has its own
+ * ETag ("...-gz") as a strong validator must; If-None-Match accepts either.
+ */
+public class JsonPayload {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final byte[] body;
+    private final byte[] gzipBody;     // null when gzip would not be smaller
+    private final String etag;
+    private final String gzipEtag;
+
+    private JsonPayload(byte[] body) {
+        this.body = body;
+        String tag = PuzzleCatalog.sha256(body).substring(0, 32);
+        this.etag = "\"" + tag + "\"";
+        byte[] gz = gzip(body);
+        this.gzipBody = gz.length < body.length ? gz : null;
+        this.gzipEtag = "\"" + tag + "-gz\"";
+    }
+
+    /** Serializes {@code value} as the API would. */
+    public static JsonPayload of(Object value) {
+        try {
+            return new JsonPayload(MAPPER.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    /** The gzip-compressed body, or null if compression does not make it smaller. */
+    public byte[] getGzipBody() {
+        return gzipBody;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * The response for a GET: 304 if {@code ifNoneMatch} names this payload, else 200
+     * with the gzip body when {@code acceptEncoding} allows it. Both carry the ETag,
+     * Cache-Control and Vary: Accept-Encoding.
+     */
+    public ResponseEntity<byte[]> toResponse(String ifNoneMatch, String acceptEncoding, CacheControl cacheControl) {
+        boolean gzipped = gzipBody != null && acceptsGzip(acceptEncoding);
+        boolean notModified = matches(ifNoneMatch);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(gzipped ? gzipEtag : etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (notModified) {
+            return builder.build();
+        }
+        builder.contentType(MediaType.APPLICATION_JSON);
+        if (gzipped) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(gzipped ? gzipBody : body);
+    }
+
+    /** True if an If-None-Match header lists this payload's ETag (either encoding) or "*". */
+    boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);   // If-None-Match uses the weak comparison
+            }
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** True if an Accept-Encoding header allows gzip: listed (or "*") with q > 0; "gzip" wins over "*". */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipQ = -1;
+        double anyQ = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;   // malformed weight: ignore the coding
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase("gzip")) {
+                gzipQ = q;
+            } else if (name.equals("*")) {
+                anyQ = q;
+            }
+        }
+        return gzipQ >= 0 ? gzipQ > 0 : anyQ > 0;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 32);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,112 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.wholeyear.util.PlacementDto;
+
+import java.util.List;
+
+/**
+ * One message from the server on /ws/play, as JSON text. Only the fields of its type
+ * are present:
+ *
+ *   • SESSION  — on connect: sessionId, puzzleId, month, day, placed (empty)
+ *   • PLACED, REMOVED — the move was applied; placed is the board after it
+ *   • REJECTED — the move was not applied (overlap, date cell, piece already placed,
+ *                or not on the board); message says why, placed is unchanged
+ *   • CHECK    — check (a CheckDto)
+ *   • HINT     — hint (a HintDto)
+ *   • ERROR    — the message could not be read; message says why
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PlayReply {
+
+    public enum Type {
+        SESSION, PLACED, REMOVED, REJECTED, CHECK, HINT, ERROR
+    }
+
+    private final Type type;
+    private String sessionId;
+    private String puzzleId;
+    private Integer month;
+    private Integer day;
+    private List<PlacementDto> placed;
+    private CheckDto check;
+    private HintDto hint;
+    private String message;
+
+    private PlayReply(Type type) {
+        this.type = type;
+    }
+
+    public static PlayReply session(PlaySession session) {
+        PlayReply reply = new PlayReply(Type.SESSION);
+        reply.sessionId = session.getId();
+        reply.puzzleId = session.getPuzzle().getId();
+        reply.month = session.getMonth();
+        reply.day = session.getDay();
+        reply.placed = session.getPlaced();
+        return reply;
+    }
+
+    /** PLACED, REMOVED or REJECTED, with the board as it now is. */
+    public static PlayReply move(Type type, PlaySession session, String message) {
+        PlayReply reply = new PlayReply(type);
+        reply.placed = session.getPlaced();
+        reply.message = message;
+        return reply;
+    }
+
+    public static PlayReply check(CheckDto check) {
+        PlayReply reply = new PlayReply(Type.CHECK);
+        reply.check = check;
+        return reply;
+    }
+
+    public static PlayReply hint(HintDto hint) {
+        PlayReply reply = new PlayReply(Type.HINT);
+        reply.hint = hint;
+        return reply;
+    }
+
+    public static PlayReply error(String message) {
+        PlayReply reply = new PlayReply(Type.ERROR);
+        reply.message = message;
+        return reply;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getPuzzleId() {
+        return puzzleId;
+    }
+
+    public Integer getMonth() {
+        return month;
+    }
+
+    public Integer getDay() {
+        return day;
+    }
+
+    public List<PlacementDto> getPlaced() {
+        return placed;
+    }
+
+    public CheckDto getCheck() {
+        return check;
+    }
+
+    public HintDto getHint() {
+        return hint;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,56 @@
+package com.wholeyear.solver;
+
+import com.wholeyear.model.Cell;
+import com.wholeyear.util.PlacementDto;
+
+import java.util.List;
+
+/**
+ * One message from the client on /ws/play, as JSON text:
+ *
+ *   • {"type": "PLACE", "pieceId": 3, "cells": [...]} — put a piece on the board
+ *   • {"type": "REMOVE", "pieceId": 3}                — take it off again
+ *   • {"type": "CHECK"}                               — can the board still be completed?
+ *   • {"type": "HINT"}                                — the placements that complete it
+ */
+public class PlayRequest {
+
+    public enum Type {
+        PLACE, REMOVE, CHECK, HINT
+    }
+
+    private Type type;
+    private Integer pieceId;
+    private List<Cell> cells;
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    /** Piece index, as in PlacementDto; PLACE and REMOVE only. */
+    public Integer getPieceId() {
+        return pieceId;
+    }
+
+    public void setPieceId(Integer pieceId) {
+        this.pieceId = pieceId;
+    }
+
+    /** Cells the piece covers; PLACE only. */
+    public List<Cell> getCells() {
+        return cells;
+    }
+
+    public void setCells(List<Cell> cells) {
+        this.cells = cells;
+    }
+
+    /** The piece this PLACE puts down; pieceId and cells must both be set. */
+    public PlacementDto toPlacement() {
+        return new PlacementDto(pieceId, cells);
+    }
+}
@@ -0,0 +1,207 @@
+package com.wholeyear.solver;
+
+import com.wholeyear.util.CoverTemplate;
+import com.wholeyear.util.ExactCoverSolver;
+import com.wholeyear.util.Placement;
+import com.wholeyear.util.PlacementDto;
+import com.wholeyear.util.VerdictCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One player's board for a date, kept in memory between WebSocket messages (see
+ * PlaySocketHandler) instead of being rebuilt for every request as /api/hint and
+ * /api/check do.
+ *
+ * The session owns a copy of the puzzle's pruned CoverTemplate matrix with the date's
+ * two cells excluded. Placing a piece selects its row (ExactCoverSolver.selectRow),
+ * which covers only that row's columns. Removing the last piece placed uncovers them
+ * again. Removing an earlier one also takes off the pieces placed after it, then puts
+ * them back, since DLX uncovers in reverse order. check() and hint() search the live
+ * matrix, which every DLX run leaves as it found it. Verdicts go through the puzzle's
+ * VerdictCache, so they are shared with /api/check.
+ *
+ * Methods are synchronized: messages arrive one at a time, but the idle sweeper reads
+ * getLastActive() from its own thread.
+ */
+public class PlaySession {
+
+    private final String id;
+    private final CompiledPuzzle puzzle;
+    private final int month;
+    private final int day;
+    private final CoverTemplate template;
+    private final ExactCoverSolver dlx;
+    private final int[] dateColumns;
+    private final long memoryBytes;
+    private final List<Integer> rows = new ArrayList<>();            // selected rows, in selection order
+    private final List<PlacementDto> placed = new ArrayList<>();     // parallel to rows
+    private long lastActive;
+
+    /**
+     * Throws IllegalArgumentException if the puzzle's board has no cell for the date.
+     *
+     * @param now creation time, the first getLastActive()
+     */
+    PlaySession(String id, CompiledPuzzle puzzle, int month, int day, long now) {
+        this.id = id;
+        this.puzzle = puzzle;
+        this.month = month;
+        this.day = day;
+        this.template = puzzle.coverTemplate();
+        int monthColumn = puzzle.labelColumn(template, CompiledPuzzle.monthLabel(month));
+        int dayColumn = puzzle.labelColumn(template, String.valueOf(day));
+        if (monthColumn < 0 || dayColumn < 0) {
+            throw new IllegalArgumentException(
+                "Puzzle " + puzzle.getId() + " has no cells for " + CompiledPuzzle.monthLabel(month) + " " + day);
+        }
+        this.dateColumns = new int[]{monthColumn, dayColumn};
+        this.dlx = template.newPrunedSolver();
+        dlx.excludeColumn(monthColumn);
+        dlx.excludeColumn(dayColumn);
+        this.memoryBytes = template.getSolverBytes();
+        this.lastActive = now;
+    }
+
+    /**
+     * Places a piece. Returns false, and changes nothing, if it overlaps a placed piece
+     * or the date, or if its piece is already on the board. Throws
+     * IllegalArgumentException for an unknown piece index or cells that are not a
+     * placement of that piece here.
+     */
+    public synchronized boolean place(PlacementDto placement) {
+        int row = puzzle.placedRow(template, placement);
+        if (!dlx.selectRow(row)) {
+            return false;
+        }
+        rows.add(row);
+        placed.add(placement);
+        return true;
+    }
+
+    /** Takes piece {@code pieceId} (index, as in PlacementDto) off the board; false if it is not on it. */
+    public synchronized boolean remove(int pieceId) {
+        int index = -1;
+        for (int i = 0; i < placed.size() && index < 0; i++) {
+            if (placed.get(i).getPieceId() == pieceId) {
+                index = i;
+            }
+        }
+        if (index < 0) {
+            return false;
+        }
+        for (int i = rows.size() - 1; i >= index; i--) {
+            dlx.unselectRow();
+        }
+        rows.remove(index);
+        placed.remove(index);
+        for (int i = index; i < rows.size(); i++) {
+            dlx.selectRow(rows.get(i));   // cannot clash: it fitted with more pieces on the board
+        }
+        return true;
+    }
+
+    /**
+     * Whether the board can still be completed, as CompiledPuzzle.check() answers it:
+     * from the VerdictCache when it knows the state, else by a pruned first-solution
+     * search. Setting {@code cancelled} gives UNKNOWN, which is not cached.
+     */
+    public synchronized CheckDto check(AtomicBoolean cancelled) {
+        long start = System.nanoTime();
+        VerdictCache verdicts = puzzle.getVerdictCache();
+        long[] mask = template.coverMask(dateColumns, selectedRows());
+        Boolean known = verdicts.get(mask);
+        if (known != null) {
+            return new CheckDto(known ? CheckDto.Verdict.SOLVABLE : CheckDto.Verdict.UNSOLVABLE,
+                    true, 0, micros(start));
+        }
+
+        dlx.setCancelFlag(cancelled);
+        boolean solvable;
+        try {
+            solvable = dlx.solve() != null;
+        } finally {
+            dlx.setCancelFlag(null);
+        }
+        if (!solvable && cancelled.get()) {
+            return new CheckDto(CheckDto.Verdict.UNKNOWN, false, dlx.getNodeCount(), micros(start));
+        }
+        verdicts.put(mask, solvable);
+        return new CheckDto(solvable ? CheckDto.Verdict.SOLVABLE : CheckDto.Verdict.UNSOLVABLE,
+                false, dlx.getNodeCount(), micros(start));
+    }
+
+    /**
+     * The placements that complete the board, as CompiledPuzzle.hint() gives them (the
+     * player's own are not repeated). Setting {@code cancelled} gives TIMEOUT.
+     */
+    public synchronized HintDto hint(AtomicBoolean cancelled) {
+        long start = System.nanoTime();
+        dlx.setCancelFlag(cancelled);
+        List<Integer> solutionRows;
+        try {
+            solutionRows = dlx.solve();
+        } finally {
+            dlx.setCancelFlag(null);
+        }
+        if (solutionRows == null) {
+            HintDto.Status status = cancelled.get() ? HintDto.Status.TIMEOUT : HintDto.Status.UNSOLVABLE;
+            return new HintDto(status, Collections.emptyList(), dlx.getNodeCount(), micros(start));
+        }
+        List<Placement> completion = new ArrayList<>();
+        for (int r : solutionRows.subList(rows.size(), solutionRows.size())) {
+            completion.add(template.getPlacements().get(r));
+        }
+        return new HintDto(HintDto.Status.SOLVED, puzzle.toDtos(completion), dlx.getNodeCount(), micros(start));
+    }
+
+    /** The pieces on the board, in the order they were placed. */
+    public synchronized List<PlacementDto> getPlaced() {
+        return new ArrayList<>(placed);
+    }
+
+    /** Marks the session as used at {@code now}, postponing idle eviction. */
+    public synchronized void touch(long now) {
+        lastActive = now;
+    }
+
+    public synchronized long getLastActive() {
+        return lastActive;
+    }
+
+    private int[] selectedRows() {
+        int[] selected = new int[rows.size()];
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = rows.get(i);
+        }
+        return selected;
+    }
+
+    private static long micros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public CompiledPuzzle getPuzzle() {
+        return puzzle;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getDay() {
+        return day;
+    }
+
+    /** Heap the session's matrix copy takes, as counted against solver.play.max-memory-mb. */
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+}
@@ -0,0 +1,147 @@
+package com.wholeyear.solver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * The live PlaySessions, bounded two ways:
+ *
+ *   • Memory: each session holds its own copy of the puzzle's exact-cover matrix
+ *     (PlaySession.getMemoryBytes()), and the copies together may take at most
+ *     {@code maxMemoryBytes}. Opening one more throws SessionLimitException; live
+ *     players are never evicted to make room.
+ *   • Idle time: a session with no message for {@code idleTimeoutMillis} is dropped by
+ *     the periodic sweep, and the eviction listener (the WebSocket handler) is told
+ *     so it can close the connection.
+ */
+@Component
+public class PlaySessionService {
+    private static final Logger log = LoggerFactory.getLogger(PlaySessionService.class);
+
+    /** Thrown when one more session would exceed the memory cap. */
+    public static class SessionLimitException extends RuntimeException {
+        public SessionLimitException(long maxMemoryBytes) {
+            super("Play sessions are at their memory cap (" + (maxMemoryBytes >> 20) + " MB); try again later");
+        }
+    }
+
+    private final long idleTimeoutMillis;
+    private final long maxMemoryBytes;
+    private final Map<String, PlaySession> sessions = new ConcurrentHashMap<>();
+    private long memoryBytes;   // guarded by this
+    private volatile Consumer<PlaySession> evictionListener;
+
+    public PlaySessionService(@Value("${solver.play.idle-timeout-ms:300000}") long idleTimeoutMillis,
+                              @Value("${solver.play.max-memory-mb:256}") long maxMemoryMb) {
+        if (idleTimeoutMillis < 1 || maxMemoryMb < 1) {
+            throw new IllegalArgumentException("Invalid play settings: idleTimeoutMillis=" + idleTimeoutMillis
+                    + ", maxMemoryMb=" + maxMemoryMb);
+        }
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxMemoryBytes = maxMemoryMb << 20;
+    }
+
+    /**
+     * Opens a session for a date, or throws SessionLimitException. Throws
+     * IllegalArgumentException if the puzzle has no cells for the date.
+     */
+    public PlaySession open(CompiledPuzzle puzzle, int month, int day) {
+        SolutionCache.slot(month, day);   // validates the date
+        long bytes = puzzle.coverTemplate().getSolverBytes();
+        synchronized (this) {
+            if (memoryBytes + bytes > maxMemoryBytes) {
+                log.warn("Rejected play session for {}: {} sessions hold {} of {} bytes", puzzle.getId(),
+                        sessions.size(), memoryBytes, maxMemoryBytes);
+                throw new SessionLimitException(maxMemoryBytes);
+            }
+            memoryBytes += bytes;
+        }
+        PlaySession session;
+        try {
+            session = new PlaySession(UUID.randomUUID().toString(), puzzle, month, day, System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            release(bytes);
+            throw e;
+        }
+        sessions.put(session.getId(), session);
+        log.info("Opened play session {} for {} {} {} ({} live)", session.getId(), puzzle.getId(),
+                CompiledPuzzle.monthLabel(month), day, sessions.size());
+        return session;
+    }
+
+    /** The session with this id, or null if there is none (closed or evicted). */
+    public PlaySession get(String id) {
+        return sessions.get(id);
+    }
+
+    /** Ends a session and frees its share of the memory cap; false if it was already gone. */
+    public boolean close(String id) {
+        PlaySession session = sessions.remove(id);
+        if (session == null) {
+            return false;
+        }
+        release(session.getMemoryBytes());
+        return true;
+    }
+
+    /** Drops sessions idle longer than the timeout and tells the eviction listener; returns how many. */
+    @Scheduled(initialDelayString = "${solver.play.sweep-interval:30000}",
+               fixedDelayString = "${solver.play.sweep-interval:30000}")
+    public int evictIdle() {
+        return evictIdle(System.currentTimeMillis());
+    }
+
+    int evictIdle(long now) {
+        List<PlaySession> evicted = new ArrayList<>();
+        for (PlaySession session : sessions.values()) {
+            if (now - session.getLastActive() > idleTimeoutMillis && close(session.getId())) {
+                evicted.add(session);
+            }
+        }
+        Consumer<PlaySession> listener = evictionListener;
+        for (PlaySession session : evicted) {
+            log.info("Evicted play session {} after {}ms idle", session.getId(), now - session.getLastActive());
+            if (listener != null) {
+                listener.accept(session);
+            }
+        }
+        return evicted.size();
+    }
+
+    /** Installs the callback told about each evicted session (null to remove). */
+    public void setEvictionListener(Consumer<PlaySession> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    private synchronized void release(long bytes) {
+        memoryBytes -= bytes;
+    }
+
+    /** Live sessions. */
+    public int size() {
+        return sessions.size();
+    }
+
+    /** Heap the live sessions' matrices take, as counted against the cap. */
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public long getMaxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+}
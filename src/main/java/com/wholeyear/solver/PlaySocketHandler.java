@@ -0,0 +1,189 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WebSocket endpoint /ws/play?date=YYYY-MM-DD&puzzle=id: one PlaySession per
+ * connection, so a player's moves update a board kept in memory instead of each
+ * check or hint rebuilding it. Messages are PlayRequest in, PlayReply out (JSON
+ * text), one reply per request, in order.
+ *
+ * The connection is closed with
+ *   • BAD_DATA (1007) for an unknown puzzle or an invalid date,
+ *   • SERVICE_OVERLOAD (1013) when the sessions are at solver.play.max-memory-mb,
+ *   • GOING_AWAY (1001) once the session has been idle for solver.play.idle-timeout-ms.
+ * Closing the connection from either side ends the session.
+ */
+@Component
+public class PlaySocketHandler extends TextWebSocketHandler {
+    private static final Logger log = LoggerFactory.getLogger(PlaySocketHandler.class);
+
+    private static final String SESSION_ATTRIBUTE = "playSession";
+    private static final int SEND_TIME_LIMIT_MILLIS = 5_000;
+    private static final int SEND_BUFFER_LIMIT = 256 * 1024;
+    private static final int MAX_REASON_BYTES = 123;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final PuzzleCatalog catalog;
+    private final PlaySessionService sessions;
+    private final HintService hints;
+    private final Map<String, WebSocketSession> connections = new ConcurrentHashMap<>();   // by play session id
+
+    public PlaySocketHandler(PuzzleCatalog catalog, PlaySessionService sessions, HintService hints) {
+        this.catalog = catalog;
+        this.sessions = sessions;
+        this.hints = hints;
+        sessions.setEvictionListener(this::evicted);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession socket) throws IOException {
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(socket.getUri()).build().getQueryParams();
+        String puzzleId = params.getFirst("puzzle");
+        CompiledPuzzle puzzle = puzzleId == null ? catalog.getDefault() : catalog.get(puzzleId);
+        if (puzzle == null) {
+            socket.close(CloseStatus.BAD_DATA.withReason(reason("Unknown puzzle " + puzzleId)));
+            return;
+        }
+        PlaySession play;
+        try {
+            int[] monthDay = SolverController.parseDate(params.getFirst("date"));
+            play = sessions.open(puzzle, monthDay[0], monthDay[1]);
+        } catch (ResponseStatusException e) {
+            socket.close(CloseStatus.BAD_DATA.withReason(reason(e.getReason())));
+            return;
+        } catch (IllegalArgumentException e) {
+            socket.close(CloseStatus.BAD_DATA.withReason(reason(e.getMessage())));
+            return;
+        } catch (PlaySessionService.SessionLimitException e) {
+            socket.close(CloseStatus.SERVICE_OVERLOAD.withReason(e.getMessage()));
+            return;
+        }
+
+        // Eviction closes the connection from the sweeper's thread, so sends are serialized
+        WebSocketSession connection = new ConcurrentWebSocketSessionDecorator(
+                socket, SEND_TIME_LIMIT_MILLIS, SEND_BUFFER_LIMIT);
+        socket.getAttributes().put(SESSION_ATTRIBUTE, play);
+        connections.put(play.getId(), connection);
+        send(connection, PlayReply.session(play));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession socket, TextMessage message) throws IOException {
+        PlaySession play = (PlaySession) socket.getAttributes().get(SESSION_ATTRIBUTE);
+        WebSocketSession connection = play == null ? null : connections.get(play.getId());
+        if (connection == null) {
+            return;   // evicted; the close is on its way
+        }
+        play.touch(System.currentTimeMillis());
+        send(connection, reply(play, message.getPayload()));
+    }
+
+    private PlayReply reply(PlaySession play, String payload) {
+        PlayRequest request;
+        try {
+            request = mapper.readValue(payload, PlayRequest.class);
+        } catch (JsonProcessingException e) {
+            return PlayReply.error("Unreadable message: " + e.getOriginalMessage());
+        }
+        if (request.getType() == null) {
+            return PlayReply.error("Message has no type");
+        }
+        long start = System.nanoTime();
+        PlayReply reply;
+        switch (request.getType()) {
+            case PLACE:
+                if (request.getPieceId() == null || request.getCells() == null) {
+                    reply = PlayReply.move(PlayReply.Type.REJECTED, play, "PLACE needs a pieceId and cells");
+                    break;
+                }
+                try {
+                    reply = play.place(request.toPlacement())
+                            ? PlayReply.move(PlayReply.Type.PLACED, play, null)
+                            : PlayReply.move(PlayReply.Type.REJECTED, play,
+                                    "Piece " + request.getPieceId() + " overlaps the date or a placed piece, or is placed already");
+                } catch (IllegalArgumentException e) {
+                    reply = PlayReply.move(PlayReply.Type.REJECTED, play, e.getMessage());
+                }
+                break;
+            case REMOVE:
+                reply = request.getPieceId() != null && play.remove(request.getPieceId())
+                        ? PlayReply.move(PlayReply.Type.REMOVED, play, null)
+                        : PlayReply.move(PlayReply.Type.REJECTED, play, "Piece " + request.getPieceId() + " is not on the board");
+                break;
+            case CHECK:
+                reply = PlayReply.check(hints.check(play));
+                break;
+            case HINT:
+                reply = PlayReply.hint(hints.hint(play));
+                break;
+            default:
+                throw new IllegalStateException("Unhandled message type " + request.getType());
+        }
+        log.debug("/ws/play {} — {} → {} ({}µs)", play.getId(), request.getType(), reply.getType(),
+                (System.nanoTime() - start) / 1000);
+        return reply;
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession socket, CloseStatus status) {
+        PlaySession play = (PlaySession) socket.getAttributes().get(SESSION_ATTRIBUTE);
+        if (play != null) {
+            connections.remove(play.getId());
+            sessions.close(play.getId());
+        }
+    }
+
+    private void evicted(PlaySession play) {
+        WebSocketSession connection = connections.remove(play.getId());
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close(CloseStatus.GOING_AWAY.withReason("Idle for over "
+                    + sessions.getIdleTimeoutMillis() + "ms"));
+        } catch (IOException e) {
+            log.debug("Closing evicted play session {} failed: {}", play.getId(), e.toString());
+        }
+    }
+
+    private void send(WebSocketSession connection, PlayReply reply) throws IOException {
+        connection.sendMessage(new TextMessage(mapper.writeValueAsString(reply)));
+    }
+
+    /** {@code text} cut to the bytes a close frame allows for its reason, on a UTF-8 character boundary. */
+    private static String reason(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_REASON_BYTES) {
+            return text;
+        }
+        int end = MAX_REASON_BYTES;
+        while ((bytes[end] & 0xC0) == 0x80) {
+            end--;   // continuation byte: back up to the start of its character
+        }
+        return new String(bytes, 0, end, StandardCharsets.UTF_8);
+    }
+
+    /** Open connections with a live session. */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+}
@@ -0,0 +1,269 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * All puzzles the API serves, keyed by id.
+ *
+ * Puzzle files are JSON (see PuzzleDefinition). They are read from the classpath
+ * (puzzles/*.json, bundled with the app) and, if solver.puzzles.dir is set, from that
+ * directory; a directory file overrides a bundled one with the same id. Each file is
+ * identified by the SHA-256 of its bytes and compiled once into a CompiledPuzzle.
+ *
+ * rescan() re-reads the directory every solver.puzzles.rescan-interval ms: new or
+ * changed files are compiled and swapped in, deleted ones fall back to the bundled
+ * version or disappear, and unchanged files keep their compiled puzzle and cache.
+ * A file that fails to parse or compile is logged and the previous version stays live.
+ */
+@Component
+public class PuzzleCatalog {
+    private static final Logger log = LoggerFactory.getLogger(PuzzleCatalog.class);
+
+    static final String CLASSPATH_PATTERN = "classpath*:puzzles/*.json";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path directory;                  // null if not configured
+    private final String defaultId;
+    private final SolutionCache.WarmupPolicy warmupPolicy;
+    private final long maxWaitMillis;
+    private final int verdictCacheSize;
+    private final Map<String, CompiledPuzzle> bundled;
+
+    private volatile Map<String, CompiledPuzzle> puzzles;
+    private volatile boolean ready;
+    private volatile CompiledPuzzle.SolveListener solveListener;
+    private Map<Path, String> idByFile = new HashMap<>();   // last id each directory file produced
+
+    public PuzzleCatalog(String directory, String defaultId, SolutionCache.WarmupPolicy warmupPolicy) {
+        this(directory, defaultId, warmupPolicy, SolutionCache.DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    public PuzzleCatalog(String directory, String defaultId, SolutionCache.WarmupPolicy warmupPolicy,
+                         long maxWaitMillis) {
+        this(directory, defaultId, warmupPolicy, maxWaitMillis, CompiledPuzzle.DEFAULT_VERDICT_CACHE_SIZE);
+    }
+
+    @Autowired
+    public PuzzleCatalog(
+            @Value("${solver.puzzles.dir:}") String directory,
+            @Value("${solver.puzzles.default:whole-year}") String defaultId,
+            @Value("${solver.cache.warmup:LAZY}") SolutionCache.WarmupPolicy warmupPolicy,
+            @Value("${solver.coalesce.max-wait-ms:10000}") long maxWaitMillis,
+            @Value("${solver.check.cache-size:65536}") int verdictCacheSize) {
+        this.directory = directory == null || directory.isBlank() ? null : Paths.get(directory);
+        this.defaultId = defaultId;
+        this.warmupPolicy = warmupPolicy;
+        this.maxWaitMillis = maxWaitMillis;
+        this.verdictCacheSize = verdictCacheSize;
+        this.bundled = Collections.unmodifiableMap(loadBundled());
+        this.puzzles = Collections.emptyMap();
+        rescan();
+        if (!puzzles.containsKey(defaultId)) {
+            throw new IllegalStateException("Default puzzle " + defaultId + " not found in " + puzzles.keySet());
+        }
+    }
+
+    /** The puzzle with this id, or null. */
+    public CompiledPuzzle get(String id) {
+        return puzzles.get(id);
+    }
+
+    /** The puzzle served by the un-prefixed /api endpoints (solver.puzzles.default). */
+    public CompiledPuzzle getDefault() {
+        return puzzles.get(defaultId);
+    }
+
+    /** All live puzzles, ordered by id. */
+    public Collection<CompiledPuzzle> getAll() {
+        return puzzles.values();
+    }
+
+    /**
+     * Installs a listener on every puzzle, including those compiled by later rescans
+     * (see CompiledPuzzle.SolveListener).
+     */
+    public synchronized void setSolveListener(CompiledPuzzle.SolveListener solveListener) {
+        this.solveListener = solveListener;
+        for (CompiledPuzzle puzzle : bundled.values()) {
+            puzzle.setSolveListener(solveListener);
+        }
+        for (CompiledPuzzle puzzle : puzzles.values()) {
+            puzzle.setSolveListener(solveListener);
+        }
+    }
+
+    /**
+     * Re-reads the puzzle directory and swaps in new or changed puzzles. Returns the
+     * ids that were (re)compiled.
+     */
+    @Scheduled(initialDelayString = "${solver.puzzles.rescan-interval:60000}",
+               fixedDelayString = "${solver.puzzles.rescan-interval:60000}")
+    public synchronized List<String> rescan() {
+        Map<String, CompiledPuzzle> current = puzzles;
+        Map<String, CompiledPuzzle> next = new TreeMap<>(bundled);
+        Map<Path, String> nextIdByFile = new HashMap<>();
+        Set<String> fromDirectory = new HashSet<>();
+        List<String> compiled = new ArrayList<>();
+
+        for (Path file : directoryFiles()) {
+            CompiledPuzzle puzzle;
+            boolean fresh = false;
+            try {
+                byte[] bytes = Files.readAllBytes(file);
+                String hash = sha256(bytes);
+                puzzle = findByHash(current, hash);
+                if (puzzle == null) {
+                    puzzle = compile(bytes, hash);
+                    fresh = true;
+                }
+            } catch (IOException | RuntimeException e) {
+                // Keep serving what this file produced last time, if anything
+                log.warn("Could not load puzzle file {}: {}", file, e.toString());
+                String lastId = idByFile.get(file);
+                puzzle = lastId != null && current.get(lastId) != bundled.get(lastId) ? current.get(lastId) : null;
+                if (puzzle == null) {
+                    continue;
+                }
+            }
+            if (!fromDirectory.add(puzzle.getId())) {
+                log.warn("Puzzle file {} repeats id {}; ignoring it", file, puzzle.getId());
+                continue;
+            }
+            next.put(puzzle.getId(), puzzle);
+            nextIdByFile.put(file, puzzle.getId());
+            if (fresh) {
+                compiled.add(puzzle.getId());
+            }
+        }
+
+        if (!next.keySet().equals(current.keySet()) || !compiled.isEmpty()) {
+            log.info("Puzzle catalog: {} (recompiled {})", next.keySet(), compiled);
+        }
+        this.puzzles = Collections.unmodifiableMap(next);
+        this.idByFile = nextIdByFile;
+        if (ready) {
+            for (String id : compiled) {
+                warmUp(next.get(id));
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * With solver.cache.warmup=EAGER, solves every date of every puzzle in the
+     * background once the application is up; puzzles compiled later are warmed as
+     * they arrive.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpSolutionCaches() {
+        ready = true;
+        for (CompiledPuzzle puzzle : puzzles.values()) {
+            warmUp(puzzle);
+        }
+    }
+
+    private void warmUp(CompiledPuzzle puzzle) {
+        if (warmupPolicy != SolutionCache.WarmupPolicy.EAGER) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors());
+        Thread warmer = new Thread(() -> {
+            try {
+                puzzle.getSolutionCache().warmUp(executor);
+            } finally {
+                executor.shutdown();
+            }
+        }, "solution-cache-warmup-" + puzzle.getId());
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /** Parses and compiles one puzzle file. */
+    CompiledPuzzle compile(byte[] bytes, String hash) throws IOException {
+        PuzzleDefinition definition = objectMapper.readValue(bytes, PuzzleDefinition.class);
+        CompiledPuzzle puzzle = new CompiledPuzzle(definition, hash, warmupPolicy, maxWaitMillis, verdictCacheSize);
+        puzzle.setSolveListener(solveListener);
+        return puzzle;
+    }
+
+    private Map<String, CompiledPuzzle> loadBundled() {
+        Map<String, CompiledPuzzle> loaded = new TreeMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(CLASSPATH_PATTERN)) {
+                try (InputStream in = resource.getInputStream()) {
+                    byte[] bytes = in.readAllBytes();
+                    CompiledPuzzle puzzle = compile(bytes, sha256(bytes));
+                    if (loaded.putIfAbsent(puzzle.getId(), puzzle) != null) {
+                        log.warn("Bundled puzzle {} repeats id {}; ignoring it", resource, puzzle.getId());
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.error("Could not load bundled puzzle {}: {}", resource, e.toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not list bundled puzzles", e);
+        }
+        return loaded;
+    }
+
+    private List<Path> directoryFiles() {
+        if (directory == null) {
+            return Collections.emptyList();
+        }
+        if (!Files.isDirectory(directory)) {
+            log.warn("Puzzle directory {} does not exist", directory);
+            return Collections.emptyList();
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.json")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not list puzzle directory {}: {}", directory, e.toString());
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static CompiledPuzzle findByHash(Map<String, CompiledPuzzle> puzzles, String hash) {
+        for (CompiledPuzzle puzzle : puzzles.values()) {
+            if (puzzle.getContentHash().equals(hash)) {
+                return puzzle;
+            }
+        }
+        return null;
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.wholeyear.solver;
+
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+/**
+ * GET /api/puzzles: the puzzles in the catalog. Their /api/{puzzleId}/board, /pieces
+ * and /solve endpoints are served by SolverController next to the default puzzle's.
+ */
+@RestController
+@RequestMapping("/api")
+public class PuzzleController {
+
+    private final PuzzleCatalog catalog;
+
+    public PuzzleController(PuzzleCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    @GetMapping("/puzzles")
+    public List<PuzzleDto> getPuzzles() {
+        List<PuzzleDto> puzzles = new ArrayList<>();
+        for (CompiledPuzzle puzzle : catalog.getAll()) {
+            puzzles.add(new PuzzleDto(puzzle.getId(), puzzle.getName(), puzzle.getContentHash()));
+        }
+        return puzzles;
+    }
+}
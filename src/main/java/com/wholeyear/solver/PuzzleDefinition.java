@@ -0,0 +1,95 @@
+package com.wholeyear.solver;
+
+import java.util.List;
+
+/**
+ * JSON form of a puzzle file (see resources/puzzles/whole-year.json).
+ *
+ *   • id     — URL-safe key, used as /api/{id}/...
+ *   • name   — display name
+ *   • board  — ASCII shape ('#' = fillable) and a label per cell, as in Definition.createBoard()
+ *   • pieces — piece id plus ASCII template, as in Definition.loadAllPieces()
+ *
+ * Month labels "Jan".."Dec" and day labels "1".."31" on the board are the date targets.
+ */
+public class PuzzleDefinition {
+
+    private String id;
+    private String name;
+    private BoardSpec board;
+    private List<PieceSpec> pieces;
+
+    public static class BoardSpec {
+        private List<String> shape;
+        private List<List<String>> labels;
+
+        public List<String> getShape() {
+            return shape;
+        }
+
+        public void setShape(List<String> shape) {
+            this.shape = shape;
+        }
+
+        public List<List<String>> getLabels() {
+            return labels;
+        }
+
+        public void setLabels(List<List<String>> labels) {
+            this.labels = labels;
+        }
+    }
+
+    public static class PieceSpec {
+        private String id;
+        private List<String> shape;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public List<String> getShape() {
+            return shape;
+        }
+
+        public void setShape(List<String> shape) {
+            this.shape = shape;
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BoardSpec getBoard() {
+        return board;
+    }
+
+    public void setBoard(BoardSpec board) {
+        this.board = board;
+    }
+
+    public List<PieceSpec> getPieces() {
+        return pieces;
+    }
+
+    public void setPieces(List<PieceSpec> pieces) {
+        this.pieces = pieces;
+    }
+}
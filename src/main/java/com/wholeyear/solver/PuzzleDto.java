@@ -0,0 +1,27 @@
+package com.wholeyear.solver;
+
+/** Entry of GET /api/puzzles. */
+public class PuzzleDto {
+
+    private String id;
+    private String name;
+    private String contentHash;
+
+    public PuzzleDto(String id, String name, String contentHash) {
+        this.id = id;
+        this.name = name;
+        this.contentHash = contentHash;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+}
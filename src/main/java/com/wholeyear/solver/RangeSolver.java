@@ -0,0 +1,163 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves a range of dates in parallel and writes one NDJSON line (DateSolutionDto)
+ * per date as each finishes, so lines arrive in completion order, not date order.
+ *
+ * At most {@code window} dates are queued or running at once, and a new one is only
+ * started after a finished line has been written. A slow reader therefore stalls the
+ * solving instead of piling up results: memory stays flat for any range length.
+ * Dates go through the puzzle's SolutionCache like single solves do.
+ *
+ * The worker pool is shared by all range requests.
+ */
+@Component
+public class RangeSolver {
+    private static final Logger log = LoggerFactory.getLogger(RangeSolver.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ExecutorService executor;
+    private final int window;
+    private final int maxDays;
+
+    /** {@code threads} and {@code window} of 0 mean one thread per core and twice the threads. */
+    public RangeSolver(@Value("${solver.range.threads:0}") int threads,
+                       @Value("${solver.range.window:0}") int window,
+                       @Value("${solver.range.max-days:366}") int maxDays) {
+        if (threads < 0 || window < 0 || maxDays < 1) {
+            throw new IllegalArgumentException("Invalid range solver settings: threads=" + threads
+                    + ", window=" + window + ", maxDays=" + maxDays);
+        }
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, task -> {
+            Thread thread = new Thread(task, "range-solve-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.window = window > 0 ? window : 2 * poolSize;
+        this.maxDays = maxDays;
+    }
+
+    /**
+     * Throws IllegalArgumentException unless {@code from} ≤ {@code to} and the range
+     * spans at most maxDays dates.
+     */
+    public void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from " + from + " is after to " + to);
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > maxDays) {
+            throw new IllegalArgumentException("Range of " + days + " dates exceeds the limit of " + maxDays);
+        }
+    }
+
+    /**
+     * Solves every date from {@code from} to {@code to} (inclusive) with {@code solver}
+     * and writes the NDJSON lines to {@code out}, flushing after each. A date whose
+     * solve throws gets a line with an error. If writing fails (the client went away),
+     * the dates still queued are cancelled and the IOException is rethrown.
+     */
+    public void write(SolutionCache.DateSolver solver, LocalDate from, LocalDate to, OutputStream out)
+            throws IOException {
+        checkRange(from, to);
+        long start = System.currentTimeMillis();
+        CompletionService<DateSolutionDto> completions = new ExecutorCompletionService<>(executor);
+        Set<Future<DateSolutionDto>> pending = new HashSet<>();
+        Iterator<LocalDate> dates = from.datesUntil(to.plusDays(1)).iterator();
+        int written = 0;
+        try {
+            while (pending.size() < window && dates.hasNext()) {
+                pending.add(completions.submit(solveTask(solver, dates.next())));
+            }
+            while (!pending.isEmpty()) {
+                Future<DateSolutionDto> done = completions.take();
+                pending.remove(done);
+                out.write(toLine(done.get()));
+                out.flush();
+                written++;
+                if (dates.hasNext()) {
+                    pending.add(completions.submit(solveTask(solver, dates.next())));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted solving " + from + ".." + to);
+        } catch (ExecutionException e) {
+            // solveTask reports failures as lines, so this is a bug rather than a bad date
+            throw new IllegalStateException("Range solve task failed", e.getCause());
+        } finally {
+            for (Future<DateSolutionDto> future : pending) {
+                future.cancel(true);
+            }
+        }
+        log.info("Range {}..{} — {} dates streamed ({}ms)", from, to, written, System.currentTimeMillis() - start);
+    }
+
+    private static Callable<DateSolutionDto> solveTask(SolutionCache.DateSolver solver, LocalDate date) {
+        return () -> {
+            try {
+                return new DateSolutionDto(date.toString(),
+                        solver.solve(date.getMonthValue(), date.getDayOfMonth()), null);
+            } catch (RuntimeException e) {
+                log.warn("Range solve of {} failed: {}", date, e.toString());
+                return new DateSolutionDto(date.toString(), Collections.emptyList(), e.getMessage());
+            }
+        };
+    }
+
+    private static byte[] toLine(DateSolutionDto line) {
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(line);
+            byte[] bytes = new byte[json.length + 1];
+            System.arraycopy(json, 0, bytes, 0, json.length);
+            bytes[json.length] = '\n';
+            return bytes;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize the solution of " + line.getDate(), e);
+        }
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public int getMaxDays() {
+        return maxDays;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,81 @@
+package com.wholeyear.solver;
+
+import com.wholeyear.model.Cell;
+
+import java.util.List;
+
+/**
+ * Response of POST /api/hint/ranked: the best next placements for a partly filled
+ * board, each with the number of solutions that remain once it is made.
+ */
+public class RankedHintDto {
+
+    public enum Status {
+        RANKED,      // moves holds the top placements (fewer than asked if fewer lead anywhere)
+        UNSOLVABLE,  // no solution remains (or the placed pieces clash with each other or the date)
+        TIMEOUT      // the latency budget ran out before every candidate was counted; moves is empty
+    }
+
+    /** One next placement and the solutions it leaves. */
+    public static class Move {
+        private final int pieceId;
+        private final List<Cell> cells;
+        private final long solutions;
+
+        public Move(int pieceId, List<Cell> cells, long solutions) {
+            this.pieceId = pieceId;
+            this.cells = cells;
+            this.solutions = solutions;
+        }
+
+        /** Piece index, as in PlacementDto. */
+        public int getPieceId() {
+            return pieceId;
+        }
+
+        public List<Cell> getCells() {
+            return cells;
+        }
+
+        public long getSolutions() {
+            return solutions;
+        }
+    }
+
+    private final Status status;
+    private final List<Move> moves;
+    private final long solutions;
+    private final int candidates;
+    private final long elapsedMicros;
+
+    public RankedHintDto(Status status, List<Move> moves, long solutions, int candidates, long elapsedMicros) {
+        this.status = status;
+        this.moves = moves;
+        this.solutions = solutions;
+        this.candidates = candidates;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /** Most solutions first; ties in placement order. */
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    /** Solutions that complete the board as it is. */
+    public long getSolutions() {
+        return solutions;
+    }
+
+    /** Legal next placements that were counted. */
+    public int getCandidates() {
+        return candidates;
+    }
+
+    public long getElapsedMicros() {
+        return elapsedMicros;
+    }
+}
@@ -0,0 +1,252 @@
+package com.wholeyear.solver;
+
+import com.wholeyear.util.PlacementDto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Solutions keyed by (month, day). The board and pieces never change, so a date
+ * always has the same answer and only 12 × 31 answers exist; each is computed once
+ * and then served from a flat array slot.
+ *
+ * Warm-up policy:
+ *   • NONE  — no caching, every request runs the solver
+ *   • LAZY  — a date is solved on its first request and cached
+ *   • EAGER — like LAZY, and warmUp() solves every date in parallel up front
+ *
+ * Under every policy, concurrent misses for the same date are coalesced: the first
+ * caller runs the solver and the others wait (at most maxWaitMillis) for its result
+ * instead of starting their own search. A waiter that times out gets a
+ * CoalesceTimeoutException; the shared search keeps running for the others.
+ */
+public class SolutionCache {
+    private static final Logger log = LoggerFactory.getLogger(SolutionCache.class);
+
+    public enum WarmupPolicy { NONE, LAZY, EAGER }
+
+    /** Computes the (uncached) solution for a date; an empty list means "no solution". */
+    @FunctionalInterface
+    public interface DateSolver {
+        List<PlacementDto> solve(int month, int day);
+    }
+
+    /** Thrown to a coalesced caller whose wait for the in-flight solve ran out (HTTP 503). */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class CoalesceTimeoutException extends RuntimeException {
+        public CoalesceTimeoutException(int month, int day, long waitedMillis) {
+            super("Solve for " + month + "/" + day + " still running after " + waitedMillis + "ms");
+        }
+    }
+
+    static final int MONTHS = 12;
+    static final int DAYS = 31;
+
+    /** Default bound on how long a coalesced caller waits for the in-flight solve. */
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 10_000;
+
+    private final DateSolver solver;
+    private final WarmupPolicy policy;
+    private final long maxWaitMillis;
+    private final AtomicReferenceArray<List<PlacementDto>> slots =
+        new AtomicReferenceArray<>(MONTHS * DAYS);
+    private final ConcurrentHashMap<Integer, CompletableFuture<List<PlacementDto>>> inFlight =
+        new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder coalesceTimeouts = new LongAdder();
+
+    public SolutionCache(DateSolver solver, WarmupPolicy policy) {
+        this(solver, policy, DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    public SolutionCache(DateSolver solver, WarmupPolicy policy, long maxWaitMillis) {
+        if (maxWaitMillis <= 0) {
+            throw new IllegalArgumentException("maxWaitMillis must be > 0, got " + maxWaitMillis);
+        }
+        this.solver = solver;
+        this.policy = policy;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /** Returns the solution for month 1–12, day 1–31, solving it on a miss. */
+    public List<PlacementDto> get(int month, int day) {
+        return get(month, day, null);
+    }
+
+    /**
+     * As get(month, day), running {@code onHit} (if not null) when the answer came
+     * from the cache, i.e. exactly when getHits() counted this call. Callers that tag
+     * a hit or miss should use this rather than contains(), which is a separate read.
+     */
+    public List<PlacementDto> get(int month, int day, Runnable onHit) {
+        int slot = slot(month, day);
+        if (policy != WarmupPolicy.NONE) {
+            List<PlacementDto> cached = slots.get(slot);
+            if (cached != null) {
+                hits.increment();
+                if (onHit != null) {
+                    onHit.run();
+                }
+                return cached;
+            }
+        }
+        misses.increment();
+        return solveOnce(slot, month, day);
+    }
+
+    /**
+     * Runs the solver for a date unless a search for it is already in flight, in which
+     * case waits for that one. The result is cached unless the policy is NONE.
+     */
+    private List<PlacementDto> solveOnce(int slot, int month, int day) {
+        CompletableFuture<List<PlacementDto>> mine = new CompletableFuture<>();
+        CompletableFuture<List<PlacementDto>> running = inFlight.putIfAbsent(slot, mine);
+        if (running != null) {
+            coalesced.increment();
+            return await(running, month, day);
+        }
+        try {
+            // The flight we might have joined can finish between our cache check and
+            // putIfAbsent; its result is cached by then, so don't search again.
+            List<PlacementDto> solved = policy == WarmupPolicy.NONE ? null : slots.get(slot);
+            if (solved == null) {
+                solved = Collections.unmodifiableList(solver.solve(month, day));
+                if (policy != WarmupPolicy.NONE) {
+                    slots.compareAndSet(slot, null, solved);
+                    solved = slots.get(slot);
+                }
+            }
+            mine.complete(solved);
+            return solved;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(slot, mine);
+        }
+    }
+
+    private List<PlacementDto> await(CompletableFuture<List<PlacementDto>> running, int month, int day) {
+        try {
+            return running.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            coalesceTimeouts.increment();
+            throw new CoalesceTimeoutException(month, day, maxWaitMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the solve of " + month + "/" + day, e);
+        } catch (ExecutionException e) {
+            // The leader's exception; rethrow it unchanged when we can
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * True if the date is already cached (does not count as a hit or miss). A get()
+     * right after may still disagree; use get(month, day, onHit) to tag a request.
+     */
+    public boolean contains(int month, int day) {
+        return slots.get(slot(month, day)) != null;
+    }
+
+    /**
+     * Solves every uncached date on {@code executor} and waits for them to finish.
+     * Does nothing unless the policy is EAGER. Returns the number of dates solved.
+     */
+    public int warmUp(ExecutorService executor) {
+        if (policy != WarmupPolicy.EAGER) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        List<Future<?>> pending = new ArrayList<>();
+        for (int month = 1; month <= MONTHS; month++) {
+            for (int day = 1; day <= DAYS; day++) {
+                if (!contains(month, day)) {
+                    final int m = month, d = day;
+                    pending.add(executor.submit(() -> solveOnce(slot(m, d), m, d)));
+                }
+            }
+        }
+        for (Future<?> f : pending) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.warn("Solution cache warm-up failed for one date: {}", e.getCause().toString());
+            }
+        }
+        log.info("Solution cache warmed {} dates ({}ms)", pending.size(), System.currentTimeMillis() - start);
+        return pending.size();
+    }
+
+    public WarmupPolicy getPolicy() {
+        return policy;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** Misses that joined another caller's in-flight solve instead of running their own. */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /** Coalesced callers that gave up waiting (CoalesceTimeoutException). */
+    public long getCoalesceTimeouts() {
+        return coalesceTimeouts.sum();
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /** Number of dates currently cached. */
+    public int size() {
+        int n = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** Flat index of a date, shared with other per-date tables; throws for an invalid date. */
+    static int slot(int month, int day) {
+        if (month < 1 || month > MONTHS || day < 1 || day > DAYS) {
+            throw new IllegalArgumentException("Invalid date " + month + "/" + day);
+        }
+        return (month - 1) * DAYS + (day - 1);
+    }
+}
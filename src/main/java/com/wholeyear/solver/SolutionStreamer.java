@@ -0,0 +1,155 @@
+package com.wholeyear.solver;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events stream of every solution of a date, sent while the search is
+ * still running: the client sees the first solution as soon as it is found.
+ *
+ * Events:
+ *   • solution — data List<PlacementDto>, id the solution's 1-based position
+ *   • done     — data {"solutions": n, "exhausted": true|false} once the search ends
+ *                (exhausted is false when max-solutions cut it short; to tell, the
+ *                search looks for one solution past the limit, which is not sent)
+ *
+ * The search runs on one pool thread per stream and sends each solution from inside
+ * the enumeration. send() writes through to the response, so a client that reads
+ * slowly blocks the search rather than letting solutions pile up in memory. When
+ * the client disconnects (a failed send, or the emitter completing or timing out)
+ * the search stops at its next node, even while it is still skipping or between
+ * the sparse solutions of a hard date.
+ *
+ * Enumeration order is fixed for a puzzle, so a reconnecting EventSource resumes
+ * where it left off: the Last-Event-ID it sends skips that many solutions.
+ */
+@Component
+public class SolutionStreamer {
+    private static final Logger log = LoggerFactory.getLogger(SolutionStreamer.class);
+
+    private final ExecutorService executor;
+    private final long timeoutMillis;
+    private final long maxSolutions;
+
+    public SolutionStreamer(@Value("${solver.stream.threads:4}") int threads,
+                            @Value("${solver.stream.timeout-ms:60000}") long timeoutMillis,
+                            @Value("${solver.stream.max-solutions:10000}") long maxSolutions) {
+        if (threads < 1 || timeoutMillis < 1 || maxSolutions < 1) {
+            throw new IllegalArgumentException("Invalid solution stream settings: threads=" + threads
+                    + ", timeoutMillis=" + timeoutMillis + ", maxSolutions=" + maxSolutions);
+        }
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "solution-stream-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeoutMillis = timeoutMillis;
+        this.maxSolutions = maxSolutions;
+    }
+
+    /**
+     * Starts streaming the solutions of a date after the first {@code skip}; the
+     * returned emitter is handed straight back to Spring MVC.
+     */
+    public SseEmitter stream(CompiledPuzzle puzzle, int month, int day, long skip) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        // Also the search's cancel flag, so a client that leaves mid-search stops it at the next node
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onCompletion(() -> closed.set(true));
+        emitter.onTimeout(() -> closed.set(true));
+        emitter.onError(e -> closed.set(true));
+        executor.execute(() -> run(puzzle, month, day, skip, emitter, closed));
+        return emitter;
+    }
+
+    private void run(CompiledPuzzle puzzle, int month, int day, long skip, SseEmitter emitter, AtomicBoolean closed) {
+        if (closed.get()) {
+            return;   // the client left while this stream was queued
+        }
+        long start = System.currentTimeMillis();
+        AtomicLong position = new AtomicLong();
+        AtomicBoolean cutShort = new AtomicBoolean();
+        long limit = skip > Long.MAX_VALUE - maxSolutions - 1 ? Long.MAX_VALUE - 1 : skip + maxSolutions;
+        try {
+            long visited = puzzle.forEachSolution(month, day, solution -> {
+                if (closed.get()) {
+                    return false;
+                }
+                long n = position.incrementAndGet();
+                if (n <= skip) {
+                    return true;
+                }
+                if (n > limit) {
+                    cutShort.set(true);   // one past the limit: there are more than max-solutions
+                    return false;
+                }
+                try {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(n))
+                            .name("solution")
+                            .data(solution, MediaType.APPLICATION_JSON));
+                    return true;
+                } catch (IOException | IllegalStateException e) {
+                    closed.set(true);   // disconnected or already completed
+                    return false;
+                }
+            }, limit + 1, closed);
+            long found = cutShort.get() ? visited - 1 : visited;
+
+            if (!closed.get()) {
+                Map<String, Object> done = new LinkedHashMap<>();
+                done.put("solutions", found);
+                done.put("exhausted", !cutShort.get());
+                emitter.send(SseEmitter.event().name("done").data(done, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            }
+            log.info("{}: streamed solutions of {} {} — {} found, client {} ({}ms)", puzzle.getId(),
+                    CompiledPuzzle.monthLabel(month), day, found, closed.get() ? "gone" : "done",
+                    System.currentTimeMillis() - start);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("{}: solution stream for {} {} closed: {}", puzzle.getId(),
+                    CompiledPuzzle.monthLabel(month), day, e.toString());
+        } catch (RuntimeException e) {
+            log.warn("{}: solution stream for {} {} failed: {}", puzzle.getId(),
+                    CompiledPuzzle.monthLabel(month), day, e.toString());
+            emitter.completeWithError(e);
+        }
+    }
+
+    /** Number of solutions to skip for a Last-Event-ID header; 0 if absent or not a count. */
+    static long resumeAfter(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(lastEventId.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public long getMaxSolutions() {
+        return maxSolutions;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
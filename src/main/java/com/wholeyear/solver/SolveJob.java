@@ -0,0 +1,187 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One background job of SolveJobService, also its JSON status (GET /api/jobs/{id}).
+ * The work itself lives in the service; this holds what a client can see: the
+ * request, the state, progress and, once finished, the result or error.
+ *
+ * Progress is {@code done} of {@code total} units: dates for COUNT_YEAR, solutions
+ * found so far for COUNT (whose total is only known when it finishes).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SolveJob {
+
+    public enum Type {
+        COUNT,       // count every solution of one date → Long
+        COUNT_YEAR   // count the solutions of every date of a year → {"YYYY-MM-DD": Long}
+    }
+
+    public enum State { QUEUED, RUNNING, DONE, FAILED, CANCELLED }
+
+    private final String id;
+    private final Type type;
+    private final String puzzleId;
+    private final int priority;
+    private final Integer month;
+    private final Integer day;
+    private final Integer year;
+    private final long submittedAt;
+
+    private volatile State state = State.QUEUED;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile long done;
+    private volatile Long total;
+    private volatile Object result;
+    private volatile String error;
+    private final AtomicBoolean cancelRequested = new AtomicBoolean();
+
+    SolveJob(String id, Type type, String puzzleId, int priority,
+             Integer month, Integer day, Integer year, long submittedAt) {
+        this.id = id;
+        this.type = type;
+        this.puzzleId = puzzleId;
+        this.priority = priority;
+        this.month = month;
+        this.day = day;
+        this.year = year;
+        this.submittedAt = submittedAt;
+    }
+
+    // ─── Transitions (SolveJobService only) ─────────────────────────────
+
+    /** QUEUED → RUNNING; false if the job was cancelled while queued. */
+    synchronized boolean start(long now) {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        state = State.RUNNING;
+        startedAt = now;
+        return true;
+    }
+
+    void progress(long done, Long total) {
+        this.done = done;
+        this.total = total;
+    }
+
+    synchronized void finish(Object result, long now) {
+        this.result = result;
+        this.state = cancelRequested.get() ? State.CANCELLED : State.DONE;
+        this.finishedAt = now;
+    }
+
+    synchronized void fail(String error, long now) {
+        this.error = error;
+        this.state = State.FAILED;
+        this.finishedAt = now;
+    }
+
+    /**
+     * Asks the job to stop. A queued job is cancelled at once (returns true, and it
+     * must be taken off the queue); a running one stops at its next check or search node.
+     */
+    synchronized boolean cancel(long now) {
+        cancelRequested.set(true);
+        if (state == State.QUEUED) {
+            state = State.CANCELLED;
+            finishedAt = now;
+            return true;
+        }
+        return false;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested.get();
+    }
+
+    /** Raised by cancel(); hand it to a search as its cancel flag to stop at the next node. */
+    AtomicBoolean cancelFlag() {
+        return cancelRequested;
+    }
+
+    /** True once finished more than {@code ttlMillis} before {@code now}. */
+    boolean isExpired(long now, long ttlMillis) {
+        return isFinished() && now - finishedAt > ttlMillis;
+    }
+
+    // ─── Status ─────────────────────────────────────────────────────────
+
+    public String getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getPuzzleId() {
+        return puzzleId;
+    }
+
+    /** 0 (lowest) to 9; higher runs first, equal priorities in submission order. */
+    public int getPriority() {
+        return priority;
+    }
+
+    public Integer getMonth() {
+        return month;
+    }
+
+    public Integer getDay() {
+        return day;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        State s = state;
+        return s == State.DONE || s == State.FAILED || s == State.CANCELLED;
+    }
+
+    /** Epoch milliseconds, like the other timestamps. */
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    /** 0 until the job starts. */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /** 0 until the job finishes. */
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getDone() {
+        return done;
+    }
+
+    /** Units of work in total, or null while unknown. */
+    public Long getTotal() {
+        return total;
+    }
+
+    /**
+     * The job's answer once DONE. For a job cancelled while running: the solutions
+     * found so far (COUNT), or only the dates counted in full (COUNT_YEAR).
+     */
+    public Object getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,262 @@
+package com.wholeyear.solver;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs expensive solver work (SolveJob.Type) in the background, outside the Tomcat
+ * request threads.
+ *
+ *   • Jobs wait in a priority queue (higher priority first, FIFO within one) of at
+ *     most {@code capacity} entries; submitting to a full queue throws
+ *     QueueFullException (HTTP 429) instead of letting the backlog grow.
+ *   • They run on a dedicated pool, half the cores by default, so background work
+ *     leaves CPU for interactive /api/solve requests.
+ *   • Progress is published on the SolveJob as the work goes; a finished job (and
+ *     its result) is kept for {@code ttlMillis}, then purged.
+ *
+ * Cancelling a queued job takes it off the queue; a running one stops at the next
+ * node of its search (the job's cancel flag is the DLX cancel flag).
+ */
+@Component
+public class SolveJobService {
+    private static final Logger log = LoggerFactory.getLogger(SolveJobService.class);
+
+    /** Thrown when the job queue is full (HTTP 429). */
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException(int capacity) {
+            super("Job queue is full (" + capacity + " waiting); try again later");
+        }
+    }
+
+    /** The body of a job: does the work, reporting progress on the job, and returns its result. */
+    @FunctionalInterface
+    interface JobWork {
+        Object run(SolveJob job);
+    }
+
+    /** Queue entry; PriorityBlockingQueue orders these by priority, then submission. */
+    private final class QueuedJob implements Runnable, Comparable<QueuedJob> {
+        private final SolveJob job;
+        private final JobWork work;
+        private final long sequence;
+
+        QueuedJob(SolveJob job, JobWork work, long sequence) {
+            this.job = job;
+            this.work = work;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            execute(job, work);
+        }
+
+        @Override
+        public int compareTo(QueuedJob other) {
+            if (job.getPriority() != other.job.getPriority()) {
+                return Integer.compare(other.job.getPriority(), job.getPriority());
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    public static final int MIN_PRIORITY = 0;
+    public static final int MAX_PRIORITY = 9;
+    public static final int DEFAULT_PRIORITY = 5;
+
+    private final ThreadPoolExecutor executor;
+    private final int capacity;
+    private final long ttlMillis;
+    private final Map<String, SolveJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, QueuedJob> queued = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** {@code threads} of 0 means half the cores (at least one). */
+    public SolveJobService(@Value("${solver.jobs.threads:0}") int threads,
+                           @Value("${solver.jobs.queue-capacity:16}") int capacity,
+                           @Value("${solver.jobs.ttl-ms:3600000}") long ttlMillis) {
+        if (threads < 0 || capacity < 1 || ttlMillis < 0) {
+            throw new IllegalArgumentException("Invalid job settings: threads=" + threads
+                    + ", capacity=" + capacity + ", ttlMillis=" + ttlMillis);
+        }
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), task -> {
+                    Thread thread = new Thread(task, "solve-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /** Queues a count of every solution of one date. */
+    public SolveJob submitCount(CompiledPuzzle puzzle, int month, int day, int priority) {
+        SolutionCache.slot(month, day);   // validates the date
+        SolveJob job = new SolveJob(newId(), SolveJob.Type.COUNT, puzzle.getId(), checkPriority(priority),
+                month, day, null, System.currentTimeMillis());
+        return submit(job, running -> {
+            long count = puzzle.countSolutions(month, day, found -> running.progress(found, null),
+                    running.cancelFlag());
+            running.progress(count, running.isCancelRequested() ? null : count);
+            return count;
+        });
+    }
+
+    /**
+     * Queues a solution count for every date of {@code year} (Feb 29 only in leap years).
+     * A cancelled job's result holds only the dates counted in full.
+     */
+    public SolveJob submitYearCount(CompiledPuzzle puzzle, int year, int priority) {
+        if (year < 1 || year > 9999) {
+            throw new IllegalArgumentException("Invalid year " + year);
+        }
+        SolveJob job = new SolveJob(newId(), SolveJob.Type.COUNT_YEAR, puzzle.getId(), checkPriority(priority),
+                null, null, year, System.currentTimeMillis());
+        long days = Year.of(year).length();
+        return submit(job, running -> {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            Iterator<LocalDate> dates = LocalDate.of(year, 1, 1).datesUntil(LocalDate.of(year + 1, 1, 1)).iterator();
+            running.progress(0, days);
+            while (dates.hasNext() && !running.isCancelRequested()) {
+                LocalDate date = dates.next();
+                long count = puzzle.countSolutions(date.getMonthValue(), date.getDayOfMonth(),
+                        found -> { }, running.cancelFlag());
+                if (running.isCancelRequested()) {
+                    break;   // that date's count was cut short; report only complete ones
+                }
+                counts.put(date.toString(), count);
+                running.progress(counts.size(), days);
+            }
+            return counts;
+        });
+    }
+
+    /** Queues {@code job} with {@code work}, or throws QueueFullException. */
+    synchronized SolveJob submit(SolveJob job, JobWork work) {
+        purgeExpired(System.currentTimeMillis());
+        if (executor.getQueue().size() >= capacity) {
+            log.warn("Rejected {} job for {}: queue full ({})", job.getType(), job.getPuzzleId(), capacity);
+            throw new QueueFullException(capacity);
+        }
+        QueuedJob entry = new QueuedJob(job, work, sequence.incrementAndGet());
+        jobs.put(job.getId(), job);
+        queued.put(job.getId(), entry);
+        executor.execute(entry);
+        log.info("Queued {} job {} for {} (priority {}, {} waiting)", job.getType(), job.getId(),
+                job.getPuzzleId(), job.getPriority(), executor.getQueue().size());
+        return job;
+    }
+
+    private void execute(SolveJob job, JobWork work) {
+        queued.remove(job.getId());
+        if (!job.start(System.currentTimeMillis())) {
+            return;   // cancelled while queued
+        }
+        try {
+            Object result = work.run(job);
+            job.finish(result, System.currentTimeMillis());
+            log.info("{} job {} for {} {} ({}ms)", job.getType(), job.getId(), job.getPuzzleId(),
+                    job.getState(), job.getFinishedAt() - job.getStartedAt());
+        } catch (RuntimeException e) {
+            job.fail(e.toString(), System.currentTimeMillis());
+            log.warn("{} job {} for {} failed: {}", job.getType(), job.getId(), job.getPuzzleId(), e.toString());
+        }
+    }
+
+    /** The job with this id, or null if there is none (or it has expired). */
+    public SolveJob get(String id) {
+        SolveJob job = jobs.get(id);
+        if (job != null && job.isExpired(System.currentTimeMillis(), ttlMillis)) {
+            jobs.remove(id, job);
+            return null;
+        }
+        return job;
+    }
+
+    /** Cancels a job (see class comment); returns it, or null if there is none. */
+    public SolveJob cancel(String id) {
+        SolveJob job = get(id);
+        if (job == null) {
+            return null;
+        }
+        if (job.cancel(System.currentTimeMillis())) {
+            QueuedJob entry = queued.remove(id);
+            if (entry != null) {
+                executor.remove(entry);
+            }
+        }
+        return job;
+    }
+
+    /** Drops finished jobs older than the TTL; returns how many. */
+    @Scheduled(initialDelayString = "${solver.jobs.purge-interval:60000}",
+               fixedDelayString = "${solver.jobs.purge-interval:60000}")
+    public int purgeExpired() {
+        return purgeExpired(System.currentTimeMillis());
+    }
+
+    int purgeExpired(long now) {
+        int purged = 0;
+        for (SolveJob job : jobs.values()) {
+            if (job.isExpired(now, ttlMillis) && jobs.remove(job.getId(), job)) {
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    /** Jobs waiting to run. */
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Jobs known to the service: queued, running, or finished within the TTL. */
+    public int size() {
+        return jobs.size();
+    }
+
+    private static int checkPriority(int priority) {
+        if (priority < MIN_PRIORITY || priority > MAX_PRIORITY) {
+            throw new IllegalArgumentException(
+                    "Priority must be " + MIN_PRIORITY + ".." + MAX_PRIORITY + ", got " + priority);
+        }
+        return priority;
+    }
+
+    private static String newId() {
+        return UUID.randomUUID().toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,123 @@
+package com.wholeyear.solver;
+
+import com.wholeyear.util.PlacementDto;
+import com.wholeyear.util.SearchProfile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Response of POST /api/solve?profile=true: the solution of one uncached solver run
+ * plus its SearchProfile, one entry per search depth.
+ */
+public class SolveProfileDto {
+
+    /** Counters for one depth of the search tree. */
+    public static class Level {
+        private final int depth;
+        private final long nodes;
+        private final long linkUpdates;
+        private final long choices;
+        private final double meanColumnSize;
+        private final int maxColumnSize;
+
+        Level(SearchProfile profile, int depth) {
+            this.depth = depth;
+            this.nodes = profile.getNodes(depth);
+            this.linkUpdates = profile.getLinkUpdates(depth);
+            this.choices = profile.getChoices(depth);
+            this.meanColumnSize = profile.getMeanColumnSize(depth);
+            this.maxColumnSize = profile.getMaxColumnSize(depth);
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getLinkUpdates() {
+            return linkUpdates;
+        }
+
+        public long getChoices() {
+            return choices;
+        }
+
+        public double getMeanColumnSize() {
+            return meanColumnSize;
+        }
+
+        public int getMaxColumnSize() {
+            return maxColumnSize;
+        }
+    }
+
+    private final String puzzleId;
+    private final int month;
+    private final int day;
+    private final List<PlacementDto> placements;
+    private final long elapsedMicros;
+    private final long nodes;
+    private final long linkUpdates;
+    private final List<Level> levels;
+
+    /** {@code profile} may be null when the solver never ran (no cells for the date). */
+    public SolveProfileDto(String puzzleId, int month, int day, List<PlacementDto> placements,
+                           long elapsedMicros, SearchProfile profile) {
+        this.puzzleId = puzzleId;
+        this.month = month;
+        this.day = day;
+        this.placements = placements;
+        this.elapsedMicros = elapsedMicros;
+        if (profile == null) {
+            this.nodes = 0;
+            this.linkUpdates = 0;
+            this.levels = Collections.emptyList();
+        } else {
+            this.nodes = profile.getTotalNodes();
+            this.linkUpdates = profile.getTotalLinkUpdates();
+            List<Level> list = new ArrayList<>();
+            for (int depth = 0; depth < profile.getLevels(); depth++) {
+                list.add(new Level(profile, depth));
+            }
+            this.levels = Collections.unmodifiableList(list);
+        }
+    }
+
+    public String getPuzzleId() {
+        return puzzleId;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getDay() {
+        return day;
+    }
+
+    public List<PlacementDto> getPlacements() {
+        return placements;
+    }
+
+    /** Wall time of the profiled run, including board setup and placement filtering. */
+    public long getElapsedMicros() {
+        return elapsedMicros;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getLinkUpdates() {
+        return linkUpdates;
+    }
+
+    public List<Level> getLevels() {
+        return levels;
+    }
+}
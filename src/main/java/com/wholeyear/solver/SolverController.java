@@ -1,126 +1,276 @@
 package com.wholeyear.solver;
 
-import com.wholeyear.model.Piece;
-import com.wholeyear.util.Definition;
-import com.wholeyear.model.Board;
-import com.wholeyear.util.Solver;
-import com.wholeyear.util.Placement;
-import com.wholeyear.model.BoardCell;
-import com.wholeyear.model.Cell;
-import com.wholeyear.model.PieceDto;
 import com.wholeyear.util.PlacementDto;
 
+import io.micrometer.core.instrument.Timer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * The /api/solve (also ?profile=true, /solve/range, /solve/stream), /api/board and
+ * /api/pieces endpoints. Each is served for the default puzzle and, under
+ * /api/{puzzleId}/..., for any puzzle in the catalog (404 for an unknown id); both
+ * routes share one handler. /board and /pieces are pre-serialized and ETag-validated.
+ */
 @RestController
 @RequestMapping("/api")
 public class SolverController {
     private static final Logger log = LoggerFactory.getLogger(SolverController.class);
 
-    private static final String[] MONTHS = {
-        "Jan", "Feb", "Mar", "Apr", "May", "Jun",
-        "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
-    };
-
-    private final List<Piece> pieces;
-    private final Board board;
-    private final Map<String, Integer> pieceIdToIndexMap;
-
-    public SolverController() {
-        this.pieces = Definition.loadAllPieces();
-        this.board = Definition.createWholeYearPuzzleBoard();
+    private final PuzzleCatalog catalog;
+    private final SolverMetrics metrics;
+    private final RangeSolver rangeSolver;
+    private final SolutionStreamer solutionStreamer;
+    private final long maxAgeSeconds;
 
-        Map<String, Integer> map = new HashMap<>();
-        for (int i = 0; i < pieces.size(); i++) {
-            map.put(pieces.get(i).getId(), i);
-        }
-        this.pieceIdToIndexMap = Collections.unmodifiableMap(map);
+    public SolverController(PuzzleCatalog catalog, SolverMetrics metrics, RangeSolver rangeSolver,
+                            SolutionStreamer solutionStreamer,
+                            @Value("${solver.http.max-age:3600}") long maxAgeSeconds) {
+        this.catalog = catalog;
+        this.metrics = metrics;
+        this.rangeSolver = rangeSolver;
+        this.solutionStreamer = solutionStreamer;
+        this.maxAgeSeconds = maxAgeSeconds;
     }
 
     @PostMapping("/solve")
     public List<PlacementDto> solve(@RequestParam(value = "date", required = false) String date) {
-        long start = System.currentTimeMillis();
-        log.info("POST /api/solve date={}", date);
-
-        String[] labels = parseDateToLabels(date);
+        return solve(catalog.getDefault(), date);
+    }
 
-        Board boardCopy = new Board(board);
-        Cell monthCell = boardCopy.findCellByLabel(labels[0]);
-        Cell dayCell = boardCopy.findCellByLabel(labels[1]);
+    @PostMapping("/{puzzleId}/solve")
+    public List<PlacementDto> solve(@PathVariable("puzzleId") String puzzleId,
+                                    @RequestParam(value = "date", required = false) String date) {
+        return solve(found(puzzleId), date);
+    }
 
-        if (monthCell == null || dayCell == null) {
-            log.warn("POST /api/solve — no cell found for {} {} ({}ms)",
-                    labels[0], labels[1], System.currentTimeMillis() - start);
-            return Collections.emptyList();
-        }
+    /**
+     * POST /api/solve?profile=true — solves the date afresh (never from the cache) with
+     * search profiling on and returns the solution with per-depth search statistics.
+     */
+    @PostMapping(path = "/solve", params = "profile=true")
+    public SolveProfileDto solveWithProfile(@RequestParam(value = "date", required = false) String date) {
+        return solveWithProfile(catalog.getDefault(), date);
+    }
 
-        boardCopy.setTarget(monthCell.getRow(), monthCell.getCol());
-        boardCopy.setTarget(dayCell.getRow(), dayCell.getCol());
+    @PostMapping(path = "/{puzzleId}/solve", params = "profile=true")
+    public SolveProfileDto solveWithProfile(@PathVariable("puzzleId") String puzzleId,
+                                            @RequestParam(value = "date", required = false) String date) {
+        return solveWithProfile(found(puzzleId), date);
+    }
 
-        Solver solver = new Solver(boardCopy, pieces);
-        List<Placement> placements = solver.solve();
+    /**
+     * POST /api/solve/range?from=YYYY-MM-DD&to=YYYY-MM-DD — solves every date in the
+     * range (inclusive) in parallel and streams one DateSolutionDto per line
+     * (application/x-ndjson) as each finishes. See RangeSolver.
+     */
+    @PostMapping(path = "/solve/range", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> solveRange(@RequestParam("from") String from,
+                                                            @RequestParam("to") String to) {
+        return solveRange(catalog.getDefault(), from, to);
+    }
 
-        if (placements == null || placements.isEmpty()) {
-            log.warn("POST /api/solve — no solution for {} {} ({}ms)",
-                    labels[0], labels[1], System.currentTimeMillis() - start);
-            return Collections.emptyList();
-        }
+    @PostMapping(path = "/{puzzleId}/solve/range", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> solveRange(@PathVariable("puzzleId") String puzzleId,
+                                                            @RequestParam("from") String from,
+                                                            @RequestParam("to") String to) {
+        return solveRange(found(puzzleId), from, to);
+    }
 
-        List<PlacementDto> placementDtos = new ArrayList<>();
-        for (Placement placement : placements) {
-            int pieceIndex = pieceIdToIndexMap.get(placement.getPieceId());
-            placementDtos.add(new PlacementDto(pieceIndex, placement.getCoveredCells()));
-        }
+    /**
+     * GET /api/solve/stream — every solution of the date as Server-Sent Events, sent
+     * as the search finds them (see SolutionStreamer). A reconnect's Last-Event-ID
+     * resumes after that many solutions.
+     */
+    @GetMapping(path = "/solve/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter solveStream(@RequestParam(value = "date", required = false) String date,
+                                  @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return solveStream(catalog.getDefault(), date, lastEventId);
+    }
 
-        log.info("POST /api/solve — solved {} {} → {} placements ({}ms)",
-                labels[0], labels[1], placementDtos.size(), System.currentTimeMillis() - start);
-        return placementDtos;
+    @GetMapping(path = "/{puzzleId}/solve/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter solveStream(@PathVariable("puzzleId") String puzzleId,
+                                  @RequestParam(value = "date", required = false) String date,
+                                  @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return solveStream(found(puzzleId), date, lastEventId);
     }
 
+    /**
+     * The puzzle's List<PieceDto>, pre-serialized (see JsonPayload): gzip when accepted,
+     * strong ETag, 304 for a matching If-None-Match.
+     */
     @GetMapping(path = "/pieces", produces = "application/json")
-    public List<PieceDto> getPieces() {
+    public ResponseEntity<byte[]> getPieces(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return getPieces(catalog.getDefault(), ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping(path = "/{puzzleId}/pieces", produces = "application/json")
+    public ResponseEntity<byte[]> getPieces(
+            @PathVariable("puzzleId") String puzzleId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return getPieces(found(puzzleId), ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * The full grid (List<BoardCell>) for a date, pre-serialized per date like /pieces.
+     * Without a date the answer changes at midnight, so it is only revalidated, never
+     * cached blindly.
+     */
+    @GetMapping(path = "/board", produces = "application/json")
+    public ResponseEntity<byte[]> getBoard(
+            @RequestParam(value = "date", required = false) String date,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return getBoard(catalog.getDefault(), date, ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping(path = "/{puzzleId}/board", produces = "application/json")
+    public ResponseEntity<byte[]> getBoard(
+            @PathVariable("puzzleId") String puzzleId,
+            @RequestParam(value = "date", required = false) String date,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return getBoard(found(puzzleId), date, ifNoneMatch, acceptEncoding);
+    }
+
+    // ─── Shared handlers: the default puzzle and /{puzzleId} both land here ───
+
+    private List<PlacementDto> solve(CompiledPuzzle puzzle, String date) {
         long start = System.currentTimeMillis();
-        log.info("GET /api/pieces");
+        Timer.Sample sample = metrics.start();
+        int[] monthDay = parseDate(date);
+        SolutionCache solutionCache = puzzle.getSolutionCache();
+        boolean[] cached = {false};
+        List<PlacementDto> placementDtos = puzzle.solve(monthDay[0], monthDay[1], () -> cached[0] = true);
+        metrics.recordSolve(sample, puzzle.getId(), cached[0]);
 
-        List<PieceDto> pieceDtos = new ArrayList<>();
-        for (int i = 0; i < pieces.size(); i++) {
-            Piece piece = pieces.get(i);
-            pieceDtos.add(new PieceDto(i, piece.getId(), piece.getCanonicalCells()));
-        }
+        log.info("POST /api/{}/solve — {} {} → {} placements, cache {} (hits={}, misses={}) ({}ms)", puzzle.getId(),
+                CompiledPuzzle.monthLabel(monthDay[0]), monthDay[1], placementDtos.size(), cached[0] ? "hit" : "miss",
+                solutionCache.getHits(), solutionCache.getMisses(), System.currentTimeMillis() - start);
+        return placementDtos;
+    }
+
+    private SolveProfileDto solveWithProfile(CompiledPuzzle puzzle, String date) {
+        int[] monthDay = parseDate(date);
+        SolveProfileDto profile = puzzle.profile(monthDay[0], monthDay[1]);
+
+        log.info("POST /api/{}/solve?profile=true — {} {} → {} nodes, {} link updates, {} levels ({}µs)",
+                puzzle.getId(), CompiledPuzzle.monthLabel(monthDay[0]), monthDay[1], profile.getNodes(),
+                profile.getLinkUpdates(), profile.getLevels().size(), profile.getElapsedMicros());
+        return profile;
+    }
+
+    private ResponseEntity<StreamingResponseBody> solveRange(CompiledPuzzle puzzle, String from, String to) {
+        log.info("POST /api/{}/solve/range from={} to={}", puzzle.getId(), from, to);
+        return rangeResponse(rangeSolver, puzzle, from, to);
+    }
+
+    private SseEmitter solveStream(CompiledPuzzle puzzle, String date, String lastEventId) {
+        int[] monthDay = parseDate(date);
+        long skip = SolutionStreamer.resumeAfter(lastEventId);
+        log.info("GET /api/{}/solve/stream — {} {} after {}", puzzle.getId(),
+                CompiledPuzzle.monthLabel(monthDay[0]), monthDay[1], skip);
+        return solutionStreamer.stream(puzzle, monthDay[0], monthDay[1], skip);
+    }
+
+    private ResponseEntity<byte[]> getPieces(CompiledPuzzle puzzle, String ifNoneMatch, String acceptEncoding) {
+        long start = System.currentTimeMillis();
+        Timer.Sample sample = metrics.start();
+        ResponseEntity<byte[]> response = puzzle.getPiecesPayload()
+                .toResponse(ifNoneMatch, acceptEncoding, cacheControl(maxAgeSeconds, true));
+        metrics.recordPieces(sample, puzzle.getId());
 
-        log.info("GET /api/pieces — {} pieces ({}ms)", pieceDtos.size(), System.currentTimeMillis() - start);
-        return pieceDtos;
+        log.info("GET /api/{}/pieces — {} pieces, {} ({}ms)", puzzle.getId(), puzzle.getPieceDtos().size(),
+                response.getStatusCode().value(), System.currentTimeMillis() - start);
+        return response;
     }
 
-    @GetMapping("/board")
-    public List<BoardCell> getBoard(@RequestParam(value = "date", required = false) String date) {
+    private ResponseEntity<byte[]> getBoard(CompiledPuzzle puzzle, String date,
+                                            String ifNoneMatch, String acceptEncoding) {
         long start = System.currentTimeMillis();
-        log.info("GET /api/board date={}", date);
+        Timer.Sample sample = metrics.start();
+        int[] monthDay = parseDate(date);
+        ResponseEntity<byte[]> response = puzzle.boardPayloadFor(monthDay[0], monthDay[1])
+                .toResponse(ifNoneMatch, acceptEncoding, cacheControl(maxAgeSeconds, date != null && !date.isEmpty()));
+        metrics.recordBoard(sample, puzzle.getId());
+
+        log.info("GET /api/{}/board — {} {} → {} ({}ms)", puzzle.getId(), CompiledPuzzle.monthLabel(monthDay[0]),
+                monthDay[1], response.getStatusCode().value(), System.currentTimeMillis() - start);
+        return response;
+    }
+
+    private CompiledPuzzle found(String puzzleId) {
+        CompiledPuzzle puzzle = catalog.get(puzzleId);
+        if (puzzle == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown puzzle " + puzzleId);
+        }
+        return puzzle;
+    }
+
+    /**
+     * The NDJSON response for a range solve. The range is checked here, so a bad one
+     * is a 400 rather than a broken stream.
+     */
+    static ResponseEntity<StreamingResponseBody> rangeResponse(RangeSolver rangeSolver, CompiledPuzzle puzzle,
+                                                               String from, String to) {
+        LocalDate first = parseRangeDate(from);
+        LocalDate last = parseRangeDate(to);
+        try {
+            rangeSolver.checkRange(first, last);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        StreamingResponseBody body = out -> rangeSolver.write(puzzle::solve, first, last, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 
-        String[] labels = parseDateToLabels(date);
-        List<BoardCell> cells = board.getBoardCellsForDate(labels[0], labels[1]);
+    /** Parses a strict YYYY-MM-DD date for a range; the year matters (Feb 29). */
+    static LocalDate parseRangeDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid date " + date + ". Use YYYY-MM-DD");
+        }
+    }
 
-        log.info("GET /api/board — {} {} → {} cells ({}ms)",
-                labels[0], labels[1], cells.size(), System.currentTimeMillis() - start);
-        return cells;
+    /**
+     * Cache-Control for pre-serialized responses: public with max-age when the URL pins
+     * the content, otherwise no-cache (store, but revalidate with the ETag every time).
+     */
+    static CacheControl cacheControl(long maxAgeSeconds, boolean stable) {
+        return stable ? CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic() : CacheControl.noCache();
     }
 
     /**
-     * Parses a YYYY-MM-DD date string into [monthLabel, dayLabel].
+     * Parses a YYYY-MM-DD date string into [month (1–12), day (1–31)].
      * Defaults to today when date is null or empty.
      */
-    private String[] parseDateToLabels(String date) {
+    static int[] parseDate(String date) {
         if (date == null || date.isEmpty()) {
             Calendar calendar = Calendar.getInstance();
             int day = calendar.get(Calendar.DAY_OF_MONTH);
             int month = calendar.get(Calendar.MONTH) + 1;
-            return new String[]{MONTHS[month - 1], String.valueOf(day)};
+            return new int[]{month, day};
         }
 
         String[] dateParts = date.split("-");
@@ -136,7 +286,7 @@ public class SolverController {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                         "Invalid date values");
             }
-            return new String[]{MONTHS[month - 1], String.valueOf(day)};
+            return new int[]{month, day};
         } catch (NumberFormatException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                     "Invalid date format. Use YYYY-MM-DD");
@@ -0,0 +1,191 @@
+package com.wholeyear.solver;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Micrometer meters for the solver API, exported by the actuator (GET /actuator/prometheus).
+ *
+ * Request latency (timers with histogram buckets, tag puzzle):
+ *   • solver.solve   — POST .../solve, tagged cache=hit|miss
+ *   • solver.board   — GET .../board
+ *   • solver.pieces  — GET .../pieces
+ *   • solver.hint    — POST .../hint, tagged status=SOLVED|UNSOLVABLE|TIMEOUT
+ *   • solver.check   — POST .../check, tagged verdict=SOLVABLE|UNSOLVABLE|UNKNOWN
+ *                      and cache=hit|miss
+ *   • solver.hint.ranked — POST .../hint/ranked, tagged status=RANKED|UNSOLVABLE|TIMEOUT
+ *   • solver.hint.closest — POST .../hint/closest, tagged status=CLOSEST|BEST_FOUND|UNSOLVABLE|TIMEOUT
+ *
+ * Search work, recorded for every date the solver actually runs (tags puzzle, month):
+ *   • solver.search             — the whole uncached solve: board copy, placements,
+ *                                 matrix build and search
+ *   • solver.dlx.nodes          — DLX search nodes visited
+ *   • solver.dlx.backtracks     — rows placed and taken back
+ *   • solver.no.solution        — dates with no cover
+ *
+ * Solution cache per puzzle: solver.cache.hits, solver.cache.misses (counters) and
+ * solver.cache.size (gauge), read from whichever version of the puzzle is live; also
+ * solver.solve.coalesced (misses that shared another caller's search) and
+ * solver.solve.coalesce.timeouts (those that gave up waiting). A recompiled puzzle
+ * starts a fresh SolutionCache, so the counters carry over the replaced cache's
+ * totals and never go backwards; the size gauge does drop to the new cache's.
+ */
+@Component
+public class SolverMetrics implements CompiledPuzzle.SolveListener {
+
+    private final MeterRegistry registry;
+    private final PuzzleCatalog catalog;
+    private final Set<String> cacheMetered = ConcurrentHashMap.newKeySet();
+
+    public SolverMetrics(MeterRegistry registry, PuzzleCatalog catalog) {
+        this.registry = registry;
+        this.catalog = catalog;
+        for (CompiledPuzzle puzzle : catalog.getAll()) {
+            registerCacheMeters(puzzle.getId());
+        }
+        catalog.setSolveListener(this);
+    }
+
+    /** Starts timing a request; pass the sample to one of the record methods. */
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void recordSolve(Timer.Sample sample, String puzzleId, boolean cacheHit) {
+        sample.stop(requestTimer("solver.solve", "POST /solve latency", puzzleId, "cache", cacheHit ? "hit" : "miss"));
+    }
+
+    public void recordBoard(Timer.Sample sample, String puzzleId) {
+        sample.stop(requestTimer("solver.board", "GET /board latency", puzzleId));
+    }
+
+    public void recordPieces(Timer.Sample sample, String puzzleId) {
+        sample.stop(requestTimer("solver.pieces", "GET /pieces latency", puzzleId));
+    }
+
+    public void recordHint(Timer.Sample sample, String puzzleId, HintDto.Status status) {
+        sample.stop(requestTimer("solver.hint", "POST /hint latency", puzzleId, "status", status.name()));
+    }
+
+    public void recordCheck(Timer.Sample sample, String puzzleId, CheckDto.Verdict verdict, boolean cacheHit) {
+        sample.stop(requestTimer("solver.check", "POST /check latency", puzzleId,
+                "verdict", verdict.name(), "cache", cacheHit ? "hit" : "miss"));
+    }
+
+    public void recordRankedHint(Timer.Sample sample, String puzzleId, RankedHintDto.Status status) {
+        sample.stop(requestTimer("solver.hint.ranked", "POST /hint/ranked latency", puzzleId, "status", status.name()));
+    }
+
+    public void recordClosest(Timer.Sample sample, String puzzleId, ClosestDto.Status status) {
+        sample.stop(requestTimer("solver.hint.closest", "POST /hint/closest latency", puzzleId, "status", status.name()));
+    }
+
+    @Override
+    public void solved(CompiledPuzzle puzzle, int month, int day, boolean found,
+                       long nodes, long backtracks, long elapsedNanos) {
+        String puzzleId = puzzle.getId();
+        String monthLabel = CompiledPuzzle.monthLabel(month);
+        registerCacheMeters(puzzleId);
+
+        Timer.builder("solver.search")
+                .description("Uncached solver runs")
+                .tags("puzzle", puzzleId, "month", monthLabel)
+                .register(registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        searchCounter("solver.dlx.nodes", "DLX search nodes visited", puzzleId, monthLabel).increment(nodes);
+        searchCounter("solver.dlx.backtracks", "DLX rows placed and taken back", puzzleId, monthLabel).increment(backtracks);
+        if (!found) {
+            searchCounter("solver.no.solution", "Dates the solver found no cover for", puzzleId, monthLabel).increment();
+        }
+    }
+
+    private Timer requestTimer(String name, String description, String puzzleId, String... extraTags) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("puzzle", puzzleId)
+                .tags(extraTags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Counter searchCounter(String name, String description, String puzzleId, String monthLabel) {
+        return Counter.builder(name)
+                .description(description)
+                .tags("puzzle", puzzleId, "month", monthLabel)
+                .register(registry);
+    }
+
+    /**
+     * Cache meters look the puzzle up on every read, so a recompiled puzzle keeps
+     * reporting; the counters go through a CacheTotal so they stay monotonic.
+     */
+    private void registerCacheMeters(String puzzleId) {
+        if (!cacheMetered.add(puzzleId)) {
+            return;
+        }
+        cacheCounter("solver.cache.hits", "Solution cache hits", puzzleId, SolutionCache::getHits);
+        cacheCounter("solver.cache.misses", "Solution cache misses", puzzleId, SolutionCache::getMisses);
+        cacheCounter("solver.solve.coalesced", "Solve requests that waited for an identical in-flight search",
+                puzzleId, SolutionCache::getCoalesced);
+        cacheCounter("solver.solve.coalesce.timeouts", "Coalesced solve requests that gave up waiting",
+                puzzleId, SolutionCache::getCoalesceTimeouts);
+        Gauge.builder("solver.cache.size", catalog, c -> {
+                    CompiledPuzzle puzzle = c.get(puzzleId);
+                    return puzzle == null ? 0 : puzzle.getSolutionCache().size();
+                })
+                .description("Dates currently cached")
+                .tag("puzzle", puzzleId)
+                .register(registry);
+    }
+
+    private void cacheCounter(String name, String description, String puzzleId, ToLongFunction<SolutionCache> stat) {
+        CacheTotal total = new CacheTotal(puzzleId, stat);
+        total.read(catalog);   // pin the live cache now, so counts before the first scrape survive a recompile
+        // The meter holds the catalog weakly and the function strongly, so the total lives with the meter
+        FunctionCounter.builder(name, catalog, total::read)
+                .description(description)
+                .tag("puzzle", puzzleId)
+                .register(registry);
+    }
+
+    /**
+     * One cache counter of a puzzle across recompiles. Each version of the puzzle has
+     * its own SolutionCache counting from 0; when a read finds a different cache live,
+     * the replaced one's final count is banked, so the sum never goes backwards. Only
+     * the count is kept, not the replaced cache. Requests still finishing on a replaced
+     * cache after that read, or a version replaced again before any read, are missed.
+     */
+    private static final class CacheTotal {
+        private final String puzzleId;
+        private final ToLongFunction<SolutionCache> stat;
+        private SolutionCache live;   // guarded by this
+        private long banked;          // guarded by this
+
+        CacheTotal(String puzzleId, ToLongFunction<SolutionCache> stat) {
+            this.puzzleId = puzzleId;
+            this.stat = stat;
+        }
+
+        synchronized double read(PuzzleCatalog catalog) {
+            CompiledPuzzle puzzle = catalog.get(puzzleId);
+            SolutionCache cache = puzzle == null ? null : puzzle.getSolutionCache();
+            if (cache != live) {
+                if (live != null) {
+                    banked += stat.applyAsLong(live);
+                }
+                live = cache;
+            }
+            return banked + (live == null ? 0 : stat.applyAsLong(live));
+        }
+    }
+}
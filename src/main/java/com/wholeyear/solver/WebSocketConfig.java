@@ -0,0 +1,23 @@
+package com.wholeyear.solver;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/** Maps /ws/play to PlaySocketHandler (same-origin connections only, like the REST API). */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final PlaySocketHandler playHandler;
+
+    public WebSocketConfig(PlaySocketHandler playHandler) {
+        this.playHandler = playHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(playHandler, "/ws/play");
+    }
+}
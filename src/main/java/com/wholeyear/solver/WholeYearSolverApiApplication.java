@@ -2,8 +2,10 @@ package com.wholeyear.solver;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class WholeYearSolverApiApplication {
     public static void main(String[] args) {
 
@@ -0,0 +1,463 @@
+package com.wholeyear.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.wholeyear.model.Cell;
+
+/**
+ * Exact-cover search specialised for boards with at most 64 fillable cells.
+ *
+ * Every Placement is precomputed as a single long mask (bit i ↔ fillableCells.get(i))
+ * plus a one-bit mask for the piece it uses. The search always fills the lowest
+ * empty cell next, so candidates are bucketed by the lowest bit of their mask: any
+ * placement covering that cell whose lowest bit is lower would overlap a cell that
+ * is already filled. The inner loop is bit operations over preallocated arrays.
+ *
+ * Same contract as ExactCoverSolver: solve() returns the chosen row indices (i.e.
+ * indices into placements), or null if no exact cover exists. As with the piece
+ * columns Solver adds to the DLX matrix, every piece that has at least one
+ * placement must be used exactly once. countSolutions() and enumerate() walk every
+ * exact cover instead of stopping at the first.
+ *
+ * The search state is just (filled cells, used pieces), and the same state is reached
+ * through many placement orders. countSolutions(prefilled, table) memoizes the
+ * completion count per state, so each distinct state is expanded once. Because a
+ * state's count does not depend on how its cells got filled, one table also serves
+ * searches that start from different prefilled cells (e.g. every date on one board).
+ *
+ * closest() is an optimization mode over the same search: a branch and bound for the
+ * exact cover that contains as many of a given set of rows as possible.
+ */
+public class BitboardSolver {
+
+    /** Largest board this engine can represent in one word. */
+    public static final int MAX_CELLS = Long.SIZE;
+
+    /** What countSolutions(filled, used, table, cancelled) returns once cancelled. */
+    public static final long CANCELLED = -1L;
+
+    private final int numCells;
+    private final long fullMask;
+    private final long allPieces;
+
+    private final long[] cellMask;    // per placement: covered cells
+    private final long[] pieceMask;   // per placement: single bit for its piece
+    private final int[] candStart;    // candidates for cell i are cand[candStart[i] .. candStart[i+1])
+    private final int[] cand;         // placement indices grouped by lowest covered cell
+    private final int[] stack;        // chosen placements, one per depth
+
+    // Per-run search state
+    private SolutionVisitor visitor;
+    private long limit;
+    private long found;
+    private boolean stopped;
+    private int solutionDepth;
+
+    // Per-run closest() state
+    private int[] preferred;
+    private boolean[] isPreferred;
+    private AtomicBoolean cancelled;
+    private int[] best;
+    private int bestDepth;
+    private int bestKept;
+    private int keepable;
+    private long nodes;
+
+    /** Result of closest(): the best cover found and how far the search got. */
+    public static final class Closest {
+        private final List<Integer> rows;
+        private final int kept;
+        private final boolean optimal;
+        private final long nodes;
+
+        Closest(List<Integer> rows, int kept, boolean optimal, long nodes) {
+            this.rows = rows;
+            this.kept = kept;
+            this.optimal = optimal;
+            this.nodes = nodes;
+        }
+
+        /** Rows added to the starting state, or null if no cover was found. */
+        public List<Integer> getRows() {
+            return rows;
+        }
+
+        /** How many of the preferred rows the cover contains; -1 if there is none. */
+        public int getKept() {
+            return kept;
+        }
+
+        /**
+         * True if no cover keeps more (or, with no rows, if none exists); false if the
+         * search was cancelled first.
+         */
+        public boolean isOptimal() {
+            return optimal;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+    }
+
+    /**
+     * @param fillableCells cells to be covered; list position is the bit index
+     * @param placements    candidate rows, each covering only cells in fillableCells
+     */
+    public BitboardSolver(List<Cell> fillableCells, List<Placement> placements) {
+        if (fillableCells.size() > MAX_CELLS) {
+            throw new IllegalArgumentException(
+                "Bitboard engine supports at most " + MAX_CELLS + " cells, got " + fillableCells.size());
+        }
+        this.numCells = fillableCells.size();
+        this.fullMask = numCells == MAX_CELLS ? -1L : (1L << numCells) - 1;
+
+        Map<Cell, Integer> cellToBit = new HashMap<>();
+        for (int i = 0; i < numCells; i++) {
+            cellToBit.put(fillableCells.get(i), i);
+        }
+
+        // Piece bits in first-seen order, matching Solver's piece columns
+        Map<String, Integer> pieceToBit = new HashMap<>();
+        for (Placement plc : placements) {
+            if (!pieceToBit.containsKey(plc.getPieceId())) {
+                if (pieceToBit.size() == Long.SIZE) {
+                    throw new IllegalArgumentException(
+                        "Bitboard engine supports at most " + Long.SIZE + " distinct pieces");
+                }
+                pieceToBit.put(plc.getPieceId(), pieceToBit.size());
+            }
+        }
+        this.allPieces = pieceToBit.size() == Long.SIZE ? -1L : (1L << pieceToBit.size()) - 1;
+
+        int n = placements.size();
+        this.cellMask = new long[n];
+        this.pieceMask = new long[n];
+        int[] perCell = new int[numCells + 1];
+        for (int p = 0; p < n; p++) {
+            Placement plc = placements.get(p);
+            long mask = 0L;
+            for (Cell c : plc.getCoveredCells()) {
+                Integer bit = cellToBit.get(c);
+                if (bit == null) {
+                    throw new IllegalArgumentException(
+                        "Placement " + plc + " covers " + c + ", which is not a fillable cell");
+                }
+                mask |= 1L << bit;
+            }
+            cellMask[p] = mask;
+            pieceMask[p] = 1L << pieceToBit.get(plc.getPieceId());
+            if (mask != 0L) {
+                perCell[Long.numberOfTrailingZeros(mask)]++;
+            }
+        }
+
+        // Prefix sums → bucket offsets; placements keep their original order per bucket
+        this.candStart = new int[numCells + 1];
+        for (int i = 0; i < numCells; i++) {
+            candStart[i + 1] = candStart[i] + perCell[i];
+        }
+        this.cand = new int[candStart[numCells]];
+        int[] fill = new int[numCells];
+        for (int p = 0; p < n; p++) {
+            if (cellMask[p] != 0L) {
+                int low = Long.numberOfTrailingZeros(cellMask[p]);
+                cand[candStart[low] + fill[low]++] = p;
+            }
+        }
+        this.stack = new int[Math.max(numCells, 1)];
+    }
+
+    /**
+     * A solver over the same placements with its own search state, so the two can
+     * run on different threads. The placement tables are shared, not copied.
+     */
+    public BitboardSolver(BitboardSolver other) {
+        this.numCells = other.numCells;
+        this.fullMask = other.fullMask;
+        this.allPieces = other.allPieces;
+        this.cellMask = other.cellMask;
+        this.pieceMask = other.pieceMask;
+        this.candStart = other.candStart;
+        this.cand = other.cand;
+        this.stack = new int[other.stack.length];
+    }
+
+    /**
+     * Runs the search. Returns a list of row‐indices (i.e. indices into placements)
+     * that form an exact cover, or null if no solution.
+     */
+    public List<Integer> solve() {
+        if (run(null, 1) == 0) {
+            return null;
+        }
+        List<Integer> result = new ArrayList<>(solutionDepth);
+        for (int i = 0; i < solutionDepth; i++) {
+            result.add(stack[i]);
+        }
+        return result;
+    }
+
+    /** Counts every exact cover. */
+    public long countSolutions() {
+        return countSolutions(Long.MAX_VALUE);
+    }
+
+    /** Counts exact covers, stopping once {@code limit} have been found. */
+    public long countSolutions(long limit) {
+        return run(null, limit);
+    }
+
+    /**
+     * Counts the exact covers of the cells not in {@code prefilled} (bit i ↔
+     * fillableCells.get(i)), memoizing the count per (filled, used) state in
+     * {@code table}. Exact for any table size; a larger table only avoids recomputing
+     * evicted states. Entries stay valid for later calls on this solver, but the
+     * table must not be shared with another solver.
+     */
+    public long countSolutions(long prefilled, TranspositionTable table) {
+        return countMemoized(prefilled & fullMask, 0L, table);
+    }
+
+    /**
+     * As countSolutions(prefilled, table), from a state part-way through the search:
+     * {@code filled} cells are covered and the {@code used} pieces (bit i ↔ the i-th
+     * piece in first-seen placement order, see getPieceMask) are placed already.
+     */
+    public long countSolutions(long filled, long used, TranspositionTable table) {
+        return countMemoized(filled & fullMask, used & allPieces, table);
+    }
+
+    /**
+     * As countSolutions(filled, used, table), but setting {@code cancelled} (checked
+     * every 1024 expanded states) stops the count and returns CANCELLED. Only states
+     * counted in full are put in the table, so it stays exact for later calls.
+     * Needs no per-run state, so one solver can serve concurrent counts.
+     */
+    public long countSolutions(long filled, long used, TranspositionTable table, AtomicBoolean cancelled) {
+        return countMemoized(filled & fullMask, used & allPieces, table, cancelled, new long[1]);
+    }
+
+    /** Cells covered by placement {@code row}, as a mask over fillableCells. */
+    public long getCellMask(int row) {
+        return cellMask[row];
+    }
+
+    /** The single bit of the piece placement {@code row} uses. */
+    public long getPieceMask(int row) {
+        return pieceMask[row];
+    }
+
+    /**
+     * Calls the visitor once per exact cover, stopping after {@code limit} covers
+     * or as soon as the visitor returns false. Returns the number of covers visited.
+     */
+    public long enumerate(SolutionVisitor visitor, long limit) {
+        return run(visitor, limit);
+    }
+
+    /**
+     * As enumerate(visitor, limit), over the completions of a state part-way through
+     * (see countSolutions(filled, used, table)); the visitor sees only the rows added
+     * to that state.
+     */
+    public long enumerate(long filled, long used, SolutionVisitor visitor, long limit) {
+        return run(filled & fullMask, used & allPieces, visitor, limit);
+    }
+
+    /**
+     * Branch and bound for the exact cover of a state part-way through (see
+     * countSolutions(filled, used, table)) that contains as many of the {@code preferred}
+     * rows as possible. At each cell the preferred rows covering it are tried first, so
+     * the first cover found already keeps what it easily can. A branch is cut once the
+     * rows kept on the way plus the preferred rows still placeable (on empty cells, with
+     * unused pieces) cannot beat the best cover so far; the search stops early when a
+     * cover keeps every row placeable from the start. Setting {@code cancelled} (checked
+     * every 1024 nodes) returns the best cover so far, marked not optimal.
+     */
+    public Closest closest(long filled, long used, int[] preferred, AtomicBoolean cancelled) {
+        filled &= fullMask;
+        used &= allPieces;
+        this.isPreferred = new boolean[cellMask.length];
+        int n = 0;
+        int[] rows = new int[preferred.length];
+        for (int row : preferred) {
+            if (!isPreferred[row]) {
+                isPreferred[row] = true;
+                rows[n++] = row;
+            }
+        }
+        this.preferred = Arrays.copyOf(rows, n);
+        this.cancelled = cancelled;
+        this.best = new int[stack.length];
+        this.bestDepth = 0;
+        this.bestKept = -1;
+        this.keepable = placeable(filled, used);
+        this.nodes = 0;
+        this.stopped = false;
+        closestSearch(filled, used, 0, 0);
+
+        List<Integer> result = null;
+        if (bestKept >= 0) {
+            result = new ArrayList<>(bestDepth);
+            for (int i = 0; i < bestDepth; i++) {
+                result.add(best[i]);
+            }
+        }
+        Closest closest = new Closest(result, bestKept, !stopped || bestKept == keepable, nodes);
+        this.preferred = null;
+        this.isPreferred = null;
+        this.cancelled = null;
+        this.best = null;
+        return closest;
+    }
+
+    private long run(SolutionVisitor visitor, long limit) {
+        return run(0L, 0L, visitor, limit);
+    }
+
+    private long run(long filled, long used, SolutionVisitor visitor, long limit) {
+        if (limit <= 0) {
+            return 0;
+        }
+        this.visitor = visitor;
+        this.limit = limit;
+        this.found = 0;
+        this.stopped = false;
+        search(filled, used, 0);
+        this.visitor = null;
+        return found;
+    }
+
+    private long countMemoized(long filled, long used, TranspositionTable table) {
+        if (filled == fullMask) {
+            return used == allPieces ? 1 : 0;
+        }
+        long cached = table.get(filled, used);
+        if (cached >= 0) {
+            return cached;
+        }
+        long count = 0;
+        int cell = Long.numberOfTrailingZeros(~filled);
+        for (int i = candStart[cell], end = candStart[cell + 1]; i < end; i++) {
+            int p = cand[i];
+            if ((cellMask[p] & filled) != 0L || (pieceMask[p] & used) != 0L) {
+                continue;
+            }
+            count += countMemoized(filled | cellMask[p], used | pieceMask[p], table);
+        }
+        table.put(filled, used, count);
+        return count;
+    }
+
+    /** countMemoized() with a cancel check; {@code expanded} counts the states expanded so far. */
+    private long countMemoized(long filled, long used, TranspositionTable table,
+                               AtomicBoolean cancelled, long[] expanded) {
+        if (filled == fullMask) {
+            return used == allPieces ? 1 : 0;
+        }
+        long cached = table.get(filled, used);
+        if (cached >= 0) {
+            return cached;
+        }
+        if ((++expanded[0] & 1023) == 0 && cancelled.get()) {
+            return CANCELLED;
+        }
+        long count = 0;
+        int cell = Long.numberOfTrailingZeros(~filled);
+        for (int i = candStart[cell], end = candStart[cell + 1]; i < end; i++) {
+            int p = cand[i];
+            if ((cellMask[p] & filled) != 0L || (pieceMask[p] & used) != 0L) {
+                continue;
+            }
+            long sub = countMemoized(filled | cellMask[p], used | pieceMask[p], table, cancelled, expanded);
+            if (sub == CANCELLED) {
+                return CANCELLED;   // a partial count must not reach the table
+            }
+            count += sub;
+        }
+        table.put(filled, used, count);
+        return count;
+    }
+
+    /** Preferred rows that still fit the state; an upper bound on the ones a completion can add. */
+    private int placeable(long filled, long used) {
+        int count = 0;
+        for (int p : preferred) {
+            if ((cellMask[p] & filled) == 0L && (pieceMask[p] & used) == 0L) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void closestSearch(long filled, long used, int depth, int kept) {
+        if ((++nodes & 1023) == 0 && cancelled.get()) {
+            stopped = true;
+        }
+        if (stopped) {
+            return;
+        }
+        if (filled == fullMask) {
+            if (used == allPieces && kept > bestKept) {
+                bestKept = kept;
+                bestDepth = depth;
+                System.arraycopy(stack, 0, best, 0, depth);
+                stopped = kept == keepable;   // nothing can keep more
+            }
+            return;
+        }
+        if (kept + placeable(filled, used) <= bestKept) {
+            return;
+        }
+        int cell = Long.numberOfTrailingZeros(~filled);
+        long bit = 1L << cell;
+        for (int i = 0; i < preferred.length && !stopped; i++) {
+            int p = preferred[i];
+            if ((cellMask[p] & bit) == 0L || (cellMask[p] & filled) != 0L || (pieceMask[p] & used) != 0L) {
+                continue;
+            }
+            stack[depth] = p;
+            closestSearch(filled | cellMask[p], used | pieceMask[p], depth + 1, kept + 1);
+        }
+        for (int i = candStart[cell], end = candStart[cell + 1]; i < end && !stopped; i++) {
+            int p = cand[i];
+            if (isPreferred[p] || (cellMask[p] & filled) != 0L || (pieceMask[p] & used) != 0L) {
+                continue;
+            }
+            stack[depth] = p;
+            closestSearch(filled | cellMask[p], used | pieceMask[p], depth + 1, kept);
+        }
+    }
+
+    private void search(long filled, long used, int depth) {
+        if (filled == fullMask) {
+            if (used != allPieces) {
+                return;
+            }
+            solutionDepth = depth;
+            found++;
+            if (visitor != null && !visitor.visit(stack, depth)) {
+                stopped = true;
+            }
+            if (found >= limit) {
+                stopped = true;
+            }
+            return;
+        }
+        int cell = Long.numberOfTrailingZeros(~filled);
+        for (int i = candStart[cell], end = candStart[cell + 1]; i < end && !stopped; i++) {
+            int p = cand[i];
+            if ((cellMask[p] & filled) != 0L || (pieceMask[p] & used) != 0L) {
+                continue;
+            }
+            stack[depth] = p;
+            search(filled | cellMask[p], used | pieceMask[p], depth + 1);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.wholeyear.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.wholeyear.model.Cell;
+
+/**
+ * BitboardSolver's search for boards of any size: the cell mask of each placement is
+ * a fixed number of long words (bit i of the board ↔ word i / 64, bit i % 64).
+ *
+ * The word count is fixed at construction and the search is specialised for it:
+ * one word (up to 64 cells) and two words (up to 128 cells) keep the filled mask in
+ * local longs, exactly like BitboardSolver; wider boards use one long[] that is
+ * updated in place and restored on backtrack. Either way the inner loop is bit
+ * operations over preallocated arrays.
+ *
+ * Same contract as BitboardSolver: solve() returns the chosen row indices (i.e.
+ * indices into placements) or null, every piece that has at least one placement
+ * must be used exactly once, and at most 64 distinct pieces are supported.
+ */
+public class BitsetSolver {
+
+    private final int numCells;
+    private final int words;           // longs per cell mask
+    private final long[] fullMask;     // per word: the bits of real cells
+    private final long allPieces;
+
+    private final long[] cellMask;     // placement p's word w at [p * words + w]
+    private final long[] pieceMask;    // per placement: single bit for its piece
+    private final int[] candStart;     // candidates for cell i are cand[candStart[i] .. candStart[i+1])
+    private final int[] cand;          // placement indices grouped by lowest covered cell
+    private final int[] stack;         // chosen placements, one per depth
+    private final long[] filled;       // in-place filled mask for the N-word search
+
+    // Per-run search state
+    private SolutionVisitor visitor;
+    private long limit;
+    private long found;
+    private boolean stopped;
+    private int solutionDepth;
+
+    /**
+     * @param fillableCells cells to be covered
+     * @param placements    candidate rows, each covering only cells in fillableCells
+     */
+    public BitsetSolver(List<Cell> fillableCells, List<Placement> placements) {
+        this.numCells = fillableCells.size();
+        this.words = Math.max(1, (numCells + Long.SIZE - 1) / Long.SIZE);
+        this.fullMask = new long[words];
+        for (int i = 0; i < numCells; i++) {
+            fullMask[i >>> 6] |= 1L << i;
+        }
+
+        Map<Cell, Integer> cellToBit = new HashMap<>();
+        List<Cell> order = bitOrder(fillableCells);
+        for (int i = 0; i < numCells; i++) {
+            cellToBit.put(order.get(i), i);
+        }
+
+        // Piece bits in first-seen order, matching Solver's piece columns
+        Map<String, Integer> pieceToBit = new HashMap<>();
+        for (Placement plc : placements) {
+            if (!pieceToBit.containsKey(plc.getPieceId())) {
+                if (pieceToBit.size() == Long.SIZE) {
+                    throw new IllegalArgumentException(
+                        "Bitset engine supports at most " + Long.SIZE + " distinct pieces");
+                }
+                pieceToBit.put(plc.getPieceId(), pieceToBit.size());
+            }
+        }
+        this.allPieces = pieceToBit.size() == Long.SIZE ? -1L : (1L << pieceToBit.size()) - 1;
+
+        int n = placements.size();
+        this.cellMask = new long[n * words];
+        this.pieceMask = new long[n];
+        int[] lowest = new int[n];
+        int[] perCell = new int[numCells + 1];
+        for (int p = 0; p < n; p++) {
+            Placement plc = placements.get(p);
+            int low = Integer.MAX_VALUE;
+            for (Cell c : plc.getCoveredCells()) {
+                Integer bit = cellToBit.get(c);
+                if (bit == null) {
+                    throw new IllegalArgumentException(
+                        "Placement " + plc + " covers " + c + ", which is not a fillable cell");
+                }
+                cellMask[p * words + (bit >>> 6)] |= 1L << bit;
+                low = Math.min(low, bit);
+            }
+            pieceMask[p] = 1L << pieceToBit.get(plc.getPieceId());
+            lowest[p] = low == Integer.MAX_VALUE ? -1 : low;
+            if (low != Integer.MAX_VALUE) {
+                perCell[low]++;
+            }
+        }
+
+        // Prefix sums → bucket offsets; placements keep their original order per bucket
+        this.candStart = new int[numCells + 1];
+        for (int i = 0; i < numCells; i++) {
+            candStart[i + 1] = candStart[i] + perCell[i];
+        }
+        this.cand = new int[candStart[numCells]];
+        int[] fill = new int[numCells];
+        for (int p = 0; p < n; p++) {
+            if (lowest[p] >= 0) {
+                cand[candStart[lowest[p]] + fill[lowest[p]]++] = p;
+            }
+        }
+        this.stack = new int[Math.max(numCells, 1)];
+        this.filled = new long[words];
+    }
+
+    /**
+     * Cells in bit order. The search fills the lowest empty bit first, and a front
+     * that sweeps across the short side of the board leaves fewer ways to strand a
+     * cell than one sweeping the long side, so wide boards are numbered column by column.
+     */
+    private static List<Cell> bitOrder(List<Cell> cells) {
+        int minRow = Integer.MAX_VALUE, maxRow = Integer.MIN_VALUE;
+        int minCol = Integer.MAX_VALUE, maxCol = Integer.MIN_VALUE;
+        for (Cell c : cells) {
+            minRow = Math.min(minRow, c.getRow());
+            maxRow = Math.max(maxRow, c.getRow());
+            minCol = Math.min(minCol, c.getCol());
+            maxCol = Math.max(maxCol, c.getCol());
+        }
+        List<Cell> order = new ArrayList<>(cells);
+        if (maxCol - minCol > maxRow - minRow) {
+            order.sort(Comparator.comparingInt(Cell::getCol).thenComparingInt(Cell::getRow));
+        } else {
+            order.sort(Comparator.comparingInt(Cell::getRow).thenComparingInt(Cell::getCol));
+        }
+        return order;
+    }
+
+    /** Number of long words per cell mask (1 for up to 64 cells, 2 for up to 128, ...). */
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Runs the search. Returns a list of row‐indices (i.e. indices into placements)
+     * that form an exact cover, or null if no solution.
+     */
+    public List<Integer> solve() {
+        if (run(null, 1) == 0) {
+            return null;
+        }
+        List<Integer> result = new ArrayList<>(solutionDepth);
+        for (int i = 0; i < solutionDepth; i++) {
+            result.add(stack[i]);
+        }
+        return result;
+    }
+
+    /** Counts every exact cover. */
+    public long countSolutions() {
+        return countSolutions(Long.MAX_VALUE);
+    }
+
+    /** Counts exact covers, stopping once {@code limit} have been found. */
+    public long countSolutions(long limit) {
+        return run(null, limit);
+    }
+
+    /**
+     * Calls the visitor once per exact cover, stopping after {@code limit} covers
+     * or as soon as the visitor returns false. Returns the number of covers visited.
+     */
+    public long enumerate(SolutionVisitor visitor, long limit) {
+        return run(visitor, limit);
+    }
+
+    private long run(SolutionVisitor visitor, long limit) {
+        if (limit <= 0) {
+            return 0;
+        }
+        this.visitor = visitor;
+        this.limit = limit;
+        this.found = 0;
+        this.stopped = false;
+        if (words == 1) {
+            search1(0L, 0L, 0);
+        } else if (words == 2) {
+            search2(0L, 0L, 0L, 0);
+        } else {
+            Arrays.fill(filled, 0L);
+            searchN(0L, 0);
+        }
+        this.visitor = null;
+        return found;
+    }
+
+    /** Counts a full cover if every piece is used, and sets stopped when the run should end. */
+    private void leaf(long used, int depth) {
+        if (used != allPieces) {
+            return;
+        }
+        solutionDepth = depth;
+        found++;
+        if (visitor != null && !visitor.visit(stack, depth)) {
+            stopped = true;
+        }
+        if (found >= limit) {
+            stopped = true;
+        }
+    }
+
+    // ─── 1 word: up to 64 cells ─────────────────────────────────────────
+
+    private void search1(long f0, long used, int depth) {
+        if (f0 == fullMask[0]) {
+            leaf(used, depth);
+            return;
+        }
+        int cell = Long.numberOfTrailingZeros(~f0);
+        for (int i = candStart[cell], end = candStart[cell + 1]; i < end && !stopped; i++) {
+            int p = cand[i];
+            if ((cellMask[p] & f0) != 0L || (pieceMask[p] & used) != 0L) {
+                continue;
+            }
+            stack[depth] = p;
+            search1(f0 | cellMask[p], used | pieceMask[p], depth + 1);
+        }
+    }
+
+    // ─── 2 words: up to 128 cells ───────────────────────────────────────
+
+    private void search2(long f0, long f1, long used, int depth) {
+        int cell;
+        if (f0 != fullMask[0]) {
+            cell = Long.numberOfTrailingZeros(~f0);
+        } else if (f1 != fullMask[1]) {
+            cell = Long.SIZE + Long.numberOfTrailingZeros(~f1);
+        } else {
+            leaf(used, depth);
+            return;
+        }
+        for (int i = candStart[cell], end = candStart[cell + 1]; i < end && !stopped; i++) {
+            int p = cand[i];
+            long m0 = cellMask[2 * p], m1 = cellMask[2 * p + 1];
+            if ((m0 & f0) != 0L || (m1 & f1) != 0L || (pieceMask[p] & used) != 0L) {
+                continue;
+            }
+            stack[depth] = p;
+            search2(f0 | m0, f1 | m1, used | pieceMask[p], depth + 1);
+        }
+    }
+
+    // ─── N words: any size, filled mask updated in place ────────────────
+
+    private void searchN(long used, int depth) {
+        int cell = -1;
+        for (int w = 0; w < words; w++) {
+            if (filled[w] != fullMask[w]) {
+                cell = w * Long.SIZE + Long.numberOfTrailingZeros(~filled[w]);
+                break;
+            }
+        }
+        if (cell < 0) {
+            leaf(used, depth);
+            return;
+        }
+        for (int i = candStart[cell], end = candStart[cell + 1]; i < end && !stopped; i++) {
+            int p = cand[i];
+            if ((pieceMask[p] & used) != 0L || overlaps(p)) {
+                continue;
+            }
+            int base = p * words;
+            for (int w = 0; w < words; w++) {
+                filled[w] |= cellMask[base + w];
+            }
+            stack[depth] = p;
+            searchN(used | pieceMask[p], depth + 1);
+            for (int w = 0; w < words; w++) {
+                filled[w] &= ~cellMask[base + w];
+            }
+        }
+    }
+
+    private boolean overlaps(int p) {
+        int base = p * words;
+        for (int w = 0; w < words; w++) {
+            if ((cellMask[base + w] & filled[w]) != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,179 @@
+package com.wholeyear.util;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.Cell;
+import com.wholeyear.model.Piece;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The exact-cover matrix of an undated board, built once and copied per query.
+ *
+ * Columns are the base board's fillable cells (in getAllFillableCells() order)
+ * followed by one column per piece; rows are getPlacements(). A query works on
+ * newSolver(), a copy of the links: a date's two cells are taken out with
+ * excludeColumn() and pieces already on the board are pinned with selectRow().
+ * That costs a few array clones instead of regenerating every placement and
+ * rebuilding the matrix, which is what Solver does for each date.
+ *
+ * coverMask() describes such a query without touching the links: the set of columns
+ * it covers, one bit per column, which identifies the remaining subproblem (cells
+ * still empty, pieces still unused) and so can key a cache of verdicts.
+ */
+public class CoverTemplate {
+
+    private final int boardRows;
+    private final int boardCols;
+    private final int[] cellToColumn;           // flat board index → column, -1 if not fillable
+    private final List<Placement> placements;
+    private final Map<String, Integer> rowByKey;
+    private final int[][] rowColumns;           // per row: the columns it covers, as in buildDlx()
+    private final int numColumns;
+    private final ExactCoverSolver template;
+    private final RegionPruner pruner;
+
+    public CoverTemplate(Board baseBoard, List<Piece> pieces, PlacementIndex placementIndex) {
+        this.boardRows = baseBoard.getRows();
+        this.boardCols = baseBoard.getCols();
+        List<Cell> fillableCells = baseBoard.getAllFillableCells();
+        this.cellToColumn = new int[boardRows * boardCols];
+        Arrays.fill(cellToColumn, -1);
+        for (int i = 0; i < fillableCells.size(); i++) {
+            Cell c = fillableCells.get(i);
+            cellToColumn[c.getRow() * boardCols + c.getCol()] = i;
+        }
+
+        Solver solver = new Solver(baseBoard, pieces);
+        solver.setPlacementIndex(placementIndex);
+        this.placements = Collections.unmodifiableList(solver.generateAllPlacements());
+        this.template = solver.buildDlx(fillableCells, placements);
+
+        Map<String, Integer> rows = new HashMap<>();
+        for (int i = 0; i < placements.size(); i++) {
+            Placement p = placements.get(i);
+            rows.put(key(p.getPieceId(), p.getCoveredCells()), i);
+        }
+        this.rowByKey = rows;
+
+        // Piece columns follow the cells in order of first appearance, like buildDlx()
+        Map<String, Integer> pieceColumns = new LinkedHashMap<>();
+        Map<String, Integer> pieceSizes = new HashMap<>();
+        for (Placement p : placements) {
+            pieceColumns.putIfAbsent(p.getPieceId(), fillableCells.size() + pieceColumns.size());
+            pieceSizes.put(p.getPieceId(), p.getCoveredCells().size());
+        }
+        this.numColumns = fillableCells.size() + pieceColumns.size();
+        this.rowColumns = new int[placements.size()][];
+        for (int i = 0; i < placements.size(); i++) {
+            Placement p = placements.get(i);
+            int[] cols = new int[p.getCoveredCells().size() + 1];
+            int n = 0;
+            for (Cell c : p.getCoveredCells()) {
+                cols[n++] = cellToColumn[c.getRow() * boardCols + c.getCol()];
+            }
+            cols[n] = pieceColumns.get(p.getPieceId());
+            rowColumns[i] = cols;
+        }
+        int[] sizes = new int[pieceColumns.size()];
+        for (Map.Entry<String, Integer> e : pieceColumns.entrySet()) {
+            sizes[e.getValue() - fillableCells.size()] = pieceSizes.get(e.getKey());
+        }
+        this.pruner = sizes.length == 0 ? null : new RegionPruner(fillableCells, sizes);
+    }
+
+    /** A fresh, independent copy of the matrix with nothing excluded or selected. */
+    public ExactCoverSolver newSolver() {
+        return new ExactCoverSolver(template);
+    }
+
+    /** As newSolver(), with dead-region pruning (RegionPruner) switched on. */
+    public ExactCoverSolver newPrunedSolver() {
+        ExactCoverSolver solver = new ExactCoverSolver(template);
+        if (pruner != null) {
+            solver.setPruner(pruner.copy());
+        }
+        return solver;
+    }
+
+    /**
+     * The columns covered once {@code excluded} are excluded and {@code rows} selected,
+     * as a bitmask (column c is bit c % 64 of word c / 64). Null if two of them share a
+     * column, i.e. selectRow() would refuse one.
+     */
+    public long[] coverMask(int[] excluded, int[] rows) {
+        long[] mask = new long[(numColumns + 63) >>> 6];
+        for (int col : excluded) {
+            if (!setBit(mask, col)) {
+                return null;
+            }
+        }
+        for (int row : rows) {
+            for (int col : rowColumns[row]) {
+                if (!setBit(mask, col)) {
+                    return null;
+                }
+            }
+        }
+        return mask;
+    }
+
+    private static boolean setBit(long[] mask, int col) {
+        long bit = 1L << col;   // shifts use the low six bits
+        if ((mask[col >>> 6] & bit) != 0) {
+            return false;
+        }
+        mask[col >>> 6] |= bit;
+        return true;
+    }
+
+    /** Column of a board cell, or -1 if it is not a fillable cell of the base board. */
+    public int columnOf(int row, int col) {
+        if (row < 0 || row >= boardRows || col < 0 || col >= boardCols) {
+            return -1;
+        }
+        return cellToColumn[row * boardCols + col];
+    }
+
+    /**
+     * Row of the placement of {@code pieceId} covering exactly {@code cells} (in any
+     * order), or -1 if no orientation of that piece fits the board there (or a cell is null).
+     */
+    public int rowOf(String pieceId, Collection<Cell> cells) {
+        Integer row = rowByKey.get(key(pieceId, cells));
+        return row != null ? row : -1;
+    }
+
+    public List<Placement> getPlacements() {
+        return placements;
+    }
+
+    /** Approximate heap bytes of one newSolver() / newPrunedSolver() copy. */
+    public long getSolverBytes() {
+        return template.getCopyBytes();
+    }
+
+    /** Board cell columns plus piece columns. */
+    public int getColumnCount() {
+        return numColumns;
+    }
+
+    /** Piece id plus the sorted flat indices of its cells; null or off-board cells never match. */
+    private String key(String pieceId, Collection<Cell> cells) {
+        int[] flat = new int[cells.size()];
+        int i = 0;
+        for (Cell c : cells) {
+            if (c == null || c.getRow() < 0 || c.getRow() >= boardRows || c.getCol() < 0 || c.getCol() >= boardCols) {
+                return "";
+            }
+            flat[i++] = c.getRow() * boardCols + c.getCol();
+        }
+        Arrays.sort(flat);
+        return pieceId + Arrays.toString(flat);
+    }
+}
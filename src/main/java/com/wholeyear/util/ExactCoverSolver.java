@@ -3,86 +3,63 @@ package com.wholeyear.util;
 
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A Dancing Links (DLX) implementation for Exact Cover.
  *   • numCols    = total number of “fillable Board cells”
  *   • rowsMatrix = List<boolean[]> where rowsMatrix[i][j]==true iff placement i covers column j
+ *                  (or, sparse, int[][] column lists per row, or a CSR rowStart/columns pair)
  *   • placements = parallel List<Placement>, so that row i ↔ placements.get(i)
  *
  * Calling solve() returns a List<Integer> of row-indices (i.e. indices into placements)
  * that exactly cover every column once. If no solution, returns null.
+ * countSolutions() and enumerate() walk every exact cover instead of stopping at the first.
+ * selectRow() pre-covers a row so the search only completes around it, excludeColumn()
+ * takes a column out of the problem altogether, and the copy constructor snapshots
+ * that state so independent searches can run on other threads.
+ * An optional SearchPruner lets the search backtrack from states it can prove dead.
+ *
+ * The toroidal linked structure is held in flat int[] arrays rather than one object
+ * per node, so building and searching the matrix allocates a handful of arrays and
+ * nothing else. Node layout:
+ *   • node 0                 = root header
+ *   • nodes 1 .. numCols     = column headers (column c ↔ node c + 1)
+ *   • nodes numCols + 1 ..   = one node per true entry, grouped row by row
  */
 public class ExactCoverSolver {
-    //////////////////////////////////////////
-    // Internal DLX node and column classes //
-    //////////////////////////////////////////
-
-    // Base node in the DLX toroidal linked structure
-    private static class DLXNode {
-        DLXNode L, R, U, D;
-        ColumnHeader C;
-        int rowIndex; // index of the placement row this node belongs to
-
-        DLXNode() { L = R = U = D = this; }
-        void linkDown(DLXNode above) {
-            this.D = above.D;
-            this.D.U = this;
-            this.U = above;
-            above.D = this;
-        }
-        void linkRight(DLXNode left) {
-            this.R = left.R;
-            this.R.L = this;
-            this.L = left;
-            left.R = this;
-        }
-    }
-
-    // Column header with size and name (we’ll store column index in “name”)
-    private static class ColumnHeader extends DLXNode {
-        int size = 0;
-        final String name;
-        ColumnHeader(String name) {
-            super();
-            this.name = name;
-            this.C = this;
-        }
-        void cover() {
-            // remove header from left/right
-            this.R.L = this.L;
-            this.L.R = this.R;
-            // for each row node down, remove its row from other columns
-            for (DLXNode row = this.D; row != this; row = row.D) {
-                for (DLXNode right = row.R; right != row; right = right.R) {
-                    right.D.U = right.U;
-                    right.U.D = right.D;
-                    right.C.size--;
-                }
-            }
-        }
-        void uncover() {
-            for (DLXNode row = this.U; row != this; row = row.U) {
-                for (DLXNode left = row.L; left != row; left = left.L) {
-                    left.C.size++;
-                    left.D.U = left;
-                    left.U.D = left;
-                }
-            }
-            this.R.L = this;
-            this.L.R = this;
-        }
-    }
-
     ///////////////////////////
     // Fields and constructor //
     ///////////////////////////
 
-    private final ColumnHeader header;            // root of column headers
-    private final List<ColumnHeader> colHeaders;  // one per Board‐cell (numCols)
-    private final List<DLXNode> rowNodes;         // one node per row (any node in that row)
+    private static final int ROOT = 0;
+
+    private final int numCols;
+    private final int numRows;
+
+    // Links: left, right, up, down, and the column header each node belongs to
+    private final int[] L, R, U, D, C;
+    private final int[] rowOf;        // row index of each data node (-1 for headers)
+    private final int[] rowHead;      // first node of each row (-1 if the row is empty)
+    private final int[] size;         // live node count per column header
+    private final int[] solution;     // solution stack of chosen row nodes
+    private final int[] solutionRows; // row indices handed to the visitor
     private final List<Placement> placements;     // parallel to rowsMatrix
-    private final List<DLXNode> solutionStack = new ArrayList<>();
+
+    private int selected;             // rows pre-covered via selectRow(), bottom of the stack
+    private AtomicBoolean cancelled;  // optional external stop signal
+    private AtomicBoolean groupCancelled; // second stop signal shared by parallel workers
+    private SearchPruner pruner;      // optional dead-end test, run at every node
+    private SearchProfile profile;    // optional per-depth statistics
+
+    // Per-run search state
+    private SolutionVisitor visitor;
+    private long limit;
+    private long found;
+    private boolean stopped;
+    private int solutionDepth;
+    private long searchNodes;         // search() calls in the last run
+    private long backtracks;          // rows tried and taken back in the last run
 
     /**
      * @param numCols     number of columns (|fillableCells|)
@@ -91,55 +68,184 @@ public class ExactCoverSolver {
      * @param placements  parallel List of Placement
      */
     public ExactCoverSolver(int numCols, List<boolean[]> rowsMatrix, List<Placement> placements) {
-        this.header = new ColumnHeader("root");
-        this.colHeaders = new ArrayList<>(numCols);
-        this.rowNodes = new ArrayList<>(rowsMatrix.size());
+        this(numCols, denseToRowColumns(numCols, rowsMatrix), placements);
+    }
+
+    /**
+     * Sparse form: one array of column indices per row.
+     *
+     * @param numCols     number of columns
+     * @param rowColumns  rowColumns[i] = the columns placement i covers (any order, no repeats)
+     * @param placements  parallel List of Placement
+     */
+    public ExactCoverSolver(int numCols, int[][] rowColumns, List<Placement> placements) {
+        this(numCols, rowStarts(rowColumns), flatten(rowColumns), placements);
+    }
+
+    /**
+     * CSR form: row i covers columns[rowStart[i] .. rowStart[i + 1]).
+     *
+     * @param numCols     number of columns
+     * @param rowStart    numRows + 1 offsets into columns, starting at 0 and non-decreasing
+     * @param columns     column indices of every row, concatenated (no repeats within a row)
+     * @param placements  parallel List of Placement
+     */
+    public ExactCoverSolver(int numCols, int[] rowStart, int[] columns, List<Placement> placements) {
+        validateCsr(numCols, rowStart, columns);
+        this.numCols = numCols;
+        this.numRows = rowStart.length - 1;
         this.placements = placements;
 
-        // 1) Create and link column headers
-        for (int c = 0; c < numCols; c++) {
-            ColumnHeader col = new ColumnHeader("C" + c);
-            col.linkRight(header.L);
-            colHeaders.add(col);
+        // 1) Entry count is known up front, so every array is sized exactly once
+        int entries = rowStart[numRows];
+        int nodes = 1 + numCols + entries;
+        this.L = new int[nodes];
+        this.R = new int[nodes];
+        this.U = new int[nodes];
+        this.D = new int[nodes];
+        this.C = new int[nodes];
+        this.rowOf = new int[nodes];
+        this.rowHead = new int[numRows];
+        this.size = new int[numCols + 1];
+        this.solution = new int[numCols];
+        this.solutionRows = new int[numCols];
+
+        // 2) Create and link root + column headers in a circular list
+        for (int h = 0; h <= numCols; h++) {
+            L[h] = h == 0 ? numCols : h - 1;
+            R[h] = h == numCols ? 0 : h + 1;
+            U[h] = h;
+            D[h] = h;
+            C[h] = h;
+            rowOf[h] = -1;
         }
 
-        // 2) Build the sparse matrix of DLXNodes
-        for (int r = 0; r < rowsMatrix.size(); r++) {
-            boolean[] rowMask = rowsMatrix.get(r);
-            DLXNode prev = null;
-            DLXNode firstInRow = null;
+        // 3) Append one node per entry, linking it into its column and row
+        int next = numCols + 1;
+        for (int r = 0; r < numRows; r++) {
+            int first = -1;
+            rowHead[r] = -1;
+            for (int e = rowStart[r]; e < rowStart[r + 1]; e++) {
+                int col = columns[e] + 1;
+                int node = next++;
+                C[node] = col;
+                rowOf[node] = r;
+                // link into column (append at the bottom)
+                U[node] = U[col];
+                D[node] = col;
+                D[U[col]] = node;
+                U[col] = node;
+                size[col]++;
+                // link into this row (append at the end)
+                if (first < 0) {
+                    first = node;
+                    rowHead[r] = node;
+                    L[node] = node;
+                    R[node] = node;
+                } else {
+                    L[node] = L[first];
+                    R[node] = first;
+                    R[L[first]] = node;
+                    L[first] = node;
+                }
+            }
+        }
+    }
 
+    private static int[][] denseToRowColumns(int numCols, List<boolean[]> rowsMatrix) {
+        int[][] rowColumns = new int[rowsMatrix.size()][];
+        for (int r = 0; r < rowColumns.length; r++) {
+            boolean[] rowMask = rowsMatrix.get(r);
+            int count = 0;
             for (int c = 0; c < numCols; c++) {
                 if (rowMask[c]) {
-                    ColumnHeader col = colHeaders.get(c);
-                    DLXNode node = new DLXNode();
-                    node.C = col;
-                    node.rowIndex = r;
-                    // link into column
-                    node.linkDown(col.U);
-                    col.size++;
-                    // link into this row
-                    if (prev == null) {
-                        firstInRow = node;
-                        prev = node;
-                    } else {
-                        node.linkRight(prev);
-                        prev = node;
-                    }
+                    count++;
                 }
             }
+            int[] cols = new int[count];
+            int i = 0;
+            for (int c = 0; c < numCols; c++) {
+                if (rowMask[c]) {
+                    cols[i++] = c;
+                }
+            }
+            rowColumns[r] = cols;
+        }
+        return rowColumns;
+    }
+
+    private static int[] rowStarts(int[][] rowColumns) {
+        int[] rowStart = new int[rowColumns.length + 1];
+        for (int r = 0; r < rowColumns.length; r++) {
+            rowStart[r + 1] = rowStart[r] + rowColumns[r].length;
+        }
+        return rowStart;
+    }
 
-            // close the row’s circular list (if any nodes exist)
-            if (firstInRow != null) {
-                // prev.R is already firstInRow thanks to linkRight above
-                rowNodes.add(firstInRow);
-            } else {
-                // no columns covered by this row (should not happen in a valid placement)
-                rowNodes.add(null);
+    private static int[] flatten(int[][] rowColumns) {
+        int total = 0;
+        for (int[] cols : rowColumns) {
+            total += cols.length;
+        }
+        int[] columns = new int[total];
+        int i = 0;
+        for (int[] cols : rowColumns) {
+            System.arraycopy(cols, 0, columns, i, cols.length);
+            i += cols.length;
+        }
+        return columns;
+    }
+
+    private static void validateCsr(int numCols, int[] rowStart, int[] columns) {
+        if (rowStart.length == 0 || rowStart[0] != 0 || rowStart[rowStart.length - 1] != columns.length) {
+            throw new IllegalArgumentException(
+                "rowStart must start at 0 and end at columns.length (" + columns.length + ")");
+        }
+        for (int r = 0; r + 1 < rowStart.length; r++) {
+            if (rowStart[r + 1] < rowStart[r]) {
+                throw new IllegalArgumentException("rowStart must be non-decreasing (row " + r + ")");
+            }
+        }
+        int[] seenInRow = new int[numCols];   // row + 1 that last used each column
+        for (int r = 0; r + 1 < rowStart.length; r++) {
+            for (int e = rowStart[r]; e < rowStart[r + 1]; e++) {
+                int c = columns[e];
+                if (c < 0 || c >= numCols) {
+                    throw new IllegalArgumentException(
+                        "Row " + r + " has column " + c + " outside [0, " + numCols + ")");
+                }
+                if (seenInRow[c] == r + 1) {
+                    throw new IllegalArgumentException("Row " + r + " lists column " + c + " twice");
+                }
+                seenInRow[c] = r + 1;
             }
         }
     }
 
+    /**
+     * Copies the current matrix state, including rows pre-covered with selectRow(),
+     * so the copy can be searched independently (e.g. on another thread). Only the
+     * mutable link arrays are cloned; the row/column layout is shared.
+     * Must not be called while {@code other} is searching.
+     */
+    public ExactCoverSolver(ExactCoverSolver other) {
+        this.numCols = other.numCols;
+        this.numRows = other.numRows;
+        this.placements = other.placements;
+        this.C = other.C;
+        this.rowOf = other.rowOf;
+        this.rowHead = other.rowHead;
+        this.L = other.L.clone();
+        this.R = other.R.clone();
+        this.U = other.U.clone();
+        this.D = other.D.clone();
+        this.size = other.size.clone();
+        this.solution = other.solution.clone();
+        this.solutionRows = new int[numCols];
+        this.selected = other.selected;
+        this.pruner = other.pruner == null ? null : other.pruner.copy();
+    }
+
     //////////////////////////
     // Public solve method  //
     //////////////////////////
@@ -149,57 +255,327 @@ public class ExactCoverSolver {
      * that form an exact cover, or null if no solution.
      */
     public List<Integer> solve() {
-        List<Integer> result = new ArrayList<>();
-        if (search(0, result)) {
-            return result;
+        if (run(null, 1) == 0) {
+            return null;
+        }
+        List<Integer> result = new ArrayList<>(solutionDepth);
+        for (int i = 0; i < solutionDepth; i++) {
+            result.add(rowOf[solution[i]]);
+        }
+        return result;
+    }
+
+    /** Counts every exact cover. */
+    public long countSolutions() {
+        return countSolutions(Long.MAX_VALUE);
+    }
+
+    /**
+     * Counts exact covers, stopping once {@code limit} have been found.
+     * No row lists are built, so this is the cheapest way to size a solution space.
+     */
+    public long countSolutions(long limit) {
+        return run(null, limit);
+    }
+
+    /**
+     * Calls the visitor once per exact cover, stopping after {@code limit} covers
+     * or as soon as the visitor returns false. Returns the number of covers visited.
+     */
+    public long enumerate(SolutionVisitor visitor, long limit) {
+        return run(visitor, limit);
+    }
+
+    ///////////////////////////
+    // Pre-covered rows       //
+    ///////////////////////////
+
+    /**
+     * Commits to a row before searching: covers every column it touches and puts it at
+     * the bottom of the solution stack, so later searches only look for completions
+     * that include it. Returns false (and changes nothing) if the row is empty or
+     * clashes with a column that is already covered.
+     */
+    public boolean selectRow(int row) {
+        int head = rowHead[row];
+        if (head < 0) {
+            return false;
         }
-        return null;
+        int j = head;
+        do {
+            if (R[L[C[j]]] != C[j]) {
+                return false; // column already covered by an earlier choice
+            }
+            j = R[j];
+        } while (j != head);
+
+        j = head;
+        do {
+            cover(C[j]);
+            j = R[j];
+        } while (j != head);
+        solution[selected++] = head;
+        return true;
+    }
+
+    /**
+     * Removes a column, and every row that touches it, before searching: covers must
+     * then leave that column's item out (e.g. a board cell that has to stay empty).
+     * Returns false if the column is already covered. There is no undo, so exclude
+     * columns on a copy, before any selectRow().
+     */
+    public boolean excludeColumn(int col) {
+        int h = col + 1;
+        if (R[L[h]] != h) {
+            return false;
+        }
+        cover(h);
+        return true;
+    }
+
+    /** Undoes the most recent selectRow(). Rows must be unselected in reverse order. */
+    public void unselectRow() {
+        if (selected == 0) {
+            throw new IllegalStateException("No selected rows to unselect");
+        }
+        int head = solution[--selected];
+        for (int j = L[head]; ; j = L[j]) {
+            uncover(C[j]);
+            if (j == head) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Approximate heap bytes a copy made with the copy constructor allocates: the
+     * link and size arrays it clones (the row/column layout is shared).
+     */
+    public long getCopyBytes() {
+        return Integer.BYTES * (4L * L.length + size.length + solution.length + solutionRows.length);
+    }
+
+    /** Number of rows currently committed via selectRow(). */
+    public int getSelectedCount() {
+        return selected;
+    }
+
+    /** True when the selected rows already cover every column. */
+    public boolean isSolved() {
+        return R[ROOT] == ROOT;
+    }
+
+    /**
+     * Rows the search would branch on next: those in the currently smallest column.
+     * Empty if that column has no rows left (dead end) or if nothing is left to cover.
+     */
+    public int[] branchRows() {
+        if (isSolved()) {
+            return new int[0];
+        }
+        int col = selectColumn();
+        int[] rows = new int[size[col]];
+        int i = 0;
+        for (int r = D[col]; r != col; r = D[r]) {
+            rows[i++] = rowOf[r];
+        }
+        return rows;
+    }
+
+    /**
+     * Lets another thread stop a search in progress: once the flag is true the
+     * current run unwinds and returns what it has found so far. Pass null to clear.
+     */
+    public void setCancelFlag(AtomicBoolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public AtomicBoolean getCancelFlag() {
+        return cancelled;
+    }
+
+    /**
+     * A second stop signal checked alongside the cancel flag, so ParallelExactCoverSolver
+     * workers stop on either the caller's flag or their shared first-solution flag.
+     */
+    void setGroupCancelFlag(AtomicBoolean groupCancelled) {
+        this.groupCancelled = groupCancelled;
+    }
+
+    /**
+     * Installs a dead-end test that runs at every search node (null to remove).
+     * Copies made afterwards get their own pruner via SearchPruner.copy().
+     */
+    public void setPruner(SearchPruner pruner) {
+        this.pruner = pruner;
+    }
+
+    /** Search nodes (partial covers examined) in the last solve/count/enumerate run. */
+    public long getNodeCount() {
+        return searchNodes;
+    }
+
+    /** Rows the last run placed and then took back again. */
+    public long getBacktrackCount() {
+        return backtracks;
+    }
+
+    /**
+     * Collects per-depth node, link-update and column-size counts into {@code profile}
+     * during later runs (null to stop). The profile must be at least numCols deep.
+     * Copies made with the copy constructor start without a profile.
+     */
+    public void setProfile(SearchProfile profile) {
+        this.profile = profile;
+    }
+
+    public SearchProfile getProfile() {
+        return profile;
+    }
+
+    /** True if column {@code col} is covered by a selected row or by the current search path. */
+    public boolean isColumnCovered(int col) {
+        int h = col + 1;
+        return R[L[h]] != h;
     }
 
     //////////////////////
     // Algorithm X core //
     //////////////////////
 
-    private boolean search(int k, List<Integer> result) {
-        if (header.R == header) {
+    private long run(SolutionVisitor visitor, long limit) {
+        if (limit <= 0) {
+            return 0;
+        }
+        this.visitor = visitor;
+        this.limit = limit;
+        this.found = 0;
+        this.stopped = false;
+        this.searchNodes = 0;
+        this.backtracks = 0;
+        search(selected);
+        this.visitor = null;
+        return found;
+    }
+
+    /**
+     * Depth-first search over every branch until stopped. The matrix is always
+     * restored before returning, so after a stop the last cover found is left in
+     * solution[0 .. solutionDepth) rather than in the links.
+     */
+    private void search(int k) {
+        searchNodes++;
+        if (profile != null) {
+            profile.enter(k);
+        }
+        if ((cancelled != null && cancelled.get())
+                || (groupCancelled != null && groupCancelled.get())) {
+            stopped = true;
+            return;
+        }
+        if (R[ROOT] == ROOT) {
             // no columns left, we have covered everything
-            // extract row‐indices from solutionStack
-            for (DLXNode node : solutionStack) {
-                result.add(node.rowIndex);
+            solutionDepth = k;
+            found++;
+            if (visitor != null) {
+                for (int i = 0; i < k; i++) {
+                    solutionRows[i] = rowOf[solution[i]];
+                }
+                if (!visitor.visit(solutionRows, k)) {
+                    stopped = true;
+                }
             }
-            return true;
+            if (found >= limit) {
+                stopped = true;
+            }
+            return;
         }
         // choose column with minimal size (heuristic)
-        ColumnHeader col = selectColumn();
-        col.cover();
+        int col = selectColumn();
+        if (profile != null) {
+            profile.choose(k, size[col]);
+        }
+        if (size[col] == 0) {
+            return; // an uncoverable column: dead end without further checks
+        }
+        if (pruner != null && pruner.isDeadEnd(this)) {
+            return;
+        }
+        // Link-update counting walks the column again, so only profiled runs pay for it.
+        // Every uncover mirrors a cover on the same state, so the writes are twice the covers'.
+        long updates = profile != null ? coverUpdates(col) : 0;
+        cover(col);
 
-        for (DLXNode r = col.D; r != col; r = r.D) {
-            solutionStack.add(r);
-            for (DLXNode j = r.R; j != r; j = j.R) {
-                j.C.cover();
-            }
-            if (search(k + 1, result)) {
-                return true;
+        for (int r = D[col]; r != col && !stopped; r = D[r]) {
+            solution[k] = r;
+            for (int j = R[r]; j != r; j = R[j]) {
+                if (profile != null) {
+                    updates += coverUpdates(C[j]);
+                }
+                cover(C[j]);
             }
+            search(k + 1);
             // backtrack
-            solutionStack.remove(solutionStack.size() - 1);
-            for (DLXNode j = r.L; j != r; j = j.L) {
-                j.C.uncover();
+            for (int j = L[r]; j != r; j = L[j]) {
+                uncover(C[j]);
             }
+            backtracks++;
+        }
+        uncover(col);
+        if (profile != null) {
+            profile.addLinkUpdates(k, 2 * updates);
         }
-        col.uncover();
-        return false;
     }
 
-    private ColumnHeader selectColumn() {
+    private int selectColumn() {
         int minSize = Integer.MAX_VALUE;
-        ColumnHeader best = null;
-        for (ColumnHeader c = (ColumnHeader) header.R; c != header; c = (ColumnHeader) c.R) {
-            if (c.size < minSize) {
-                minSize = c.size;
+        int best = -1;
+        for (int c = R[ROOT]; c != ROOT; c = R[c]) {
+            if (size[c] < minSize) {
+                minSize = size[c];
                 best = c;
             }
         }
         return best;
     }
+
+    /**
+     * Link/size writes cover(col) would make right now (for SearchProfile): two for the
+     * header, three per node it unlinks from the other columns.
+     */
+    private int coverUpdates(int col) {
+        int updates = 2;
+        for (int row = D[col]; row != col; row = D[row]) {
+            for (int right = R[row]; right != row; right = R[right]) {
+                updates += 3;
+            }
+        }
+        return updates;
+    }
+
+    private void cover(int col) {
+        // remove header from left/right
+        R[L[col]] = R[col];
+        L[R[col]] = L[col];
+        // for each row node down, remove its row from other columns
+        for (int row = D[col]; row != col; row = D[row]) {
+            for (int right = R[row]; right != row; right = R[right]) {
+                D[U[right]] = D[right];
+                U[D[right]] = U[right];
+                size[C[right]]--;
+            }
+        }
+    }
+
+    private void uncover(int col) {
+        for (int row = U[col]; row != col; row = U[row]) {
+            for (int left = L[row]; left != row; left = L[left]) {
+                size[C[left]]++;
+                D[U[left]] = left;
+                U[D[left]] = left;
+            }
+        }
+        R[L[col]] = col;
+        L[R[col]] = col;
+    }
 }
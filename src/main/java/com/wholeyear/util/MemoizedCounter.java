@@ -0,0 +1,96 @@
+package com.wholeyear.util;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.Cell;
+import com.wholeyear.model.Piece;
+
+/**
+ * Exact solution counts for boards derived from one base board (e.g. every date of
+ * the Whole Year puzzle), sharing one transposition table between them.
+ *
+ * The search runs on the base board's cells with the removed cells (targets) marked
+ * as already filled. Which cells are still empty and which pieces are unused fully
+ * determines the number of completions, so a state reached while counting one date
+ * is reused by every other date that reaches it. Not thread-safe.
+ */
+public class MemoizedCounter {
+
+    private final int rows, cols;
+    private final long[] cellBit;        // per board cell (row * cols + col): its bit, 0 if not a base cell
+    private final BitboardSolver search;
+    private final TranspositionTable table;
+
+    /**
+     * @param memoryBudgetBytes size of the shared transposition table
+     */
+    public MemoizedCounter(Board baseBoard, List<Piece> pieces, long memoryBudgetBytes) {
+        this(new Solver(baseBoard, pieces).generateAllPlacements(), baseBoard, memoryBudgetBytes);
+    }
+
+    /** Same, reusing the placements of a PlacementIndex built for the base board. */
+    public MemoizedCounter(PlacementIndex index, Board baseBoard, long memoryBudgetBytes) {
+        this(index.getAllPlacements(), baseBoard, memoryBudgetBytes);
+    }
+
+    private MemoizedCounter(List<Placement> basePlacements, Board baseBoard, long memoryBudgetBytes) {
+        this.rows = baseBoard.getRows();
+        this.cols = baseBoard.getCols();
+        List<Cell> baseCells = baseBoard.getAllFillableCells();
+        this.search = new BitboardSolver(baseCells, basePlacements);
+        this.cellBit = new long[rows * cols];
+        for (int i = 0; i < baseCells.size(); i++) {
+            Cell c = baseCells.get(i);
+            cellBit[c.getRow() * cols + c.getCol()] = 1L << i;
+        }
+        this.table = new TranspositionTable(memoryBudgetBytes);
+    }
+
+    /** Counts the solutions when the given base cells are left uncovered. */
+    public long count(Collection<Cell> uncoveredCells) {
+        long prefilled = 0L;
+        for (Cell c : uncoveredCells) {
+            long bit = c.getRow() >= 0 && c.getRow() < rows && c.getCol() >= 0 && c.getCol() < cols
+                ? cellBit[c.getRow() * cols + c.getCol()]
+                : 0L;
+            if (bit == 0L) {
+                throw new IllegalArgumentException("Cell " + c + " is not a fillable cell of the base board");
+            }
+            prefilled |= bit;
+        }
+        return search.countSolutions(prefilled, table);
+    }
+
+    /**
+     * Counts the solutions of {@code board}, which must be the base board with cells
+     * removed (never added), e.g. a dated copy.
+     */
+    public long count(Board board) {
+        if (board.getRows() != rows || board.getCols() != cols) {
+            throw new IllegalArgumentException(
+                "Board is " + board.getRows() + "x" + board.getCols()
+                + " but the counter was built for " + rows + "x" + cols);
+        }
+        long prefilled = 0L;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                long bit = cellBit[r * cols + c];
+                boolean fillable = board.isFillable(r, c);
+                if (fillable && bit == 0L) {
+                    throw new IllegalArgumentException(
+                        "Cell (" + r + "," + c + ") is fillable but not part of the base board");
+                }
+                if (!fillable && bit != 0L) {
+                    prefilled |= bit;
+                }
+            }
+        }
+        return search.countSolutions(prefilled, table);
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+}
@@ -0,0 +1,262 @@
+package com.wholeyear.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.wholeyear.model.Cell;
+
+/**
+ * Scores next moves on a partly filled board by how many solutions each one leaves.
+ *
+ * A board state is (filled cells, used pieces) as in BitboardSolver: bit i of
+ * {@code filled} is baseCells.get(i), so a date is its two cells filled up front, and
+ * rows are indices into the placements given to the constructor. The solutions left
+ * after a move are exactly the state's solutions that contain it, which gives two
+ * ways to score every candidate:
+ *
+ *   • tally() enumerates the state's solutions once and counts, per row, how many
+ *     contain it. The moves covering the lowest empty cell split the solutions into
+ *     disjoint subtrees, which workers pull off a shared cursor. Cost grows with the
+ *     number of solutions, so this suits states with few of them.
+ *   • countEach() counts each candidate separately with the memoized search
+ *     (BitboardSolver.countSolutions with a TranspositionTable); workers again pull
+ *     candidates off a shared cursor, each with its own table, so sibling moves that
+ *     reach the same states share their counts. Cost grows with the number of
+ *     distinct states instead, for states with very many solutions.
+ *
+ * score() picks one by the state's own total from count(), switching to countEach()
+ * above TALLY_LIMIT solutions. Tables are kept between calls (at most
+ * {@code maxTables}; the first is made up front, the rest when concurrent counts need
+ * them), so later moves of the same game, and other dates, start warm. A table or
+ * solver copy is only ever used by the thread that holds it; the rest is read-only,
+ * so one instance serves concurrent callers.
+ *
+ * Every count stops once {@code cancelled} is raised: the memoized search checks it
+ * as it goes (BitboardSolver.countSolutions with a cancel flag), and a caller waiting
+ * for a table held by another request gives up on it too.
+ */
+public class MoveRanker {
+
+    /** Default memory per transposition table. */
+    public static final long DEFAULT_TABLE_BYTES = 4L << 20;
+
+    /** Most solutions score() enumerates; above this it counts each move instead. */
+    public static final long TALLY_LIMIT = 100_000;
+
+    /** How often a caller waiting for a table checks its cancel flag. */
+    private static final long TABLE_WAIT_SLICE_MILLIS = 10;
+
+    private final BitboardSolver counter;
+    private final int numRows;
+    private final long tableBytes;
+    private final int maxTables;
+    private final BlockingQueue<TranspositionTable> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger created = new AtomicInteger();
+
+    /**
+     * @param baseCells  the base board's fillable cells (at most 64); list position is the bit index
+     * @param placements candidate rows, each covering only cells in baseCells
+     * @param maxTables  tables to keep, which also bounds the workers of one call
+     * @param tableBytes memory budget per table
+     */
+    public MoveRanker(List<Cell> baseCells, List<Placement> placements, int maxTables, long tableBytes) {
+        if (maxTables < 1) {
+            throw new IllegalArgumentException("maxTables must be > 0, got " + maxTables);
+        }
+        this.counter = new BitboardSolver(baseCells, placements);
+        this.numRows = placements.size();
+        this.tableBytes = tableBytes;
+        this.maxTables = maxTables;
+        idle.add(new TranspositionTable(tableBytes));   // also rejects a budget that is too small
+        created.set(1);
+    }
+
+    /** Cells placement {@code row} covers. */
+    public long cellBits(int row) {
+        return counter.getCellMask(row);
+    }
+
+    /** The bit of the piece placement {@code row} uses. */
+    public long pieceBits(int row) {
+        return counter.getPieceMask(row);
+    }
+
+    /** Rows that cover only empty cells with an unused piece, in row order. */
+    public int[] candidates(long filled, long used) {
+        int[] rows = new int[numRows];
+        int n = 0;
+        for (int row = 0; row < numRows; row++) {
+            if ((counter.getCellMask(row) & filled) == 0L && (counter.getPieceMask(row) & used) == 0L) {
+                rows[n++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, n);
+    }
+
+    /** Solutions that complete the state, counted on the calling thread. */
+    public long count(long filled, long used) {
+        return count(filled, used, new AtomicBoolean());
+    }
+
+    /** As count(filled, used); -1 if {@code cancelled} was raised first. */
+    public long count(long filled, long used, AtomicBoolean cancelled) {
+        TranspositionTable table = borrow(cancelled);
+        if (table == null) {
+            return -1L;
+        }
+        try {
+            return counter.countSolutions(filled, used, table, cancelled);
+        } finally {
+            idle.add(table);
+        }
+    }
+
+    /**
+     * Solutions left after each of {@code rows}, which must be candidates() of a state
+     * with {@code solutions} solutions (from count()); -1 entries if {@code cancelled}
+     * was raised first.
+     */
+    public long[] score(long filled, long used, long solutions, int[] rows,
+                        ExecutorService executor, AtomicBoolean cancelled) {
+        if (solutions > TALLY_LIMIT) {
+            return countEach(filled, used, rows, executor, cancelled);
+        }
+        long[] tally = tally(filled, used, executor, cancelled);
+        long[] counts = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            counts[i] = tally != null ? tally[rows[i]] : -1L;
+        }
+        return counts;
+    }
+
+    /**
+     * For every row, the number of the state's solutions that place it (0 for rows
+     * that cannot be played next). Enumerates on {@code executor} with up to
+     * maxTables workers; null if {@code cancelled} was raised first.
+     */
+    public long[] tally(long filled, long used, ExecutorService executor, AtomicBoolean cancelled) {
+        long lowest = Long.lowestOneBit(~filled);
+        List<Integer> splits = new ArrayList<>();
+        for (int row : candidates(filled, used)) {
+            if ((counter.getCellMask(row) & lowest) != 0L) {
+                splits.add(row);
+            }
+        }
+        AtomicInteger next = new AtomicInteger();
+        Callable<long[]> worker = () -> {
+            BitboardSolver search = new BitboardSolver(counter);
+            long[] tally = new long[numRows];
+            SolutionVisitor visitor = (rows, length) -> {
+                for (int i = 0; i < length; i++) {
+                    tally[rows[i]]++;
+                }
+                return !cancelled.get();
+            };
+            for (int i; !cancelled.get() && (i = next.getAndIncrement()) < splits.size(); ) {
+                int row = splits.get(i);
+                tally[row] += search.enumerate(filled | counter.getCellMask(row),
+                        used | counter.getPieceMask(row), visitor, Long.MAX_VALUE);
+            }
+            return tally;
+        };
+        long[] total = new long[numRows];
+        for (long[] tally : runWorkers(worker, splits.size(), executor, cancelled)) {
+            for (int row = 0; row < numRows; row++) {
+                total[row] += tally[row];
+            }
+        }
+        return cancelled.get() ? null : total;
+    }
+
+    /**
+     * Solutions left after each of {@code rows} (which must be candidates() of the
+     * state), counted with the memoized search on {@code executor} by up to maxTables
+     * workers. Entries are -1 for rows not counted in full before {@code cancelled}
+     * was raised.
+     */
+    public long[] countEach(long filled, long used, int[] rows, ExecutorService executor, AtomicBoolean cancelled) {
+        long[] counts = new long[rows.length];
+        Arrays.fill(counts, -1L);
+        AtomicInteger next = new AtomicInteger();
+        Callable<long[]> worker = () -> {
+            TranspositionTable table = borrow(cancelled);
+            if (table == null) {
+                return counts;
+            }
+            try {
+                for (int i; !cancelled.get() && (i = next.getAndIncrement()) < rows.length; ) {
+                    int row = rows[i];
+                    counts[i] = counter.countSolutions(filled | counter.getCellMask(row),
+                            used | counter.getPieceMask(row), table, cancelled);
+                }
+            } finally {
+                idle.add(table);
+            }
+            return counts;
+        };
+        runWorkers(worker, rows.length, executor, cancelled);
+        return counts;
+    }
+
+    /** Tables created so far (at most maxTables). */
+    public int getTableCount() {
+        return created.get();
+    }
+
+    /** Runs min(maxTables, tasks) copies of {@code worker}; an interrupt raises {@code cancelled}. */
+    private List<long[]> runWorkers(Callable<long[]> worker, int tasks, ExecutorService executor,
+                                    AtomicBoolean cancelled) {
+        List<Callable<long[]>> workers = new ArrayList<>();
+        for (int w = Math.min(maxTables, tasks); w > 0; w--) {
+            workers.add(worker);
+        }
+        List<long[]> results = new ArrayList<>();
+        try {
+            for (Future<long[]> done : executor.invokeAll(workers)) {
+                results.add(done.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled.set(true);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Counting moves failed", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * An idle table, a new one while fewer than maxTables exist, else waits for one;
+     * null if {@code cancelled} is raised (or the thread interrupted) while waiting.
+     */
+    private TranspositionTable borrow(AtomicBoolean cancelled) {
+        TranspositionTable table = idle.poll();
+        if (table != null) {
+            return table;
+        }
+        if (created.getAndUpdate(n -> n < maxTables ? n + 1 : n) < maxTables) {
+            return new TranspositionTable(tableBytes);
+        }
+        try {
+            while (!cancelled.get()) {
+                table = idle.poll(TABLE_WAIT_SLICE_MILLIS, TimeUnit.MILLISECONDS);
+                if (table != null) {
+                    return table;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled.set(true);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,205 @@
+package com.wholeyear.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs an ExactCoverSolver search on a ForkJoinPool.
+ *
+ * The first {@code splitDepth} branching levels of the DLX tree are expanded into
+ * independent subproblems: each child task copies its parent's matrix state, commits
+ * to one row of the parent's smallest column with selectRow(), and either splits
+ * again or searches the rest sequentially. Idle workers steal whole subtrees.
+ *
+ * countSolutions() sums the counts of every subtree. solve() returns the first
+ * cover any worker finds and raises a shared cancel flag so sibling searches unwind;
+ * which cover wins can differ from the sequential solve().
+ *
+ * The template's cancel flag stops every worker: they check it alongside their
+ * first-solution flag, and a cancelled run returns what it has counted or found so
+ * far. If the template has a SearchProfile, each worker profiles its subtree in a
+ * profile of its own and adds it in when done; the split levels add their nodes and
+ * column choices, but not the link updates of the copy-and-select that replaces
+ * their cover/uncover.
+ *
+ * The template is only read (copied) and must not be searched while this runs.
+ */
+public class ParallelExactCoverSolver {
+
+    /** Two levels give a few hundred subtrees on the Whole Year board. */
+    public static final int DEFAULT_SPLIT_DEPTH = 2;
+
+    private final ExactCoverSolver template;
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    private final AtomicBoolean cancelled;  // the template's cancel flag, may be null
+    private final SearchProfile profile;    // the template's profile, may be null
+
+    public ParallelExactCoverSolver(ExactCoverSolver template, ForkJoinPool pool) {
+        this(template, pool, DEFAULT_SPLIT_DEPTH);
+    }
+
+    public ParallelExactCoverSolver(ExactCoverSolver template, ForkJoinPool pool, int splitDepth) {
+        if (splitDepth < 0) {
+            throw new IllegalArgumentException("splitDepth must be >= 0, got " + splitDepth);
+        }
+        this.template = template;
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+        this.cancelled = template.getCancelFlag();
+        this.profile = template.getProfile();
+    }
+
+    /** Counts every exact cover, splitting the search across the pool. */
+    public long countSolutions() {
+        return pool.invoke(new CountTask(template, -1, 0));
+    }
+
+    /**
+     * Returns the row indices of the first exact cover found by any worker,
+     * or null if there is none.
+     */
+    public List<Integer> solve() {
+        FirstSolution shared = new FirstSolution();
+        pool.invoke(new SolveTask(template, -1, 0, shared));
+        return shared.winner.get();
+    }
+
+    /**
+     * Copies the parent state and commits to one more row; row -1 means "just copy".
+     * Returns null if the row cannot be selected.
+     */
+    private static ExactCoverSolver branch(ExactCoverSolver parent, int row) {
+        ExactCoverSolver state = new ExactCoverSolver(parent);
+        if (row >= 0 && !state.selectRow(row)) {
+            return null;
+        }
+        return state;
+    }
+
+    private boolean isCancelled() {
+        return cancelled != null && cancelled.get();
+    }
+
+    /** Records a split level as a search node that branched on {@code columnSize} rows. */
+    private void recordSplit(ExactCoverSolver state, int columnSize) {
+        if (profile != null) {
+            synchronized (profile) {
+                profile.enter(state.getSelectedCount());
+                profile.choose(state.getSelectedCount(), columnSize);
+            }
+        }
+    }
+
+    /** Gives a leaf its own profile if the run is profiled. */
+    private SearchProfile profileLeaf(ExactCoverSolver state) {
+        if (profile == null) {
+            return null;
+        }
+        SearchProfile leaf = new SearchProfile(profile.getMaxDepth());
+        state.setProfile(leaf);
+        return leaf;
+    }
+
+    private void mergeLeaf(SearchProfile leaf) {
+        if (leaf != null) {
+            synchronized (profile) {
+                profile.add(leaf);
+            }
+        }
+    }
+
+    private final class CountTask extends RecursiveTask<Long> {
+        private final ExactCoverSolver parent;
+        private final int row;
+        private final int level;
+
+        CountTask(ExactCoverSolver parent, int row, int level) {
+            this.parent = parent;
+            this.row = row;
+            this.level = level;
+        }
+
+        @Override
+        protected Long compute() {
+            if (isCancelled()) {
+                return 0L;
+            }
+            ExactCoverSolver state = branch(parent, row);
+            if (state == null) {
+                return 0L;
+            }
+            if (level >= splitDepth || state.isSolved()) {
+                state.setCancelFlag(cancelled);
+                SearchProfile leaf = profileLeaf(state);
+                long count = state.countSolutions();
+                mergeLeaf(leaf);
+                return count;
+            }
+            int[] rows = state.branchRows();
+            recordSplit(state, rows.length);
+            List<CountTask> children = new ArrayList<>();
+            for (int r : rows) {
+                children.add(new CountTask(state, r, level + 1));
+            }
+            long total = 0;
+            for (CountTask child : invokeAll(children)) {
+                total += child.join();
+            }
+            return total;
+        }
+    }
+
+    private static final class FirstSolution {
+        final AtomicBoolean found = new AtomicBoolean();
+        final AtomicReference<List<Integer>> winner = new AtomicReference<>();
+    }
+
+    private final class SolveTask extends RecursiveAction {
+        private final ExactCoverSolver parent;
+        private final int row;
+        private final int level;
+        private final FirstSolution shared;
+
+        SolveTask(ExactCoverSolver parent, int row, int level, FirstSolution shared) {
+            this.parent = parent;
+            this.row = row;
+            this.level = level;
+            this.shared = shared;
+        }
+
+        @Override
+        protected void compute() {
+            if (shared.found.get() || isCancelled()) {
+                return; // a sibling already won, or the caller gave up
+            }
+            ExactCoverSolver state = branch(parent, row);
+            if (state == null) {
+                return;
+            }
+            if (level >= splitDepth || state.isSolved()) {
+                state.setCancelFlag(cancelled);
+                state.setGroupCancelFlag(shared.found);
+                SearchProfile leaf = profileLeaf(state);
+                List<Integer> rows = state.solve();
+                mergeLeaf(leaf);
+                if (rows != null && shared.winner.compareAndSet(null, rows)) {
+                    shared.found.set(true);
+                }
+                return;
+            }
+            int[] branchRows = state.branchRows();
+            recordSplit(state, branchRows.length);
+            List<SolveTask> children = new ArrayList<>();
+            for (int r : branchRows) {
+                children.add(new SolveTask(state, r, level + 1, shared));
+            }
+            invokeAll(children);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.wholeyear.util;
 
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.wholeyear.model.Cell;
 
 import java.util.Collections;
@@ -12,7 +14,8 @@ import java.util.List;
     private final Integer pieceId;
     private final List<Cell> Cells;
 
-    public PlacementDto(Integer pieceId,  List<Cell> coveredCells) {
+    @JsonCreator
+    public PlacementDto(@JsonProperty("pieceId") Integer pieceId, @JsonProperty("cells") List<Cell> coveredCells) {
         this.pieceId = pieceId;
         this.Cells = Collections.unmodifiableList(coveredCells);
     }
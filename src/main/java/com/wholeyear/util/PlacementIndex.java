@@ -0,0 +1,115 @@
+package com.wholeyear.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.Cell;
+import com.wholeyear.model.Piece;
+
+/**
+ * Every placement of every piece on a base board, computed once.
+ *
+ * A date only turns two base cells into targets, so its placements are the base
+ * placements minus those touching the target cells. The index keeps, per board
+ * cell, the placements covering it, and filters with a mark pass over those lists
+ * instead of re-running the piece geometry. Filtered lists keep the base order,
+ * which is the order Solver.generateAllPlacements() would produce for the same board.
+ */
+public class PlacementIndex {
+
+    private final int rows, cols;
+    private final boolean[] baseFillable;         // per cell (row * cols + col)
+    private final List<Placement> placements;     // all base placements, unmodifiable
+    private final int[][] placementsByCell;       // per cell: indices into placements
+
+    public PlacementIndex(Board baseBoard, List<Piece> pieces) {
+        this.rows = baseBoard.getRows();
+        this.cols = baseBoard.getCols();
+        this.baseFillable = new boolean[rows * cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                baseFillable[r * cols + c] = baseBoard.isFillable(r, c);
+            }
+        }
+        this.placements = Collections.unmodifiableList(
+            new Solver(baseBoard, pieces).generateAllPlacements());
+
+        int[] counts = new int[rows * cols];
+        for (Placement plc : placements) {
+            for (Cell c : plc.getCoveredCells()) {
+                counts[c.getRow() * cols + c.getCol()]++;
+            }
+        }
+        this.placementsByCell = new int[rows * cols][];
+        for (int i = 0; i < counts.length; i++) {
+            placementsByCell[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int p = 0; p < placements.size(); p++) {
+            for (Cell c : placements.get(p).getCoveredCells()) {
+                int cell = c.getRow() * cols + c.getCol();
+                placementsByCell[cell][counts[cell]++] = p;
+            }
+        }
+    }
+
+    /** All placements on the base board. */
+    public List<Placement> getAllPlacements() {
+        return placements;
+    }
+
+    /** Indices (into getAllPlacements()) of the placements covering a cell. */
+    public int[] placementsCovering(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException("Invalid cell (" + row + "," + col + ")");
+        }
+        return placementsByCell[row * cols + col];
+    }
+
+    /** Base placements that touch none of the excluded cells, in base order. */
+    public List<Placement> placementsAvoiding(Collection<Cell> excluded) {
+        boolean[] dropped = new boolean[placements.size()];
+        for (Cell c : excluded) {
+            for (int p : placementsCovering(c.getRow(), c.getCol())) {
+                dropped[p] = true;
+            }
+        }
+        List<Placement> result = new ArrayList<>(placements.size());
+        for (int p = 0; p < placements.size(); p++) {
+            if (!dropped[p]) {
+                result.add(placements.get(p));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Placements that fit {@code board}: the base placements minus those touching
+     * any base cell that is no longer fillable there (targets, blocked cells).
+     * The board must be the base board with cells removed, never added.
+     */
+    public List<Placement> placementsFor(Board board) {
+        if (board.getRows() != rows || board.getCols() != cols) {
+            throw new IllegalArgumentException(
+                "Board is " + board.getRows() + "x" + board.getCols()
+                + " but the index was built for " + rows + "x" + cols);
+        }
+        List<Cell> excluded = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                boolean fillable = board.isFillable(r, c);
+                if (fillable && !baseFillable[r * cols + c]) {
+                    throw new IllegalArgumentException(
+                        "Cell (" + r + "," + c + ") is fillable but not part of the indexed base board");
+                }
+                if (!fillable && baseFillable[r * cols + c]) {
+                    excluded.add(new Cell(r, c));
+                }
+            }
+        }
+        return placementsAvoiding(excluded);
+    }
+}
@@ -0,0 +1,177 @@
+package com.wholeyear.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.wholeyear.model.Cell;
+
+/**
+ * Dead-region pruning for the column layout Solver builds: columns 0 .. cells-1 are
+ * board cells, followed by one column per piece.
+ *
+ * Once a placement walls off a pocket of empty cells, that pocket has to be filled by
+ * whole pieces. The pruner flood-fills the uncovered cells (4-neighbour) and rejects
+ * the state if some region's size is not a sum of some subset of the unused piece
+ * sizes, e.g. an isolated cell when every piece is bigger than one cell.
+ *
+ * Subset sums per set of unused pieces are tabulated up front when there are at most
+ * 16 pieces and the pieces total fewer than 64 cells (one long per set); otherwise
+ * they are recomputed per call. Scratch arrays are reused, so an instance is not
+ * thread-safe; copy() hands each solver copy its own.
+ */
+public class RegionPruner implements SearchPruner {
+
+    private static final int MAX_TABULATED_PIECES = 16;
+
+    private final int numCells;
+    private final int[][] neighbours;    // per cell column: adjacent cell columns
+    private final int[] pieceSizes;      // per piece column (offset by numCells)
+    private final long[] sumsByUnused;   // bit s set iff the unused set can make s; null if not tabulated
+
+    // Scratch, reused between calls
+    private final int[] mark;
+    private final int[] stack;
+    private final boolean[] reachable;
+    private int epoch;
+
+    /**
+     * @param cells      board cells; list position is the column index
+     * @param pieceSizes cells per piece, one entry per piece column after the cells
+     */
+    public RegionPruner(List<Cell> cells, int[] pieceSizes) {
+        this.numCells = cells.size();
+        this.pieceSizes = pieceSizes.clone();
+
+        Map<Cell, Integer> cellToCol = new HashMap<>();
+        for (int i = 0; i < numCells; i++) {
+            cellToCol.put(cells.get(i), i);
+        }
+        this.neighbours = new int[numCells][];
+        int[] buf = new int[4];
+        for (int i = 0; i < numCells; i++) {
+            Cell c = cells.get(i);
+            int n = 0;
+            Integer[] around = {
+                cellToCol.get(new Cell(c.getRow() - 1, c.getCol())),
+                cellToCol.get(new Cell(c.getRow() + 1, c.getCol())),
+                cellToCol.get(new Cell(c.getRow(), c.getCol() - 1)),
+                cellToCol.get(new Cell(c.getRow(), c.getCol() + 1))
+            };
+            for (Integer col : around) {
+                if (col != null) {
+                    buf[n++] = col;
+                }
+            }
+            neighbours[i] = Arrays.copyOf(buf, n);
+        }
+
+        int total = 0;
+        for (int s : pieceSizes) {
+            if (s <= 0) {
+                throw new IllegalArgumentException("Piece sizes must be positive, got " + s);
+            }
+            total += s;
+        }
+        this.sumsByUnused = pieceSizes.length <= MAX_TABULATED_PIECES && total < Long.SIZE
+            ? tabulateSubsetSums(pieceSizes)
+            : null;
+
+        this.mark = new int[numCells];
+        this.stack = new int[numCells];
+        this.reachable = sumsByUnused == null ? new boolean[total + 1] : null;
+    }
+
+    private RegionPruner(RegionPruner other) {
+        this.numCells = other.numCells;
+        this.neighbours = other.neighbours;
+        this.pieceSizes = other.pieceSizes;
+        this.sumsByUnused = other.sumsByUnused;
+        this.mark = new int[numCells];
+        this.stack = new int[numCells];
+        this.reachable = other.reachable == null ? null : new boolean[other.reachable.length];
+    }
+
+    @Override
+    public SearchPruner copy() {
+        return new RegionPruner(this);
+    }
+
+    @Override
+    public boolean isDeadEnd(ExactCoverSolver solver) {
+        // 1) Which pieces are still unused, and which sizes can they make together
+        long sums;
+        if (sumsByUnused != null) {
+            int unused = 0;
+            for (int p = 0; p < pieceSizes.length; p++) {
+                if (!solver.isColumnCovered(numCells + p)) {
+                    unused |= 1 << p;
+                }
+            }
+            sums = sumsByUnused[unused];
+        } else {
+            fillReachable(solver);
+            sums = 0L;
+        }
+
+        // 2) Flood-fill each region of uncovered cells and check its size
+        if (++epoch == 0) {
+            Arrays.fill(mark, 0);
+            epoch = 1;
+        }
+        for (int start = 0; start < numCells; start++) {
+            if (mark[start] == epoch || solver.isColumnCovered(start)) {
+                continue;
+            }
+            int regionSize = 0;
+            int top = 0;
+            stack[top++] = start;
+            mark[start] = epoch;
+            while (top > 0) {
+                int cell = stack[--top];
+                regionSize++;
+                for (int nb : neighbours[cell]) {
+                    if (mark[nb] != epoch && !solver.isColumnCovered(nb)) {
+                        mark[nb] = epoch;
+                        stack[top++] = nb;
+                    }
+                }
+            }
+            boolean fits = sumsByUnused != null
+                ? regionSize < Long.SIZE && (sums & (1L << regionSize)) != 0L
+                : regionSize < reachable.length && reachable[regionSize];
+            if (!fits) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** sums[set] has bit s set iff some subset of the pieces in {@code set} totals s cells. */
+    private static long[] tabulateSubsetSums(int[] pieceSizes) {
+        long[] sums = new long[1 << pieceSizes.length];
+        sums[0] = 1L; // the empty subset makes 0
+        for (int set = 1; set < sums.length; set++) {
+            int p = Integer.numberOfTrailingZeros(set);
+            long without = sums[set & (set - 1)];
+            sums[set] = without | (without << pieceSizes[p]);
+        }
+        return sums;
+    }
+
+    private void fillReachable(ExactCoverSolver solver) {
+        Arrays.fill(reachable, false);
+        reachable[0] = true;
+        for (int p = 0; p < pieceSizes.length; p++) {
+            if (solver.isColumnCovered(numCells + p)) {
+                continue;
+            }
+            for (int s = reachable.length - 1; s >= pieceSizes[p]; s--) {
+                if (reachable[s - pieceSizes[p]]) {
+                    reachable[s] = true;
+                }
+            }
+        }
+    }
+}
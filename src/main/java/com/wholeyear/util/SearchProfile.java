@@ -0,0 +1,136 @@
+package com.wholeyear.util;
+
+import java.util.Arrays;
+
+/**
+ * Per-depth statistics of an ExactCoverSolver search, for tuning the column heuristic
+ * and spotting dates whose search tree is unusually large.
+ *
+ * Depth d is the number of rows on the solution stack when a node is entered (rows
+ * pre-covered with selectRow() included). For each depth it counts:
+ *   • nodes        — search nodes entered, including solutions and dead ends
+ *   • link updates — L/R/U/D/size writes made by cover/uncover at that depth
+ *                    (Knuth's "mems", counting writes only)
+ *   • choices      — columns chosen to branch on, with the sum and maximum of their
+ *                    sizes (the branching factor the heuristic picked)
+ *
+ * Counters are plain long[] slots filled by the solver only when a profile is
+ * installed (ExactCoverSolver.setProfile); without one the search skips them.
+ * Counts accumulate over runs until clear(). Not thread-safe; copies of a solver
+ * do not share its profile.
+ */
+public class SearchProfile {
+
+    private final long[] nodes;
+    private final long[] linkUpdates;
+    private final long[] choices;
+    private final long[] columnSizeSum;
+    private final int[] columnSizeMax;
+
+    /** A profile for searches at most {@code maxDepth} rows deep (the solver's column count is enough). */
+    public SearchProfile(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must be >= 0, got " + maxDepth);
+        }
+        this.nodes = new long[maxDepth + 1];
+        this.linkUpdates = new long[maxDepth + 1];
+        this.choices = new long[maxDepth + 1];
+        this.columnSizeSum = new long[maxDepth + 1];
+        this.columnSizeMax = new int[maxDepth + 1];
+    }
+
+    /** Deepest depth this profile can record. */
+    public int getMaxDepth() {
+        return nodes.length - 1;
+    }
+
+    void enter(int depth) {
+        nodes[depth]++;
+    }
+
+    void choose(int depth, int columnSize) {
+        choices[depth]++;
+        columnSizeSum[depth] += columnSize;
+        if (columnSize > columnSizeMax[depth]) {
+            columnSizeMax[depth] = columnSize;
+        }
+    }
+
+    void addLinkUpdates(int depth, long updates) {
+        linkUpdates[depth] += updates;
+    }
+
+    /** Number of depths reached: 1 + the deepest depth with a node, or 0 if nothing ran. */
+    public int getLevels() {
+        for (int d = nodes.length - 1; d >= 0; d--) {
+            if (nodes[d] > 0) {
+                return d + 1;
+            }
+        }
+        return 0;
+    }
+
+    public long getNodes(int depth) {
+        return nodes[depth];
+    }
+
+    public long getLinkUpdates(int depth) {
+        return linkUpdates[depth];
+    }
+
+    public long getChoices(int depth) {
+        return choices[depth];
+    }
+
+    /** Mean size of the columns chosen at this depth, or 0 if none were. */
+    public double getMeanColumnSize(int depth) {
+        return choices[depth] == 0 ? 0 : (double) columnSizeSum[depth] / choices[depth];
+    }
+
+    public int getMaxColumnSize(int depth) {
+        return columnSizeMax[depth];
+    }
+
+    public long getTotalNodes() {
+        long total = 0;
+        for (long n : nodes) {
+            total += n;
+        }
+        return total;
+    }
+
+    public long getTotalLinkUpdates() {
+        long total = 0;
+        for (long n : linkUpdates) {
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * Adds every counter of {@code other} into this one (e.g. the profiles of parallel
+     * workers). {@code other} must not be deeper than this profile.
+     */
+    public void add(SearchProfile other) {
+        if (other.getMaxDepth() > getMaxDepth()) {
+            throw new IllegalArgumentException(
+                "Cannot add a profile " + other.getMaxDepth() + " deep to one " + getMaxDepth() + " deep");
+        }
+        for (int d = 0; d < other.nodes.length; d++) {
+            nodes[d] += other.nodes[d];
+            linkUpdates[d] += other.linkUpdates[d];
+            choices[d] += other.choices[d];
+            columnSizeSum[d] += other.columnSizeSum[d];
+            columnSizeMax[d] = Math.max(columnSizeMax[d], other.columnSizeMax[d]);
+        }
+    }
+
+    /** Resets every counter to zero. */
+    public void clear() {
+        Arrays.fill(nodes, 0);
+        Arrays.fill(linkUpdates, 0);
+        Arrays.fill(choices, 0);
+        Arrays.fill(columnSizeSum, 0);
+        Arrays.fill(columnSizeMax, 0);
+    }
+}
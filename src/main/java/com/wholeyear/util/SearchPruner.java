@@ -0,0 +1,24 @@
+package com.wholeyear.util;
+
+/**
+ * Optional dead-end test for ExactCoverSolver.
+ *
+ * The search calls isDeadEnd() at every node before branching. Returning true makes
+ * it backtrack at once, so a pruner must only reject states that cannot be completed
+ * to an exact cover; otherwise solutions are lost. Pruning never changes which covers
+ * are found or their order, only how many nodes are visited on the way.
+ */
+public interface SearchPruner {
+
+    /** True if no exact cover extends the solver's current partial cover. */
+    boolean isDeadEnd(ExactCoverSolver solver);
+
+    /**
+     * A pruner for a copied solver (see the ExactCoverSolver copy constructor).
+     * Pruners with per-call scratch state must return a fresh instance so copies
+     * can search on other threads; stateless ones can return themselves.
+     */
+    default SearchPruner copy() {
+        return this;
+    }
+}
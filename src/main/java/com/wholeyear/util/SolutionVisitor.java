@@ -0,0 +1,14 @@
+package com.wholeyear.util;
+
+/**
+ * Callback for the solution enumerators in ExactCoverSolver and BitboardSolver.
+ *
+ * rows[0 .. length) are the row indices (i.e. indices into placements) of one exact
+ * cover. The array is reused for the next solution, so copy it if you need to keep it.
+ */
+@FunctionalInterface
+public interface SolutionVisitor {
+
+    /** Returns false to stop the enumeration after this solution. */
+    boolean visit(int[] rows, int length);
+}
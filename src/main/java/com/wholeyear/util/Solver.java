@@ -1,9 +1,14 @@
 package com.wholeyear.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import com.wholeyear.model.Board;
@@ -14,26 +19,265 @@ import com.wholeyear.util.ExactCoverSolver;
 
 public class Solver {
 
+    /** Search engine used by solve(). */
+    public enum Engine {
+        DLX,      // Dancing Links over the exact-cover matrix (any board size)
+        BITBOARD, // single-long bitboard search (boards with at most 64 fillable cells)
+        BITSET    // multi-word bitset search (any board size, at most 64 pieces)
+    }
+
     private final Board board;
     private final List<Piece> pieces;
+    private Engine engine = Engine.DLX;
+    private PlacementIndex placementIndex;
+    private boolean pruning;
+    private boolean profiling;
+    private AtomicBoolean cancelled;  // optional external stop signal for DLX runs
+    private SearchProfile profile;  // per-depth DLX statistics of the last run, if profiling
+    private long nodeCount;        // DLX statistics of the last run
+    private long backtrackCount;
 
     public Solver(Board board, List<Piece> pieces) {
         this.board = board;
         this.pieces = pieces;
     }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    public PlacementIndex getPlacementIndex() {
+        return placementIndex;
+    }
+
+    /**
+     * Use placements precompiled for the base board instead of re-running the piece
+     * geometry. The index must have been built for the same pieces and for a board
+     * this one only removes cells from (e.g. the undated board vs. a dated copy).
+     */
+    public void setPlacementIndex(PlacementIndex placementIndex) {
+        this.placementIndex = placementIndex;
+    }
+
+    public boolean isPruning() {
+        return pruning;
+    }
+
+    /**
+     * Backtrack as soon as a placement walls off a region of empty cells that no
+     * subset of the unused pieces can fill exactly (see RegionPruner). DLX engine only;
+     * results are unchanged, only fewer search nodes are visited.
+     */
+    public void setPruning(boolean pruning) {
+        this.pruning = pruning;
+    }
+
+    public boolean isProfiling() {
+        return profiling;
+    }
+
+    /**
+     * Collect a SearchProfile (per-depth nodes, link updates, chosen column sizes)
+     * during DLX runs; read it with getProfile() afterwards. Off by default. After a
+     * parallel run it holds the workers' profiles added together.
+     */
+    public void setProfiling(boolean profiling) {
+        this.profiling = profiling;
+    }
+
+    /**
+     * Lets another thread stop a DLX solve/count/forEach in progress (see
+     * ExactCoverSolver.setCancelFlag): once the flag is true the run unwinds and
+     * returns what it has found so far. The parallel methods pass it on to every
+     * worker; the other engines ignore it. Pass null to clear.
+     */
+    public void setCancelFlag(AtomicBoolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /** Profile of the last DLX run, or null if profiling was off. */
+    public SearchProfile getProfile() {
+        return profile;
+    }
+
+    /** Search nodes the last DLX solve/count/forEach visited; the other engines leave it alone. */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /** Rows the last DLX solve/count/forEach placed and then took back. */
+    public long getBacktrackCount() {
+        return backtrackCount;
+    }
     
     public List<Placement> solve() {
         // ─── 5.1) Get all fillable cells (after holes) ───────────────────────
         List<Cell> fillableCells = board.getAllFillableCells();
-        int numFillCols = fillableCells.size();
-        Map<Cell,Integer> cellToIndex = new HashMap<>();
-        for (int i = 0; i < fillableCells.size(); i++) {
-            cellToIndex.put(fillableCells.get(i), i);
-        }
 
         // ─── 5.2) Generate all placements ──────────────────────────────────
         List<Placement> allPlacements = generateAllPlacements();
 
+        List<Integer> solutionRows;
+        switch (engine) {
+            case BITBOARD: solutionRows = new BitboardSolver(fillableCells, allPlacements).solve(); break;
+            case BITSET:   solutionRows = new BitsetSolver(fillableCells, allPlacements).solve(); break;
+            default:
+                ExactCoverSolver dlx = buildDlx(fillableCells, allPlacements);
+                solutionRows = dlx.solve();
+                recordStats(dlx);
+                break;
+        }
+        List<Placement> solutionPlacements = new ArrayList<>();
+
+        if (solutionRows == null) {
+            // No solution found
+            System.err.println("No solution found available.");  
+            return null; // or handle as needed
+        } else {
+            // Return the placement objects that form the solution
+            
+            for (int idx : solutionRows) {
+                Placement plc = allPlacements.get(idx);
+                solutionPlacements.add(plc);
+                
+                
+            }
+            return solutionPlacements; // Return the placements that form the solution
+            
+        }
+    }
+
+    /** Counts every exact cover of the board. */
+    public long countSolutions() {
+        return countSolutions(Long.MAX_VALUE);
+    }
+
+    /**
+     * Counts exact covers, stopping once {@code limit} have been found.
+     * Works on row indices only; no Placement lists are built per solution.
+     */
+    public long countSolutions(long limit) {
+        List<Cell> fillableCells = board.getAllFillableCells();
+        List<Placement> allPlacements = generateAllPlacements();
+        switch (engine) {
+            case BITBOARD: return new BitboardSolver(fillableCells, allPlacements).countSolutions(limit);
+            case BITSET:   return new BitsetSolver(fillableCells, allPlacements).countSolutions(limit);
+            default:
+                ExactCoverSolver dlx = buildDlx(fillableCells, allPlacements);
+                long count = dlx.countSolutions(limit);
+                recordStats(dlx);
+                return count;
+        }
+    }
+
+    /**
+     * Counts every exact cover with the memoized bitboard search, keeping at most
+     * {@code memoryBudgetBytes} of transposition table. Ignores the engine setting;
+     * the board must have at most 64 fillable cells. To count many dates of one
+     * board, MemoizedCounter shares a single table between them.
+     */
+    public long countSolutionsMemoized(long memoryBudgetBytes) {
+        List<Cell> fillableCells = board.getAllFillableCells();
+        List<Placement> allPlacements = generateAllPlacements();
+        return new BitboardSolver(fillableCells, allPlacements)
+            .countSolutions(0L, new TranspositionTable(memoryBudgetBytes));
+    }
+
+    /**
+     * Hands every exact cover to {@code consumer} as a fresh List<Placement>,
+     * stopping after {@code limit} solutions. Returns the number of solutions visited.
+     */
+    public long forEachSolution(Consumer<List<Placement>> consumer, long limit) {
+        return forEachSolutionWhile(solution -> {
+            consumer.accept(solution);
+            return true;
+        }, limit);
+    }
+
+    /**
+     * Like forEachSolution, but {@code visitor} returns false to stop the search right
+     * after that solution (e.g. when its receiver has gone away). The search runs on
+     * the calling thread, so a visitor that blocks pauses it.
+     */
+    public long forEachSolutionWhile(Predicate<List<Placement>> visitor, long limit) {
+        List<Placement> allPlacements = generateAllPlacements();
+        return enumerate(allPlacements, (rows, length) -> {
+            List<Placement> solution = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                solution.add(allPlacements.get(rows[i]));
+            }
+            return visitor.test(solution);
+        }, limit);
+    }
+
+    /**
+     * Like forEachSolutionWhile, but hands {@code visitor} the row indices of each
+     * cover (into generateAllPlacements()) in a reused array, so nothing is allocated
+     * per solution; e.g. for counting with progress.
+     */
+    public long forEachSolutionRows(SolutionVisitor visitor, long limit) {
+        return enumerate(generateAllPlacements(), visitor, limit);
+    }
+
+    private long enumerate(List<Placement> allPlacements, SolutionVisitor visitor, long limit) {
+        List<Cell> fillableCells = board.getAllFillableCells();
+        switch (engine) {
+            case BITBOARD: return new BitboardSolver(fillableCells, allPlacements).enumerate(visitor, limit);
+            case BITSET:   return new BitsetSolver(fillableCells, allPlacements).enumerate(visitor, limit);
+            default:
+                ExactCoverSolver dlx = buildDlx(fillableCells, allPlacements);
+                long visited = dlx.enumerate(visitor, limit);
+                recordStats(dlx);
+                return visited;
+        }
+    }
+
+    /**
+     * Like solve(), but splits the DLX search across {@code pool}. The first solution
+     * found by any worker wins, so it may differ from the sequential one.
+     */
+    public List<Placement> solveParallel(ForkJoinPool pool) {
+        List<Placement> allPlacements = generateAllPlacements();
+        ExactCoverSolver dlx = buildDlx(board.getAllFillableCells(), allPlacements);
+        List<Integer> solutionRows = new ParallelExactCoverSolver(dlx, pool).solve();
+        if (solutionRows == null) {
+            return null;
+        }
+        List<Placement> solutionPlacements = new ArrayList<>(solutionRows.size());
+        for (int idx : solutionRows) {
+            solutionPlacements.add(allPlacements.get(idx));
+        }
+        return solutionPlacements;
+    }
+
+    /** Counts every exact cover, splitting the DLX search across {@code pool}. */
+    public long countSolutionsParallel(ForkJoinPool pool) {
+        List<Placement> allPlacements = generateAllPlacements();
+        ExactCoverSolver dlx = buildDlx(board.getAllFillableCells(), allPlacements);
+        return new ParallelExactCoverSolver(dlx, pool).countSolutions();
+    }
+
+    private void recordStats(ExactCoverSolver dlx) {
+        nodeCount = dlx.getNodeCount();
+        backtrackCount = dlx.getBacktrackCount();
+    }
+
+    /** Builds the exact-cover matrix; package-private so the jmh benchmarks can time it alone. */
+    ExactCoverSolver buildDlx(List<Cell> fillableCells, List<Placement> allPlacements) {
+        int numFillCols = fillableCells.size();
+        // Cell → column by flat board index, so no Cell hashing per covered cell
+        int boardCols = board.getCols();
+        int[] cellToIndex = new int[board.getRows() * boardCols];
+        Arrays.fill(cellToIndex, -1);
+        for (int i = 0; i < fillableCells.size(); i++) {
+            Cell c = fillableCells.get(i);
+            cellToIndex[c.getRow() * boardCols + c.getCol()] = i;
+        }
+
         // ─── 5.3) Collect unique piece IDs and map them to “piece‐columns” ──
         // We know each Placement has a pieceId; gather them in insertion order:
         List<String> pieceIds = allPlacements.stream()
@@ -47,72 +291,70 @@ public class Solver {
             pieceToCol.put(pieceIds.get(i), numFillCols + i);
         }
 
-        // ─── 5.4) Build the exact-cover matrix ───────────────────────────────
+        // ─── 5.4) Build the exact-cover matrix in CSR form ───────────────────
+        // Row i covers columns[rowStart[i] .. rowStart[i+1]): its cells, then its piece.
         int totalCols = numFillCols + numPieces;
-        List<boolean[]> rowsMatrix = new ArrayList<>(allPlacements.size());
+        int[] rowStart = new int[allPlacements.size() + 1];
+        for (int i = 0; i < allPlacements.size(); i++) {
+            rowStart[i + 1] = rowStart[i] + allPlacements.get(i).getCoveredCells().size() + 1;
+        }
+        int[] columns = new int[rowStart[allPlacements.size()]];
+        int next = 0;
         for (Placement plc : allPlacements) {
-            boolean[] row = new boolean[totalCols];
-            // 5.4.1) Mark the board‐cells it covers
+            // 5.4.1) The board‐cells it covers
             for (Cell c : plc.getCoveredCells()) {
-                int idx = cellToIndex.get(c);
-                row[idx] = true;
+                int idx = cellToIndex[c.getRow() * boardCols + c.getCol()];
+                if (idx < 0) {
+                    throw new IllegalArgumentException(
+                        "Placement " + plc + " covers " + c + ", which is not a fillable cell");
+                }
+                columns[next++] = idx;
             }
-            // 5.4.2) Mark the piece‐column (so this placement “uses” that piece)
-            int pcol = pieceToCol.get(plc.getPieceId());
-            row[pcol] = true;
-
-            rowsMatrix.add(row);
+            // 5.4.2) The piece‐column (so this placement “uses” that piece)
+            columns[next++] = pieceToCol.get(plc.getPieceId());
         }
 
-        // ─── 5.5) Run DLX with the enlarged matrix ──────────────────────────
-        ExactCoverSolver solver = new ExactCoverSolver(totalCols, rowsMatrix, allPlacements);
-        List<Integer> solutionRows = solver.solve();
-        List<Placement> solutionPlacements = new ArrayList<>();
-
-        if (solutionRows == null) {
-            // No solution found
-            System.err.println("No solution found available.");  
-            return null; // or handle as needed
-        } else {
-            // Return the placement objects that form the solution
-            
-            for (int idx : solutionRows) {
-                Placement plc = allPlacements.get(idx);
-                solutionPlacements.add(plc);
-                
-                
+        // ─── 5.5) DLX over the enlarged matrix ───────────────────────────────
+        ExactCoverSolver dlx = new ExactCoverSolver(totalCols, rowStart, columns, allPlacements);
+        if (pruning) {
+            int[] pieceSizes = new int[numPieces];
+            for (Placement plc : allPlacements) {
+                pieceSizes[pieceToCol.get(plc.getPieceId()) - numFillCols] = plc.getCoveredCells().size();
             }
-            return solutionPlacements; // Return the placements that form the solution
-            
+            dlx.setPruner(new RegionPruner(fillableCells, pieceSizes));
         }
+        profile = profiling ? new SearchProfile(totalCols) : null;
+        dlx.setProfile(profile);
+        dlx.setCancelFlag(cancelled);
+        return dlx;
     }
 
     public List<Placement> generateAllPlacements() {
+            if (placementIndex != null) {
+                return placementIndex.placementsFor(board);
+            }
             //List<Piece> pieces = loadAllPieces();
             List<Placement> placements = new ArrayList<>();
 
             for (Piece p : pieces) {
-                List<List<Cell>> orients = p.generateAllOrientations();
-                for (int o = 0; o < orients.size(); o++) {
-                    List<Cell> shape = orients.get(o);
+                for (int o = 0; o < p.getOrientationCount(); o++) {
+                    int[] offs = p.getOrientationOffsets(o);
                     // bounding‐box of this orientation:
-                    int maxR = shape.stream().mapToInt(Cell::getRow).max().orElse(0);
-                    int maxC = shape.stream().mapToInt(Cell::getCol).max().orElse(0);
+                    int maxR = p.getOrientationHeight(o) - 1;
+                    int maxC = p.getOrientationWidth(o) - 1;
 
                     for (int r0 = 0; r0 + maxR < board.getRows(); r0++) {
                         for (int c0 = 0; c0 + maxC < board.getCols(); c0++) {
+                            // check every cell first; only allocate for placements that fit
                             boolean ok = true;
-                            List<Cell> absCells = new ArrayList<>();
-                            for (Cell rel : shape) {
-                                int rr = r0 + rel.getRow();
-                                int cc = c0 + rel.getCol();
-                                if (!board.isFillable(rr, cc)) {
-                                    ok = false;
-                                    break;
-                                }
-                                absCells.add(new Cell(rr, cc));
+                            for (int i = 0; i < offs.length && ok; i += 2) {
+                                ok = board.isFillable(r0 + offs[i], c0 + offs[i + 1]);
                             }
                             if (ok) {
+                                List<Cell> absCells = new ArrayList<>(offs.length / 2);
+                                for (int i = 0; i < offs.length; i += 2) {
+                                    absCells.add(new Cell(r0 + offs[i], c0 + offs[i + 1]));
+                                }
                                 placements.add(new Placement(p.getId(), o, r0, c0, absCells));
                             }
                         }
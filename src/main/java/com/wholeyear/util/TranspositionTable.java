@@ -0,0 +1,121 @@
+package com.wholeyear.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size open-addressing map from a search state (filled-cell mask, used-piece
+ * mask) to the number of ways that state can be completed. Keys and values live in
+ * three parallel long[] arrays, so lookups and stores allocate nothing.
+ *
+ * The table never grows. A store probes at most PROBE_LIMIT slots; if none is free or
+ * holds the same key, it overwrites the probed entry with the most filled cells, i.e.
+ * the one closest to the leaves and cheapest to recompute. Evicting only costs time,
+ * never correctness, so any memory budget gives exact counts.
+ */
+public class TranspositionTable {
+
+    /** Bytes per entry: filled mask, used mask, count. */
+    public static final int ENTRY_BYTES = 3 * Long.BYTES;
+
+    private static final int PROBE_LIMIT = 8;
+    private static final long EMPTY = -1L;
+
+    private final long[] filledKeys;
+    private final long[] usedKeys;
+    private final long[] counts;       // EMPTY marks a free slot
+    private final int mask;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param memoryBudgetBytes upper bound for the three arrays; the capacity is the
+     *                          largest power of two that fits (at least PROBE_LIMIT)
+     */
+    public TranspositionTable(long memoryBudgetBytes) {
+        if (memoryBudgetBytes < (long) ENTRY_BYTES * PROBE_LIMIT) {
+            throw new IllegalArgumentException(
+                "Memory budget must be at least " + ENTRY_BYTES * PROBE_LIMIT + " bytes, got " + memoryBudgetBytes);
+        }
+        long entries = Math.min(memoryBudgetBytes / ENTRY_BYTES, 1L << 30);
+        int capacity = Integer.highestOneBit((int) entries);
+        this.filledKeys = new long[capacity];
+        this.usedKeys = new long[capacity];
+        this.counts = new long[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(counts, EMPTY);
+    }
+
+    /** Returns the stored count for the state, or -1 if it is not in the table. */
+    public long get(long filled, long used) {
+        int slot = hash(filled, used);
+        for (int i = 0; i < PROBE_LIMIT; i++, slot = (slot + 1) & mask) {
+            long count = counts[slot];
+            if (count == EMPTY) {
+                break;
+            }
+            if (filledKeys[slot] == filled && usedKeys[slot] == used) {
+                hits++;
+                return count;
+            }
+        }
+        misses++;
+        return EMPTY;
+    }
+
+    /** Stores a non-negative count, evicting a nearby entry if the probe window is full. */
+    public void put(long filled, long used, long count) {
+        int slot = hash(filled, used);
+        int victim = slot;
+        int victimFilled = -1;
+        for (int i = 0; i < PROBE_LIMIT; i++, slot = (slot + 1) & mask) {
+            if (counts[slot] == EMPTY || (filledKeys[slot] == filled && usedKeys[slot] == used)) {
+                victim = slot;
+                victimFilled = Integer.MAX_VALUE;
+                break;
+            }
+            int bits = Long.bitCount(filledKeys[slot]);
+            if (bits > victimFilled) {
+                victim = slot;
+                victimFilled = bits;
+            }
+        }
+        if (victimFilled != Integer.MAX_VALUE) {
+            evictions++;
+        }
+        filledKeys[victim] = filled;
+        usedKeys[victim] = used;
+        counts[victim] = count;
+    }
+
+    /** Empties the table and resets the statistics. */
+    public void clear() {
+        Arrays.fill(counts, EMPTY);
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    public int capacity() {
+        return counts.length;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    private int hash(long filled, long used) {
+        long h = filled * 0x9E3779B97F4A7C15L ^ used * 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 29;
+        return (int) h & mask;
+    }
+}
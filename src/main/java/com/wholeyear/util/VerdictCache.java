@@ -0,0 +1,128 @@
+package com.wholeyear.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU map from a board state, given as a bitmask (see CoverTemplate.coverMask),
+ * to whether it can still be completed.
+ *
+ * Entries are spread over STRIPES independent access-ordered LinkedHashMaps by the
+ * key's hash, each holding capacity / STRIPES entries and locked on its own, so
+ * concurrent lookups rarely wait for each other. A full stripe drops its least
+ * recently used entry; since a verdict can always be recomputed, eviction only costs
+ * time. Keys are copied on insert, so callers may reuse their arrays.
+ */
+public class VerdictCache {
+
+    private static final int STRIPES = 16;
+
+    /** A mask plus its precomputed hash. */
+    private static final class Key {
+        private final long[] words;
+        private final int hash;
+
+        Key(long[] words) {
+            this.words = words;
+            this.hash = hash(words);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return hash == other.hash && Arrays.equals(words, other.words);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<Key, Boolean> {
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /** @param capacity total entries kept, at least one per stripe */
+    public VerdictCache(int capacity) {
+        if (capacity < STRIPES) {
+            throw new IllegalArgumentException("Capacity must be at least " + STRIPES + ", got " + capacity);
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(capacity / STRIPES);
+        }
+    }
+
+    /** The cached verdict for {@code mask}, or null if there is none. */
+    public Boolean get(long[] mask) {
+        Key key = new Key(mask);
+        Stripe stripe = stripeOf(key);
+        Boolean solvable;
+        synchronized (stripe) {
+            solvable = stripe.get(key);
+        }
+        (solvable != null ? hits : misses).increment();
+        return solvable;
+    }
+
+    public void put(long[] mask, boolean solvable) {
+        Key key = new Key(mask.clone());
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            stripe.put(key, solvable);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public int capacity() {
+        return stripes[0].capacity * STRIPES;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private Stripe stripeOf(Key key) {
+        return stripes[(key.hash ^ key.hash >>> 16) & (STRIPES - 1)];
+    }
+
+    private static int hash(long[] words) {
+        long h = 0;
+        for (long w : words) {
+            h = (h ^ w) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 29;
+        }
+        return (int) (h ^ h >>> 32);
+    }
+}
@@ -114,4 +114,54 @@ class PieceTest {
             assertEquals(0, minC, "min col should be 0 after normalization");
         }
     }
+
+    // ─── Cached orientations and packed offsets ─────────────────────────
+
+    @Test
+    void orientationsAreComputedOnce() {
+        Piece piece = new Piece("L", Arrays.asList("#.", "#.", "##"));
+        assertSame(piece.generateAllOrientations(), piece.generateAllOrientations());
+    }
+
+    @Test
+    void orientationsAreUnmodifiable() {
+        Piece piece = new Piece("L", Arrays.asList("#.", "#.", "##"));
+        List<List<Cell>> orientations = piece.generateAllOrientations();
+        assertThrows(UnsupportedOperationException.class, () -> orientations.remove(0));
+        assertThrows(UnsupportedOperationException.class,
+                () -> orientations.get(0).add(new Cell(9, 9)));
+    }
+
+    @Test
+    void offsetsMatchOrientationCells() {
+        Piece piece = new Piece("bridge", Arrays.asList("###", "#.#"));
+        List<List<Cell>> orientations = piece.generateAllOrientations();
+        assertEquals(orientations.size(), piece.getOrientationCount());
+        for (int o = 0; o < orientations.size(); o++) {
+            List<Cell> cells = orientations.get(o);
+            int[] offs = piece.getOrientationOffsets(o);
+            assertEquals(2 * cells.size(), offs.length);
+            for (int i = 0; i < cells.size(); i++) {
+                assertEquals(cells.get(i), new Cell(offs[2 * i], offs[2 * i + 1]));
+            }
+        }
+    }
+
+    @Test
+    void orientationBoundingBoxesSwapOnRotation() {
+        // Vertical bar 3×1 → orientations 3×1 and 1×3
+        Piece bar = new Piece("bar", Arrays.asList("#", "#", "#"));
+        assertEquals(2, bar.getOrientationCount());
+        assertEquals(3, bar.getOrientationHeight(0));
+        assertEquals(1, bar.getOrientationWidth(0));
+        assertEquals(1, bar.getOrientationHeight(1));
+        assertEquals(3, bar.getOrientationWidth(1));
+    }
+
+    @Test
+    void widePieceStillDeduplicatesOrientations() {
+        // 1×9 bar is too wide for the single-long signature; still only 2 orientations
+        Piece longBar = new Piece("long", Arrays.asList("#########"));
+        assertEquals(2, longBar.getOrientationCount());
+    }
 }
@@ -0,0 +1,382 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wholeyear.model.Board;
+import com.wholeyear.model.BoardCell;
+import com.wholeyear.model.Cell;
+import com.wholeyear.model.Piece;
+import com.wholeyear.util.Definition;
+import com.wholeyear.util.PlacementDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledPuzzleTest {
+
+    /** 1×4 strip labelled Jan, 1, 2, 3 with a single domino: only Jan 1 leaves two adjacent cells. */
+    static PuzzleDefinition stripDefinition(String id) {
+        PuzzleDefinition.BoardSpec board = new PuzzleDefinition.BoardSpec();
+        board.setShape(List.of("####"));
+        board.setLabels(List.of(Arrays.asList("Jan", "1", "2", "3")));
+        PuzzleDefinition.PieceSpec domino = new PuzzleDefinition.PieceSpec();
+        domino.setId("domino");
+        domino.setShape(List.of("##"));
+
+        PuzzleDefinition definition = new PuzzleDefinition();
+        definition.setId(id);
+        definition.setName("Strip");
+        definition.setBoard(board);
+        definition.setPieces(List.of(domino));
+        return definition;
+    }
+
+    private CompiledPuzzle compile(PuzzleDefinition definition) {
+        return new CompiledPuzzle(definition, "hash", SolutionCache.WarmupPolicy.LAZY);
+    }
+
+    @Test
+    void compilesBoardPiecesAndPlacements() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+
+        assertEquals("strip", puzzle.getId());
+        assertEquals("Strip", puzzle.getName());
+        assertEquals("hash", puzzle.getContentHash());
+        assertEquals(4, puzzle.getBoard().getAllFillableCells().size());
+        assertEquals(1, puzzle.getPieces().size());
+        assertEquals(0, puzzle.getPieceIndex("domino"));
+        assertEquals(3, puzzle.getPlacementIndex().getAllPlacements().size());
+        assertEquals(1, puzzle.getPieceDtos().size());
+    }
+
+    @Test
+    void solvesAndCachesDates() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+
+        List<PlacementDto> solution = puzzle.solve(1, 1);
+        assertEquals(1, solution.size());
+        assertSame(solution, puzzle.solve(1, 1));
+        assertEquals(1, puzzle.getSolutionCache().getHits());
+    }
+
+    @Test
+    void payloadsAreSerializedOnceAndReused() throws Exception {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        JsonPayload board = puzzle.boardPayloadFor(1, 1);
+        assertSame(board, puzzle.boardPayloadFor(1, 1));
+        assertNotEquals(board.getEtag(), puzzle.boardPayloadFor(1, 2).getEtag());
+        assertArrayEquals(objectMapper.writeValueAsBytes(puzzle.boardCellsFor(1, 1)), board.getBody());
+        assertArrayEquals(objectMapper.writeValueAsBytes(puzzle.getPieceDtos()), puzzle.getPiecesPayload().getBody());
+        assertThrows(IllegalArgumentException.class, () -> puzzle.boardPayloadFor(13, 1));
+    }
+
+    @Test
+    void profileRunsTheSolverWithoutTouchingTheCache() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+
+        SolveProfileDto profile = puzzle.profile(1, 1);
+        assertEquals("strip", profile.getPuzzleId());
+        assertEquals(1, profile.getPlacements().size());
+        assertTrue(profile.getNodes() > 0);
+        assertEquals(profile.getNodes(),
+                profile.getLevels().stream().mapToLong(SolveProfileDto.Level::getNodes).sum());
+        assertFalse(puzzle.getSolutionCache().contains(1, 1));
+
+        SolveProfileDto unlabelled = puzzle.profile(2, 1);
+        assertTrue(unlabelled.getPlacements().isEmpty());
+        assertTrue(unlabelled.getLevels().isEmpty());
+    }
+
+    @Test
+    void forEachSolutionEnumeratesWithoutTouchingTheCache() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+        List<List<PlacementDto>> seen = new ArrayList<>();
+
+        assertEquals(1, puzzle.forEachSolution(1, 1, seen::add, 10));
+        assertEquals(1, seen.size());
+        assertEquals(0, seen.get(0).get(0).getPieceId());
+        assertFalse(puzzle.getSolutionCache().contains(1, 1));
+
+        assertEquals(0, puzzle.forEachSolution(1, 2, seen::add, 10));
+        assertEquals(0, puzzle.forEachSolution(2, 1, seen::add, 10));
+    }
+
+    @Test
+    void countSolutionsReportsProgressAndStopsWhenCancelled() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+        List<Long> progress = new ArrayList<>();
+
+        assertEquals(1, puzzle.countSolutions(1, 1, progress::add, new AtomicBoolean()));
+        assertEquals(List.of(1L), progress);
+        assertFalse(puzzle.getSolutionCache().contains(1, 1));
+
+        assertEquals(0, puzzle.countSolutions(1, 1, progress::add, new AtomicBoolean(true)));
+        assertEquals(List.of(1L), progress);
+    }
+
+    // ─── Hints ──────────────────────────────────────────────────────────
+
+    private static PlacementDto domino(int col) {
+        return new PlacementDto(0, List.of(new Cell(0, col), new Cell(0, col + 1)));
+    }
+
+    @Test
+    void hintCompletesAnEmptyOrFinishedBoard() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+
+        HintDto empty = puzzle.hint(1, 1, List.of(), new AtomicBoolean());
+        assertEquals(HintDto.Status.SOLVED, empty.getStatus());
+        assertEquals(1, empty.getPlacements().size());
+        assertEquals(List.of(new Cell(0, 2), new Cell(0, 3)), empty.getPlacements().get(0).getCells());
+
+        HintDto done = puzzle.hint(1, 1, List.of(domino(2)), new AtomicBoolean());
+        assertEquals(HintDto.Status.SOLVED, done.getStatus());
+        assertTrue(done.getPlacements().isEmpty(), "the player's own pieces are not repeated");
+        assertFalse(puzzle.getSolutionCache().contains(1, 1));
+    }
+
+    @Test
+    void hintReportsUnsolvableBoards() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+
+        assertEquals(HintDto.Status.UNSOLVABLE, puzzle.hint(1, 2, List.of(), new AtomicBoolean()).getStatus());
+        assertEquals(HintDto.Status.UNSOLVABLE, puzzle.hint(1, 1, List.of(domino(0)), new AtomicBoolean()).getStatus(),
+                "the domino covers the Jan cell");
+        assertEquals(HintDto.Status.UNSOLVABLE, puzzle.hint(2, 1, List.of(), new AtomicBoolean()).getStatus(),
+                "no Feb label");
+    }
+
+    @Test
+    void hintStopsWhenCancelled() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+        assertEquals(HintDto.Status.TIMEOUT, puzzle.hint(1, 1, List.of(), new AtomicBoolean(true)).getStatus());
+    }
+
+    @Test
+    void hintRejectsPiecesThatDoNotFit() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+        assertThrows(IllegalArgumentException.class,
+                () -> puzzle.hint(1, 1, List.of(new PlacementDto(1, List.of(new Cell(0, 2), new Cell(0, 3)))), new AtomicBoolean()));
+        assertThrows(IllegalArgumentException.class,
+                () -> puzzle.hint(1, 1, List.of(new PlacementDto(0, List.of(new Cell(0, 1), new Cell(0, 3)))), new AtomicBoolean()));
+    }
+
+    // ─── Checks ─────────────────────────────────────────────────────────
+
+    @Test
+    void checkCachesVerdictsByBoardState() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+
+        CheckDto first = puzzle.check(1, 1, List.of(), new AtomicBoolean());
+        assertEquals(CheckDto.Verdict.SOLVABLE, first.getVerdict());
+        assertFalse(first.isCached());
+        CheckDto again = puzzle.check(1, 1, List.of(), new AtomicBoolean());
+        assertEquals(CheckDto.Verdict.SOLVABLE, again.getVerdict());
+        assertTrue(again.isCached());
+        assertEquals(0, again.getNodes());
+
+        assertEquals(CheckDto.Verdict.SOLVABLE, puzzle.check(1, 1, List.of(domino(2)), new AtomicBoolean()).getVerdict());
+        assertEquals(CheckDto.Verdict.UNSOLVABLE, puzzle.check(1, 2, List.of(), new AtomicBoolean()).getVerdict());
+        assertTrue(puzzle.check(1, 2, List.of(), new AtomicBoolean()).isCached());
+        assertEquals(3, puzzle.getVerdictCache().size());
+        assertEquals(2, puzzle.getVerdictCache().getHits());
+    }
+
+    @Test
+    void checkDoesNotCacheClashesOrTimeouts() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+
+        assertEquals(CheckDto.Verdict.UNSOLVABLE, puzzle.check(1, 1, List.of(domino(0)), new AtomicBoolean()).getVerdict(),
+                "the domino covers the Jan cell");
+        assertEquals(CheckDto.Verdict.UNSOLVABLE, puzzle.check(2, 1, List.of(), new AtomicBoolean()).getVerdict(),
+                "no Feb label");
+        assertEquals(CheckDto.Verdict.UNKNOWN, puzzle.check(1, 1, List.of(), new AtomicBoolean(true)).getVerdict());
+        assertEquals(0, puzzle.getVerdictCache().size());
+
+        CheckDto decided = puzzle.check(1, 1, List.of(), new AtomicBoolean());
+        assertEquals(CheckDto.Verdict.SOLVABLE, decided.getVerdict());
+        assertFalse(decided.isCached());
+        assertThrows(IllegalArgumentException.class,
+                () -> puzzle.check(1, 1, List.of(new PlacementDto(1, List.of(new Cell(0, 2), new Cell(0, 3)))), new AtomicBoolean()));
+    }
+
+    // ─── Ranked hints ───────────────────────────────────────────────────
+
+    @Test
+    void rankedMovesCountTheSolutionsLeft() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            RankedHintDto empty = puzzle.rankMoves(1, 1, List.of(), 5, executor, 2, new AtomicBoolean());
+            assertEquals(RankedHintDto.Status.RANKED, empty.getStatus());
+            assertEquals(1, empty.getSolutions());
+            assertEquals(1, empty.getCandidates(), "only cells 2 and 3 are free");
+            assertEquals(List.of(new Cell(0, 2), new Cell(0, 3)), empty.getMoves().get(0).getCells());
+            assertEquals(1, empty.getMoves().get(0).getSolutions());
+
+            RankedHintDto done = puzzle.rankMoves(1, 1, List.of(domino(2)), 5, executor, 2, new AtomicBoolean());
+            assertEquals(RankedHintDto.Status.RANKED, done.getStatus());
+            assertTrue(done.getMoves().isEmpty());
+
+            assertEquals(RankedHintDto.Status.UNSOLVABLE,
+                    puzzle.rankMoves(1, 2, List.of(), 5, executor, 2, new AtomicBoolean()).getStatus());
+            assertEquals(RankedHintDto.Status.UNSOLVABLE,
+                    puzzle.rankMoves(1, 1, List.of(domino(0)), 5, executor, 2, new AtomicBoolean()).getStatus());
+            assertEquals(RankedHintDto.Status.TIMEOUT,
+                    puzzle.rankMoves(1, 1, List.of(), 5, executor, 2, new AtomicBoolean(true)).getStatus());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rankedMovesOfTheWholeYearPuzzleAreOrdered() {
+        CompiledPuzzle puzzle = new PuzzleCatalog("", "whole-year", SolutionCache.WarmupPolicy.LAZY)
+                .get("whole-year");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            RankedHintDto ranked = puzzle.rankMoves(12, 25, List.of(), 10, executor, 2, new AtomicBoolean());
+            assertEquals(RankedHintDto.Status.RANKED, ranked.getStatus());
+            assertEquals(10, ranked.getMoves().size());
+            for (int i = 1; i < ranked.getMoves().size(); i++) {
+                assertTrue(ranked.getMoves().get(i - 1).getSolutions() >= ranked.getMoves().get(i).getSolutions());
+            }
+            assertTrue(ranked.getMoves().get(0).getSolutions() <= ranked.getSolutions());
+
+            // Making the best move leaves exactly the solutions it was ranked with
+            RankedHintDto.Move best = ranked.getMoves().get(0);
+            RankedHintDto next = puzzle.rankMoves(12, 25, List.of(new PlacementDto(best.getPieceId(), best.getCells())),
+                    10, executor, 2, new AtomicBoolean());
+            assertEquals(best.getSolutions(), next.getSolutions());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // ─── Closest solutions ──────────────────────────────────────────────
+
+    @Test
+    void closestSolutionKeepsThePiecesThatFit() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+
+        ClosestDto onDate = puzzle.closest(1, 1, List.of(domino(0)), new AtomicBoolean());
+        assertEquals(ClosestDto.Status.CLOSEST, onDate.getStatus());
+        assertEquals(List.of(), onDate.getKept(), "the domino covers the date");
+        assertEquals(1, onDate.getPlacements().size());
+        assertEquals(domino(2).getCells(), onDate.getPlacements().get(0).getCells());
+
+        ClosestDto fits = puzzle.closest(1, 1, List.of(domino(0), domino(2)), new AtomicBoolean());
+        assertEquals(ClosestDto.Status.CLOSEST, fits.getStatus());
+        assertEquals(List.of(1), fits.getKept());
+
+        assertEquals(ClosestDto.Status.UNSOLVABLE,
+                puzzle.closest(1, 2, List.of(), new AtomicBoolean()).getStatus());
+        assertThrows(IllegalArgumentException.class,
+                () -> puzzle.closest(1, 1, List.of(new PlacementDto(0, List.of(new Cell(0, 0)))), new AtomicBoolean()));
+    }
+
+    @Test
+    void closestSolutionOfTheWholeYearPuzzleIsASolution() {
+        CompiledPuzzle puzzle = new PuzzleCatalog("", "whole-year", SolutionCache.WarmupPolicy.LAZY)
+                .get("whole-year");
+        List<PlacementDto> own = puzzle.solve(12, 25);
+        ClosestDto same = puzzle.closest(12, 25, own, new AtomicBoolean());
+        assertEquals(ClosestDto.Status.CLOSEST, same.getStatus());
+        assertEquals(own.size(), same.getKept().size());
+
+        // Christmas Eve's solution leaves Dec 25 covered, so some of its pieces must go
+        List<PlacementDto> eve = puzzle.solve(12, 24);
+        ClosestDto closest = puzzle.closest(12, 25, eve, new AtomicBoolean());
+        assertEquals(ClosestDto.Status.CLOSEST, closest.getStatus());
+        assertTrue(closest.getKept().size() < eve.size());
+        assertFalse(closest.getKept().isEmpty());
+        Set<List<Cell>> chosen = new HashSet<>();
+        for (PlacementDto placement : closest.getPlacements()) {
+            chosen.add(placement.getCells());
+        }
+        for (int i : closest.getKept()) {
+            assertTrue(chosen.contains(eve.get(i).getCells()));
+        }
+        assertEquals(CheckDto.Verdict.SOLVABLE,
+                puzzle.check(12, 25, closest.getPlacements(), new AtomicBoolean()).getVerdict());
+    }
+
+    @Test
+    void dateWithoutSolutionOrLabelIsEmpty() {
+        CompiledPuzzle puzzle = compile(stripDefinition("strip"));
+        assertTrue(puzzle.solve(1, 2).isEmpty(), "Jan 2 leaves cells 1 and 3, which are not adjacent");
+        assertTrue(puzzle.solve(2, 1).isEmpty(), "the strip has no Feb label");
+    }
+
+    @Test
+    void boardCellsMarkTargets() {
+        List<BoardCell> cells = compile(stripDefinition("strip")).boardCellsFor(1, 3);
+        long targets = cells.stream().filter(c -> c.getState() == Board.CellState.TARGET).count();
+        assertEquals(2, targets);
+    }
+
+    @Test
+    void nameDefaultsToId() {
+        PuzzleDefinition definition = stripDefinition("strip");
+        definition.setName(null);
+        assertEquals("strip", compile(definition).getName());
+    }
+
+    @Test
+    void rejectsInvalidId() {
+        assertThrows(IllegalArgumentException.class, () -> compile(stripDefinition("Not/Safe")));
+        assertThrows(IllegalArgumentException.class, () -> compile(stripDefinition(null)));
+    }
+
+    @Test
+    void rejectsMissingBoardOrPieces() {
+        PuzzleDefinition noBoard = stripDefinition("strip");
+        noBoard.setBoard(null);
+        assertThrows(IllegalArgumentException.class, () -> compile(noBoard));
+
+        PuzzleDefinition noPieces = stripDefinition("strip");
+        noPieces.setPieces(List.of());
+        assertThrows(IllegalArgumentException.class, () -> compile(noPieces));
+    }
+
+    @Test
+    void rejectsDuplicatePieceIds() {
+        PuzzleDefinition definition = stripDefinition("strip");
+        definition.setPieces(List.of(definition.getPieces().get(0), definition.getPieces().get(0)));
+        assertThrows(IllegalArgumentException.class, () -> compile(definition));
+    }
+
+    @Test
+    void rejectsMismatchedLabels() {
+        PuzzleDefinition definition = stripDefinition("strip");
+        definition.getBoard().setLabels(List.of(Arrays.asList("Jan", "1")));
+        assertThrows(IllegalArgumentException.class, () -> compile(definition));
+    }
+
+    @Test
+    void bundledWholeYearPuzzleMatchesDefinition() {
+        CompiledPuzzle puzzle = new PuzzleCatalog("", "whole-year", SolutionCache.WarmupPolicy.LAZY)
+                .get("whole-year");
+        Board expected = Definition.createWholeYearPuzzleBoard();
+
+        List<BoardCell> expectedCells = expected.getBoardCellsForDate("Mar", "11");
+        List<BoardCell> cells = puzzle.boardCellsFor(3, 11);
+        assertEquals(expectedCells.size(), cells.size());
+        for (int i = 0; i < cells.size(); i++) {
+            assertEquals(expectedCells.get(i).getLabel(), cells.get(i).getLabel());
+            assertEquals(expectedCells.get(i).getState(), cells.get(i).getState());
+        }
+        List<Piece> pieces = Definition.loadAllPieces();
+        assertEquals(pieces.size(), puzzle.getPieces().size());
+        for (int i = 0; i < pieces.size(); i++) {
+            assertEquals(pieces.get(i).getId(), puzzle.getPieces().get(i).getId());
+            assertEquals(pieces.get(i).getCanonicalCells(), puzzle.getPieces().get(i).getCanonicalCells());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class HintControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode solution(String date) throws Exception {
+        return mapper.readTree(mockMvc.perform(post("/api/solve").param("date", date))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    @Test
+    void hintCompletesPartOfASolution() throws Exception {
+        JsonNode solution = solution("2024-08-08");
+        String firstThree = mapper.writeValueAsString(
+                mapper.createArrayNode().add(solution.get(0)).add(solution.get(1)).add(solution.get(2)));
+
+        mockMvc.perform(post("/api/hint").param("date", "2024-08-08")
+                        .contentType(MediaType.APPLICATION_JSON).content(firstThree))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SOLVED"))
+                .andExpect(jsonPath("$.placements", hasSize(6)))
+                .andExpect(jsonPath("$.placements[*].pieceId", not(hasItem(solution.get(0).get("pieceId").asInt()))))
+                .andExpect(jsonPath("$.nodes", greaterThan(0)));
+    }
+
+    @Test
+    void hintForEmptyBoardOfAPuzzle() throws Exception {
+        mockMvc.perform(post("/api/whole-year/hint").param("date", "2024-08-08")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SOLVED"))
+                .andExpect(jsonPath("$.placements", hasSize(9)));
+    }
+
+    @Test
+    void samePieceTwiceIsUnsolvable() throws Exception {
+        JsonNode solution = solution("2024-08-08");
+        String twice = mapper.writeValueAsString(mapper.createArrayNode().add(solution.get(0)).add(solution.get(0)));
+
+        mockMvc.perform(post("/api/hint").param("date", "2024-08-08")
+                        .contentType(MediaType.APPLICATION_JSON).content(twice))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UNSOLVABLE"))
+                .andExpect(jsonPath("$.placements", hasSize(0)));
+    }
+
+    @Test
+    void checkAnswersFromTheVerdictCacheOnRepeat() throws Exception {
+        JsonNode solution = solution("2024-03-14");
+        String firstFour = mapper.writeValueAsString(mapper.createArrayNode()
+                .add(solution.get(0)).add(solution.get(1)).add(solution.get(2)).add(solution.get(3)));
+
+        mockMvc.perform(post("/api/check").param("date", "2024-03-14")
+                        .contentType(MediaType.APPLICATION_JSON).content(firstFour))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.verdict").value("SOLVABLE"))
+                .andExpect(jsonPath("$.cached").value(false));
+        mockMvc.perform(post("/api/whole-year/check").param("date", "2024-03-14")
+                        .contentType(MediaType.APPLICATION_JSON).content(firstFour))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.verdict").value("SOLVABLE"))
+                .andExpect(jsonPath("$.cached").value(true))
+                .andExpect(jsonPath("$.nodes").value(0));
+    }
+
+    @Test
+    void checkFlagsClashingPieces() throws Exception {
+        JsonNode solution = solution("2024-08-08");
+        String twice = mapper.writeValueAsString(mapper.createArrayNode().add(solution.get(0)).add(solution.get(0)));
+
+        mockMvc.perform(post("/api/check").param("date", "2024-08-08")
+                        .contentType(MediaType.APPLICATION_JSON).content(twice))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.verdict").value("UNSOLVABLE"));
+        mockMvc.perform(post("/api/check").param("date", "2024-08-08")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"pieceId\": 42, \"cells\": [{\"row\": 0, \"col\": 0}]}]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/nope/check")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rankedHintListsTheBestMovesFirst() throws Exception {
+        JsonNode solution = solution("2024-10-31");
+        String firstTwo = mapper.writeValueAsString(mapper.createArrayNode().add(solution.get(0)).add(solution.get(1)));
+
+        JsonNode ranked = mapper.readTree(mockMvc.perform(post("/api/hint/ranked").param("date", "2024-10-31")
+                        .param("limit", "3").contentType(MediaType.APPLICATION_JSON).content(firstTwo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RANKED"))
+                .andExpect(jsonPath("$.moves", hasSize(lessThanOrEqualTo(3))))
+                .andExpect(jsonPath("$.solutions", greaterThan(0)))
+                .andReturn().getResponse().getContentAsString());
+        long previous = Long.MAX_VALUE;
+        for (JsonNode move : ranked.get("moves")) {
+            assertTrue(move.get("solutions").asLong() <= previous);
+            previous = move.get("solutions").asLong();
+        }
+    }
+
+    @Test
+    void rankedHintRejectsBadLimits() throws Exception {
+        mockMvc.perform(post("/api/hint/ranked").param("date", "2024-10-31").param("limit", "0")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/whole-year/hint/ranked").param("limit", "51")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/nope/hint/ranked")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void closestSolutionKeepsPiecesOfAnotherDatesSolution() throws Exception {
+        // The solution of Aug 7 covers Aug 8's day cell, so it cannot be kept whole
+        String other = mapper.writeValueAsString(solution("2024-08-07"));
+
+        mockMvc.perform(post("/api/hint/closest").param("date", "2024-08-08")
+                        .contentType(MediaType.APPLICATION_JSON).content(other))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CLOSEST"))
+                .andExpect(jsonPath("$.placements", hasSize(9)))
+                .andExpect(jsonPath("$.kept", hasSize(lessThan(9))))
+                .andExpect(jsonPath("$.nodes", greaterThan(0)));
+        mockMvc.perform(post("/api/nope/hint/closest")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void invalidPlacementsReturn400() throws Exception {
+        mockMvc.perform(post("/api/hint").param("date", "2024-08-08")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"pieceId\": 42, \"cells\": [{\"row\": 0, \"col\": 0}]}]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/hint").param("date", "2024-08-08")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"pieceId\": 0, \"cells\": [{\"row\": 0, \"col\": 0}]}]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/nope/hint")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isNotFound());
+    }
+}
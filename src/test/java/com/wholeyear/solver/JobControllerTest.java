@@ -0,0 +1,122 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"solver.jobs.threads=1", "solver.jobs.queue-capacity=1"})
+@AutoConfigureMockMvc
+class JobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private void awaitRunning(String id) throws Exception {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (true) {
+            String state = mapper.readTree(mockMvc.perform(get("/api/jobs/" + id))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()).get("state").asText();
+            if (!state.equals("QUEUED")) {
+                assertEquals("RUNNING", state);
+                return;
+            }
+            assertTrue(System.currentTimeMillis() < deadline, "job " + id + " still QUEUED");
+            Thread.sleep(20);
+        }
+    }
+
+    private JsonNode awaitFinished(String id) throws Exception {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (true) {
+            JsonNode job = mapper.readTree(mockMvc.perform(get("/api/jobs/" + id))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            String state = job.get("state").asText();
+            if (!state.equals("QUEUED") && !state.equals("RUNNING")) {
+                return job;
+            }
+            assertTrue(System.currentTimeMillis() < deadline, "job " + id + " still " + state);
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void countJobIsAcceptedAndReportsItsResult() throws Exception {
+        String body = mockMvc.perform(post("/api/jobs").param("type", "COUNT").param("date", "2024-12-25"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", startsWith("/api/jobs/")))
+                .andExpect(jsonPath("$.type").value("COUNT"))
+                .andExpect(jsonPath("$.puzzleId").value("whole-year"))
+                .andExpect(jsonPath("$.month").value(12))
+                .andExpect(jsonPath("$.day").value(25))
+                .andExpect(jsonPath("$.priority").value(5))
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode job = awaitFinished(mapper.readTree(body).get("id").asText());
+        assertEquals("DONE", job.get("state").asText());
+        assertTrue(job.get("result").asLong() > 1, "Dec 25 has several solutions");
+        assertEquals(job.get("result").asLong(), job.get("total").asLong());
+        assertEquals(job.get("result").asLong(), job.get("done").asLong());
+    }
+
+    @Test
+    void fullQueueIsRejectedWith429() throws Exception {
+        // One worker and one queue slot: a year count occupies the worker, the next waits
+        List<String> ids = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                String body = mockMvc.perform(post("/api/jobs").param("type", "COUNT_YEAR").param("year", "2024"))
+                        .andExpect(status().isAccepted())
+                        .andReturn().getResponse().getContentAsString();
+                ids.add(mapper.readTree(body).get("id").asText());
+                if (i == 0) {
+                    awaitRunning(ids.get(0));   // the worker has taken it, freeing the queue slot
+                }
+            }
+            mockMvc.perform(post("/api/jobs").param("type", "COUNT").param("date", "2024-01-01"))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().exists("Retry-After"));
+        } finally {
+            for (String id : ids) {
+                mockMvc.perform(delete("/api/jobs/" + id)).andExpect(status().isOk());
+            }
+        }
+        assertEquals("CANCELLED", awaitFinished(ids.get(0)).get("state").asText());
+        assertEquals("CANCELLED", awaitFinished(ids.get(1)).get("state").asText());
+    }
+
+    @Test
+    void invalidRequestsReturn400() throws Exception {
+        mockMvc.perform(post("/api/jobs").param("type", "COUNT").param("date", "2024-13-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/jobs").param("type", "COUNT").param("priority", "10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/jobs").param("type", "SOLVE_EVERYTHING"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unknownJobOrPuzzleReturns404() throws Exception {
+        mockMvc.perform(get("/api/jobs/no-such-job"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/jobs/no-such-job"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/jobs").param("type", "COUNT").param("puzzle", "nope"))
+                .andExpect(status().isNotFound());
+    }
+}
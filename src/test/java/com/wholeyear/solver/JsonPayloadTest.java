@@ -0,0 +1,105 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wholeyear.util.Definition;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonPayloadTest {
+
+    private static final CacheControl CACHE = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+
+    private JsonPayload boardPayload() {
+        return JsonPayload.of(Definition.createWholeYearPuzzleBoard().getBoardCellsForDate("Dec", "25"));
+    }
+
+    @Test
+    void bodyIsTheJacksonSerialization() throws Exception {
+        Object cells = Definition.createWholeYearPuzzleBoard().getBoardCellsForDate("Dec", "25");
+        assertArrayEquals(new ObjectMapper().writeValueAsBytes(cells), JsonPayload.of(cells).getBody());
+    }
+
+    @Test
+    void gzipBodyIsSmallerAndDecompressesToTheBody() throws Exception {
+        JsonPayload payload = boardPayload();
+        assertNotNull(payload.getGzipBody());
+        assertTrue(payload.getGzipBody().length < payload.getBody().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(payload.getGzipBody()))) {
+            assertArrayEquals(payload.getBody(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void tinyBodiesAreNotCompressed() {
+        assertNull(JsonPayload.of(List.of()).getGzipBody());
+    }
+
+    @Test
+    void etagIsStrongAndFollowsTheContent() {
+        JsonPayload payload = boardPayload();
+        assertTrue(payload.getEtag().matches("\"[0-9a-f]{32}\""), payload.getEtag());
+        assertEquals(payload.getEtag(), boardPayload().getEtag());
+        assertNotEquals(payload.getEtag(), JsonPayload.of(List.of(1)).getEtag());
+    }
+
+    @Test
+    void plainResponseCarriesEtagCacheControlAndVary() {
+        ResponseEntity<byte[]> response = boardPayload().toResponse(null, null, CACHE);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatusCode().value());
+        assertArrayEquals(boardPayload().getBody(), response.getBody());
+        assertEquals(boardPayload().getEtag(), response.getHeaders().getETag());
+        assertEquals(CACHE.getHeaderValue(), response.getHeaders().getCacheControl());
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeaders().getFirst(HttpHeaders.VARY));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void gzipResponseHasItsOwnEtag() {
+        JsonPayload payload = boardPayload();
+        ResponseEntity<byte[]> response = payload.toResponse(null, "gzip, deflate, br", CACHE);
+
+        assertArrayEquals(payload.getGzipBody(), response.getBody());
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNotEquals(payload.getEtag(), response.getHeaders().getETag());
+    }
+
+    @Test
+    void matchingIfNoneMatchGives304WithoutBody() {
+        JsonPayload payload = boardPayload();
+        String gzipEtag = payload.toResponse(null, "gzip", CACHE).getHeaders().getETag();
+
+        for (String header : List.of(payload.getEtag(), gzipEtag, "W/" + payload.getEtag(),
+                "\"other\", " + payload.getEtag(), "*")) {
+            ResponseEntity<byte[]> response = payload.toResponse(header, null, CACHE);
+            assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatusCode().value(), header);
+            assertNull(response.getBody());
+            assertEquals(payload.getEtag(), response.getHeaders().getETag());
+            assertEquals(CACHE.getHeaderValue(), response.getHeaders().getCacheControl());
+        }
+        assertEquals(HttpStatus.OK.value(), payload.toResponse("\"other\"", null, CACHE).getStatusCode().value());
+    }
+
+    @Test
+    void acceptEncodingHonoursQualityValues() {
+        assertTrue(JsonPayload.acceptsGzip("gzip"));
+        assertTrue(JsonPayload.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(JsonPayload.acceptsGzip("*"));
+        assertFalse(JsonPayload.acceptsGzip(null));
+        assertFalse(JsonPayload.acceptsGzip("identity"));
+        assertFalse(JsonPayload.acceptsGzip("gzip;q=0"));
+        assertFalse(JsonPayload.acceptsGzip("gzip;q=0, *"));
+        assertTrue(JsonPayload.acceptsGzip("*;q=0, gzip"));
+        assertFalse(JsonPayload.acceptsGzip("gzip;q=abc"));
+    }
+}
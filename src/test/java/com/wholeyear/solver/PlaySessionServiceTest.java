@@ -0,0 +1,65 @@
+package com.wholeyear.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaySessionServiceTest {
+
+    private final CompiledPuzzle puzzle =
+            new PuzzleCatalog("", "whole-year", SolutionCache.WarmupPolicy.LAZY).get("whole-year");
+    private final long bytes = puzzle.coverTemplate().getSolverBytes();
+
+    @Test
+    void sessionsAreCappedByTheMemoryTheirMatricesTake() {
+        PlaySessionService service = new PlaySessionService(60_000, 1);
+        int fits = (int) (service.getMaxMemoryBytes() / bytes);
+        assertTrue(fits > 0);
+        List<PlaySession> open = new ArrayList<>();
+        for (int i = 0; i < fits; i++) {
+            open.add(service.open(puzzle, 1, 1 + i % 31));
+        }
+        assertEquals(fits * bytes, service.getMemoryBytes());
+        assertThrows(PlaySessionService.SessionLimitException.class, () -> service.open(puzzle, 1, 1));
+
+        assertTrue(service.close(open.get(0).getId()));
+        assertFalse(service.close(open.get(0).getId()));
+        assertNull(service.get(open.get(0).getId()));
+        assertNotNull(service.open(puzzle, 1, 1), "closing freed its share");
+        assertEquals(fits, service.size());
+    }
+
+    @Test
+    void idleSessionsAreEvictedAndReported() {
+        PlaySessionService service = new PlaySessionService(1_000, 16);
+        List<PlaySession> evicted = new ArrayList<>();
+        service.setEvictionListener(evicted::add);
+        PlaySession idle = service.open(puzzle, 5, 5);
+        PlaySession active = service.open(puzzle, 6, 6);
+        long now = Math.max(idle.getLastActive(), active.getLastActive());
+        active.touch(now + 1_500);
+
+        assertEquals(0, service.evictIdle(now + 1_000));
+        assertEquals(1, service.evictIdle(now + 2_000));
+        assertEquals(List.of(idle), evicted);
+        assertNull(service.get(idle.getId()));
+        assertSame(active, service.get(active.getId()));
+        assertEquals(bytes, service.getMemoryBytes());
+    }
+
+    @Test
+    void rejectsInvalidDatesAndSettings() {
+        PlaySessionService service = new PlaySessionService(60_000, 16);
+        assertThrows(IllegalArgumentException.class, () -> service.open(puzzle, 13, 1));
+        CompiledPuzzle strip = new CompiledPuzzle(CompiledPuzzleTest.stripDefinition("strip"), "hash",
+                SolutionCache.WarmupPolicy.LAZY);
+        assertThrows(IllegalArgumentException.class, () -> service.open(strip, 2, 1), "no Feb label");
+        assertEquals(0, service.getMemoryBytes(), "a failed open gives its reservation back");
+        assertEquals(0, service.size());
+
+        assertThrows(IllegalArgumentException.class, () -> new PlaySessionService(0, 16));
+        assertThrows(IllegalArgumentException.class, () -> new PlaySessionService(60_000, 0));
+    }
+}
@@ -0,0 +1,109 @@
+package com.wholeyear.solver;
+
+import com.wholeyear.model.Cell;
+import com.wholeyear.util.PlacementDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaySessionTest {
+
+    private static CompiledPuzzle wholeYear() {
+        return new PuzzleCatalog("", "whole-year", SolutionCache.WarmupPolicy.LAZY).get("whole-year");
+    }
+
+    private static PlaySession session(CompiledPuzzle puzzle, int month, int day) {
+        return new PlaySession("id", puzzle, month, day, 0);
+    }
+
+    @Test
+    void movesKeepTheLiveBoardInStepWithTheStatelessEndpoints() {
+        CompiledPuzzle puzzle = wholeYear();
+        List<PlacementDto> solution = puzzle.solve(12, 25);
+        PlaySession play = session(puzzle, 12, 25);
+
+        List<PlacementDto> placed = new ArrayList<>();
+        for (PlacementDto piece : solution) {
+            assertTrue(play.place(piece));
+            placed.add(piece);
+            assertEquals(CheckDto.Verdict.SOLVABLE, play.check(new AtomicBoolean()).getVerdict());
+            HintDto hint = play.hint(new AtomicBoolean());
+            assertEquals(HintDto.Status.SOLVED, hint.getStatus());
+            assertEquals(solution.size() - placed.size(), hint.getPlacements().size());
+        }
+        assertEquals(placed, play.getPlaced());
+
+        // Taking off a piece from the middle keeps the others, in order
+        PlacementDto middle = solution.get(3);
+        assertTrue(play.remove(middle.getPieceId()));
+        placed.remove(middle);
+        assertEquals(placed, play.getPlaced());
+        assertEquals(puzzle.check(12, 25, placed, new AtomicBoolean()).getVerdict(),
+                play.check(new AtomicBoolean()).getVerdict());
+        HintDto hint = play.hint(new AtomicBoolean());
+        assertEquals(1, hint.getPlacements().size());
+        assertEquals(middle.getCells(), hint.getPlacements().get(0).getCells());
+        assertTrue(play.place(middle), "its cells were uncovered again");
+    }
+
+    @Test
+    void checksShareThePuzzlesVerdictCache() {
+        CompiledPuzzle puzzle = wholeYear();
+        List<PlacementDto> firstTwo = puzzle.solve(3, 14).subList(0, 2);
+        PlaySession play = session(puzzle, 3, 14);
+        play.place(firstTwo.get(0));
+        play.place(firstTwo.get(1));
+
+        CheckDto searched = play.check(new AtomicBoolean());
+        assertFalse(searched.isCached());
+        assertTrue(searched.getNodes() > 0);
+        CheckDto stateless = puzzle.check(3, 14, firstTwo, new AtomicBoolean());
+        assertTrue(stateless.isCached(), "the session's verdict is keyed like /api/check's");
+        assertEquals(searched.getVerdict(), stateless.getVerdict());
+    }
+
+    @Test
+    void clashingMovesAreRejectedAndChangeNothing() {
+        CompiledPuzzle puzzle = wholeYear();
+        List<PlacementDto> solution = puzzle.solve(8, 8);
+        PlaySession play = session(puzzle, 8, 8);
+        assertTrue(play.place(solution.get(0)));
+
+        assertFalse(play.place(solution.get(0)), "same piece twice");
+        // Aug 7's solution covers the 8: some piece of it lands on the date
+        boolean coversDate = false;
+        for (PlacementDto piece : puzzle.solve(8, 7)) {
+            if (piece.getPieceId().equals(solution.get(0).getPieceId())) {
+                continue;
+            }
+            PlaySession other = session(puzzle, 8, 8);
+            coversDate |= !other.place(piece);
+        }
+        assertTrue(coversDate);
+        assertFalse(play.remove(solution.get(1).getPieceId()), "not on the board");
+        assertEquals(List.of(solution.get(0)), play.getPlaced());
+
+        assertThrows(IllegalArgumentException.class, () -> play.place(new PlacementDto(99, List.of(new Cell(0, 0)))));
+        assertThrows(IllegalArgumentException.class, () -> play.place(new PlacementDto(0, List.of(new Cell(0, 0)))));
+    }
+
+    @Test
+    void deadBoardsAndCancelledSearches() {
+        // The strip's Jan 2 leaves cells 1 and 3 apart, which no domino covers
+        CompiledPuzzle strip = new CompiledPuzzle(CompiledPuzzleTest.stripDefinition("strip"), "hash",
+                SolutionCache.WarmupPolicy.LAZY);
+        PlaySession dead = session(strip, 1, 2);
+        assertEquals(CheckDto.Verdict.UNSOLVABLE, dead.check(new AtomicBoolean()).getVerdict());
+        assertEquals(HintDto.Status.UNSOLVABLE, dead.hint(new AtomicBoolean()).getStatus());
+        assertThrows(IllegalArgumentException.class, () -> session(strip, 2, 1), "no Feb label");
+
+        PlaySession play = session(wholeYear(), 12, 25);
+        assertEquals(CheckDto.Verdict.UNKNOWN, play.check(new AtomicBoolean(true)).getVerdict());
+        assertEquals(HintDto.Status.TIMEOUT, play.hint(new AtomicBoolean(true)).getStatus());
+        assertEquals(CheckDto.Verdict.SOLVABLE, play.check(new AtomicBoolean()).getVerdict(),
+                "a cancelled search leaves the matrix as it was");
+    }
+}
@@ -0,0 +1,144 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wholeyear.util.PlacementDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PlaySocketHandlerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PuzzleCatalog catalog;
+
+    @Autowired
+    private PlaySessionService sessions;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /** Collects the server's replies and the close status. */
+    private static class Client extends TextWebSocketHandler {
+        final BlockingQueue<String> replies = new LinkedBlockingQueue<>();
+        final CompletableFuture<CloseStatus> closed = new CompletableFuture<>();
+
+        @Override
+        protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+            replies.add(message.getPayload());
+        }
+
+        @Override
+        public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+            closed.complete(status);
+        }
+    }
+
+    private WebSocketSession connect(Client client, String query) throws Exception {
+        return new StandardWebSocketClient().execute(client, "ws://localhost:" + port + "/ws/play?" + query)
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private JsonNode next(Client client) throws Exception {
+        String reply = client.replies.poll(10, TimeUnit.SECONDS);
+        assertNotNull(reply, "no reply");
+        return mapper.readTree(reply);
+    }
+
+    private JsonNode send(WebSocketSession socket, Client client, Object message) throws Exception {
+        socket.sendMessage(new TextMessage(mapper.writeValueAsString(message)));
+        return next(client);
+    }
+
+    @Test
+    void placesChecksHintsAndRemovesOnALiveBoard() throws Exception {
+        List<PlacementDto> solution = catalog.getDefault().solve(12, 25);
+        Client client = new Client();
+        WebSocketSession socket = connect(client, "date=2024-12-25");
+        try {
+            JsonNode session = next(client);
+            assertEquals("SESSION", session.get("type").asText());
+            assertEquals("whole-year", session.get("puzzleId").asText());
+            assertEquals(12, session.get("month").asInt());
+            assertNotNull(sessions.get(session.get("sessionId").asText()));
+
+            PlacementDto first = solution.get(0);
+            JsonNode placed = send(socket, client,
+                    Map.of("type", "PLACE", "pieceId", first.getPieceId(), "cells", first.getCells()));
+            assertEquals("PLACED", placed.get("type").asText());
+            assertEquals(1, placed.get("placed").size());
+
+            JsonNode again = send(socket, client,
+                    Map.of("type", "PLACE", "pieceId", first.getPieceId(), "cells", first.getCells()));
+            assertEquals("REJECTED", again.get("type").asText());
+            assertEquals(1, again.get("placed").size());
+
+            JsonNode check = send(socket, client, Map.of("type", "CHECK"));
+            assertEquals("CHECK", check.get("type").asText());
+            assertEquals("SOLVABLE", check.get("check").get("verdict").asText());
+
+            JsonNode hint = send(socket, client, Map.of("type", "HINT"));
+            assertEquals("SOLVED", hint.get("hint").get("status").asText());
+            assertEquals(solution.size() - 1, hint.get("hint").get("placements").size());
+
+            JsonNode removed = send(socket, client, Map.of("type", "REMOVE", "pieceId", first.getPieceId()));
+            assertEquals("REMOVED", removed.get("type").asText());
+            assertEquals(0, removed.get("placed").size());
+
+            socket.sendMessage(new TextMessage("not json"));
+            assertEquals("ERROR", next(client).get("type").asText());
+        } finally {
+            socket.close();
+        }
+        client.closed.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void placeWithoutCellsIsRejectedAndKeepsTheConnection() throws Exception {
+        Client client = new Client();
+        WebSocketSession socket = connect(client, "date=2024-12-25");
+        try {
+            assertEquals("SESSION", next(client).get("type").asText());
+
+            JsonNode rejected = send(socket, client, Map.of("type", "PLACE", "pieceId", 3));
+            assertEquals("REJECTED", rejected.get("type").asText());
+            assertEquals(0, rejected.get("placed").size());
+
+            assertEquals("CHECK", send(socket, client, Map.of("type", "CHECK")).get("type").asText());
+            assertTrue(socket.isOpen());
+            assertFalse(client.closed.isDone());
+        } finally {
+            socket.close();
+        }
+        client.closed.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void badDatesAndUnknownPuzzlesCloseTheConnection() throws Exception {
+        Client unknown = new Client();
+        connect(unknown, "puzzle=nope");
+        assertEquals(CloseStatus.BAD_DATA.getCode(), unknown.closed.get(10, TimeUnit.SECONDS).getCode());
+
+        Client badDate = new Client();
+        connect(badDate, "date=2024-13-01");
+        assertEquals(CloseStatus.BAD_DATA.getCode(), badDate.closed.get(10, TimeUnit.SECONDS).getCode());
+    }
+}
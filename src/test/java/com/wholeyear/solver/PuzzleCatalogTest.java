@@ -0,0 +1,133 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleCatalogTest {
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private void writePuzzle(String file, PuzzleDefinition definition) throws Exception {
+        Files.write(dir.resolve(file), objectMapper.writeValueAsBytes(definition));
+    }
+
+    private PuzzleCatalog catalog() {
+        return new PuzzleCatalog(dir.toString(), "whole-year", SolutionCache.WarmupPolicy.LAZY);
+    }
+
+    @Test
+    void loadsBundledDefaultPuzzle() {
+        PuzzleCatalog catalog = new PuzzleCatalog("", "whole-year", SolutionCache.WarmupPolicy.LAZY);
+
+        CompiledPuzzle puzzle = catalog.getDefault();
+        assertNotNull(puzzle);
+        assertEquals("whole-year", puzzle.getId());
+        assertEquals(9, puzzle.getPieces().size());
+        assertEquals(64, puzzle.getContentHash().length(), "SHA-256 in hex");
+        assertSame(puzzle, catalog.get("whole-year"));
+    }
+
+    @Test
+    void missingDefaultPuzzleFailsFast() {
+        assertThrows(IllegalStateException.class,
+                () -> new PuzzleCatalog("", "no-such-puzzle", SolutionCache.WarmupPolicy.LAZY));
+    }
+
+    @Test
+    void loadsPuzzlesFromDirectory() throws Exception {
+        writePuzzle("strip.json", CompiledPuzzleTest.stripDefinition("strip"));
+
+        PuzzleCatalog catalog = catalog();
+
+        assertNotNull(catalog.get("strip"));
+        assertNotNull(catalog.get("whole-year"));
+        assertEquals(List.of("strip", "whole-year"),
+                catalog.getAll().stream().map(CompiledPuzzle::getId).toList());
+    }
+
+    @Test
+    void rescanPicksUpNewChangedAndDeletedFiles() throws Exception {
+        PuzzleCatalog catalog = catalog();
+        assertNull(catalog.get("strip"));
+
+        writePuzzle("strip.json", CompiledPuzzleTest.stripDefinition("strip"));
+        assertEquals(List.of("strip"), catalog.rescan());
+        CompiledPuzzle first = catalog.get("strip");
+
+        // Unchanged file: same compiled puzzle, nothing recompiled
+        assertEquals(List.of(), catalog.rescan());
+        assertSame(first, catalog.get("strip"));
+
+        PuzzleDefinition renamed = CompiledPuzzleTest.stripDefinition("strip");
+        renamed.setName("Renamed strip");
+        writePuzzle("strip.json", renamed);
+        assertEquals(List.of("strip"), catalog.rescan());
+        assertEquals("Renamed strip", catalog.get("strip").getName());
+        assertNotEquals(first.getContentHash(), catalog.get("strip").getContentHash());
+
+        Files.delete(dir.resolve("strip.json"));
+        catalog.rescan();
+        assertNull(catalog.get("strip"));
+    }
+
+    @Test
+    void brokenFileKeepsPreviousVersion() throws Exception {
+        writePuzzle("strip.json", CompiledPuzzleTest.stripDefinition("strip"));
+        PuzzleCatalog catalog = catalog();
+        CompiledPuzzle before = catalog.get("strip");
+
+        Files.writeString(dir.resolve("strip.json"), "{ not json");
+        catalog.rescan();
+
+        assertSame(before, catalog.get("strip"));
+    }
+
+    @Test
+    void invalidNewFileIsSkipped() throws Exception {
+        Files.writeString(dir.resolve("broken.json"), "{\"id\": \"broken\"}");
+        PuzzleCatalog catalog = catalog();
+        assertNull(catalog.get("broken"));
+        assertNotNull(catalog.getDefault());
+    }
+
+    @Test
+    void directoryFileOverridesBundledPuzzle() throws Exception {
+        PuzzleDefinition override = CompiledPuzzleTest.stripDefinition("whole-year");
+        writePuzzle("override.json", override);
+
+        PuzzleCatalog catalog = catalog();
+        assertEquals(1, catalog.getDefault().getPieces().size());
+
+        Files.delete(dir.resolve("override.json"));
+        catalog.rescan();
+        assertEquals(9, catalog.getDefault().getPieces().size(), "falls back to the bundled puzzle");
+    }
+
+    @Test
+    void duplicateIdInDirectoryKeepsFirstFile() throws Exception {
+        PuzzleDefinition a = CompiledPuzzleTest.stripDefinition("strip");
+        a.setName("A");
+        PuzzleDefinition b = CompiledPuzzleTest.stripDefinition("strip");
+        b.setName("B");
+        writePuzzle("a.json", a);
+        writePuzzle("b.json", b);
+
+        assertEquals("A", catalog().get("strip").getName());
+    }
+
+    @Test
+    void sha256IsStableHex() {
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                PuzzleCatalog.sha256(new byte[0]));
+    }
+}
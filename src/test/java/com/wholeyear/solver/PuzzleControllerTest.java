@@ -0,0 +1,93 @@
+package com.wholeyear.solver;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PuzzleControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void listsBundledPuzzles() throws Exception {
+        mockMvc.perform(get("/api/puzzles"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == 'whole-year')]", hasSize(1)))
+                .andExpect(jsonPath("$[0].contentHash").exists());
+    }
+
+    @Test
+    void getBoardForPuzzleMatchesDefaultBoard() throws Exception {
+        mockMvc.perform(get("/api/whole-year/board").param("date", "2026-03-11"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(63)))
+                .andExpect(jsonPath("$[?(@.label == 'Mar' && @.state == 'TARGET')]", hasSize(1)))
+                .andExpect(jsonPath("$[?(@.label == '11' && @.state == 'TARGET')]", hasSize(1)));
+    }
+
+    @Test
+    void getPiecesForPuzzle() throws Exception {
+        mockMvc.perform(get("/api/whole-year/pieces"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(9)));
+    }
+
+    @Test
+    void solvePuzzleReturnsNinePlacements() throws Exception {
+        mockMvc.perform(post("/api/whole-year/solve").param("date", "2026-12-25"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(9)));
+    }
+
+    @Test
+    void unknownPuzzleReturns404() throws Exception {
+        mockMvc.perform(get("/api/no-such-puzzle/pieces"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/no-such-puzzle/solve").param("date", "2026-12-25"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void invalidDateForPuzzleReturns400() throws Exception {
+        mockMvc.perform(get("/api/whole-year/board").param("date", "2024-13-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void solveStreamForPuzzleSendsSolutions() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/whole-year/solve/stream").param("date", "2026-07-04"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(30_000);
+        String body = started.getResponse().getContentAsString();
+        org.junit.jupiter.api.Assertions.assertTrue(body.startsWith("id:1\nevent:solution\n"));
+        org.junit.jupiter.api.Assertions.assertTrue(body.contains("event:done\n"));
+    }
+
+    @Test
+    void solveRangeForPuzzleStreamsEachDate() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/whole-year/solve/range")
+                        .param("from", "2026-12-30").param("to", "2026-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"date\":\"2026-12-30\"")))
+                .andExpect(content().string(containsString("\"date\":\"2026-12-31\"")));
+
+        mockMvc.perform(post("/api/nope/solve/range").param("from", "2026-12-30").param("to", "2026-12-31"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,169 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wholeyear.model.Cell;
+import com.wholeyear.util.PlacementDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangeSolverTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private RangeSolver rangeSolver = new RangeSolver(2, 2, 366);
+
+    @AfterEach
+    void tearDown() {
+        rangeSolver.shutdown();
+    }
+
+    private static List<PlacementDto> fakeSolution(int month, int day) {
+        return List.of(new PlacementDto(0, List.of(new Cell(month, day))));
+    }
+
+    private List<JsonNode> lines(ByteArrayOutputStream out) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(mapper.readTree(line));
+        }
+        return lines;
+    }
+
+    @Test
+    void writesOneLinePerDateAcrossMonthAndYearEnds() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        rangeSolver.write(RangeSolverTest::fakeSolution, LocalDate.of(2023, 12, 30), LocalDate.of(2024, 1, 2), out);
+
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+        Map<String, JsonNode> byDate = new TreeMap<>();
+        for (JsonNode line : lines(out)) {
+            byDate.put(line.get("date").asText(), line);
+        }
+        assertEquals(List.of("2023-12-30", "2023-12-31", "2024-01-01", "2024-01-02"), new ArrayList<>(byDate.keySet()));
+        JsonNode newYear = byDate.get("2024-01-01");
+        assertEquals(1, newYear.get("placements").size());
+        assertEquals(1, newYear.get("placements").get(0).get("cells").get(0).get("row").asInt());
+        assertFalse(newYear.has("error"));
+    }
+
+    @Test
+    void leapDayOnlyInLeapYears() throws Exception {
+        ByteArrayOutputStream leap = new ByteArrayOutputStream();
+        rangeSolver.write(RangeSolverTest::fakeSolution, LocalDate.of(2024, 2, 28), LocalDate.of(2024, 3, 1), leap);
+        assertEquals(3, lines(leap).size());
+
+        ByteArrayOutputStream common = new ByteArrayOutputStream();
+        rangeSolver.write(RangeSolverTest::fakeSolution, LocalDate.of(2023, 2, 28), LocalDate.of(2023, 3, 1), common);
+        assertEquals(2, lines(common).size());
+    }
+
+    @Test
+    void failedDateBecomesAnErrorLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        rangeSolver.write((month, day) -> {
+            if (day == 2) {
+                throw new IllegalStateException("boom");
+            }
+            return fakeSolution(month, day);
+        }, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 3), out);
+
+        List<JsonNode> lines = lines(out);
+        assertEquals(3, lines.size());
+        for (JsonNode line : lines) {
+            if (line.get("date").asText().equals("2024-05-02")) {
+                assertEquals("boom", line.get("error").asText());
+                assertEquals(0, line.get("placements").size());
+            } else {
+                assertFalse(line.has("error"));
+            }
+        }
+    }
+
+    @Test
+    void slowReaderStallsSolvingAtTheWindow() throws Exception {
+        AtomicInteger solves = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        OutputStream blocked = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+        };
+        Thread writer = new Thread(() -> {
+            try {
+                rangeSolver.write((month, day) -> {
+                    solves.incrementAndGet();
+                    return fakeSolution(month, day);
+                }, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), blocked);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (solves.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(100);
+        assertEquals(rangeSolver.getWindow(), solves.get(), "no date starts while the first line is unwritten");
+
+        release.countDown();
+        writer.join(10_000);
+        assertEquals(366, solves.get());
+    }
+
+    @Test
+    void failedWriteStopsTheRange() {
+        AtomicInteger solves = new AtomicInteger();
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("client went away");
+            }
+        };
+        assertThrows(IOException.class, () -> rangeSolver.write((month, day) -> {
+            solves.incrementAndGet();
+            return fakeSolution(month, day);
+        }, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), broken));
+        assertTrue(solves.get() <= rangeSolver.getWindow());
+    }
+
+    @Test
+    void rejectsBackwardsAndOverlongRanges() {
+        assertThrows(IllegalArgumentException.class,
+                () -> rangeSolver.checkRange(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 31)));
+        rangeSolver.checkRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+        assertThrows(IllegalArgumentException.class,
+                () -> rangeSolver.checkRange(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> new RangeSolver(-1, 0, 366));
+    }
+
+    @Test
+    void defaultWindowIsTwiceThePool() {
+        rangeSolver.shutdown();
+        rangeSolver = new RangeSolver(3, 0, 366);
+        assertEquals(6, rangeSolver.getWindow());
+    }
+}
@@ -0,0 +1,236 @@
+package com.wholeyear.solver;
+
+import com.wholeyear.model.Cell;
+import com.wholeyear.util.PlacementDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionCacheTest {
+
+    private final AtomicInteger solves = new AtomicInteger();
+
+    private List<PlacementDto> fakeSolve(int month, int day) {
+        solves.incrementAndGet();
+        return List.of(new PlacementDto(month, List.of(new Cell(month, day))));
+    }
+
+    @Test
+    void lazyCacheSolvesEachDateOnce() {
+        SolutionCache cache = new SolutionCache(this::fakeSolve, SolutionCache.WarmupPolicy.LAZY);
+
+        List<PlacementDto> first = cache.get(3, 11);
+        List<PlacementDto> second = cache.get(3, 11);
+
+        assertSame(first, second);
+        assertEquals(1, solves.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertTrue(cache.contains(3, 11));
+        assertFalse(cache.contains(3, 12));
+    }
+
+    @Test
+    void getReportsExactlyTheCallsCountedAsHits() {
+        SolutionCache cache = new SolutionCache(this::fakeSolve, SolutionCache.WarmupPolicy.LAZY);
+        AtomicInteger reported = new AtomicInteger();
+
+        cache.get(3, 11, reported::incrementAndGet);
+        assertEquals(0, reported.get(), "a miss is not reported");
+        cache.get(3, 11, reported::incrementAndGet);
+        cache.get(3, 11, null);
+        assertEquals(1, reported.get());
+        assertEquals(2, cache.getHits());
+
+        SolutionCache uncached = new SolutionCache(this::fakeSolve, SolutionCache.WarmupPolicy.NONE);
+        uncached.get(6, 15, reported::incrementAndGet);
+        uncached.get(6, 15, reported::incrementAndGet);
+        assertEquals(1, reported.get(), "NONE never hits");
+    }
+
+    @Test
+    void differentDatesAreCachedSeparately() {
+        SolutionCache cache = new SolutionCache(this::fakeSolve, SolutionCache.WarmupPolicy.LAZY);
+
+        assertEquals(new Cell(1, 1), cache.get(1, 1).get(0).getCells().get(0));
+        assertEquals(new Cell(12, 31), cache.get(12, 31).get(0).getCells().get(0));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void noneNeverCaches() {
+        SolutionCache cache = new SolutionCache(this::fakeSolve, SolutionCache.WarmupPolicy.NONE);
+
+        cache.get(6, 15);
+        cache.get(6, 15);
+
+        assertEquals(2, solves.get());
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void eagerWarmUpFillsEveryDate() {
+        SolutionCache cache = new SolutionCache(this::fakeSolve, SolutionCache.WarmupPolicy.EAGER);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertEquals(12 * 31, cache.warmUp(executor));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(12 * 31, cache.size());
+        cache.get(2, 29);
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+        assertEquals(12 * 31, solves.get());
+    }
+
+    @Test
+    void warmUpIsNoOpUnlessEager() {
+        SolutionCache cache = new SolutionCache(this::fakeSolve, SolutionCache.WarmupPolicy.LAZY);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertEquals(0, cache.warmUp(executor));
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void rejectsOutOfRangeDate() {
+        SolutionCache cache = new SolutionCache(this::fakeSolve, SolutionCache.WarmupPolicy.LAZY);
+        assertThrows(IllegalArgumentException.class, () -> cache.get(13, 1));
+        assertThrows(IllegalArgumentException.class, () -> cache.get(1, 32));
+    }
+
+    // ─── Coalescing concurrent misses ───────────────────────────────────
+
+    /** A solver that blocks until {@code release} opens, so callers pile up behind it. */
+    private SolutionCache.DateSolver blockingSolver(CountDownLatch release) {
+        return (month, day) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return fakeSolve(month, day);
+        };
+    }
+
+    private static void awaitCount(LongSupplier count, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (count.getAsLong() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, count.getAsLong());
+    }
+
+    @Test
+    void concurrentMissesShareOneSolve() throws Exception {
+        for (SolutionCache.WarmupPolicy policy : List.of(SolutionCache.WarmupPolicy.LAZY, SolutionCache.WarmupPolicy.NONE)) {
+            solves.set(0);
+            CountDownLatch release = new CountDownLatch(1);
+            SolutionCache cache = new SolutionCache(blockingSolver(release), policy);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<List<PlacementDto>>> results = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    results.add(executor.submit(() -> cache.get(12, 31)));
+                }
+                awaitCount(cache::getCoalesced, 7);
+                release.countDown();
+
+                List<PlacementDto> first = results.get(0).get();
+                for (Future<List<PlacementDto>> result : results) {
+                    assertSame(first, result.get(), policy + ": every caller gets the one result");
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertEquals(1, solves.get(), policy + ": one search for eight callers");
+            assertEquals(8, cache.getMisses());
+        }
+    }
+
+    @Test
+    void sequentialMissesAreNotCoalesced() {
+        SolutionCache cache = new SolutionCache(this::fakeSolve, SolutionCache.WarmupPolicy.NONE);
+        cache.get(6, 15);
+        cache.get(6, 15);
+        assertEquals(2, solves.get());
+        assertEquals(0, cache.getCoalesced());
+    }
+
+    @Test
+    void waiterGivesUpAfterMaxWait() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SolutionCache cache = new SolutionCache(blockingSolver(release), SolutionCache.WarmupPolicy.LAZY, 50);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<PlacementDto>> leader = executor.submit(() -> cache.get(1, 1));
+            awaitCount(cache::getMisses, 1);
+
+            assertThrows(SolutionCache.CoalesceTimeoutException.class, () -> cache.get(1, 1));
+            assertEquals(1, cache.getCoalesceTimeouts());
+
+            release.countDown();
+            assertEquals(1, leader.get().size(), "The shared search still completes");
+            assertTrue(cache.contains(1, 1));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void leaderFailureReachesWaitersAndIsNotCached() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        SolutionCache cache = new SolutionCache((month, day) -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("solver failed");
+            }
+            return fakeSolve(month, day);
+        }, SolutionCache.WarmupPolicy.LAZY);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<PlacementDto>> leader = executor.submit(() -> cache.get(4, 4));
+            awaitCount(cache::getMisses, 1);
+            Future<List<PlacementDto>> waiter = executor.submit(() -> cache.get(4, 4));
+            awaitCount(cache::getCoalesced, 1);
+            release.countDown();
+
+            ExecutionException leaderError = assertThrows(ExecutionException.class, leader::get);
+            ExecutionException waiterError = assertThrows(ExecutionException.class, waiter::get);
+            assertEquals("solver failed", leaderError.getCause().getMessage());
+            assertSame(leaderError.getCause(), waiterError.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        assertFalse(cache.contains(4, 4));
+        assertEquals(1, cache.get(4, 4).size(), "A later request searches again");
+    }
+
+    @Test
+    void rejectsNonPositiveMaxWait() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SolutionCache(this::fakeSolve, SolutionCache.WarmupPolicy.LAZY, 0));
+    }
+}
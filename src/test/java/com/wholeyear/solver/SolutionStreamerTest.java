@@ -0,0 +1,56 @@
+package com.wholeyear.solver;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "solver.stream.max-solutions=1")
+@AutoConfigureMockMvc
+class SolutionStreamerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PuzzleCatalog catalog;
+
+    private String streamAfter(long lastEventId) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/solve/stream").param("date", "2024-12-25")
+                        .header("Last-Event-ID", Long.toString(lastEventId)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(30_000);
+        return started.getResponse().getContentAsString();
+    }
+
+    @Test
+    void exhaustedTellsWhetherTheLimitCutTheSearchShort() throws Exception {
+        long total = catalog.getDefault().countSolutions(12, 25, found -> { }, new AtomicBoolean());
+        assertTrue(total > 2, "Dec 25 has more than two solutions");
+
+        // One solution left before the limit, and more after it
+        String cut = streamAfter(total - 2);
+        assertTrue(cut.startsWith("id:" + (total - 1) + "\n"));
+        assertFalse(cut.contains("id:" + total + "\n"), "nothing past max-solutions is sent");
+        assertTrue(cut.contains("data:{\"solutions\":" + (total - 1) + ",\"exhausted\":false}"));
+
+        // The limit falls exactly on the last solution
+        String last = streamAfter(total - 1);
+        assertTrue(last.startsWith("id:" + total + "\n"));
+        assertTrue(last.contains("data:{\"solutions\":" + total + ",\"exhausted\":true}"));
+
+        // Resuming after the last solution finds nothing more
+        String after = streamAfter(total);
+        assertFalse(after.contains("event:solution"));
+        assertTrue(after.contains("data:{\"solutions\":" + total + ",\"exhausted\":true}"));
+    }
+}
@@ -0,0 +1,204 @@
+package com.wholeyear.solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolveJobServiceTest {
+
+    private SolveJobService service = new SolveJobService(1, 2, 60_000);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    private CompiledPuzzle strip() {
+        return new CompiledPuzzle(CompiledPuzzleTest.stripDefinition("strip"), "hash", SolutionCache.WarmupPolicy.LAZY);
+    }
+
+    private SolveJob job(int priority) {
+        return new SolveJob(UUID.randomUUID().toString(), SolveJob.Type.COUNT, "strip", priority,
+                1, 1, null, System.currentTimeMillis());
+    }
+
+    /** Submits a job that holds the single worker until release is counted down. */
+    private SolveJob blocker() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        SolveJob job = service.submit(job(5), running -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0L;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return job;
+    }
+
+    private static void awaitFinished(SolveJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(job.isFinished(), "job " + job.getType() + " still " + job.getState());
+    }
+
+    @Test
+    void countJobCountsEverySolution() throws Exception {
+        SolveJob job = service.submitCount(strip(), 1, 1, 5);
+        awaitFinished(job);
+
+        assertEquals(SolveJob.State.DONE, job.getState());
+        assertEquals(1L, job.getResult());
+        assertEquals(1, job.getDone());
+        assertEquals(1L, job.getTotal());
+        assertSame(job, service.get(job.getId()));
+    }
+
+    @Test
+    void yearJobCountsEveryDateOfTheYear() throws Exception {
+        SolveJob job = service.submitYearCount(strip(), 2024, 5);
+        awaitFinished(job);
+
+        assertEquals(SolveJob.State.DONE, job.getState());
+        @SuppressWarnings("unchecked")
+        Map<String, Long> counts = (Map<String, Long>) job.getResult();
+        assertEquals(366, counts.size());
+        assertEquals(1L, counts.get("2024-01-01"));
+        assertEquals(0L, counts.get("2024-01-02"));
+        assertEquals(1L, counts.get("2024-01-03"));
+        assertEquals(0L, counts.get("2024-02-29"), "the strip has no Feb label");
+        assertEquals(366, job.getDone());
+        assertEquals(366L, job.getTotal());
+    }
+
+    @Test
+    void cancelledYearJobReportsOnlyCompleteDates() throws Exception {
+        CompiledPuzzle puzzle = new PuzzleCatalog("", "whole-year", SolutionCache.WarmupPolicy.LAZY)
+                .get("whole-year");
+        SolveJob job = service.submitYearCount(puzzle, 2024, 5);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (job.getDone() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        service.cancel(job.getId());   // most likely part-way through the next date
+        awaitFinished(job);
+
+        assertEquals(SolveJob.State.CANCELLED, job.getState());
+        @SuppressWarnings("unchecked")
+        Map<String, Long> counts = (Map<String, Long>) job.getResult();
+        assertTrue(counts.size() >= 2 && counts.size() < 366, "cancelled after " + counts.size() + " dates");
+        assertEquals(counts.size(), job.getDone());
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            LocalDate date = LocalDate.parse(entry.getKey());
+            assertEquals(puzzle.countSolutions(date.getMonthValue(), date.getDayOfMonth(), found -> { },
+                    new AtomicBoolean()), entry.getValue(), entry.getKey());
+        }
+    }
+
+    @Test
+    void higherPriorityRunsFirstThenSubmissionOrder() throws Exception {
+        service.shutdown();
+        service = new SolveJobService(1, 10, 60_000);
+        blocker();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<SolveJob> queued = new ArrayList<>();
+        int[] priorities = {2, 7, 2, 9};
+        for (int i = 0; i < priorities.length; i++) {
+            int index = i;
+            queued.add(service.submit(job(priorities[i]), running -> {
+                order.add(index);
+                return null;
+            }));
+        }
+        release.countDown();
+        for (SolveJob job : queued) {
+            awaitFinished(job);
+        }
+        assertEquals(List.of(3, 1, 0, 2), order);
+    }
+
+    @Test
+    void fullQueueRejectsNewJobs() throws Exception {
+        blocker();
+        service.submit(job(5), running -> null);
+        service.submit(job(5), running -> null);
+        assertEquals(2, service.getQueued());
+
+        assertThrows(SolveJobService.QueueFullException.class, () -> service.submit(job(9), running -> null));
+
+        release.countDown();
+    }
+
+    @Test
+    void cancellingAQueuedJobFreesItsSlot() throws Exception {
+        blocker();
+        SolveJob waiting = service.submit(job(5), running -> fail("cancelled job ran"));
+        service.submit(job(5), running -> null);
+
+        assertSame(waiting, service.cancel(waiting.getId()));
+        assertEquals(SolveJob.State.CANCELLED, waiting.getState());
+        assertEquals(1, service.getQueued());
+        service.submit(job(5), running -> null);
+    }
+
+    @Test
+    void cancellingARunningJobStopsIt() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        SolveJob job = service.submit(job(5), running -> {
+            started.countDown();
+            while (!running.isCancelRequested()) {
+                Thread.onSpinWait();
+            }
+            return "partial";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        service.cancel(job.getId());
+        awaitFinished(job);
+        assertEquals(SolveJob.State.CANCELLED, job.getState());
+        assertEquals("partial", job.getResult());
+    }
+
+    @Test
+    void failingJobIsReportedAsFailed() throws Exception {
+        SolveJob job = service.submit(job(5), running -> {
+            throw new IllegalStateException("boom");
+        });
+        awaitFinished(job);
+        assertEquals(SolveJob.State.FAILED, job.getState());
+        assertTrue(job.getError().contains("boom"));
+    }
+
+    @Test
+    void finishedJobsExpireAfterTheTtl() throws Exception {
+        SolveJob job = service.submitCount(strip(), 1, 1, 5);
+        awaitFinished(job);
+
+        assertEquals(0, service.purgeExpired(job.getFinishedAt() + 60_000));
+        assertEquals(1, service.purgeExpired(job.getFinishedAt() + 60_001));
+        assertNull(service.get(job.getId()));
+        assertEquals(0, service.size());
+    }
+
+    @Test
+    void rejectsInvalidRequests() {
+        CompiledPuzzle strip = strip();
+        assertThrows(IllegalArgumentException.class, () -> service.submitCount(strip, 1, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.submitCount(strip, 13, 1, 5));
+        assertThrows(IllegalArgumentException.class, () -> service.submitYearCount(strip, 0, 5));
+        assertNull(service.cancel("nope"));
+    }
+}
@@ -1,24 +1,35 @@
 package com.wholeyear.solver;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.Set;
+import java.util.TreeSet;
+
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureObservability   // keep the Prometheus registry, which tests disable by default
 class SolverControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private PuzzleCatalog catalog;
+
     // ─── GET /api/board ─────────────────────────────────────────────────
 
     @Test
@@ -241,6 +252,21 @@ class SolverControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void repeatedSolveForSameDateReturnsSameSolution() throws Exception {
+        // The second call is served from the per-date solution cache
+        String first = mockMvc.perform(post("/api/solve").param("date", "2024-07-04"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long hits = catalog.getDefault().getSolutionCache().getHits();
+        String second = mockMvc.perform(post("/api/solve").param("date", "2023-07-04"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(first, second,
+                "Same month/day in different years should give the same cached solution");
+        assertEquals(hits + 1, catalog.getDefault().getSolutionCache().getHits());
+    }
+
     // ─── Statelessness: concurrent dates don't interfere ────────────────
 
     @Test
@@ -261,4 +287,171 @@ class SolverControllerTest {
                 .andExpect(jsonPath("$[?(@.label == 'Jan' && @.state == 'TARGET')]", hasSize(1)))
                 .andExpect(jsonPath("$[?(@.label == '1' && @.state == 'TARGET')]", hasSize(1)));
     }
+
+    // ─── ETag / Cache-Control on /api/board and /api/pieces ─────────────
+
+    @Test
+    void datedBoardIsCacheableWithStrongEtag() throws Exception {
+        mockMvc.perform(get("/api/board").param("date", "2024-06-15"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", matchesPattern("\"[0-9a-f]{32}\"")))
+                .andExpect(header().string("Cache-Control", containsString("max-age=3600")))
+                .andExpect(header().string("Vary", containsString("Accept-Encoding")));
+    }
+
+    @Test
+    void undatedBoardMustBeRevalidated() throws Exception {
+        mockMvc.perform(get("/api/board"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(header().exists("ETag"));
+    }
+
+    @Test
+    void matchingIfNoneMatchReturns304() throws Exception {
+        for (String path : new String[]{"/api/board?date=2024-06-15", "/api/pieces"}) {
+            String etag = mockMvc.perform(get(path))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader("ETag");
+            mockMvc.perform(get(path).header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", etag))
+                    .andExpect(content().string(""));
+        }
+    }
+
+    @Test
+    void otherDateDoesNotMatchEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/board").param("date", "2024-06-15"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/board").param("date", "2024-06-16").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void gzipIsServedWhenAccepted() throws Exception {
+        mockMvc.perform(get("/api/pieces").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+        mockMvc.perform(get("/api/board").param("date", "2024-06-15").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
+    // ─── POST /api/solve?profile=true ───────────────────────────────────
+
+    @Test
+    void solveWithProfileReturnsSolutionAndPerDepthStatistics() throws Exception {
+        mockMvc.perform(post("/api/solve").param("date", "2024-10-31").param("profile", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.puzzleId").value("whole-year"))
+                .andExpect(jsonPath("$.month").value(10))
+                .andExpect(jsonPath("$.day").value(31))
+                .andExpect(jsonPath("$.placements", hasSize(9)))
+                .andExpect(jsonPath("$.nodes", greaterThan(0)))
+                .andExpect(jsonPath("$.linkUpdates", greaterThan(0)))
+                .andExpect(jsonPath("$.levels", hasSize(10)))
+                .andExpect(jsonPath("$.levels[0].depth").value(0))
+                .andExpect(jsonPath("$.levels[0].nodes").value(1))
+                .andExpect(jsonPath("$.levels[0].meanColumnSize").exists());
+    }
+
+    @Test
+    void solveWithProfileFalseIsThePlainSolve() throws Exception {
+        mockMvc.perform(post("/api/solve").param("date", "2024-10-31").param("profile", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(9)));
+    }
+
+    // ─── POST /api/solve/range ──────────────────────────────────────────
+
+    @Test
+    void solveRangeStreamsOneNdjsonLinePerDate() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/solve/range")
+                        .param("from", "2024-02-27").param("to", "2024-03-02"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(5, lines.length, "Feb 27, 28, 29, Mar 1, 2");
+        Set<String> dates = new TreeSet<>();
+        ObjectMapper mapper = new ObjectMapper();
+        for (String line : lines) {
+            JsonNode node = mapper.readTree(line);
+            dates.add(node.get("date").asText());
+            assertEquals(9, node.get("placements").size());
+        }
+        assertEquals(Set.of("2024-02-27", "2024-02-28", "2024-02-29", "2024-03-01", "2024-03-02"), dates);
+    }
+
+    @Test
+    void solveRangeRejectsBadRanges() throws Exception {
+        mockMvc.perform(post("/api/solve/range").param("from", "2024-03-02").param("to", "2024-03-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/solve/range").param("from", "2024-01-01").param("to", "2025-12-31"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/solve/range").param("from", "2023-02-29").param("to", "2023-03-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/solve/range").param("from", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ─── GET /api/solve/stream ──────────────────────────────────────────
+
+    @Test
+    void solveStreamSendsEverySolutionThenDone() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/solve/stream").param("date", "2024-12-25"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(30_000);
+        String body = started.getResponse().getContentAsString();
+
+        assertTrue(started.getResponse().getContentType().startsWith("text/event-stream"));
+        int solutions = body.split("event:solution", -1).length - 1;
+        assertTrue(solutions > 1, "Dec 25 has more than one solution");
+        assertTrue(body.contains("id:1\n"));
+        assertTrue(body.contains("event:done\ndata:{\"solutions\":" + solutions + ",\"exhausted\":true}"));
+    }
+
+    @Test
+    void solveStreamResumesAfterLastEventId() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/solve/stream").param("date", "2024-12-25")
+                        .header("Last-Event-ID", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(30_000);
+        String body = started.getResponse().getContentAsString();
+
+        assertFalse(body.contains("id:1\n"));
+        assertFalse(body.contains("id:2\n"));
+        assertTrue(body.startsWith("id:3\n"));
+    }
+
+    @Test
+    void solveStreamRejectsInvalidDate() throws Exception {
+        mockMvc.perform(get("/api/solve/stream").param("date", "2024-13-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ─── Metrics ────────────────────────────────────────────────────────
+
+    @Test
+    void prometheusEndpointExposesSolverMeters() throws Exception {
+        mockMvc.perform(post("/api/solve").param("date", "2024-02-14")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/board").param("date", "2024-02-14")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/pieces")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("solver_solve_seconds_bucket{")))
+                .andExpect(content().string(containsString("solver_board_seconds_count{")))
+                .andExpect(content().string(containsString("solver_pieces_seconds_count{")))
+                .andExpect(content().string(containsString("solver_dlx_nodes_total{")))
+                .andExpect(content().string(containsString("month=\"Feb\"")))
+                .andExpect(content().string(containsString("solver_cache_size{")));
+    }
 }
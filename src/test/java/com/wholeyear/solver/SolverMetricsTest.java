@@ -0,0 +1,122 @@
+package com.wholeyear.solver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverMetricsTest {
+
+    @TempDir
+    Path dir;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    /** Catalog with the bundled puzzle plus the 1×4 strip (Jan, 1, 2, 3 and a domino). */
+    private PuzzleCatalog catalogWithStrip() throws Exception {
+        Files.write(dir.resolve("strip.json"),
+                new ObjectMapper().writeValueAsBytes(CompiledPuzzleTest.stripDefinition("strip")));
+        return new PuzzleCatalog(dir.toString(), "whole-year", SolutionCache.WarmupPolicy.LAZY);
+    }
+
+    @Test
+    void uncachedSolvesRecordSearchWorkByMonth() throws Exception {
+        PuzzleCatalog catalog = catalogWithStrip();
+        new SolverMetrics(registry, catalog);
+
+        catalog.get("whole-year").solve(12, 25);
+        catalog.get("whole-year").solve(12, 25);   // cached: no second search
+
+        assertEquals(1, registry.get("solver.search").tag("puzzle", "whole-year").tag("month", "Dec").timer().count());
+        assertTrue(registry.get("solver.dlx.nodes").tag("puzzle", "whole-year").tag("month", "Dec")
+                .counter().count() > 0);
+        assertNotNull(registry.get("solver.dlx.backtracks").tag("puzzle", "whole-year").tag("month", "Dec")
+                .counter());
+    }
+
+    @Test
+    void datesWithoutSolutionAreCounted() throws Exception {
+        PuzzleCatalog catalog = catalogWithStrip();
+        new SolverMetrics(registry, catalog);
+
+        assertTrue(catalog.get("strip").solve(1, 2).isEmpty());     // 1 and 3 are not adjacent
+        assertTrue(catalog.get("strip").solve(2, 1).isEmpty());     // no Feb cell at all
+        assertFalse(catalog.get("strip").solve(1, 1).isEmpty());
+
+        assertEquals(1, registry.get("solver.no.solution").tag("puzzle", "strip").tag("month", "Jan")
+                .counter().count());
+        assertEquals(1, registry.get("solver.no.solution").tag("puzzle", "strip").tag("month", "Feb")
+                .counter().count());
+    }
+
+    @Test
+    void cacheMetersFollowTheLivePuzzle() throws Exception {
+        PuzzleCatalog catalog = catalogWithStrip();
+        new SolverMetrics(registry, catalog);
+        CompiledPuzzle strip = catalog.get("strip");
+
+        strip.solve(1, 1);
+        strip.solve(1, 1);
+        assertEquals(1, registry.get("solver.cache.hits").tag("puzzle", "strip").functionCounter().count());
+        assertEquals(1, registry.get("solver.cache.misses").tag("puzzle", "strip").functionCounter().count());
+        assertEquals(1, registry.get("solver.cache.size").tag("puzzle", "strip").gauge().value());
+        assertEquals(0, registry.get("solver.solve.coalesced").tag("puzzle", "strip").functionCounter().count());
+        assertEquals(0, registry.get("solver.solve.coalesce.timeouts").tag("puzzle", "strip").functionCounter().count());
+
+        // A changed file compiles a fresh puzzle with an empty cache; the gauge reads that one
+        PuzzleDefinition renamed = CompiledPuzzleTest.stripDefinition("strip");
+        renamed.setName("Strip v2");
+        Files.write(dir.resolve("strip.json"), new ObjectMapper().writeValueAsBytes(renamed));
+        catalog.rescan();
+
+        assertNotSame(strip, catalog.get("strip"));
+        assertEquals(0, registry.get("solver.cache.size").tag("puzzle", "strip").gauge().value());
+        assertEquals(1, registry.get("solver.cache.hits").tag("puzzle", "strip").functionCounter().count(),
+                "Counters keep the replaced cache's totals");
+        catalog.get("strip").solve(1, 1);
+        catalog.get("strip").solve(1, 1);
+        assertEquals(2, registry.get("solver.cache.hits").tag("puzzle", "strip").functionCounter().count());
+        assertEquals(2, registry.get("solver.cache.misses").tag("puzzle", "strip").functionCounter().count());
+        catalog.get("strip").solve(1, 2);
+        assertEquals(1, registry.get("solver.no.solution").tag("puzzle", "strip").tag("month", "Jan")
+                .counter().count(), "Rescanned puzzles report to the same listener");
+    }
+
+    @Test
+    void cacheCountersSurviveARecompileBeforeTheFirstScrape() throws Exception {
+        PuzzleCatalog catalog = catalogWithStrip();
+        new SolverMetrics(registry, catalog);
+        catalog.get("strip").solve(1, 1);
+        catalog.get("strip").solve(1, 1);
+
+        PuzzleDefinition renamed = CompiledPuzzleTest.stripDefinition("strip");
+        renamed.setName("Strip v2");
+        Files.write(dir.resolve("strip.json"), new ObjectMapper().writeValueAsBytes(renamed));
+        catalog.rescan();
+
+        assertEquals(1, registry.get("solver.cache.hits").tag("puzzle", "strip").functionCounter().count());
+        assertEquals(1, registry.get("solver.cache.misses").tag("puzzle", "strip").functionCounter().count());
+    }
+
+    @Test
+    void requestTimersAreTaggedByPuzzleAndCacheOutcome() throws Exception {
+        SolverMetrics metrics = new SolverMetrics(registry, catalogWithStrip());
+
+        metrics.recordSolve(metrics.start(), "strip", true);
+        metrics.recordSolve(metrics.start(), "strip", false);
+        metrics.recordSolve(metrics.start(), "strip", false);
+        metrics.recordBoard(metrics.start(), "strip");
+        metrics.recordPieces(metrics.start(), "strip");
+
+        assertEquals(1, registry.get("solver.solve").tag("puzzle", "strip").tag("cache", "hit").timer().count());
+        assertEquals(2, registry.get("solver.solve").tag("puzzle", "strip").tag("cache", "miss").timer().count());
+        assertEquals(1, registry.get("solver.board").tag("puzzle", "strip").timer().count());
+        assertEquals(1, registry.get("solver.pieces").tag("puzzle", "strip").timer().count());
+    }
+}
@@ -0,0 +1,281 @@
+package com.wholeyear.util;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.Cell;
+import com.wholeyear.model.Piece;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.wholeyear.util.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitboardSolverTest {
+
+    private void assertExactCover(Board board, List<Placement> placements, List<Integer> rows) {
+        Set<Cell> covered = new HashSet<>();
+        Set<String> used = new HashSet<>();
+        for (int r : rows) {
+            Placement p = placements.get(r);
+            assertTrue(used.add(p.getPieceId()), "Piece " + p.getPieceId() + " used twice");
+            for (Cell c : p.getCoveredCells()) {
+                assertTrue(covered.add(c), "Cell " + c + " covered twice");
+            }
+        }
+        assertEquals(new HashSet<>(board.getAllFillableCells()), covered);
+    }
+
+    @Test
+    void solvesSmallBoard() {
+        Board board = Definition.createBoard(
+                Arrays.asList("###", "###"),
+                Arrays.asList(Arrays.asList("A", "B", "C"), Arrays.asList("D", "E", "F")));
+        List<Piece> pieces = List.of(
+                new Piece("sq", Arrays.asList("##", "##")),
+                new Piece("dom", Arrays.asList("#", "#")));
+        List<Placement> placements = new Solver(board, pieces).generateAllPlacements();
+
+        List<Integer> rows = new BitboardSolver(board.getAllFillableCells(), placements).solve();
+
+        assertNotNull(rows);
+        assertEquals(2, rows.size());
+        assertExactCover(board, placements, rows);
+    }
+
+    @Test
+    void returnsNullWhenCellsCoveredButPieceLeftOver() {
+        // Two dominoes fit a 1×2 board only one at a time: cells can be covered,
+        // but the second piece is never used.
+        Board board = Definition.createBoard(
+                Arrays.asList("##"),
+                Arrays.asList(Arrays.asList("A", "B")));
+        List<Piece> pieces = List.of(
+                new Piece("d1", Arrays.asList("##")),
+                new Piece("d2", Arrays.asList("##")));
+        List<Placement> placements = new Solver(board, pieces).generateAllPlacements();
+
+        assertNull(new BitboardSolver(board.getAllFillableCells(), placements).solve());
+    }
+
+    @Test
+    void returnsNullWhenNoSolution() {
+        Board board = Definition.createBoard(
+                Arrays.asList("###"),
+                Arrays.asList(Arrays.asList("A", "B", "C")));
+        List<Piece> pieces = List.of(new Piece("dom", Arrays.asList("##")));
+        List<Placement> placements = new Solver(board, pieces).generateAllPlacements();
+
+        assertNull(new BitboardSolver(board.getAllFillableCells(), placements).solve());
+    }
+
+    @Test
+    void rejectsBoardsWiderThanOneWord() {
+        List<Cell> cells = new ArrayList<>();
+        for (int i = 0; i < BitboardSolver.MAX_CELLS + 1; i++) {
+            cells.add(new Cell(i / 10, i % 10));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new BitboardSolver(cells, List.of()));
+    }
+
+    @Test
+    void rejectsPlacementOutsideFillableCells() {
+        List<Cell> cells = List.of(new Cell(0, 0));
+        List<Placement> placements = List.of(
+                new Placement("x", 0, 0, 1, List.of(new Cell(0, 1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BitboardSolver(cells, placements));
+    }
+
+    @Test
+    void solvesEveryWholeYearDate() {
+        List<Piece> pieces = Definition.loadAllPieces();
+        for (String month : MONTHS) {
+            for (int day = 1; day <= 31; day++) {
+                Board board = wholeYearBoardFor(month, String.valueOf(day));
+                List<Placement> placements = new Solver(board, pieces).generateAllPlacements();
+
+                List<Integer> rows = new BitboardSolver(board.getAllFillableCells(), placements).solve();
+
+                assertNotNull(rows, "No solution for " + month + " " + day);
+                assertEquals(9, rows.size());
+                assertExactCover(board, placements, rows);
+            }
+        }
+    }
+
+    @Test
+    void countSolutionsMatchesDlxOnSmallBoard() {
+        // 2×4 board tiled by two 2×2 squares and two dominoes
+        Board board = Definition.createBoard(
+                Arrays.asList("####", "####"),
+                Arrays.asList(Arrays.asList("A", "B", "C", "D"), Arrays.asList("E", "F", "G", "H")));
+        List<Piece> pieces = List.of(
+                new Piece("sq", Arrays.asList("##", "##")),
+                new Piece("d1", Arrays.asList("##")),
+                new Piece("d2", Arrays.asList("##")));
+        Solver dlx = new Solver(board, pieces);
+        List<Placement> placements = dlx.generateAllPlacements();
+
+        BitboardSolver bitboard = new BitboardSolver(board.getAllFillableCells(), placements);
+
+        assertEquals(dlx.countSolutions(), bitboard.countSolutions());
+        assertEquals(1, bitboard.countSolutions(1));
+    }
+
+    @Test
+    void enumerateStopsWhenVisitorReturnsFalse() {
+        Board board = wholeYearBoardFor("Jan", "1");
+        List<Placement> placements = new Solver(board, Definition.loadAllPieces()).generateAllPlacements();
+        BitboardSolver solver = new BitboardSolver(board.getAllFillableCells(), placements);
+
+        long visited = solver.enumerate((rows, length) -> {
+            assertEquals(9, length);
+            return false;
+        }, Long.MAX_VALUE);
+
+        assertEquals(1, visited);
+    }
+
+    @Test
+    void memoizedCountMatchesPlainCount() {
+        Board board = wholeYearBoardFor("Jan", "1");
+        List<Placement> placements = new Solver(board, Definition.loadAllPieces()).generateAllPlacements();
+        BitboardSolver solver = new BitboardSolver(board.getAllFillableCells(), placements);
+        TranspositionTable table = new TranspositionTable(1 << 20);
+
+        long count = solver.countSolutions();
+        assertEquals(count, solver.countSolutions(0L, table));
+        // A second run over the same table is answered from the root entry
+        assertEquals(count, solver.countSolutions(0L, table));
+    }
+
+    @Test
+    void memoizedCountTreatsPrefilledCellsAsCovered() {
+        // 1×4 strip with two dominoes: prefilling the first two cells leaves one domino's worth
+        Board board = Definition.createBoard(
+                Arrays.asList("####"),
+                Arrays.asList(Arrays.asList("A", "B", "C", "D")));
+        List<Piece> pieces = List.of(new Piece("d1", Arrays.asList("##")));
+        List<Placement> placements = new Solver(board, pieces).generateAllPlacements();
+        BitboardSolver solver = new BitboardSolver(board.getAllFillableCells(), placements);
+        TranspositionTable table = new TranspositionTable(1 << 12);
+
+        assertEquals(0, solver.countSolutions(0L, table));
+        assertEquals(1, solver.countSolutions(0b0011L, table));
+        assertEquals(0, solver.countSolutions(0b0101L, table));
+    }
+
+    @Test
+    void countsAndEnumeratesFromAPartialState() {
+        Board board = wholeYearBoardFor("Jan", "1");
+        List<Placement> placements = new Solver(board, Definition.loadAllPieces()).generateAllPlacements();
+        BitboardSolver solver = new BitboardSolver(board.getAllFillableCells(), placements);
+        List<Integer> first = solver.solve();
+        int row = first.get(0);
+        long filled = solver.getCellMask(row);
+        long used = solver.getPieceMask(row);
+
+        // The copy has its own search state but the same placements
+        BitboardSolver copy = new BitboardSolver(solver);
+        long visited = copy.enumerate(filled, used, (rows, length) -> {
+            assertEquals(8, length, "only the rows added to the state");
+            for (int i = 0; i < length; i++) {
+                assertNotEquals(row, rows[i]);
+            }
+            return true;
+        }, Long.MAX_VALUE);
+
+        assertTrue(visited >= 1);
+        assertEquals(visited, solver.countSolutions(filled, used, new TranspositionTable(1 << 20)));
+        assertEquals(0, solver.countSolutions(filled, used | solver.getPieceMask(first.get(1)),
+                new TranspositionTable(1 << 20)), "a piece marked used but not placed leaves cells open");
+    }
+
+    @Test
+    void closestKeepsAsManyPreferredRowsAsTheBestSolution() {
+        Board board = wholeYearBoardFor("Mar", "14");
+        List<Placement> placements = new Solver(board, Definition.loadAllPieces()).generateAllPlacements();
+        BitboardSolver solver = new BitboardSolver(board.getAllFillableCells(), placements);
+        List<List<Integer>> solutions = new ArrayList<>();
+        solver.enumerate((rows, length) -> {
+            List<Integer> solution = new ArrayList<>();
+            for (int i = 0; i < length; i++) {
+                solution.add(rows[i]);
+            }
+            solutions.add(solution);
+            return true;
+        }, Long.MAX_VALUE);
+        assertTrue(solutions.size() > 2);
+
+        // Half of one solution plus half of another, which no single solution has all of
+        List<Integer> first = solutions.get(0);
+        List<Integer> last = solutions.get(solutions.size() - 1);
+        Set<Integer> preferredSet = new LinkedHashSet<>(first.subList(0, 5));
+        preferredSet.addAll(last.subList(4, 9));
+        int[] preferred = preferredSet.stream().mapToInt(Integer::intValue).toArray();
+        int bestKept = 0;
+        for (List<Integer> solution : solutions) {
+            int kept = 0;
+            for (int row : solution) {
+                kept += preferredSet.contains(row) ? 1 : 0;
+            }
+            bestKept = Math.max(bestKept, kept);
+        }
+        assertTrue(bestKept < preferred.length);
+
+        BitboardSolver.Closest closest = solver.closest(0L, 0L, preferred, new AtomicBoolean());
+
+        assertTrue(closest.isOptimal());
+        assertEquals(bestKept, closest.getKept());
+        assertExactCover(board, placements, closest.getRows());
+        assertEquals(bestKept, closest.getRows().stream().filter(preferredSet::contains).count());
+        assertTrue(closest.getNodes() > 0);
+    }
+
+    @Test
+    void closestReturnsTheSolutionWhenEveryPreferredRowFits() {
+        Board board = wholeYearBoardFor("Jan", "1");
+        List<Placement> placements = new Solver(board, Definition.loadAllPieces()).generateAllPlacements();
+        BitboardSolver solver = new BitboardSolver(board.getAllFillableCells(), placements);
+        List<Integer> solution = solver.solve();
+        int[] preferred = solution.stream().mapToInt(Integer::intValue).toArray();
+
+        BitboardSolver.Closest closest = solver.closest(0L, 0L, preferred, new AtomicBoolean());
+
+        assertTrue(closest.isOptimal());
+        assertEquals(solution.size(), closest.getKept());
+        assertEquals(new HashSet<>(solution), new HashSet<>(closest.getRows()));
+        assertEquals(solution.size() + 1, closest.getNodes(), "no backtracking: one node per row plus the leaf");
+    }
+
+    @Test
+    void closestStopsWhenCancelledAndReportsNoSolution() {
+        Board board = wholeYearBoardFor("Jan", "1");
+        List<Placement> placements = new Solver(board, Definition.loadAllPieces()).generateAllPlacements();
+        BitboardSolver solver = new BitboardSolver(board.getAllFillableCells(), placements);
+        int[] none = {};
+
+        // Nothing preferred: the first solution is already the best
+        BitboardSolver.Closest any = solver.closest(0L, 0L, none, new AtomicBoolean());
+        assertTrue(any.isOptimal());
+        assertEquals(0, any.getKept());
+        assertExactCover(board, placements, any.getRows());
+
+        // Every piece marked used: no cover exists, which is a complete answer
+        BitboardSolver.Closest impossible = solver.closest(0L, -1L, none, new AtomicBoolean());
+        assertTrue(impossible.isOptimal());
+        assertNull(impossible.getRows());
+        assertEquals(-1, impossible.getKept());
+
+        // Pieces preferred at random rarely fit together; a raised flag stops after 1024 nodes
+        int[] scattered = new int[placements.size() / 50];
+        for (int i = 0; i < scattered.length; i++) {
+            scattered[i] = i * 50;
+        }
+        BitboardSolver.Closest cancelled = solver.closest(0L, 0L, scattered, new AtomicBoolean(true));
+        assertFalse(cancelled.isOptimal());
+        assertEquals(1024, cancelled.getNodes());
+    }
+}
@@ -0,0 +1,168 @@
+package com.wholeyear.util;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.Cell;
+import com.wholeyear.model.Piece;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.wholeyear.util.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitsetSolverTest {
+
+    /** rows × cols board with one straight bar per row: rows! solutions. */
+    private Board stripedBoard(int rows, int cols) {
+        List<String> shape = new ArrayList<>();
+        List<List<String>> labels = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            shape.add("#".repeat(cols));
+            List<String> row = new ArrayList<>();
+            for (int c = 0; c < cols; c++) {
+                row.add(r + ":" + c);
+            }
+            labels.add(row);
+        }
+        return Definition.createBoard(shape, labels);
+    }
+
+    private List<Piece> bars(int count, int length) {
+        List<Piece> pieces = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            pieces.add(new Piece("bar" + i, List.of("#".repeat(length))));
+        }
+        return pieces;
+    }
+
+    private void assertExactCover(Board board, List<Placement> placements, List<Integer> rows) {
+        Set<Cell> covered = new HashSet<>();
+        Set<String> used = new HashSet<>();
+        for (int r : rows) {
+            Placement p = placements.get(r);
+            assertTrue(used.add(p.getPieceId()), "Piece " + p.getPieceId() + " used twice");
+            for (Cell c : p.getCoveredCells()) {
+                assertTrue(covered.add(c), "Cell " + c + " covered twice");
+            }
+        }
+        assertEquals(new HashSet<>(board.getAllFillableCells()), covered);
+    }
+
+    @Test
+    void wordCountFollowsBoardSize() {
+        assertEquals(1, new BitsetSolver(stripedBoard(1, 64).getAllFillableCells(), List.of()).getWords());
+        assertEquals(2, new BitsetSolver(stripedBoard(1, 65).getAllFillableCells(), List.of()).getWords());
+        assertEquals(3, new BitsetSolver(stripedBoard(3, 45).getAllFillableCells(), List.of()).getWords());
+    }
+
+    @Test
+    void oneWordMatchesBitboardOnWholeYearBoard() {
+        Board board = wholeYearBoardFor("Dec", "25");
+        List<Placement> placements = new Solver(board, Definition.loadAllPieces()).generateAllPlacements();
+        BitsetSolver bitset = new BitsetSolver(board.getAllFillableCells(), placements);
+        BitboardSolver bitboard = new BitboardSolver(board.getAllFillableCells(), placements);
+
+        assertEquals(1, bitset.getWords());
+        assertExactCover(board, placements, bitset.solve());
+        assertEquals(bitboard.countSolutions(), bitset.countSolutions());
+    }
+
+    @Test
+    void twoWordBoardCountsEveryCover() {
+        // 3 × 25 = 75 cells, bars cross the 64-bit word boundary
+        Board board = stripedBoard(3, 25);
+        List<Piece> pieces = bars(3, 25);
+        List<Placement> placements = new Solver(board, pieces).generateAllPlacements();
+        BitsetSolver solver = new BitsetSolver(board.getAllFillableCells(), placements);
+
+        assertEquals(2, solver.getWords());
+        assertEquals(6, solver.countSolutions());
+        assertExactCover(board, placements, solver.solve());
+        assertEquals(new Solver(board, pieces).countSolutions(), solver.countSolutions());
+    }
+
+    @Test
+    void multiWordBoardCountsEveryCover() {
+        // 5 × 27 = 135 cells → 3 words
+        Board board = stripedBoard(5, 27);
+        List<Piece> pieces = bars(5, 27);
+        List<Placement> placements = new Solver(board, pieces).generateAllPlacements();
+        BitsetSolver solver = new BitsetSolver(board.getAllFillableCells(), placements);
+
+        assertEquals(3, solver.getWords());
+        assertEquals(120, solver.countSolutions());
+        assertEquals(120, solver.countSolutions(), "search must restore its filled mask");
+        assertExactCover(board, placements, solver.solve());
+    }
+
+    @Test
+    void multiWordMixedPiecesAgreeWithDlx() {
+        // 6 × 12 = 72 cells (2 words) tiled by six 12-cell pieces of three shapes
+        Board board = stripedBoard(6, 12);
+        List<Piece> pieces = List.of(
+                new Piece("a", List.of("######", "######")),
+                new Piece("b", List.of("######", "######")),
+                new Piece("c", List.of("############")),
+                new Piece("d", List.of("############")),
+                new Piece("e", List.of("######", "######")),
+                new Piece("f", List.of("####", "####", "####")));
+        Solver dlx = new Solver(board, pieces);
+        Solver bitset = new Solver(board, pieces);
+        bitset.setEngine(Solver.Engine.BITSET);
+
+        assertEquals(dlx.countSolutions(), bitset.countSolutions());
+    }
+
+    @Test
+    void wideBoardIsSearchedColumnByColumn() {
+        // 2 × 40: bars must lie along the rows; the column-major bit order still finds both covers
+        Board board = stripedBoard(2, 40);
+        List<Placement> placements = new Solver(board, bars(2, 40)).generateAllPlacements();
+        BitsetSolver solver = new BitsetSolver(board.getAllFillableCells(), placements);
+
+        assertEquals(2, solver.countSolutions());
+        assertExactCover(board, placements, solver.solve());
+    }
+
+    @Test
+    void returnsNullWhenNoCover() {
+        Board board = stripedBoard(2, 40);
+        List<Placement> placements = new Solver(board, bars(1, 40)).generateAllPlacements();
+        BitsetSolver solver = new BitsetSolver(board.getAllFillableCells(), placements);
+
+        assertNull(solver.solve());
+        assertEquals(0, solver.countSolutions());
+    }
+
+    @Test
+    void enumerateStopsWhenVisitorReturnsFalse() {
+        Board board = stripedBoard(5, 27);
+        List<Placement> placements = new Solver(board, bars(5, 27)).generateAllPlacements();
+        BitsetSolver solver = new BitsetSolver(board.getAllFillableCells(), placements);
+
+        long visited = solver.enumerate((rows, length) -> {
+            assertEquals(5, length);
+            return false;
+        }, Long.MAX_VALUE);
+
+        assertEquals(1, visited);
+        assertEquals(10, solver.countSolutions(10));
+    }
+
+    @Test
+    void rejectsPlacementOffTheCells() {
+        List<Cell> cells = List.of(new Cell(0, 0));
+        List<Placement> placements = List.of(new Placement("x", 0, 0, 0, List.of(new Cell(5, 5))));
+        assertThrows(IllegalArgumentException.class, () -> new BitsetSolver(cells, placements));
+    }
+
+    @Test
+    void solverBitsetEngineSolvesWholeYearBoard() {
+        Solver solver = new Solver(wholeYearBoardFor("Jan", "1"), Definition.loadAllPieces());
+        solver.setEngine(Solver.Engine.BITSET);
+        List<Placement> solution = solver.solve();
+
+        assertNotNull(solution);
+        assertEquals(9, solution.size());
+    }
+}
@@ -0,0 +1,109 @@
+package com.wholeyear.util;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.Cell;
+import com.wholeyear.model.Piece;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoverTemplateTest {
+
+    private final Board board = Definition.createWholeYearPuzzleBoard();
+    private final List<Piece> pieces = Definition.loadAllPieces();
+    private final CoverTemplate template = new CoverTemplate(board, pieces, new PlacementIndex(board, pieces));
+
+    /** The template with a date's cells excluded, as a hint for that date would start. */
+    private ExactCoverSolver forDate(String month, String day) {
+        ExactCoverSolver dlx = template.newSolver();
+        for (String label : List.of(month, day)) {
+            Cell cell = board.findCellByLabel(label);
+            assertTrue(dlx.excludeColumn(template.columnOf(cell.getRow(), cell.getCol())));
+        }
+        return dlx;
+    }
+
+    @Test
+    void excludedDateCountsMatchTheDatedSolver() {
+        for (String[] date : new String[][]{{"Jan", "1"}, {"Feb", "29"}, {"Dec", "25"}}) {
+            Board dated = new Board(board);
+            for (String label : date) {
+                Cell cell = dated.findCellByLabel(label);
+                dated.setTarget(cell.getRow(), cell.getCol());
+            }
+            long expected = new Solver(dated, pieces).countSolutions();
+            assertEquals(expected, forDate(date[0], date[1]).countSolutions(), String.join(" ", date));
+        }
+    }
+
+    @Test
+    void copiesAreIndependent() {
+        ExactCoverSolver first = forDate("Dec", "25");
+        long count = first.countSolutions();
+        assertTrue(count > 1);
+        assertEquals(count, forDate("Dec", "25").countSolutions());
+        assertNotEquals(count, template.newSolver().countSolutions(1), "the template itself has no date excluded");
+    }
+
+    @Test
+    void rowOfFindsPlacementsInAnyCellOrder() {
+        Placement placement = template.getPlacements().get(17);
+        List<Cell> reversed = new ArrayList<>(placement.getCoveredCells());
+        Collections.reverse(reversed);
+
+        assertEquals(17, template.rowOf(placement.getPieceId(), reversed));
+        assertEquals(-1, template.rowOf("no-such-piece", reversed));
+        assertEquals(-1, template.rowOf(placement.getPieceId(), reversed.subList(1, reversed.size())));
+        assertEquals(-1, template.rowOf(placement.getPieceId(), List.of(new Cell(-1, 0))));
+        assertEquals(-1, template.rowOf(placement.getPieceId(), Arrays.asList(new Cell(0, 0), null)));
+    }
+
+    @Test
+    void coverMaskHasTheColumnsSelectRowCovers() {
+        Cell dayCell = board.findCellByLabel("25");
+        int dayColumn = template.columnOf(dayCell.getRow(), dayCell.getCol());
+        ExactCoverSolver dlx = template.newSolver();
+        assertTrue(dlx.excludeColumn(dayColumn));
+        assertTrue(dlx.selectRow(17));
+
+        long[] mask = template.coverMask(new int[]{dayColumn}, new int[]{17});
+        for (int col = 0; col < template.getColumnCount(); col++) {
+            assertEquals(dlx.isColumnCovered(col), (mask[col >>> 6] & 1L << col) != 0, "column " + col);
+        }
+    }
+
+    @Test
+    void coverMaskRejectsOverlaps() {
+        Placement placement = template.getPlacements().get(17);
+        Cell cell = placement.getCoveredCells().get(0);
+        int column = template.columnOf(cell.getRow(), cell.getCol());
+
+        assertNull(template.coverMask(new int[]{column}, new int[]{17}), "covers an excluded cell");
+        assertNull(template.coverMask(new int[0], new int[]{17, 17}), "same piece twice");
+        assertNotNull(template.coverMask(new int[0], new int[0]));
+    }
+
+    @Test
+    void prunedCopiesFindTheSameCovers() {
+        ExactCoverSolver pruned = template.newPrunedSolver();
+        for (String label : List.of("Dec", "25")) {
+            Cell cell = board.findCellByLabel(label);
+            assertTrue(pruned.excludeColumn(template.columnOf(cell.getRow(), cell.getCol())));
+        }
+        ExactCoverSolver plain = forDate("Dec", "25");
+        assertEquals(plain.countSolutions(), pruned.countSolutions());
+        assertTrue(pruned.getNodeCount() <= plain.getNodeCount());
+    }
+
+    @Test
+    void columnOfFollowsFillableCellOrder() {
+        List<Cell> fillable = board.getAllFillableCells();
+        assertEquals(0, template.columnOf(fillable.get(0).getRow(), fillable.get(0).getCol()));
+        Cell last = fillable.get(fillable.size() - 1);
+        assertEquals(fillable.size() - 1, template.columnOf(last.getRow(), last.getCol()));
+        assertEquals(-1, template.columnOf(-1, 0));
+        assertEquals(-1, template.columnOf(0, 99));
+    }
+}
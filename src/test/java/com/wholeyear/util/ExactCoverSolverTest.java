@@ -1,10 +1,11 @@
 package com.wholeyear.util;
 
-import com.wholeyear.model.Cell;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.wholeyear.util.Fixtures.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -12,10 +13,6 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 class ExactCoverSolverTest {
 
-    private Placement dummyPlacement(String id) {
-        return new Placement(id, 0, 0, 0, List.of(new Cell(0, 0)));
-    }
-
     /**
      * Classic exact-cover example:
      *   Columns: 0 1 2 3 4 5 6
@@ -171,4 +168,247 @@ class ExactCoverSolverTest {
         assertTrue(s.contains(0) && s.contains(2) || s.contains(1),
                 "Solution should be rows {0,2} or {1} with extra row");
     }
+
+    /**
+     * The search restores the matrix before returning, so the same solver
+     * instance can be asked again and gives the same answer.
+     */
+    @Test
+    void solveIsRepeatableOnSameInstance() {
+        List<boolean[]> rows = List.of(
+                new boolean[]{true, false, false, true, false, false, true},
+                new boolean[]{true, false, false, true, false, false, false},
+                new boolean[]{false, false, false, true, true, false, true},
+                new boolean[]{false, false, true, false, true, true, false},
+                new boolean[]{false, true, true, false, false, true, true},
+                new boolean[]{false, true, false, false, false, false, true});
+        List<Placement> placements = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            placements.add(dummyPlacement("R" + i));
+        }
+
+        ExactCoverSolver solver = new ExactCoverSolver(7, rows, placements);
+        List<Integer> first = solver.solve();
+        List<Integer> second = solver.solve();
+
+        assertNotNull(first);
+        assertEquals(first, second);
+        assertEquals(Set.of(1, 3, 5), new HashSet<>(first));
+    }
+
+    /**
+     * A matrix with no columns is trivially covered by the empty set of rows.
+     */
+    @Test
+    void emptyMatrixHasEmptySolution() {
+        ExactCoverSolver solver = new ExactCoverSolver(0, List.of(), List.of());
+        List<Integer> result = solver.solve();
+
+        assertNotNull(result);
+        assertTrue(result.isEmpty());
+    }
+
+    // ─── Enumeration ────────────────────────────────────────────────────
+
+    @Test
+    void countSolutionsFindsEveryCover() {
+        assertEquals(2, twoSolutionSolver().countSolutions());
+    }
+
+    @Test
+    void countSolutionsRespectsLimit() {
+        ExactCoverSolver solver = twoSolutionSolver();
+        assertEquals(1, solver.countSolutions(1));
+        assertEquals(0, solver.countSolutions(0));
+        // limit does not leave the matrix half-searched
+        assertEquals(2, solver.countSolutions());
+    }
+
+    @Test
+    void countSolutionsIsZeroWhenNoCover() {
+        List<boolean[]> rows = List.of(new boolean[]{true, false});
+        ExactCoverSolver solver = new ExactCoverSolver(2, rows, List.of(dummyPlacement("X")));
+        assertEquals(0, solver.countSolutions());
+    }
+
+    @Test
+    void enumerateVisitsEachCoverOnce() {
+        Set<Set<Integer>> seen = new HashSet<>();
+        long visited = twoSolutionSolver().enumerate((rows, length) -> {
+            Set<Integer> cover = new HashSet<>();
+            for (int i = 0; i < length; i++) {
+                cover.add(rows[i]);
+            }
+            assertTrue(seen.add(cover), "Cover " + cover + " visited twice");
+            return true;
+        }, Long.MAX_VALUE);
+
+        assertEquals(2, visited);
+        assertEquals(Set.of(Set.of(0, 1), Set.of(2)), seen);
+    }
+
+    @Test
+    void enumerateStopsWhenVisitorReturnsFalse() {
+        long visited = twoSolutionSolver().enumerate((rows, length) -> false, Long.MAX_VALUE);
+        assertEquals(1, visited);
+    }
+
+    @Test
+    void searchStatisticsCountNodesAndBacktracksPerRun() {
+        ExactCoverSolver solver = twoSolutionSolver();
+
+        // root → A → B (cover), then A taken back; C (cover), C taken back
+        assertEquals(2, solver.countSolutions());
+        assertEquals(4, solver.getNodeCount());
+        assertEquals(3, solver.getBacktrackCount());
+
+        // a stopped run only reports its own work
+        assertEquals(1, solver.countSolutions(1));
+        assertEquals(3, solver.getNodeCount());
+        assertEquals(2, solver.getBacktrackCount());
+    }
+
+    // ─── Pre-covered rows and copies ────────────────────────────────────
+
+    @Test
+    void selectRowRestrictsSearchToCompletions() {
+        ExactCoverSolver solver = twoSolutionSolver();
+
+        assertTrue(solver.selectRow(0));
+        assertEquals(1, solver.getSelectedCount());
+        assertEquals(1, solver.countSolutions());
+        assertEquals(List.of(0, 1), solver.solve());
+
+        solver.unselectRow();
+        assertEquals(0, solver.getSelectedCount());
+        assertEquals(2, solver.countSolutions());
+    }
+
+    @Test
+    void selectRowRejectsClashingRow() {
+        ExactCoverSolver solver = twoSolutionSolver();
+        assertTrue(solver.selectRow(2));
+        assertTrue(solver.isSolved());
+        assertFalse(solver.selectRow(0), "Row 0 overlaps the already-selected row 2");
+        assertEquals(1, solver.getSelectedCount());
+    }
+
+    @Test
+    void excludeColumnLeavesItsItemOut() {
+        ExactCoverSolver solver = twoSolutionSolver();
+
+        assertTrue(solver.excludeColumn(0));
+        assertEquals(1, solver.countSolutions(), "Only B is left, covering column 1 alone");
+        assertEquals(List.of(1), solver.solve());
+        assertFalse(solver.excludeColumn(0), "Already excluded");
+        assertFalse(solver.selectRow(2), "Row 2 needs the excluded column");
+    }
+
+    @Test
+    void excludeColumnRejectsCoveredColumn() {
+        ExactCoverSolver solver = twoSolutionSolver();
+        assertTrue(solver.selectRow(2));
+        assertFalse(solver.excludeColumn(1));
+    }
+
+    @Test
+    void unselectRowWithoutSelectionThrows() {
+        assertThrows(IllegalStateException.class, () -> twoSolutionSolver().unselectRow());
+    }
+
+    @Test
+    void copyIsIndependentOfOriginal() {
+        ExactCoverSolver original = twoSolutionSolver();
+        ExactCoverSolver copy = new ExactCoverSolver(original);
+
+        assertTrue(copy.selectRow(2));
+        assertEquals(1, copy.countSolutions());
+        assertEquals(0, original.getSelectedCount());
+        assertEquals(2, original.countSolutions());
+    }
+
+    @Test
+    void branchRowsListsSmallestColumn() {
+        // col 0 has rows {0, 2}, col 1 has rows {1, 2}: first smallest is col 0
+        int[] rows = twoSolutionSolver().branchRows();
+        assertArrayEquals(new int[]{0, 2}, rows);
+    }
+
+    @Test
+    void cancelFlagStopsSearch() {
+        ExactCoverSolver solver = twoSolutionSolver();
+        AtomicBoolean cancelled = new AtomicBoolean(true);
+        solver.setCancelFlag(cancelled);
+        assertEquals(0, solver.countSolutions());
+
+        cancelled.set(false);
+        assertEquals(2, solver.countSolutions());
+    }
+
+    /** The classic example above as per-row column lists. */
+    private static final int[][] CLASSIC_ROW_COLUMNS = {
+        {0, 3, 6},    // A
+        {0, 3},       // B
+        {3, 4, 6},    // C
+        {2, 4, 5},    // D
+        {1, 2, 5, 6}, // E
+        {1, 6},       // F
+    };
+
+    private List<Placement> classicPlacements() {
+        return List.of(
+                dummyPlacement("A"), dummyPlacement("B"), dummyPlacement("C"),
+                dummyPlacement("D"), dummyPlacement("E"), dummyPlacement("F"));
+    }
+
+    @Test
+    void sparseRowColumnsSolveClassicProblem() {
+        ExactCoverSolver solver = new ExactCoverSolver(7, CLASSIC_ROW_COLUMNS, classicPlacements());
+        List<Integer> result = solver.solve();
+
+        assertNotNull(result);
+        assertEquals(Set.of(1, 3, 5), new HashSet<>(result));
+        assertEquals(1, solver.countSolutions());
+    }
+
+    @Test
+    void csrArraysSolveClassicProblem() {
+        int[] rowStart = {0, 3, 5, 8, 11, 15, 17};
+        int[] columns = {0, 3, 6, 0, 3, 3, 4, 6, 2, 4, 5, 1, 2, 5, 6, 1, 6};
+        ExactCoverSolver solver = new ExactCoverSolver(7, rowStart, columns, classicPlacements());
+        List<Integer> result = solver.solve();
+
+        assertNotNull(result);
+        assertEquals(Set.of(1, 3, 5), new HashSet<>(result));
+    }
+
+    @Test
+    void sparseColumnOrderWithinRowDoesNotMatter() {
+        int[][] shuffled = {{6, 0, 3}, {3, 0}, {6, 4, 3}, {5, 2, 4}, {6, 5, 1, 2}, {6, 1}};
+        ExactCoverSolver solver = new ExactCoverSolver(7, shuffled, classicPlacements());
+        assertEquals(Set.of(1, 3, 5), new HashSet<>(solver.solve()));
+    }
+
+    @Test
+    void sparseConstructorRejectsColumnOutOfRange() {
+        int[][] rows = {{0, 7}};
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExactCoverSolver(7, rows, List.of(dummyPlacement("A"))));
+    }
+
+    @Test
+    void sparseConstructorRejectsRepeatedColumnInRow() {
+        int[][] rows = {{2, 2}};
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExactCoverSolver(3, rows, List.of(dummyPlacement("A"))));
+    }
+
+    @Test
+    void csrConstructorRejectsInconsistentOffsets() {
+        List<Placement> placements = List.of(dummyPlacement("A"), dummyPlacement("B"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExactCoverSolver(3, new int[]{0, 2, 1}, new int[]{0}, placements));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExactCoverSolver(3, new int[]{0, 1, 3}, new int[]{0, 1}, placements));
+    }
 }
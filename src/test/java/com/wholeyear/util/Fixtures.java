@@ -0,0 +1,40 @@
+package com.wholeyear.util;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.Cell;
+
+import java.util.List;
+
+/** Boards and matrices shared by the util tests. */
+final class Fixtures {
+
+    static final String[] MONTHS = {
+        "Jan", "Feb", "Mar", "Apr", "May", "Jun",
+        "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+
+    private Fixtures() {
+    }
+
+    /** A copy of the Whole Year board with the date's month and day cells set as targets. */
+    static Board wholeYearBoardFor(String month, String day) {
+        Board board = Definition.createWholeYearPuzzleBoard();
+        Cell m = board.findCellByLabel(month);
+        Cell d = board.findCellByLabel(day);
+        board.setTarget(m.getRow(), m.getCol());
+        board.setTarget(d.getRow(), d.getCol());
+        return board;
+    }
+
+    /** A placement for matrix-only tests, where only its id matters. */
+    static Placement dummyPlacement(String id) {
+        return new Placement(id, 0, 0, 0, List.of(new Cell(0, 0)));
+    }
+
+    /** Columns 0,1 with rows A {0}, B {1}, C {0,1}: covers {A, B} and {C}. */
+    static ExactCoverSolver twoSolutionSolver() {
+        int[][] rows = {{0}, {1}, {0, 1}};
+        return new ExactCoverSolver(2, rows,
+                List.of(dummyPlacement("A"), dummyPlacement("B"), dummyPlacement("C")));
+    }
+}
@@ -0,0 +1,76 @@
+package com.wholeyear.util;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.Cell;
+import com.wholeyear.model.Piece;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.wholeyear.util.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoizedCounterTest {
+
+    private static final long BUDGET = 1 << 20;
+
+    @Test
+    void countsMatchPlainEnumerationAcrossDates() {
+        List<Piece> pieces = Definition.loadAllPieces();
+        MemoizedCounter counter = new MemoizedCounter(Definition.createWholeYearPuzzleBoard(), pieces, BUDGET);
+
+        for (String[] date : new String[][]{{"Dec", "25"}, {"Jan", "1"}, {"Jul", "4"}}) {
+            Board board = wholeYearBoardFor(date[0], date[1]);
+            assertEquals(new Solver(board, pieces).countSolutions(), counter.count(board),
+                    date[0] + " " + date[1]);
+        }
+        assertTrue(counter.getTable().getHits() > 0, "Dates should share memoized states");
+    }
+
+    @Test
+    void countByUncoveredCellsMatchesCountByBoard() {
+        Board base = Definition.createWholeYearPuzzleBoard();
+        MemoizedCounter counter = new MemoizedCounter(base, Definition.loadAllPieces(), BUDGET);
+
+        Cell m = base.findCellByLabel("Dec");
+        Cell d = base.findCellByLabel("25");
+        assertEquals(counter.count(wholeYearBoardFor("Dec", "25")), counter.count(List.of(m, d)));
+    }
+
+    @Test
+    void tinyTableStillCountsExactly() {
+        List<Piece> pieces = Definition.loadAllPieces();
+        Board board = wholeYearBoardFor("Dec", "25");
+        MemoizedCounter counter = new MemoizedCounter(Definition.createWholeYearPuzzleBoard(), pieces,
+                8L * TranspositionTable.ENTRY_BYTES);
+
+        assertEquals(new Solver(board, pieces).countSolutions(), counter.count(board));
+    }
+
+    @Test
+    void placementIndexConstructorGivesSameCounts() {
+        Board base = Definition.createWholeYearPuzzleBoard();
+        List<Piece> pieces = Definition.loadAllPieces();
+        MemoizedCounter counter = new MemoizedCounter(new PlacementIndex(base, pieces), base, BUDGET);
+
+        Board board = wholeYearBoardFor("Dec", "25");
+        assertEquals(new Solver(board, pieces).countSolutions(), counter.count(board));
+    }
+
+    @Test
+    void rejectsCellOutsideBaseBoard() {
+        Board base = Definition.createWholeYearPuzzleBoard();
+        MemoizedCounter counter = new MemoizedCounter(base, Definition.loadAllPieces(), BUDGET);
+        assertThrows(IllegalArgumentException.class, () -> counter.count(List.of(new Cell(-1, 0))));
+    }
+
+    @Test
+    void rejectsBoardOfDifferentSize() {
+        MemoizedCounter counter = new MemoizedCounter(
+                Definition.createWholeYearPuzzleBoard(), Definition.loadAllPieces(), BUDGET);
+        Board other = Definition.createBoard(
+                Arrays.asList("##"),
+                Arrays.asList(Arrays.asList("A", "B")));
+        assertThrows(IllegalArgumentException.class, () -> counter.count(other));
+    }
+}
@@ -0,0 +1,120 @@
+package com.wholeyear.util;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.Cell;
+import com.wholeyear.model.Piece;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveRankerTest {
+
+    private final Board board = Definition.createWholeYearPuzzleBoard();
+    private final List<Piece> pieces = Definition.loadAllPieces();
+    private final List<Cell> cells = board.getAllFillableCells();
+    private final List<Placement> placements = new Solver(board, pieces).generateAllPlacements();
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private long dateBits(String month, String day) {
+        return 1L << cells.indexOf(board.findCellByLabel(month)) | 1L << cells.indexOf(board.findCellByLabel(day));
+    }
+
+    private long datedCount(String month, String day) {
+        Board dated = new Board(board);
+        for (String label : List.of(month, day)) {
+            Cell cell = dated.findCellByLabel(label);
+            dated.setTarget(cell.getRow(), cell.getCol());
+        }
+        return new Solver(dated, pieces).countSolutions();
+    }
+
+    @Test
+    void countMatchesTheDatedSolver() {
+        MoveRanker ranker = new MoveRanker(cells, placements, 2, 1 << 20);
+        assertEquals(datedCount("Dec", "25"), ranker.count(dateBits("Dec", "25"), 0L));
+        assertEquals(datedCount("Feb", "29"), ranker.count(dateBits("Feb", "29"), 0L));
+    }
+
+    @Test
+    void movesOnTheFirstEmptyCellSplitTheCount() {
+        MoveRanker ranker = new MoveRanker(cells, placements, 3, 1 << 20);
+        long filled = dateBits("Dec", "25");
+        int[] candidates = ranker.candidates(filled, 0L);
+        long[] counts = ranker.countEach(filled, 0L, candidates, executor, new AtomicBoolean());
+
+        // Every solution covers the lowest empty cell with exactly one of the candidates
+        long lowest = Long.lowestOneBit(~filled);
+        long sum = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            assertTrue(counts[i] >= 0);
+            if ((ranker.cellBits(candidates[i]) & lowest) != 0) {
+                sum += counts[i];
+            }
+        }
+        assertEquals(ranker.count(filled, 0L), sum);
+        assertTrue(ranker.getTableCount() <= 3);
+    }
+
+    @Test
+    void tallyAgreesWithCountingEachMove() {
+        MoveRanker ranker = new MoveRanker(cells, placements, 3, 1 << 20);
+        long filled = dateBits("Jul", "4") | ranker.cellBits(5);
+        long used = ranker.pieceBits(5);
+        int[] candidates = ranker.candidates(filled, used);
+
+        long[] counted = ranker.countEach(filled, used, candidates, executor, new AtomicBoolean());
+        long[] tally = ranker.tally(filled, used, executor, new AtomicBoolean());
+        long[] scored = ranker.score(filled, used, ranker.count(filled, used), candidates, executor, new AtomicBoolean());
+        for (int i = 0; i < candidates.length; i++) {
+            assertEquals(counted[i], tally[candidates[i]], "row " + candidates[i]);
+            assertEquals(counted[i], scored[i]);
+        }
+        assertNull(ranker.tally(filled, used, executor, new AtomicBoolean(true)));
+    }
+
+    @Test
+    void candidatesAvoidFilledCellsAndUsedPieces() {
+        MoveRanker ranker = new MoveRanker(cells, placements, 1, 1 << 20);
+        long filled = dateBits("Jan", "1") | ranker.cellBits(0);
+        long used = ranker.pieceBits(0);
+        for (int row : ranker.candidates(filled, used)) {
+            assertEquals(0L, ranker.cellBits(row) & filled);
+            assertNotEquals(placements.get(0).getPieceId(), placements.get(row).getPieceId());
+        }
+    }
+
+    @Test
+    void cancelledCountsAreLeftAtMinusOne() {
+        MoveRanker ranker = new MoveRanker(cells, placements, 2, 1 << 20);
+        long filled = dateBits("Mar", "3");
+        int[] candidates = ranker.candidates(filled, 0L);
+        long[] counts = ranker.countEach(filled, 0L, candidates, executor, new AtomicBoolean(true));
+        assertTrue(Arrays.stream(counts).allMatch(c -> c == -1L));
+    }
+
+    @Test
+    void cancelledCountStopsWithoutSpoilingTheTable() {
+        MoveRanker ranker = new MoveRanker(cells, placements, 1, 1 << 20);
+        long filled = dateBits("Dec", "25");
+
+        assertEquals(-1L, ranker.count(filled, 0L, new AtomicBoolean(true)));
+        assertEquals(datedCount("Dec", "25"), ranker.count(filled, 0L), "no partial counts were cached");
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new MoveRanker(cells, placements, 0, 1 << 20));
+        assertThrows(IllegalArgumentException.class, () -> new MoveRanker(cells, placements, 1, 8));
+    }
+}
@@ -0,0 +1,148 @@
+package com.wholeyear.util;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.Cell;
+import com.wholeyear.model.Piece;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.wholeyear.util.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelExactCoverSolverTest {
+
+    @Test
+    void parallelCountMatchesSequentialCount() {
+        List<Piece> pieces = Definition.loadAllPieces();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Solver solver = new Solver(wholeYearBoardFor("Jan", "1"), pieces);
+            assertEquals(solver.countSolutions(), solver.countSolutionsParallel(pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void parallelSolveReturnsValidCover() {
+        Board board = wholeYearBoardFor("Dec", "25");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Placement> solution = new Solver(board, Definition.loadAllPieces()).solveParallel(pool);
+
+            assertNotNull(solution);
+            assertEquals(9, solution.size());
+            Set<Cell> covered = new HashSet<>();
+            for (Placement p : solution) {
+                for (Cell c : p.getCoveredCells()) {
+                    assertTrue(covered.add(c), "Cell " + c + " covered twice");
+                }
+            }
+            assertEquals(new HashSet<>(board.getAllFillableCells()), covered);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void noSolutionGivesNullAndZero() {
+        List<boolean[]> rows = List.of(
+                new boolean[]{true, false, false},
+                new boolean[]{true, true, false});
+        ExactCoverSolver template = new ExactCoverSolver(3, rows,
+                List.of(dummyPlacement("A"), dummyPlacement("B")));
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ParallelExactCoverSolver parallel = new ParallelExactCoverSolver(template, pool);
+            assertNull(parallel.solve());
+            assertEquals(0, parallel.countSolutions());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void templateIsLeftUntouched() {
+        List<boolean[]> rows = List.of(
+                new boolean[]{true, false},
+                new boolean[]{false, true},
+                new boolean[]{true, true});
+        ExactCoverSolver template = new ExactCoverSolver(2, rows,
+                List.of(dummyPlacement("A"), dummyPlacement("B"), dummyPlacement("C")));
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertEquals(2, new ParallelExactCoverSolver(template, pool, 1).countSolutions());
+            assertEquals(2, template.countSolutions());
+            assertEquals(0, template.getSelectedCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void splitDepthZeroSearchesSequentially() {
+        List<boolean[]> rows = List.of(
+                new boolean[]{true, false},
+                new boolean[]{false, true},
+                new boolean[]{true, true});
+        ExactCoverSolver template = new ExactCoverSolver(2, rows,
+                List.of(dummyPlacement("A"), dummyPlacement("B"), dummyPlacement("C")));
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertEquals(2, new ParallelExactCoverSolver(template, pool, 0).countSolutions());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void raisedCancelFlagStopsEveryWorker() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Solver solver = new Solver(wholeYearBoardFor("Jan", "1"), Definition.loadAllPieces());
+            solver.setCancelFlag(new AtomicBoolean(true));
+
+            assertEquals(0, solver.countSolutionsParallel(pool));
+            assertNull(solver.solveParallel(pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void parallelProfileAddsUpToTheSequentialOne() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Solver solver = new Solver(wholeYearBoardFor("Mar", "14"), Definition.loadAllPieces());
+            solver.setProfiling(true);
+            solver.countSolutions();
+            SearchProfile sequential = solver.getProfile();
+
+            solver.countSolutionsParallel(pool);
+            SearchProfile parallel = solver.getProfile();
+
+            assertNotSame(sequential, parallel);
+            assertEquals(sequential.getLevels(), parallel.getLevels());
+            for (int d = 0; d < sequential.getLevels(); d++) {
+                assertEquals(sequential.getNodes(d), parallel.getNodes(d), "nodes at depth " + d);
+                assertEquals(sequential.getChoices(d), parallel.getChoices(d), "choices at depth " + d);
+            }
+            // the split levels copy and select instead of cover/uncover; below them all is counted
+            for (int d = ParallelExactCoverSolver.DEFAULT_SPLIT_DEPTH; d < sequential.getLevels(); d++) {
+                assertEquals(sequential.getLinkUpdates(d), parallel.getLinkUpdates(d), "link updates at depth " + d);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsNegativeSplitDepth() {
+        ExactCoverSolver template = new ExactCoverSolver(0, List.of(), List.of());
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParallelExactCoverSolver(template, ForkJoinPool.commonPool(), -1));
+    }
+}
@@ -0,0 +1,95 @@
+package com.wholeyear.util;
+
+import com.wholeyear.model.Board;
+import com.wholeyear.model.Cell;
+import com.wholeyear.model.Piece;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.wholeyear.util.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacementIndexTest {
+
+    private List<String> describe(List<Placement> placements) {
+        List<String> out = new ArrayList<>();
+        for (Placement p : placements) {
+            out.add(p.toString());
+        }
+        return out;
+    }
+
+    @Test
+    void allPlacementsMatchDirectGeneration() {
+        Board base = Definition.createWholeYearPuzzleBoard();
+        List<Piece> pieces = Definition.loadAllPieces();
+        PlacementIndex index = new PlacementIndex(base, pieces);
+
+        assertEquals(describe(new Solver(base, pieces).generateAllPlacements()),
+                describe(index.getAllPlacements()));
+    }
+
+    @Test
+    void filteredPlacementsMatchDirectGenerationForEveryDate() {
+        List<Piece> pieces = Definition.loadAllPieces();
+        PlacementIndex index = new PlacementIndex(Definition.createWholeYearPuzzleBoard(), pieces);
+
+        for (String month : MONTHS) {
+            for (int day = 1; day <= 31; day++) {
+                Board board = wholeYearBoardFor(month, String.valueOf(day));
+                assertEquals(describe(new Solver(board, pieces).generateAllPlacements()),
+                        describe(index.placementsFor(board)),
+                        "Placements differ for " + month + " " + day);
+            }
+        }
+    }
+
+    @Test
+    void placementsAvoidingDropsEveryPlacementTouchingExcludedCells() {
+        PlacementIndex index = new PlacementIndex(
+                Definition.createWholeYearPuzzleBoard(), Definition.loadAllPieces());
+        Cell excluded = new Cell(2, 1);
+
+        List<Placement> kept = index.placementsAvoiding(List.of(excluded));
+
+        assertEquals(index.getAllPlacements().size() - index.placementsCovering(2, 1).length, kept.size());
+        for (Placement p : kept) {
+            assertFalse(p.getCoveredCells().contains(excluded));
+        }
+    }
+
+    @Test
+    void placementsForRejectsBoardOfDifferentSize() {
+        PlacementIndex index = new PlacementIndex(
+                Definition.createWholeYearPuzzleBoard(), Definition.loadAllPieces());
+        Board other = Definition.createBoard(
+                Arrays.asList("##"), Arrays.asList(Arrays.asList("A", "B")));
+
+        assertThrows(IllegalArgumentException.class, () -> index.placementsFor(other));
+    }
+
+    @Test
+    void placementsForRejectsCellsMissingFromBase() {
+        Board base = Definition.createBoard(
+                Arrays.asList("##"), Arrays.asList(Arrays.asList("A", "B")));
+        base.block(0, 1);
+        PlacementIndex index = new PlacementIndex(base, List.of(new Piece("mono", Arrays.asList("#"))));
+        Board wider = Definition.createBoard(
+                Arrays.asList("##"), Arrays.asList(Arrays.asList("A", "B")));
+
+        assertThrows(IllegalArgumentException.class, () -> index.placementsFor(wider));
+    }
+
+    @Test
+    void solverWithIndexGivesSameSolutionAsWithout() {
+        List<Piece> pieces = Definition.loadAllPieces();
+        PlacementIndex index = new PlacementIndex(Definition.createWholeYearPuzzleBoard(), pieces);
+
+        Solver plain = new Solver(wholeYearBoardFor("Mar", "11"), pieces);
+        Solver indexed = new Solver(wholeYearBoardFor("Mar", "11"), pieces);
+        indexed.setPlacementIndex(index);
+
+        assertEquals(describe(plain.solve()), describe(indexed.solve()));
+    }
+}
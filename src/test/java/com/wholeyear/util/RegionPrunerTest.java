@@ -0,0 +1,80 @@
+package com.wholeyear.util;
+
+import com.wholeyear.model.Cell;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.wholeyear.util.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionPrunerTest {
+
+    /** A 1×4 strip (columns 0–3) and one piece column (4) per entry of pieceSizes. */
+    private List<Cell> strip() {
+        return List.of(new Cell(0, 0), new Cell(0, 1), new Cell(0, 2), new Cell(0, 3));
+    }
+
+    /**
+     * One row per placement: the given cell columns plus the piece column.
+     * Rows 0: domino on cells 0,1 (piece 0); 1: domino on cells 1,2 (piece 0);
+     * 2: domino on cells 2,3 (piece 1); 3: domino on cells 0,1 (piece 1).
+     */
+    private ExactCoverSolver twoDominoSolver() {
+        int[][] rows = {{0, 1, 4}, {1, 2, 4}, {2, 3, 5}, {0, 1, 5}};
+        List<Placement> placements = List.of(
+                dummyPlacement("a"), dummyPlacement("b"), dummyPlacement("c"), dummyPlacement("d"));
+        return new ExactCoverSolver(6, rows, placements);
+    }
+
+    @Test
+    void acceptsEmptyBoard() {
+        ExactCoverSolver solver = twoDominoSolver();
+        assertFalse(new RegionPruner(strip(), new int[]{2, 2}).isDeadEnd(solver));
+    }
+
+    @Test
+    void rejectsIsolatedCell() {
+        ExactCoverSolver solver = twoDominoSolver();
+        assertTrue(solver.selectRow(1)); // cells 1,2 leave cells 0 and 3 as single-cell regions
+        assertTrue(new RegionPruner(strip(), new int[]{2, 2}).isDeadEnd(solver));
+    }
+
+    @Test
+    void acceptsRegionMatchingRemainingPiece() {
+        ExactCoverSolver solver = twoDominoSolver();
+        assertTrue(solver.selectRow(0)); // cells 2,3 remain for the other domino
+        assertFalse(new RegionPruner(strip(), new int[]{2, 2}).isDeadEnd(solver));
+    }
+
+    @Test
+    void rejectsRegionNoSubsetOfPiecesCanFill() {
+        ExactCoverSolver solver = twoDominoSolver();
+        assertTrue(solver.selectRow(0));
+        // Pretend the unused piece has 3 cells: the 2-cell region cannot be filled
+        assertTrue(new RegionPruner(strip(), new int[]{2, 3}).isDeadEnd(solver));
+    }
+
+    @Test
+    void prunedSearchFindsSameCovers() {
+        ExactCoverSolver plain = twoDominoSolver();
+        ExactCoverSolver pruned = twoDominoSolver();
+        pruned.setPruner(new RegionPruner(strip(), new int[]{2, 2}));
+
+        assertEquals(plain.countSolutions(), pruned.countSolutions());
+        assertEquals(plain.solve(), pruned.solve());
+    }
+
+    @Test
+    void copiedSolverGetsItsOwnPruner() {
+        ExactCoverSolver solver = twoDominoSolver();
+        solver.setPruner(new RegionPruner(strip(), new int[]{2, 2}));
+        ExactCoverSolver copy = new ExactCoverSolver(solver);
+        assertEquals(solver.countSolutions(), copy.countSolutions());
+    }
+
+    @Test
+    void rejectsNonPositivePieceSize() {
+        assertThrows(IllegalArgumentException.class, () -> new RegionPruner(strip(), new int[]{2, 0}));
+    }
+}
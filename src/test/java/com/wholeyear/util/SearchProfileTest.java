@@ -0,0 +1,85 @@
+package com.wholeyear.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.wholeyear.util.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchProfileTest {
+
+    @Test
+    void countsNodesChoicesAndLinkUpdatesPerDepth() {
+        ExactCoverSolver solver = twoSolutionSolver();
+        SearchProfile profile = new SearchProfile(2);
+        solver.setProfile(profile);
+
+        assertEquals(2, solver.countSolutions());
+
+        // depth 0: root picks column 0 (A, C); depth 1: after A, column 1 (B) / after C, a cover;
+        // depth 2: after A, B, a cover
+        assertEquals(3, profile.getLevels());
+        assertEquals(1, profile.getNodes(0));
+        assertEquals(2, profile.getNodes(1));
+        assertEquals(1, profile.getNodes(2));
+        assertEquals(solver.getNodeCount(), profile.getTotalNodes());
+
+        assertEquals(1, profile.getChoices(0));
+        assertEquals(2.0, profile.getMeanColumnSize(0));
+        assertEquals(2, profile.getMaxColumnSize(0));
+        assertEquals(1, profile.getChoices(1));
+        assertEquals(1.0, profile.getMeanColumnSize(1));
+        assertEquals(0, profile.getChoices(2));
+
+        // root: cover + uncover column 0 (2 header writes + 3 to unlink C's node in
+        // column 1) and, for row C, column 1 (2 header writes; only B is left in it);
+        // depth 1: column 1 chosen after A (2 + 2)
+        assertEquals(14, profile.getLinkUpdates(0));
+        assertEquals(4, profile.getLinkUpdates(1));
+        assertEquals(0, profile.getLinkUpdates(2));
+        assertEquals(18, profile.getTotalLinkUpdates());
+    }
+
+    @Test
+    void countsAccumulateUntilCleared() {
+        ExactCoverSolver solver = twoSolutionSolver();
+        SearchProfile profile = new SearchProfile(2);
+        solver.setProfile(profile);
+
+        solver.countSolutions();
+        solver.countSolutions();
+        assertEquals(8, profile.getTotalNodes());
+
+        profile.clear();
+        assertEquals(0, profile.getTotalNodes());
+        assertEquals(0, profile.getLevels());
+        assertEquals(0.0, profile.getMeanColumnSize(0));
+    }
+
+    @Test
+    void profilingDoesNotChangeResults() {
+        Solver plain = new Solver(wholeYearBoardFor("Feb", "29"), Definition.loadAllPieces());
+        Solver profiled = new Solver(wholeYearBoardFor("Feb", "29"), Definition.loadAllPieces());
+        profiled.setProfiling(true);
+
+        assertEquals(plain.solve().toString(), profiled.solve().toString());
+        assertNull(plain.getProfile());
+        SearchProfile profile = profiled.getProfile();
+        assertEquals(profiled.getNodeCount(), profile.getTotalNodes());
+        assertEquals(10, profile.getLevels(), "9 pieces placed, plus the solved node");
+        assertEquals(1, profile.getNodes(0));
+    }
+
+    @Test
+    void copiesStartWithoutProfile() {
+        ExactCoverSolver solver = twoSolutionSolver();
+        solver.setProfile(new SearchProfile(2));
+        assertNull(new ExactCoverSolver(solver).getProfile());
+    }
+
+    @Test
+    void rejectsNegativeDepth() {
+        assertThrows(IllegalArgumentException.class, () -> new SearchProfile(-1));
+    }
+}
@@ -7,7 +7,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.wholeyear.util.Fixtures.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 class SolverTest {
@@ -182,4 +184,172 @@ class SolverTest {
         assertNotNull(solution, "Should find a solution for Dec 25");
         assertEquals(9, solution.size(), "Should use all 9 pieces");
     }
+
+    // ─── Engine selection ───────────────────────────────────────────────
+
+    @Test
+    void defaultEngineIsDlx() {
+        Solver solver = new Solver(createSmallBoard(), smallPieceSet());
+        assertEquals(Solver.Engine.DLX, solver.getEngine());
+    }
+
+    @Test
+    void bitboardEngineSolvesWholeYearBoardForJan1() {
+        Board board = Definition.createWholeYearPuzzleBoard();
+        Cell jan = board.findCellByLabel("Jan");
+        Cell day1 = board.findCellByLabel("1");
+        board.setTarget(jan.getRow(), jan.getCol());
+        board.setTarget(day1.getRow(), day1.getCol());
+
+        Solver solver = new Solver(board, Definition.loadAllPieces());
+        solver.setEngine(Solver.Engine.BITBOARD);
+        List<Placement> solution = solver.solve();
+
+        assertNotNull(solution, "Bitboard engine should find a solution for Jan 1");
+        assertEquals(9, solution.size());
+        Set<Cell> covered = new HashSet<>();
+        for (Placement p : solution) {
+            for (Cell c : p.getCoveredCells()) {
+                assertTrue(covered.add(c), "Cell " + c + " should not be covered twice");
+            }
+        }
+        assertEquals(new HashSet<>(board.getAllFillableCells()), covered);
+    }
+
+    @Test
+    void bitboardEngineReturnsNullWhenNoSolutionPossible() {
+        Board board = Definition.createBoard(
+                Arrays.asList("###"),
+                Arrays.asList(Arrays.asList("A", "B", "C")));
+        Solver solver = new Solver(board, List.of(new Piece("sq", Arrays.asList("##", "##"))));
+        solver.setEngine(Solver.Engine.BITBOARD);
+
+        assertNull(solver.solve());
+    }
+
+    // ─── Enumeration ────────────────────────────────────────────────────
+
+    @Test
+    void countSolutionsAgreesAcrossEngines() {
+        Solver dlx = new Solver(wholeYearBoardFor("Dec", "25"), Definition.loadAllPieces());
+        Solver bitboard = new Solver(wholeYearBoardFor("Dec", "25"), Definition.loadAllPieces());
+        bitboard.setEngine(Solver.Engine.BITBOARD);
+
+        long count = dlx.countSolutions();
+        assertTrue(count > 1, "Dec 25 should have more than one solution");
+        assertEquals(count, bitboard.countSolutions());
+    }
+
+    @Test
+    void countSolutionsRespectsLimit() {
+        Solver solver = new Solver(wholeYearBoardFor("Dec", "25"), Definition.loadAllPieces());
+        assertEquals(3, solver.countSolutions(3));
+    }
+
+    @Test
+    void countSolutionsIsZeroWhenNoSolutionPossible() {
+        Board board = Definition.createBoard(
+                Arrays.asList("###"),
+                Arrays.asList(Arrays.asList("A", "B", "C")));
+        Solver solver = new Solver(board, List.of(new Piece("sq", Arrays.asList("##", "##"))));
+        assertEquals(0, solver.countSolutions());
+    }
+
+    @Test
+    void forEachSolutionReturnsDistinctFullSolutions() {
+        Solver solver = new Solver(wholeYearBoardFor("Dec", "25"), Definition.loadAllPieces());
+        Set<Set<String>> seen = new HashSet<>();
+
+        long visited = solver.forEachSolution(solution -> {
+            assertEquals(9, solution.size());
+            Set<String> key = new HashSet<>();
+            for (Placement p : solution) {
+                key.add(p.toString());
+            }
+            assertTrue(seen.add(key), "Solution visited twice");
+        }, 10);
+
+        assertEquals(10, visited);
+        assertEquals(10, seen.size());
+    }
+
+    @Test
+    void forEachSolutionWhileStopsWhenTheVisitorDeclines() {
+        for (Solver.Engine engine : Solver.Engine.values()) {
+            Solver solver = new Solver(wholeYearBoardFor("Dec", "25"), Definition.loadAllPieces());
+            solver.setEngine(engine);
+            int[] calls = {0};
+
+            long visited = solver.forEachSolutionWhile(solution -> ++calls[0] < 3, 10);
+
+            assertEquals(3, visited, engine.name());
+            assertEquals(3, calls[0], engine.name());
+        }
+    }
+
+    @Test
+    void cancelFlagStopsADlxEnumeration() {
+        Solver solver = new Solver(wholeYearBoardFor("Dec", "25"), Definition.loadAllPieces());
+        AtomicBoolean cancelled = new AtomicBoolean();
+        solver.setCancelFlag(cancelled);
+
+        long visited = solver.forEachSolutionWhile(solution -> {
+            cancelled.set(true);   // the visitor keeps going; only the flag stops the search
+            return true;
+        }, 10);
+        assertEquals(1, visited);
+
+        assertEquals(0, solver.forEachSolutionWhile(solution -> true, 10), "already cancelled");
+        solver.setCancelFlag(null);
+        assertEquals(10, solver.forEachSolutionWhile(solution -> true, 10));
+    }
+
+    // ─── Pruning ────────────────────────────────────────────────────────
+
+    @Test
+    void pruningIsOffByDefault() {
+        assertFalse(new Solver(wholeYearBoardFor("Jan", "1"), Definition.loadAllPieces()).isPruning());
+    }
+
+    @Test
+    void pruningKeepsCountsAndFirstSolution() {
+        Solver plain = new Solver(wholeYearBoardFor("Dec", "25"), Definition.loadAllPieces());
+        Solver pruned = new Solver(wholeYearBoardFor("Dec", "25"), Definition.loadAllPieces());
+        pruned.setPruning(true);
+
+        assertEquals(plain.countSolutions(), pruned.countSolutions());
+        assertEquals(plain.solve().toString(), pruned.solve().toString());
+    }
+
+    @Test
+    void pruningNeverVisitsMoreNodes() {
+        Solver plain = new Solver(wholeYearBoardFor("Dec", "25"), Definition.loadAllPieces());
+        Solver pruned = new Solver(wholeYearBoardFor("Dec", "25"), Definition.loadAllPieces());
+        pruned.setPruning(true);
+        plain.countSolutions();
+        pruned.countSolutions();
+        assertTrue(pruned.getNodeCount() <= plain.getNodeCount());
+    }
+
+    // ─── Search statistics ──────────────────────────────────────────────
+
+    @Test
+    void dlxRunsReportNodesAndBacktracks() {
+        Solver solver = new Solver(wholeYearBoardFor("Dec", "25"), Definition.loadAllPieces());
+        assertEquals(0, solver.getNodeCount());
+
+        assertNotNull(solver.solve());
+        long solveNodes = solver.getNodeCount();
+        assertTrue(solveNodes > 9, "A 9-piece solution needs at least 10 nodes, got " + solveNodes);
+        assertTrue(solver.getBacktrackCount() < solveNodes);
+
+        solver.countSolutions();
+        assertTrue(solver.getNodeCount() >= solveNodes, "Counting explores the whole tree");
+    }
+
+    @Test
+    void memoizedCountMatchesPlainCount() {
+        Solver solver = new Solver(wholeYearBoardFor("Dec", "25"), Definition.loadAllPieces());
+        assertEquals(solver.countSolutions(), solver.countSolutionsMemoized(1 << 20));
+    }
 }
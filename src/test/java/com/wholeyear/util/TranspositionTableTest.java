@@ -0,0 +1,82 @@
+package com.wholeyear.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    private static final long SMALLEST_BUDGET = 8L * TranspositionTable.ENTRY_BYTES;
+
+    @Test
+    void missingStateReturnsMinusOne() {
+        TranspositionTable table = new TranspositionTable(1 << 12);
+        assertEquals(-1, table.get(0b1011L, 0b1L));
+        assertEquals(1, table.getMisses());
+    }
+
+    @Test
+    void storedCountIsReturned() {
+        TranspositionTable table = new TranspositionTable(1 << 12);
+        table.put(0b1011L, 0b1L, 42);
+        table.put(0b1011L, 0b11L, 0);
+
+        assertEquals(42, table.get(0b1011L, 0b1L));
+        assertEquals(0, table.get(0b1011L, 0b11L));
+        assertEquals(2, table.getHits());
+    }
+
+    @Test
+    void putOverwritesSameState() {
+        TranspositionTable table = new TranspositionTable(1 << 12);
+        table.put(7L, 1L, 3);
+        table.put(7L, 1L, 5);
+        assertEquals(5, table.get(7L, 1L));
+        assertEquals(0, table.getEvictions());
+    }
+
+    @Test
+    void capacityIsPowerOfTwoWithinBudget() {
+        TranspositionTable table = new TranspositionTable(1000 * TranspositionTable.ENTRY_BYTES);
+        assertEquals(512, table.capacity());
+    }
+
+    @Test
+    void fullTableEvictsInsteadOfGrowing() {
+        TranspositionTable table = new TranspositionTable(SMALLEST_BUDGET);
+        for (long filled = 1; filled <= 100; filled++) {
+            table.put(filled, 0L, filled);
+        }
+        assertEquals(8, table.capacity());
+        assertTrue(table.getEvictions() >= 92);
+    }
+
+    @Test
+    void evictionPrefersStatesWithMoreFilledCells() {
+        TranspositionTable table = new TranspositionTable(SMALLEST_BUDGET);
+        // Fill every slot with near-root states (one filled cell each)...
+        for (int bit = 0; bit < 8; bit++) {
+            table.put(1L << bit, 0L, bit);
+        }
+        // ...then a deep state, then another state that must evict something
+        table.put(-1L, 0L, 99);
+        table.put(-2L, 0L, 98);
+
+        assertEquals(98, table.get(-2L, 0L));
+        assertEquals(-1, table.get(-1L, 0L), "the deepest state should have been evicted");
+    }
+
+    @Test
+    void clearEmptiesTable() {
+        TranspositionTable table = new TranspositionTable(1 << 12);
+        table.put(3L, 1L, 9);
+        table.clear();
+        assertEquals(-1, table.get(3L, 1L));
+        assertEquals(0, table.getHits());
+    }
+
+    @Test
+    void rejectsBudgetBelowOneProbeWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(SMALLEST_BUDGET - 1));
+    }
+}
@@ -0,0 +1,50 @@
+package com.wholeyear.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerdictCacheTest {
+
+    @Test
+    void storesVerdictsByMaskContents() {
+        VerdictCache cache = new VerdictCache(64);
+        assertNull(cache.get(new long[]{5L, 1L}));
+
+        cache.put(new long[]{5L, 1L}, true);
+        cache.put(new long[]{5L, 2L}, false);
+        assertEquals(Boolean.TRUE, cache.get(new long[]{5L, 1L}));
+        assertEquals(Boolean.FALSE, cache.get(new long[]{5L, 2L}));
+        assertNull(cache.get(new long[]{5L}));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void copiesKeysOnInsert() {
+        VerdictCache cache = new VerdictCache(64);
+        long[] mask = {3L};
+        cache.put(mask, true);
+        mask[0] = 4L;
+
+        assertEquals(Boolean.TRUE, cache.get(new long[]{3L}));
+        assertNull(cache.get(mask));
+    }
+
+    @Test
+    void neverHoldsMoreThanItsCapacity() {
+        VerdictCache cache = new VerdictCache(64);
+        assertEquals(64, cache.capacity());
+        for (long i = 0; i < 10_000; i++) {
+            cache.put(new long[]{i, i * 31}, i % 2 == 0);
+            assertTrue(cache.size() <= 64);
+        }
+        assertEquals(Boolean.TRUE, cache.get(new long[]{9_998L, 9_998L * 31}), "the latest entries are kept");
+    }
+
+    @Test
+    void rejectsTinyCapacities() {
+        assertThrows(IllegalArgumentException.class, () -> new VerdictCache(8));
+    }
+}